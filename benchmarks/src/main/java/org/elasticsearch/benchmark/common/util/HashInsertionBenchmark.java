@@ -0,0 +1,99 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.common.util;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures insertion into {@link BytesRefHash} and {@link LongHash}, the hash tables behind bucket ordinals of <code>terms</code>
+ * aggregations. Both tables start small and grow like they do during collection.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class HashInsertionBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int numKeys = 1000;
+
+    // percentage of distinct keys among all inserted keys, the remainder are repeated lookups of existing keys
+    @Param({"10", "100"})
+    public int distinctPercent = 10;
+
+    private long[] longKeys;
+    private BytesRef[] bytesRefKeys;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        final int numDistinct = Math.max(1, numKeys * distinctPercent / 100);
+        final long[] distinct = new long[numDistinct];
+        for (int i = 0; i < numDistinct; i++) {
+            distinct[i] = random.nextLong();
+        }
+        longKeys = new long[numKeys];
+        bytesRefKeys = new BytesRef[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            final long key = distinct[random.nextInt(numDistinct)];
+            longKeys[i] = key;
+            bytesRefKeys[i] = new BytesRef(String.format(Locale.ROOT, "key_%020d", key));
+        }
+    }
+
+    @Benchmark
+    public long measureLongHash() {
+        try (LongHash hash = new LongHash(1, BigArrays.NON_RECYCLING_INSTANCE)) {
+            for (long key : longKeys) {
+                hash.add(key);
+            }
+            return hash.size();
+        }
+    }
+
+    @Benchmark
+    public long measureBytesRefHash() {
+        try (BytesRefHash hash = new BytesRefHash(1, BigArrays.NON_RECYCLING_INSTANCE)) {
+            for (BytesRef key : bytesRefKeys) {
+                hash.add(key);
+            }
+            return hash.size();
+        }
+    }
+}
@@ -107,7 +107,12 @@ public class AllocationBenchmark {
         "       10,     10,        2,    50",
         "      100,      1,        2,    50",
         "      100,      3,        2,    50",
-        "      100,     10,        2,    50"
+        "      100,     10,        2,    50",
+
+        // 50k shards
+        "     1000,     25,        1,   100",
+        "     5000,      5,        1,   100",
+        "     5000,      5,        1,   500"
     })
     public String indicesShardsReplicasNodes = "10,1,0,1";
 
@@ -0,0 +1,160 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.script;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NumericUtils;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.compress.CompressedXContent;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.analysis.AnalysisService;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.indices.IndicesModule;
+import org.elasticsearch.indices.analysis.AnalysisModule;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
+import org.elasticsearch.painless.PainlessScriptEngineService;
+import org.elasticsearch.script.CompiledScript;
+import org.elasticsearch.script.LeafSearchScript;
+import org.elasticsearch.script.ScriptService.ScriptType;
+import org.elasticsearch.script.SearchScript;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures running a Painless search script that reads numeric doc values over every document of a synthetic in-memory index.
+ * The <code>generic</code> variant reads the fields through a variable key so that values go through dynamic dispatch and are
+ * boxed, while the <code>specialized</code> variant reads them with constant keys, which lets the engine compile a version of
+ * the script that is statically typed against the mapping.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class PainlessDocValuesBenchmark {
+    private static final String GENERIC_SCRIPT = "String l = 'l'; String d = 'd'; doc[l].value * 2 + doc[d].value";
+    private static final String SPECIALIZED_SCRIPT = "doc['l'].value * 2 + doc['d'].value";
+
+    @Param({"generic", "specialized"})
+    public String variant = "generic";
+
+    public int numDocs = 1_000_000;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndicesFieldDataCache indicesFieldDataCache;
+    private PainlessScriptEngineService scriptEngine;
+    private SearchScript searchScript;
+
+    @Setup
+    public void setUp() throws IOException {
+        Settings nodeSettings = Settings.builder()
+            .put(Environment.PATH_HOME_SETTING.getKey(), Files.createTempDirectory("painless-benchmark").toString())
+            .build();
+        IndexMetaData metaData = IndexMetaData.builder("test")
+            .settings(Settings.builder().put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        IndexSettings indexSettings = new IndexSettings(metaData, nodeSettings);
+        AnalysisService analysisService = new AnalysisModule(new Environment(nodeSettings), Collections.emptyList())
+            .getAnalysisRegistry().build(indexSettings);
+        MapperService mapperService = new MapperService(indexSettings, analysisService,
+            new SimilarityService(indexSettings, Collections.emptyMap()),
+            new IndicesModule(Collections.emptyList()).getMapperRegistry(), () -> null);
+        mapperService.merge("type", new CompressedXContent("{\"type\":{\"properties\":{"
+            + "\"l\":{\"type\":\"long\"},\"d\":{\"type\":\"double\"}}}}"), MapperService.MergeReason.MAPPING_UPDATE, false);
+        indicesFieldDataCache = new IndicesFieldDataCache(Settings.EMPTY, new IndexFieldDataCache.Listener() {});
+        IndexFieldDataService fieldDataService = new IndexFieldDataService(indexSettings, indicesFieldDataCache,
+            new NoneCircuitBreakerService(), mapperService);
+
+        directory = new RAMDirectory();
+        Random random = new Random(0);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < numDocs; i++) {
+                Document document = new Document();
+                document.add(new SortedNumericDocValuesField("l", random.nextInt(1000)));
+                document.add(new SortedNumericDocValuesField("d", NumericUtils.doubleToSortableLong(random.nextDouble())));
+                writer.addDocument(document);
+            }
+            writer.forceMerge(1);
+        }
+        reader = DirectoryReader.open(directory);
+
+        scriptEngine = new PainlessScriptEngineService(Settings.EMPTY);
+        String source = "specialized".equals(variant) ? SPECIALIZED_SCRIPT : GENERIC_SCRIPT;
+        Object compiled = scriptEngine.compile(null, source, Collections.emptyMap());
+        searchScript = scriptEngine.search(new CompiledScript(ScriptType.INLINE, variant, PainlessScriptEngineService.NAME, compiled),
+            new SearchLookup(mapperService, fieldDataService, null), Collections.emptyMap());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, directory, indicesFieldDataCache, scriptEngine);
+    }
+
+    @Benchmark
+    public double runScript() throws IOException {
+        double sum = 0;
+        for (LeafReaderContext context : reader.leaves()) {
+            LeafSearchScript script = searchScript.getLeafSearchScript(context);
+            final int maxDoc = context.reader().maxDoc();
+            for (int doc = 0; doc < maxDoc; doc++) {
+                script.setDocument(doc);
+                sum += script.runAsDouble();
+            }
+        }
+        return sum;
+    }
+}
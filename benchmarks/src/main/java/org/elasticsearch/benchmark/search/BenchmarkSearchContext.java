@@ -0,0 +1,65 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.internal.FilteredSearchContext;
+import org.elasticsearch.search.lookup.SearchLookup;
+
+/**
+ * A minimal search context for microbenchmarks that drive search components directly. It only provides what those components
+ * access; every other method fails as there is no underlying context to delegate to.
+ */
+public final class BenchmarkSearchContext extends FilteredSearchContext {
+    private final BigArrays bigArrays;
+    private final SearchLookup lookup;
+    private final FetchSourceContext fetchSourceContext;
+
+    public BenchmarkSearchContext(BigArrays bigArrays) {
+        this(bigArrays, null);
+    }
+
+    public BenchmarkSearchContext(BigArrays bigArrays, FetchSourceContext fetchSourceContext) {
+        super(null);
+        this.bigArrays = bigArrays;
+        this.fetchSourceContext = fetchSourceContext;
+        this.lookup = new SearchLookup(null, null, null);
+    }
+
+    @Override
+    public BigArrays bigArrays() {
+        return bigArrays;
+    }
+
+    @Override
+    public SearchLookup lookup() {
+        return lookup;
+    }
+
+    @Override
+    public boolean sourceRequested() {
+        return fetchSourceContext != null && fetchSourceContext.fetchSource();
+    }
+
+    @Override
+    public FetchSourceContext fetchSourceContext() {
+        return fetchSourceContext;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.controller.SearchPhaseController;
+import org.elasticsearch.search.fetch.FetchSearchResult;
+import org.elasticsearch.search.fetch.FetchSearchResultProvider;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.InternalSearchHits;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.query.QuerySearchResultProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the coordinating node sorts the top docs of all shards ({@link SearchPhaseController#sortDocs}) and merges the
+ * fetched hits into the final response ({@link SearchPhaseController#merge}), sorted by score or by a numeric field.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class SearchPhaseControllerBenchmark {
+    @Param({"5", "50", "500"})
+    public int numShards = 5;
+
+    @Param({"10", "100", "1000"})
+    public int size = 10;
+
+    @Param({"score", "field"})
+    public String sort = "score";
+
+    private SearchPhaseController controller;
+    private AtomicArray<QuerySearchResultProvider> queryResults;
+    private AtomicArray<FetchSearchResultProvider> fetchResults;
+    private ScoreDoc[] sortedDocs;
+
+    @Setup
+    public void setUp() throws IOException {
+        controller = new SearchPhaseController(Settings.EMPTY, BigArrays.NON_RECYCLING_INSTANCE, null, null);
+        final Random random = new Random(0);
+        final boolean sortByField = "field".equals(sort);
+        queryResults = new AtomicArray<>(numShards);
+        for (int shardIndex = 0; shardIndex < numShards; shardIndex++) {
+            final QuerySearchResult result = new QuerySearchResult(shardIndex, shardTarget(shardIndex));
+            final ScoreDoc[] scoreDocs = new ScoreDoc[size];
+            // every shard returns its top docs already sorted
+            float score = 1000f;
+            long value = Long.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                score -= random.nextFloat();
+                value -= random.nextInt(1000);
+                scoreDocs[i] = sortByField ? new FieldDoc(i, score, new Object[] {value}) : new ScoreDoc(i, score);
+            }
+            final TopDocs topDocs;
+            if (sortByField) {
+                topDocs = new TopFieldDocs(size * 10, scoreDocs, new SortField[] {new SortField("field", SortField.Type.LONG, true)},
+                    1000f);
+                result.topDocs(topDocs, new DocValueFormat[] {DocValueFormat.RAW});
+            } else {
+                topDocs = new TopDocs(size * 10, scoreDocs, 1000f);
+                result.topDocs(topDocs, null);
+            }
+            result.size(size);
+            queryResults.set(shardIndex, result);
+        }
+
+        sortedDocs = controller.sortDocs(false, queryResults);
+        final List<List<InternalSearchHit>> hitsPerShard = new ArrayList<>(numShards);
+        for (int shardIndex = 0; shardIndex < numShards; shardIndex++) {
+            hitsPerShard.add(new ArrayList<>());
+        }
+        for (ScoreDoc scoreDoc : sortedDocs) {
+            hitsPerShard.get(scoreDoc.shardIndex).add(new InternalSearchHit(scoreDoc.doc, Integer.toString(scoreDoc.doc),
+                new Text("type"), Collections.emptyMap()));
+        }
+        fetchResults = new AtomicArray<>(numShards);
+        for (int shardIndex = 0; shardIndex < numShards; shardIndex++) {
+            final FetchSearchResult result = new FetchSearchResult(shardIndex, shardTarget(shardIndex));
+            final List<InternalSearchHit> hits = hitsPerShard.get(shardIndex);
+            result.hits(new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), hits.size(), 1000f));
+            fetchResults.set(shardIndex, result);
+        }
+    }
+
+    private static SearchShardTarget shardTarget(int shardIndex) {
+        return new SearchShardTarget("node", new Index("index", "_na_"), shardIndex);
+    }
+
+    @Benchmark
+    public ScoreDoc[] measureSortDocs() throws IOException {
+        return controller.sortDocs(false, queryResults);
+    }
+
+    @Benchmark
+    public InternalSearchResponse measureMerge() {
+        return controller.merge(false, sortedDocs, queryResults, fetchResults);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiDocValues.OrdinalMap;
+import org.apache.lucene.index.RandomAccessOrds;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.benchmark.search.BenchmarkSearchContext;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.fielddata.AbstractRandomAccessOrds;
+import org.elasticsearch.index.fielddata.SortedBinaryDocValues;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.bucket.terms.GlobalOrdinalsStringTermsAggregator;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregator;
+import org.elasticsearch.search.aggregations.support.AggregationContext;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the collection phase of {@link GlobalOrdinalsStringTermsAggregator} (the <code>global_ordinals</code> execution hint)
+ * and of its {@link GlobalOrdinalsStringTermsAggregator.WithHash} variant (<code>global_ordinals_hash</code>) over a synthetic,
+ * multi-segment in-memory index. Global ordinals are built once during setup so only collection and building the shard level
+ * result are measured.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class TermsAggregatorBenchmark {
+    private static final String FIELD = "field";
+
+    @Param({"global_ordinals", "global_ordinals_hash"})
+    public String executionHint = "global_ordinals";
+
+    @Param({"100", "10000", "100000"})
+    public int cardinality = 100;
+
+    // 1 indexes a single valued field, anything above a multi-valued one
+    @Param({"1", "3"})
+    public int valuesPerDoc = 1;
+
+    public int numDocs = 200_000;
+
+    public int numSegments = 8;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private ValuesSource.Bytes.WithOrdinals valuesSource;
+    private BigArrays bigArrays;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = new RAMDirectory();
+        Random random = new Random(0);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            final int docsPerSegment = numDocs / numSegments;
+            for (int i = 0; i < numDocs; i++) {
+                Document document = new Document();
+                if (valuesPerDoc == 1) {
+                    document.add(new SortedDocValuesField(FIELD, term(random.nextInt(cardinality))));
+                } else {
+                    for (int v = 0; v < valuesPerDoc; v++) {
+                        document.add(new SortedSetDocValuesField(FIELD, term(random.nextInt(cardinality))));
+                    }
+                }
+                writer.addDocument(document);
+                if ((i + 1) % docsPerSegment == 0) {
+                    writer.commit();
+                }
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        valuesSource = valuesPerDoc == 1 ? new SingleValuedGlobalOrdinals(reader) : new MultiValuedGlobalOrdinals(reader);
+        bigArrays = new BigArrays(null, new NoneCircuitBreakerService(), false);
+    }
+
+    private static BytesRef term(int i) {
+        return new BytesRef(String.format(Locale.ROOT, "term_%08d", i));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public InternalAggregation measureCollection() throws IOException {
+        final AggregationContext aggregationContext = new AggregationContext(new BenchmarkSearchContext(bigArrays));
+        final TermsAggregator.BucketCountThresholds thresholds = new TermsAggregator.BucketCountThresholds(1, 0, 10, 25);
+        final Aggregator aggregator;
+        if ("global_ordinals_hash".equals(executionHint)) {
+            aggregator = new GlobalOrdinalsStringTermsAggregator.WithHash("terms", AggregatorFactories.EMPTY, valuesSource,
+                Terms.Order.count(false), DocValueFormat.RAW, thresholds, null, aggregationContext, null,
+                Aggregator.SubAggCollectionMode.DEPTH_FIRST, false, Collections.emptyList(), null);
+        } else {
+            aggregator = new GlobalOrdinalsStringTermsAggregator("terms", AggregatorFactories.EMPTY, valuesSource,
+                Terms.Order.count(false), DocValueFormat.RAW, thresholds, null, aggregationContext, null,
+                Aggregator.SubAggCollectionMode.DEPTH_FIRST, false, Collections.emptyList(), null);
+        }
+        try {
+            aggregator.preCollection();
+            for (LeafReaderContext leaf : reader.leaves()) {
+                final LeafBucketCollector collector = aggregator.getLeafCollector(leaf);
+                final int maxDoc = leaf.reader().maxDoc();
+                for (int doc = 0; doc < maxDoc; doc++) {
+                    collector.collect(doc, 0);
+                }
+            }
+            aggregator.postCollection();
+            return aggregator.buildAggregation(0);
+        } finally {
+            aggregator.close();
+        }
+    }
+
+    /**
+     * Global ordinals over {@link OrdinalMap}, the same structure that backs global ordinals of <code>keyword</code> fields.
+     */
+    private abstract static class GlobalOrdinalsValuesSource extends ValuesSource.Bytes.WithOrdinals {
+        protected final OrdinalMap ordinalMap;
+
+        GlobalOrdinalsValuesSource(OrdinalMap ordinalMap) {
+            this.ordinalMap = ordinalMap;
+        }
+
+        @Override
+        public SortedBinaryDocValues bytesValues(LeafReaderContext context) {
+            throw new UnsupportedOperationException("only ordinals are used by this benchmark");
+        }
+    }
+
+    private static final class SingleValuedGlobalOrdinals extends GlobalOrdinalsValuesSource {
+        private final SortedDocValues[] segmentValues;
+
+        SingleValuedGlobalOrdinals(DirectoryReader reader) throws IOException {
+            this(segmentValues(reader));
+        }
+
+        private SingleValuedGlobalOrdinals(SortedDocValues[] segmentValues) throws IOException {
+            super(OrdinalMap.build(null, segmentValues, PackedInts.DEFAULT));
+            this.segmentValues = segmentValues;
+        }
+
+        private static SortedDocValues[] segmentValues(DirectoryReader reader) throws IOException {
+            List<LeafReaderContext> leaves = reader.leaves();
+            SortedDocValues[] values = new SortedDocValues[leaves.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = DocValues.getSorted(leaves.get(i).reader(), FIELD);
+            }
+            return values;
+        }
+
+        @Override
+        public RandomAccessOrds ordinalsValues(LeafReaderContext context) {
+            return (RandomAccessOrds) DocValues.singleton(segmentValues[context.ord]);
+        }
+
+        @Override
+        public RandomAccessOrds globalOrdinalsValues(LeafReaderContext context) {
+            final SortedDocValues values = segmentValues[context.ord];
+            final LongValues mapping = ordinalMap.getGlobalOrds(context.ord);
+            return (RandomAccessOrds) DocValues.singleton(new SortedDocValues() {
+                @Override
+                public int getOrd(int docID) {
+                    final int ord = values.getOrd(docID);
+                    return ord < 0 ? ord : (int) mapping.get(ord);
+                }
+
+                @Override
+                public BytesRef lookupOrd(int ord) {
+                    return segmentValues[ordinalMap.getFirstSegmentNumber(ord)].lookupOrd((int) ordinalMap.getFirstSegmentOrd(ord));
+                }
+
+                @Override
+                public int getValueCount() {
+                    return (int) ordinalMap.getValueCount();
+                }
+            });
+        }
+    }
+
+    private static final class MultiValuedGlobalOrdinals extends GlobalOrdinalsValuesSource {
+        private final RandomAccessOrds[] segmentValues;
+
+        MultiValuedGlobalOrdinals(DirectoryReader reader) throws IOException {
+            this(segmentValues(reader));
+        }
+
+        private MultiValuedGlobalOrdinals(RandomAccessOrds[] segmentValues) throws IOException {
+            super(OrdinalMap.build(null, segmentValues, PackedInts.DEFAULT));
+            this.segmentValues = segmentValues;
+        }
+
+        private static RandomAccessOrds[] segmentValues(DirectoryReader reader) throws IOException {
+            List<LeafReaderContext> leaves = reader.leaves();
+            RandomAccessOrds[] values = new RandomAccessOrds[leaves.size()];
+            for (int i = 0; i < values.length; i++) {
+                SortedSetDocValues sortedSet = DocValues.getSortedSet(leaves.get(i).reader(), FIELD);
+                if (sortedSet instanceof RandomAccessOrds == false) {
+                    throw new IllegalStateException("codec does not provide random access ordinals for [" + FIELD + "]");
+                }
+                values[i] = (RandomAccessOrds) sortedSet;
+            }
+            return values;
+        }
+
+        @Override
+        public RandomAccessOrds ordinalsValues(LeafReaderContext context) {
+            return segmentValues[context.ord];
+        }
+
+        @Override
+        public RandomAccessOrds globalOrdinalsValues(LeafReaderContext context) {
+            final RandomAccessOrds values = segmentValues[context.ord];
+            final LongValues mapping = ordinalMap.getGlobalOrds(context.ord);
+            return new AbstractRandomAccessOrds() {
+                @Override
+                protected void doSetDocument(int docID) {
+                    values.setDocument(docID);
+                }
+
+                @Override
+                public long ordAt(int index) {
+                    return mapping.get(values.ordAt(index));
+                }
+
+                @Override
+                public int cardinality() {
+                    return values.cardinality();
+                }
+
+                @Override
+                public BytesRef lookupOrd(long ord) {
+                    return segmentValues[ordinalMap.getFirstSegmentNumber(ord)].lookupOrd(ordinalMap.getFirstSegmentOrd(ord));
+                }
+
+                @Override
+                public long getValueCount() {
+                    return ordinalMap.getValueCount();
+                }
+            };
+        }
+    }
+}
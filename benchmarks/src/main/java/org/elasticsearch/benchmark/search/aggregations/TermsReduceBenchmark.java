@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search.aggregations;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.InternalTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.StringTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InternalTerms#doReduce(List, ReduceContext)} on the coordinating node for shard level <code>terms</code>
+ * results that partially overlap, as is the case for a high cardinality field spread over many shards.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class TermsReduceBenchmark {
+    @Param({"5", "50", "500"})
+    public int numShards = 5;
+
+    @Param({"10", "100", "1000"})
+    public int shardSize = 10;
+
+    // number of distinct terms relative to the shard size, controls how much shard results overlap
+    public int termsPerShardSize = 4;
+
+    private List<InternalAggregation> shardResults;
+    private ReduceContext reduceContext;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        final int numTerms = shardSize * termsPerShardSize;
+        final List<BytesRef> terms = new ArrayList<>(numTerms);
+        for (int i = 0; i < numTerms; i++) {
+            terms.add(new BytesRef(String.format(Locale.ROOT, "term_%08d", i)));
+        }
+        shardResults = new ArrayList<>(numShards);
+        for (int shard = 0; shard < numShards; shard++) {
+            Collections.shuffle(terms, random);
+            // shards return their buckets sorted by descending doc count
+            final List<StringTerms.Bucket> buckets = new ArrayList<>(shardSize);
+            long docCount = shardSize * 10L;
+            for (int i = 0; i < shardSize; i++) {
+                final BytesRef term = terms.get(i);
+                docCount -= random.nextInt(10);
+                buckets.add(new StringTerms.Bucket(term, Math.max(1, docCount), InternalAggregations.EMPTY, false, 0,
+                    DocValueFormat.RAW));
+            }
+            shardResults.add(new StringTerms("terms", Terms.Order.count(false), 10, 1, Collections.emptyList(), null,
+                DocValueFormat.RAW, shardSize, false, 0, buckets, 0));
+        }
+        reduceContext = new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, null);
+    }
+
+    @Benchmark
+    public InternalAggregation measureReduce() {
+        return shardResults.get(0).reduce(shardResults, reduceContext);
+    }
+}
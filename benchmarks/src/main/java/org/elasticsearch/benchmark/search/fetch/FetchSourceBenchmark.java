@@ -0,0 +1,174 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.search.fetch;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.benchmark.search.BenchmarkSearchContext;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.text.Text;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.SourceFieldMapper;
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
+import org.elasticsearch.search.fetch.subphase.FetchSourceSubPhase;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.lookup.SourceLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the source related part of the fetch phase for a page of hits: loading <code>_source</code> from the stored fields of
+ * a synthetic in-memory index and running {@link FetchSourceSubPhase} with and without source filtering.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class FetchSourceBenchmark {
+    @Param({"none", "includes", "excludes"})
+    public String filtering = "none";
+
+    // number of top level fields per document, every tenth one is an object with nested fields
+    @Param({"10", "100"})
+    public int numFields = 10;
+
+    @Param({"10", "100"})
+    public int numHits = 10;
+
+    public int numDocs = 10_000;
+
+    private Directory directory;
+    private DirectoryReader reader;
+    private IndexSearcher searcher;
+    private SearchContext context;
+    private FetchSubPhase fetchSourceSubPhase;
+    private FetchSubPhase.HitContext hitContext;
+    private int[] docIds;
+
+    @Setup
+    public void setUp() throws IOException {
+        final Random random = new Random(0);
+        directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < numDocs; i++) {
+                Document document = new Document();
+                BytesReference source = source(random);
+                document.add(new StoredField(SourceFieldMapper.NAME, source.toBytesRef()));
+                writer.addDocument(document);
+            }
+        }
+        reader = DirectoryReader.open(directory);
+        searcher = new IndexSearcher(reader);
+        docIds = new int[numHits];
+        for (int i = 0; i < numHits; i++) {
+            docIds[i] = (int) ((long) i * numDocs / numHits);
+        }
+
+        final FetchSourceContext fetchSourceContext;
+        switch (filtering) {
+            case "none":
+                fetchSourceContext = new FetchSourceContext(true);
+                break;
+            case "includes":
+                fetchSourceContext = new FetchSourceContext(new String[] {"field_1", "field_2", "field_10.*"}, new String[0]);
+                break;
+            case "excludes":
+                fetchSourceContext = new FetchSourceContext(new String[0], new String[] {"field_1", "field_10.*"});
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown filtering [" + filtering + "]");
+        }
+        context = new BenchmarkSearchContext(BigArrays.NON_RECYCLING_INSTANCE, fetchSourceContext);
+        fetchSourceSubPhase = new FetchSourceSubPhase();
+        hitContext = new FetchSubPhase.HitContext();
+    }
+
+    private BytesReference source(Random random) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        for (int f = 0; f < numFields; f++) {
+            if (f % 10 == 0) {
+                builder.startObject("field_" + f);
+                for (int n = 0; n < 5; n++) {
+                    builder.field("nested_" + n, random.nextLong());
+                }
+                builder.endObject();
+            } else {
+                builder.field("field_" + f, "value_" + random.nextInt(1000) + "_" + random.nextLong());
+            }
+        }
+        return builder.endObject().bytes();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public void measureFetchSource(Blackhole blackhole) throws IOException {
+        final SourceLookup sourceLookup = context.lookup().source();
+        for (int docId : docIds) {
+            final LeafReaderContext leaf = reader.leaves().get(ReaderUtil.subIndex(docId, reader.leaves()));
+            final int segmentDocId = docId - leaf.docBase;
+            final FieldsVisitor fieldsVisitor = new FieldsVisitor(true);
+            leaf.reader().document(segmentDocId, fieldsVisitor);
+            sourceLookup.setSegmentAndDocument(leaf, segmentDocId);
+            sourceLookup.setSource(fieldsVisitor.source());
+            final InternalSearchHit hit = new InternalSearchHit(docId, Integer.toString(docId), new Text("type"),
+                Collections.emptyMap());
+            hitContext.reset(hit, leaf, segmentDocId, searcher);
+            fetchSourceSubPhase.hitExecute(context, hitContext);
+            blackhole.consume(hit.sourceRef());
+        }
+    }
+}
@@ -137,7 +137,7 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
         requests.add(request);
         addPayload(payload);
         // lack of source is validated in validate() method
-        sizeInBytes += (request.source() != null ? request.source().length() : 0) + REQUEST_OVERHEAD;
+        sizeInBytes += estimatedSizeInBytes(request);
         return this;
     }
 
@@ -156,15 +156,7 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
         Objects.requireNonNull(request, "'request' must not be null");
         requests.add(request);
         addPayload(payload);
-        if (request.doc() != null) {
-            sizeInBytes += request.doc().source().length();
-        }
-        if (request.upsertRequest() != null) {
-            sizeInBytes += request.upsertRequest().source().length();
-        }
-        if (request.script() != null) {
-            sizeInBytes += request.script().getScript().length() * 2;
-        }
+        sizeInBytes += estimatedSizeInBytes(request);
         return this;
     }
 
@@ -179,10 +171,35 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
         Objects.requireNonNull(request, "'request' must not be null");
         requests.add(request);
         addPayload(payload);
-        sizeInBytes += REQUEST_OVERHEAD;
+        sizeInBytes += estimatedSizeInBytes(request);
         return this;
     }
 
+    /**
+     * The estimated size in bytes of a single item of a bulk request.
+     */
+    static long estimatedSizeInBytes(ActionRequest<?> request) {
+        if (request instanceof IndexRequest) {
+            IndexRequest indexRequest = (IndexRequest) request;
+            return (indexRequest.source() != null ? indexRequest.source().length() : 0) + REQUEST_OVERHEAD;
+        } else if (request instanceof UpdateRequest) {
+            UpdateRequest updateRequest = (UpdateRequest) request;
+            long sizeInBytes = 0;
+            if (updateRequest.doc() != null) {
+                sizeInBytes += updateRequest.doc().source().length();
+            }
+            if (updateRequest.upsertRequest() != null) {
+                sizeInBytes += updateRequest.upsertRequest().source().length();
+            }
+            if (updateRequest.script() != null) {
+                sizeInBytes += updateRequest.script().getScript().length() * 2;
+            }
+            return sizeInBytes;
+        } else {
+            return REQUEST_OVERHEAD;
+        }
+    }
+
     private void addPayload(Object payload) {
         if (payloads == null) {
             if (payload == null) {
@@ -0,0 +1,274 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups the items of a bulk request by shard into {@link BulkShardRequest}s of bounded size. A shard request is dispatched as soon
+ * as it reaches the size limit rather than once all items are grouped, and the shard requests of the same shard are executed one
+ * after the other so that operations on the same document keep their order.
+ * <p>
+ * Shard requests that are sent to other nodes are serialized, so their size is accounted on the in flight requests circuit breaker
+ * until they complete. If the breaker trips, they wait for other shard requests of the same bulk request to complete and release
+ * their bytes, and only fail if there is none to wait for.
+ */
+abstract class BulkShardRequestDispatcher {
+
+    static final String CIRCUIT_BREAKER_LABEL = "<bulk_shard_request>";
+
+    private final long maxShardRequestSizeInBytes;
+    private final CircuitBreaker inFlightRequestsBreaker;
+
+    private final Map<ShardId, ShardQueue> queues = new LinkedHashMap<>();
+    /** queues that have a shard request waiting to be sent and none that is being executed */
+    private final Deque<ShardQueue> readyQueues = new ArrayDeque<>();
+    /** the number of shard requests that have been created but haven't completed yet */
+    private int pendingRequests = 0;
+    /** the number of bytes that this bulk request accounts on the circuit breaker */
+    private long reservedBytes = 0;
+    private boolean closed = false;
+
+    BulkShardRequestDispatcher(long maxShardRequestSizeInBytes, CircuitBreaker inFlightRequestsBreaker) {
+        this.maxShardRequestSizeInBytes = maxShardRequestSizeInBytes;
+        this.inFlightRequestsBreaker = inFlightRequestsBreaker;
+    }
+
+    /**
+     * Creates the shard request holding the given items.
+     */
+    abstract BulkShardRequest newShardRequest(ShardId shardId, BulkItemRequest[] items);
+
+    /**
+     * Returns whether the shard requests of the given shard are sent to another node.
+     */
+    abstract boolean isRemote(ShardId shardId);
+
+    /**
+     * Executes a shard request.
+     */
+    abstract void execute(BulkShardRequest request, ActionListener<BulkShardResponse> listener);
+
+    /**
+     * Called with the response of each shard request that succeeded.
+     */
+    abstract void onShardResponse(BulkShardResponse response);
+
+    /**
+     * Called for each shard request that failed.
+     */
+    abstract void onShardFailure(BulkShardRequest request, Exception e);
+
+    /**
+     * Called once after {@link #close()} when all shard requests have completed.
+     */
+    abstract void onCompletion();
+
+    /**
+     * Adds an item to the shard request of its shard, dispatching the shard request if it reached the size limit.
+     */
+    void add(ShardId shardId, BulkItemRequest item, long sizeInBytes) {
+        final List<ShardRequest> toSend;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("can't add items once the dispatcher is closed");
+            }
+            ShardQueue queue = queues.get(shardId);
+            if (queue == null) {
+                queue = new ShardQueue(shardId);
+                queues.put(shardId, queue);
+            }
+            if (queue.items.isEmpty() == false && queue.sizeInBytes + sizeInBytes > maxShardRequestSizeInBytes) {
+                seal(queue);
+            }
+            queue.items.add(item);
+            queue.sizeInBytes += sizeInBytes;
+            if (queue.sizeInBytes >= maxShardRequestSizeInBytes) {
+                seal(queue);
+            }
+            toSend = pollReadyRequests();
+        }
+        send(toSend);
+    }
+
+    /**
+     * Dispatches the remaining items. No items may be added afterwards.
+     */
+    void close() {
+        final List<ShardRequest> toSend;
+        final boolean completed;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("dispatcher is already closed");
+            }
+            closed = true;
+            for (ShardQueue queue : queues.values()) {
+                if (queue.items.isEmpty() == false) {
+                    seal(queue);
+                }
+            }
+            toSend = pollReadyRequests();
+            completed = pendingRequests == 0;
+        }
+        if (completed) {
+            onCompletion();
+        } else {
+            send(toSend);
+        }
+    }
+
+    private void seal(ShardQueue queue) {
+        assert Thread.holdsLock(this);
+        BulkItemRequest[] items = queue.items.toArray(new BulkItemRequest[queue.items.size()]);
+        queue.pending.add(new ShardRequest(queue, newShardRequest(queue.shardId, items), queue.sizeInBytes));
+        queue.items.clear();
+        queue.sizeInBytes = 0;
+        pendingRequests++;
+        if (queue.executing == false && queue.pending.size() == 1) {
+            readyQueues.add(queue);
+        }
+    }
+
+    private List<ShardRequest> pollReadyRequests() {
+        assert Thread.holdsLock(this);
+        List<ShardRequest> toSend = new ArrayList<>();
+        boolean breakerTripped = false;
+        for (Iterator<ShardQueue> it = readyQueues.iterator(); it.hasNext(); ) {
+            ShardQueue queue = it.next();
+            ShardRequest request = queue.pending.peek();
+            if (isRemote(queue.shardId)) {
+                if (breakerTripped) {
+                    continue;
+                }
+                try {
+                    inFlightRequestsBreaker.addEstimateBytesAndMaybeBreak(request.sizeInBytes, CIRCUIT_BREAKER_LABEL);
+                    request.reserved = true;
+                    reservedBytes += request.sizeInBytes;
+                } catch (CircuitBreakingException e) {
+                    if (reservedBytes > 0) {
+                        // wait for other shard requests of this bulk request to release their bytes
+                        breakerTripped = true;
+                        continue;
+                    }
+                    request.failure = e;
+                }
+            }
+            queue.pending.poll();
+            queue.executing = true;
+            it.remove();
+            toSend.add(request);
+        }
+        return toSend;
+    }
+
+    private void send(List<ShardRequest> requests) {
+        for (ShardRequest request : requests) {
+            if (request.failure != null) {
+                onShardFailure(request.request, request.failure);
+                onShardRequestCompleted(request);
+                continue;
+            }
+            ActionListener<BulkShardResponse> listener = new ActionListener<BulkShardResponse>() {
+                @Override
+                public void onResponse(BulkShardResponse response) {
+                    try {
+                        onShardResponse(response);
+                    } finally {
+                        onShardRequestCompleted(request);
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    try {
+                        onShardFailure(request.request, e);
+                    } finally {
+                        onShardRequestCompleted(request);
+                    }
+                }
+            };
+            try {
+                execute(request.request, listener);
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        }
+    }
+
+    private void onShardRequestCompleted(ShardRequest request) {
+        final List<ShardRequest> toSend;
+        final boolean completed;
+        synchronized (this) {
+            if (request.reserved) {
+                inFlightRequestsBreaker.addWithoutBreaking(-request.sizeInBytes);
+                reservedBytes -= request.sizeInBytes;
+            }
+            ShardQueue queue = request.queue;
+            queue.executing = false;
+            if (queue.pending.isEmpty() == false) {
+                readyQueues.add(queue);
+            }
+            toSend = pollReadyRequests();
+            completed = --pendingRequests == 0 && closed;
+        }
+        send(toSend);
+        if (completed) {
+            onCompletion();
+        }
+    }
+
+    private static final class ShardQueue {
+        final ShardId shardId;
+        final List<BulkItemRequest> items = new ArrayList<>();
+        long sizeInBytes = 0;
+        /** shard requests that wait for the one that is being executed */
+        final Deque<ShardRequest> pending = new ArrayDeque<>();
+        boolean executing = false;
+
+        ShardQueue(ShardId shardId) {
+            this.shardId = shardId;
+        }
+    }
+
+    private static final class ShardRequest {
+        final ShardQueue queue;
+        final BulkShardRequest request;
+        final long sizeInBytes;
+        boolean reserved = false;
+        Exception failure;
+
+        ShardRequest(ShardQueue queue, BulkShardRequest request, long sizeInBytes) {
+            this.queue = queue;
+            this.request = request;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
@@ -43,15 +43,22 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndexAlreadyExistsException;
 import org.elasticsearch.indices.IndexClosedException;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
@@ -73,29 +80,40 @@ import java.util.function.LongSupplier;
  */
 public class TransportBulkAction extends HandledTransportAction<BulkRequest, BulkResponse> {
 
+    /**
+     * The maximum size of the shard requests that the items of a bulk request are split into. The shard requests of the same
+     * shard are executed one after the other.
+     */
+    public static final Setting<ByteSizeValue> MAX_SHARD_REQUEST_SIZE_SETTING =
+            Setting.byteSizeSetting("action.bulk.max_shard_request_size", new ByteSizeValue(10, ByteSizeUnit.MB),
+                    Property.Dynamic, Property.NodeScope);
+
     private final AutoCreateIndex autoCreateIndex;
     private final boolean allowIdGeneration;
     private final ClusterService clusterService;
     private final TransportShardBulkAction shardBulkAction;
     private final TransportCreateIndexAction createIndexAction;
     private final LongSupplier relativeTimeProvider;
+    private final CircuitBreakerService circuitBreakerService;
+    private volatile ByteSizeValue maxShardRequestSize;
 
     @Inject
     public TransportBulkAction(Settings settings, ThreadPool threadPool, TransportService transportService, ClusterService clusterService,
                                TransportShardBulkAction shardBulkAction, TransportCreateIndexAction createIndexAction,
                                ActionFilters actionFilters, IndexNameExpressionResolver indexNameExpressionResolver,
-                               AutoCreateIndex autoCreateIndex) {
+                               AutoCreateIndex autoCreateIndex, CircuitBreakerService circuitBreakerService) {
         this(settings, threadPool, transportService, clusterService,
                 shardBulkAction, createIndexAction,
                 actionFilters, indexNameExpressionResolver,
-                autoCreateIndex,
+                autoCreateIndex, circuitBreakerService,
                 System::nanoTime);
     }
 
     public TransportBulkAction(Settings settings, ThreadPool threadPool, TransportService transportService, ClusterService clusterService,
                                TransportShardBulkAction shardBulkAction, TransportCreateIndexAction createIndexAction,
                                ActionFilters actionFilters, IndexNameExpressionResolver indexNameExpressionResolver,
-                               AutoCreateIndex autoCreateIndex, LongSupplier relativeTimeProvider) {
+                               AutoCreateIndex autoCreateIndex, CircuitBreakerService circuitBreakerService,
+                               LongSupplier relativeTimeProvider) {
         super(settings, BulkAction.NAME, threadPool, transportService, actionFilters, indexNameExpressionResolver, BulkRequest::new);
         Objects.requireNonNull(relativeTimeProvider);
         this.clusterService = clusterService;
@@ -105,6 +123,13 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         this.autoCreateIndex = autoCreateIndex;
         this.allowIdGeneration = this.settings.getAsBoolean("action.bulk.action.allow_id_generation", true);
         this.relativeTimeProvider = relativeTimeProvider;
+        this.circuitBreakerService = circuitBreakerService;
+        this.maxShardRequestSize = MAX_SHARD_REQUEST_SIZE_SETTING.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_SHARD_REQUEST_SIZE_SETTING, this::setMaxShardRequestSize);
+    }
+
+    private void setMaxShardRequestSize(ByteSizeValue maxShardRequestSize) {
+        this.maxShardRequestSize = maxShardRequestSize;
     }
 
     @Override
@@ -289,105 +314,91 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
             }
         }
 
-        // first, go over all the requests and create a ShardId -> Operations mapping
-        Map<ShardId, List<BulkItemRequest>> requestsByShard = new HashMap<>();
+        final String nodeId = clusterService.localNode().getId();
+        final BulkShardRequestDispatcher dispatcher = new BulkShardRequestDispatcher(maxShardRequestSize.getBytes(),
+                circuitBreakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS)) {
+            @Override
+            BulkShardRequest newShardRequest(ShardId shardId, BulkItemRequest[] items) {
+                BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(), items);
+                bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
+                bulkShardRequest.timeout(bulkRequest.timeout());
+                if (task != null) {
+                    bulkShardRequest.setParentTask(nodeId, task.getId());
+                }
+                return bulkShardRequest;
+            }
+
+            @Override
+            boolean isRemote(ShardId shardId) {
+                IndexShardRoutingTable shardRoutingTable = clusterState.routingTable().shardRoutingTableOrNull(shardId);
+                return shardRoutingTable != null && shardRoutingTable.primaryShard().currentNodeId() != null
+                        && nodeId.equals(shardRoutingTable.primaryShard().currentNodeId()) == false;
+            }
+
+            @Override
+            void execute(BulkShardRequest request, ActionListener<BulkShardResponse> listener) {
+                shardBulkAction.execute(request, listener);
+            }
+
+            @Override
+            void onShardResponse(BulkShardResponse bulkShardResponse) {
+                for (BulkItemResponse bulkItemResponse : bulkShardResponse.getResponses()) {
+                    // we may have no response if item failed
+                    if (bulkItemResponse.getResponse() != null) {
+                        bulkItemResponse.getResponse().setShardInfo(bulkShardResponse.getShardInfo());
+                    }
+                    responses.set(bulkItemResponse.getItemId(), bulkItemResponse);
+                }
+            }
+
+            @Override
+            void onShardFailure(BulkShardRequest bulkShardRequest, Exception e) {
+                // create failures for all relevant requests
+                for (BulkItemRequest request : bulkShardRequest.items()) {
+                    final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
+                    if (request.request() instanceof IndexRequest) {
+                        IndexRequest indexRequest = (IndexRequest) request.request();
+                        responses.set(request.id(), new BulkItemResponse(request.id(), indexRequest.opType().toString().toLowerCase(Locale.ENGLISH),
+                                new BulkItemResponse.Failure(indexName, indexRequest.type(), indexRequest.id(), e)));
+                    } else if (request.request() instanceof DeleteRequest) {
+                        DeleteRequest deleteRequest = (DeleteRequest) request.request();
+                        responses.set(request.id(), new BulkItemResponse(request.id(), "delete",
+                                new BulkItemResponse.Failure(indexName, deleteRequest.type(), deleteRequest.id(), e)));
+                    } else if (request.request() instanceof UpdateRequest) {
+                        UpdateRequest updateRequest = (UpdateRequest) request.request();
+                        responses.set(request.id(), new BulkItemResponse(request.id(), "update",
+                                new BulkItemResponse.Failure(indexName, updateRequest.type(), updateRequest.id(), e)));
+                    }
+                }
+            }
+
+            @Override
+            void onCompletion() {
+                listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]), buildTookInMillis(startTimeNanos)));
+            }
+        };
 
+        // go over all the requests and group them by shard, shard requests are dispatched as soon as they reach the size limit
         for (int i = 0; i < bulkRequest.requests.size(); i++) {
             ActionRequest request = bulkRequest.requests.get(i);
             if (request instanceof IndexRequest) {
                 IndexRequest indexRequest = (IndexRequest) request;
                 String concreteIndex = concreteIndices.getConcreteIndex(indexRequest.index()).getName();
                 ShardId shardId = clusterService.operationRouting().indexShards(clusterState, concreteIndex, indexRequest.id(), indexRequest.routing()).shardId();
-                List<BulkItemRequest> list = requestsByShard.get(shardId);
-                if (list == null) {
-                    list = new ArrayList<>();
-                    requestsByShard.put(shardId, list);
-                }
-                list.add(new BulkItemRequest(i, request));
+                dispatcher.add(shardId, new BulkItemRequest(i, request), BulkRequest.estimatedSizeInBytes(request));
             } else if (request instanceof DeleteRequest) {
                 DeleteRequest deleteRequest = (DeleteRequest) request;
                 String concreteIndex = concreteIndices.getConcreteIndex(deleteRequest.index()).getName();
                 ShardId shardId = clusterService.operationRouting().indexShards(clusterState, concreteIndex, deleteRequest.id(), deleteRequest.routing()).shardId();
-                List<BulkItemRequest> list = requestsByShard.get(shardId);
-                if (list == null) {
-                    list = new ArrayList<>();
-                    requestsByShard.put(shardId, list);
-                }
-                list.add(new BulkItemRequest(i, request));
+                dispatcher.add(shardId, new BulkItemRequest(i, request), BulkRequest.estimatedSizeInBytes(request));
             } else if (request instanceof UpdateRequest) {
                 UpdateRequest updateRequest = (UpdateRequest) request;
                 String concreteIndex = concreteIndices.getConcreteIndex(updateRequest.index()).getName();
                 ShardId shardId = clusterService.operationRouting().indexShards(clusterState, concreteIndex, updateRequest.id(), updateRequest.routing()).shardId();
-                List<BulkItemRequest> list = requestsByShard.get(shardId);
-                if (list == null) {
-                    list = new ArrayList<>();
-                    requestsByShard.put(shardId, list);
-                }
-                list.add(new BulkItemRequest(i, request));
+                dispatcher.add(shardId, new BulkItemRequest(i, request), BulkRequest.estimatedSizeInBytes(request));
             }
         }
-
-        if (requestsByShard.isEmpty()) {
-            listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]), buildTookInMillis(startTimeNanos)));
-            return;
-        }
-
-        final AtomicInteger counter = new AtomicInteger(requestsByShard.size());
-        String nodeId = clusterService.localNode().getId();
-        for (Map.Entry<ShardId, List<BulkItemRequest>> entry : requestsByShard.entrySet()) {
-            final ShardId shardId = entry.getKey();
-            final List<BulkItemRequest> requests = entry.getValue();
-            BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(),
-                    requests.toArray(new BulkItemRequest[requests.size()]));
-            bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
-            bulkShardRequest.timeout(bulkRequest.timeout());
-            if (task != null) {
-                bulkShardRequest.setParentTask(nodeId, task.getId());
-            }
-            shardBulkAction.execute(bulkShardRequest, new ActionListener<BulkShardResponse>() {
-                @Override
-                public void onResponse(BulkShardResponse bulkShardResponse) {
-                    for (BulkItemResponse bulkItemResponse : bulkShardResponse.getResponses()) {
-                        // we may have no response if item failed
-                        if (bulkItemResponse.getResponse() != null) {
-                            bulkItemResponse.getResponse().setShardInfo(bulkShardResponse.getShardInfo());
-                        }
-                        responses.set(bulkItemResponse.getItemId(), bulkItemResponse);
-                    }
-                    if (counter.decrementAndGet() == 0) {
-                        finishHim();
-                    }
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    // create failures for all relevant requests
-                    for (BulkItemRequest request : requests) {
-                        final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
-                        if (request.request() instanceof IndexRequest) {
-                            IndexRequest indexRequest = (IndexRequest) request.request();
-                            responses.set(request.id(), new BulkItemResponse(request.id(), indexRequest.opType().toString().toLowerCase(Locale.ENGLISH),
-                                    new BulkItemResponse.Failure(indexName, indexRequest.type(), indexRequest.id(), e)));
-                        } else if (request.request() instanceof DeleteRequest) {
-                            DeleteRequest deleteRequest = (DeleteRequest) request.request();
-                            responses.set(request.id(), new BulkItemResponse(request.id(), "delete",
-                                    new BulkItemResponse.Failure(indexName, deleteRequest.type(), deleteRequest.id(), e)));
-                        } else if (request.request() instanceof UpdateRequest) {
-                            UpdateRequest updateRequest = (UpdateRequest) request.request();
-                            responses.set(request.id(), new BulkItemResponse(request.id(), "update",
-                                    new BulkItemResponse.Failure(indexName, updateRequest.type(), updateRequest.id(), e)));
-                        }
-                    }
-                    if (counter.decrementAndGet() == 0) {
-                        finishHim();
-                    }
-                }
-
-                private void finishHim() {
-                    listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]), buildTookInMillis(startTimeNanos)));
-                }
-            });
-        }
+        dispatcher.close();
     }
 
     private boolean addFailureIfIndexIsUnavailable(DocumentRequest request, BulkRequest bulkRequest, AtomicArray<BulkItemResponse> responses, int idx,
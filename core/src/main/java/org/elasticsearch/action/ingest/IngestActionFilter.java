@@ -39,9 +39,12 @@ import org.elasticsearch.node.service.NodeService;
 import org.elasticsearch.tasks.Task;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -106,7 +109,7 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
         BulkRequestModifier bulkRequestModifier = new BulkRequestModifier(original);
         executionService.executeBulkRequest(() -> bulkRequestModifier, (indexRequest, exception) -> {
             logger.debug("failed to execute pipeline [{}] for document [{}/{}/{}]", exception, indexRequest.getPipeline(), indexRequest.index(), indexRequest.type(), indexRequest.id());
-            bulkRequestModifier.markCurrentItemAsFailed(exception);
+            bulkRequestModifier.markItemAsFailed(indexRequest, exception);
         }, (exception) -> {
             if (exception != null) {
                 logger.error("failed to execute pipeline for a bulk request", exception);
@@ -140,6 +143,8 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
 
         int currentSlot = -1;
         int[] originalSlots;
+        // the slot of each request in the bulk, built once an item that isn't the current one fails
+        Map<ActionRequest<?>, Integer> slots;
 
         BulkRequestModifier(BulkRequest bulkRequest) {
             this.bulkRequest = bulkRequest;
@@ -161,6 +166,8 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
             if (itemResponses.isEmpty()) {
                 return bulkRequest;
             } else {
+                // items may not have failed in the order they appear in the bulk, but the responses are merged by slot
+                itemResponses.sort(Comparator.comparingInt(BulkItemResponse::getItemId));
                 BulkRequest modifiedBulkRequest = new BulkRequest();
                 modifiedBulkRequest.setRefreshPolicy(bulkRequest.getRefreshPolicy());
                 modifiedBulkRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
@@ -197,15 +204,30 @@ public final class IngestActionFilter extends AbstractComponent implements Actio
             }
         }
 
-        void markCurrentItemAsFailed(Exception e) {
-            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(currentSlot);
+        // the pipelines of a bulk may be executed on several threads at once
+        synchronized void markItemAsFailed(IndexRequest indexRequest, Exception e) {
+            if (currentSlot >= 0 && bulkRequest.requests().get(currentSlot) == indexRequest) {
+                markItemAsFailed(currentSlot, e);
+                return;
+            }
+            if (slots == null) {
+                slots = new IdentityHashMap<>(bulkRequest.requests().size());
+                for (int i = 0; i < bulkRequest.requests().size(); i++) {
+                    slots.put(bulkRequest.requests().get(i), i);
+                }
+            }
+            markItemAsFailed(slots.get(indexRequest), e);
+        }
+
+        private void markItemAsFailed(int slot, Exception e) {
+            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(slot);
             // We hit a error during preprocessing a request, so we:
             // 1) Remember the request item slot from the bulk, so that we're done processing all requests we know what failed
             // 2) Add a bulk item failure for this request
             // 3) Continue with the next request in the bulk.
-            failedSlots.add(currentSlot);
+            failedSlots.add(slot);
             BulkItemResponse.Failure failure = new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), e);
-            itemResponses.add(new BulkItemResponse(currentSlot, indexRequest.opType().lowercase(), failure));
+            itemResponses.add(new BulkItemResponse(slot, indexRequest.opType().lowercase(), failure));
         }
 
     }
@@ -40,6 +40,7 @@ import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.action.SearchTransportService;
+import org.elasticsearch.search.controller.BatchedAggregationsReducer;
 import org.elasticsearch.search.controller.SearchPhaseController;
 import org.elasticsearch.search.fetch.ShardFetchSearchRequest;
 import org.elasticsearch.search.internal.InternalSearchResponse;
@@ -76,6 +77,12 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
     private volatile AtomicArray<ShardSearchFailure> shardFailures;
     private final Object shardFailuresMutex = new Object();
     protected volatile ScoreDoc[] sortedShardDocs;
+    /**
+     * Reduces the aggregations of first phase results in batches as they arrive, <code>null</code> if the request has no
+     * aggregations. Only query results are consumed, DFS first phase results carry no aggregations.
+     */
+    @Nullable
+    protected final BatchedAggregationsReducer aggregationsReducer;
 
     protected AbstractSearchAsyncAction(ESLogger logger, SearchTransportService searchTransportService, ClusterService clusterService,
                                         IndexNameExpressionResolver indexNameExpressionResolver,
@@ -107,7 +114,8 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
         Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState, request.routing(),
             request.indices());
 
-        shardsIts = clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap, request.preference());
+        shardsIts = clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap, request.preference(),
+            searchTransportService.getResponseCollectorService());
         final int shardCount = shardsIts.size();
         failIfOverShardCountLimit(clusterService, shardCount);
         expectedSuccessfulOps = shardCount;
@@ -115,6 +123,13 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
         expectedTotalOps = shardsIts.totalSizeWith1ForEmpty();
 
         firstResults = new AtomicArray<>(shardsIts.size());
+        if (request.source() != null && request.source().aggregations() != null) {
+            // scroll contexts keep their query result around, its aggregations must not be released
+            aggregationsReducer = searchPhaseController.newBatchedAggregationsReducer(request.batchedReduceSize(), shardCount,
+                request.scroll() == null);
+        } else {
+            aggregationsReducer = null;
+        }
     }
 
     private void failIfOverShardCountLimit(ClusterService clusterService, int shardCount) {
@@ -353,6 +368,9 @@ abstract class AbstractSearchAsyncAction<FirstResult extends SearchPhaseResult>
 
     protected final void processFirstPhaseResult(int shardIndex, FirstResult result) {
         firstResults.set(shardIndex, result);
+        if (aggregationsReducer != null && result instanceof QuerySearchResultProvider) {
+            aggregationsReducer.consume(shardIndex, (QuerySearchResultProvider) result);
+        }
 
         if (logger.isTraceEnabled()) {
             logger.trace("got first-phase result from {}", result != null ? result.shardTarget() : null);
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.IndicesRequest;
@@ -64,6 +65,8 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
 
     private Scroll scroll;
 
+    private int batchedReduceSize = 512;
+
     private String[] types = Strings.EMPTY_ARRAY;
 
     public static final IndicesOptions DEFAULT_INDICES_OPTIONS = IndicesOptions.strictExpandOpenAndForbidClosed();
@@ -277,6 +280,26 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         return this.requestCache;
     }
 
+    /**
+     * Sets the number of shard results that should be reduced at once on the coordinating node. This value should be used as a
+     * protection mechanism to reduce the memory overhead per search request if the potential number of shards in the request can be
+     * large. Defaults to <tt>512</tt>.
+     */
+    public SearchRequest batchedReduceSize(int batchedReduceSize) {
+        if (batchedReduceSize <= 1) {
+            throw new IllegalArgumentException("batchedReduceSize must be >= 2");
+        }
+        this.batchedReduceSize = batchedReduceSize;
+        return this;
+    }
+
+    /**
+     * Returns the number of shard results that should be reduced at once on the coordinating node.
+     */
+    public int batchedReduceSize() {
+        return batchedReduceSize;
+    }
+
     /**
      * @return true if the request only has suggest
      */
@@ -308,6 +331,9 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         indicesOptions = IndicesOptions.readIndicesOptions(in);
 
         requestCache = in.readOptionalBoolean();
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            batchedReduceSize = in.readVInt();
+        }
     }
 
     @Override
@@ -338,5 +364,8 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         out.writeStringArray(types);
         indicesOptions.writeIndicesOptions(out);
         out.writeOptionalBoolean(requestCache);
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeVInt(batchedReduceSize);
+        }
     }
 }
@@ -505,6 +505,16 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Sets the number of shard results that should be reduced at once on the coordinating node. This value should be used as a
+     * protection mechanism to reduce the memory overhead per search request if the potential number of shards in the request can be
+     * large. Defaults to <tt>512</tt>.
+     */
+    public SearchRequestBuilder setBatchedReduceSize(int batchedReduceSize) {
+        request.batchedReduceSize(batchedReduceSize);
+        return this;
+    }
+
     /**
      * Should the query be profiled. Defaults to <code>false</code>
      */
@@ -37,6 +37,7 @@ import org.elasticsearch.search.suggest.Suggest;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.elasticsearch.action.search.ShardSearchFailure.readShardSearchFailure;
 import static org.elasticsearch.search.internal.InternalSearchResponse.readInternalSearchResponse;
@@ -106,6 +107,20 @@ public class SearchResponse extends ActionResponse implements StatusToXContent {
         return internalResponse.terminatedEarly();
     }
 
+    /**
+     * Returns the number of reduce phases applied to obtain this search response
+     */
+    public int getNumReducePhases() {
+        return internalResponse.getNumReducePhases();
+    }
+
+    /**
+     * How long the coordinating node spent reducing the aggregations of the shard results.
+     */
+    public TimeValue getReduceTime() {
+        return new TimeValue(internalResponse.getReduceTimeInNanos(), TimeUnit.NANOSECONDS);
+    }
+
     /**
      * How long the search took.
      */
@@ -177,6 +192,8 @@ public class SearchResponse extends ActionResponse implements StatusToXContent {
         static final String TOOK = "took";
         static final String TIMED_OUT = "timed_out";
         static final String TERMINATED_EARLY = "terminated_early";
+        static final String NUM_REDUCE_PHASES = "num_reduce_phases";
+        static final String REDUCE_TIME_IN_MILLIS = "reduce_time_in_millis";
     }
 
     @Override
@@ -189,6 +206,11 @@ public class SearchResponse extends ActionResponse implements StatusToXContent {
         if (isTerminatedEarly() != null) {
             builder.field(Fields.TERMINATED_EARLY, isTerminatedEarly());
         }
+        if (getNumReducePhases() != 1) {
+            // only rendered if the reduce was batched to keep the common response untouched
+            builder.field(Fields.NUM_REDUCE_PHASES, getNumReducePhases());
+            builder.field(Fields.REDUCE_TIME_IN_MILLIS, getReduceTime().millis());
+        }
         RestActions.buildBroadcastShardsHeader(builder, params, getTotalShards(), getSuccessfulShards(), getFailedShards(), getShardFailures());
         internalResponse.toXContent(builder, params);
         return builder;
@@ -39,6 +39,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -118,6 +119,7 @@ public abstract class TransportWriteAction<
      */
     class WritePrimaryResult extends PrimaryResult implements RespondingWriteResult {
         boolean finishedAsyncActions;
+        Exception asyncActionFailure;
         ActionListener<Response> listener = null;
 
         public WritePrimaryResult(Request request, Response finalResponse,
@@ -142,7 +144,11 @@ public abstract class TransportWriteAction<
          */
         protected void respondIfPossible() {
             if (finishedAsyncActions && listener != null) {
-                super.respond(listener);
+                if (asyncActionFailure != null) {
+                    listener.onFailure(asyncActionFailure);
+                } else {
+                    super.respond(listener);
+                }
             }
         }
 
@@ -152,6 +158,13 @@ public abstract class TransportWriteAction<
             finishedAsyncActions = true;
             respondIfPossible();
         }
+
+        @Override
+        public synchronized void failAfterAsyncAction(Exception e) {
+            asyncActionFailure = e;
+            finishedAsyncActions = true;
+            respondIfPossible();
+        }
     }
 
     /**
@@ -159,6 +172,7 @@ public abstract class TransportWriteAction<
      */
     class WriteReplicaResult extends ReplicaResult implements RespondingWriteResult {
         boolean finishedAsyncActions;
+        Exception asyncActionFailure;
         private ActionListener<TransportResponse.Empty> listener;
 
         public WriteReplicaResult(IndexShard indexShard, ReplicatedWriteRequest<?> request, Translog.Location location) {
@@ -166,7 +180,7 @@ public abstract class TransportWriteAction<
         }
 
         @Override
-        public void respond(ActionListener<TransportResponse.Empty> listener) {
+        public synchronized void respond(ActionListener<TransportResponse.Empty> listener) {
             this.listener = listener;
             respondIfPossible();
         }
@@ -176,7 +190,11 @@ public abstract class TransportWriteAction<
          */
         protected void respondIfPossible() {
             if (finishedAsyncActions && listener != null) {
-                super.respond(listener);
+                if (asyncActionFailure != null) {
+                    listener.onFailure(asyncActionFailure);
+                } else {
+                    super.respond(listener);
+                }
             }
         }
 
@@ -185,10 +203,19 @@ public abstract class TransportWriteAction<
             finishedAsyncActions = true;
             respondIfPossible();
         }
+
+        @Override
+        public synchronized void failAfterAsyncAction(Exception e) {
+            asyncActionFailure = e;
+            finishedAsyncActions = true;
+            respondIfPossible();
+        }
     }
 
     private interface RespondingWriteResult {
         void respondAfterAsyncAction(boolean forcedRefresh);
+
+        void failAfterAsyncAction(Exception e);
     }
 
     static void postWriteActions(final IndexShard indexShard,
@@ -196,21 +223,20 @@ public abstract class TransportWriteAction<
                                  @Nullable final Translog.Location location,
                                  final RespondingWriteResult respond,
                                  final ESLogger logger) {
-        boolean pendingOps = false;
-        boolean immediateRefresh = false;
+        final AsyncAfterWriteActions asyncActions = new AsyncAfterWriteActions(respond);
         switch (request.getRefreshPolicy()) {
             case IMMEDIATE:
                 indexShard.refresh("refresh_flag_index");
-                immediateRefresh = true;
+                asyncActions.forcedRefresh = true;
                 break;
             case WAIT_UNTIL:
                 if (location != null) {
-                    pendingOps = true;
+                    asyncActions.register();
                     indexShard.addRefreshListener(location, forcedRefresh -> {
                         if (forcedRefresh) {
                             logger.warn("block_until_refresh request ran out of slots and forced a refresh: [{}]", request);
                         }
-                        respond.respondAfterAsyncAction(forcedRefresh);
+                        asyncActions.onRefresh(forcedRefresh);
                     });
                 }
                 break;
@@ -219,11 +245,60 @@ public abstract class TransportWriteAction<
         }
         boolean fsyncTranslog = indexShard.getTranslogDurability() == Translog.Durability.REQUEST && location != null;
         if (fsyncTranslog) {
-            indexShard.sync(location);
+            asyncActions.register();
+            indexShard.sync(location, asyncActions::onSync);
         }
         indexShard.maybeFlush();
-        if (pendingOps == false) {
-            respond.respondAfterAsyncAction(immediateRefresh);
+        asyncActions.onRegistrationDone();
+    }
+
+    /**
+     * Counts down the asynchronous actions (waiting for a refresh, waiting for a translog sync) that need to finish before we can
+     * respond to a write. Starts with one pending action for the registration itself so we can't respond before every action is
+     * registered.
+     */
+    private static final class AsyncAfterWriteActions {
+        private final RespondingWriteResult respond;
+        private final AtomicInteger pendingActions = new AtomicInteger(1);
+        private volatile boolean forcedRefresh;
+        private volatile Exception failure;
+
+        AsyncAfterWriteActions(RespondingWriteResult respond) {
+            this.respond = respond;
+        }
+
+        void register() {
+            pendingActions.incrementAndGet();
+        }
+
+        void onRefresh(boolean forcedRefresh) {
+            if (forcedRefresh) {
+                this.forcedRefresh = true;
+            }
+            countDown();
+        }
+
+        void onSync(@Nullable Exception e) {
+            if (e != null) {
+                failure = e;
+            }
+            countDown();
+        }
+
+        void onRegistrationDone() {
+            countDown();
+        }
+
+        private void countDown() {
+            final int pending = pendingActions.decrementAndGet();
+            assert pending >= 0 : "pending actions dropped below zero";
+            if (pending == 0) {
+                if (failure != null) {
+                    respond.failAfterAsyncAction(failure);
+                } else {
+                    respond.respondAfterAsyncAction(forcedRefresh);
+                }
+            }
         }
     }
 }
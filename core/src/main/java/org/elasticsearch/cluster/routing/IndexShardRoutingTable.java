@@ -28,16 +28,20 @@ import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
+import org.elasticsearch.node.ResponseCollectorService.ComputedNodeStats;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static java.util.Collections.emptyMap;
@@ -245,6 +249,57 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         return new PlainShardIterator(shardId, ordered);
     }
 
+    /**
+     * Returns an iterator over active and initializing shards, the active shards being ranked by the statistics that the
+     * collector gathered about the nodes holding them, best first. Active shards on nodes without statistics come first so
+     * that these nodes get some, ties keep a random order, and initializing shards are the last to iterate through.
+     *
+     * @param nodeSearchCounts the number of shards of the current search that were already routed to each node, which are
+     *                         added to the outstanding requests of the nodes and updated with the node that ranks first
+     */
+    public ShardIterator activeInitializingShardsRankedIt(ResponseCollectorService collector, Map<String, Long> nodeSearchCounts) {
+        final List<ShardRouting> ranked = rankShardsAndUpdateStats(shuffler.shuffle(activeShards), collector, nodeSearchCounts);
+        if (allInitializingShards.isEmpty()) {
+            return new PlainShardIterator(shardId, ranked);
+        }
+        ArrayList<ShardRouting> ordered = new ArrayList<>(ranked.size() + allInitializingShards.size());
+        ordered.addAll(ranked);
+        ordered.addAll(allInitializingShards);
+        return new PlainShardIterator(shardId, ordered);
+    }
+
+    private static List<ShardRouting> rankShardsAndUpdateStats(List<ShardRouting> shards, ResponseCollectorService collector,
+                                                               Map<String, Long> nodeSearchCounts) {
+        if (shards.isEmpty()) {
+            return shards;
+        }
+        final Map<String, Double> nodeRanks = new HashMap<>(shards.size());
+        for (ShardRouting shard : shards) {
+            final String nodeId = shard.currentNodeId();
+            if (nodeRanks.containsKey(nodeId) == false) {
+                Optional<ComputedNodeStats> stats = collector.getNodeStatistics(nodeId);
+                if (stats.isPresent()) {
+                    final long searchCount = nodeSearchCounts.getOrDefault(nodeId, 0L);
+                    nodeRanks.put(nodeId, stats.get().rank(stats.get().getOutstandingRequests() + searchCount));
+                }
+            }
+        }
+        final List<ShardRouting> ranked = new ArrayList<>(shards);
+        // the sort is stable, shards with the same rank keep their shuffled order
+        ranked.sort((a, b) -> Double.compare(
+            nodeRanks.getOrDefault(a.currentNodeId(), Double.NEGATIVE_INFINITY),
+            nodeRanks.getOrDefault(b.currentNodeId(), Double.NEGATIVE_INFINITY)));
+        final String selectedNodeId = ranked.get(0).currentNodeId();
+        nodeSearchCounts.merge(selectedNodeId, 1L, Long::sum);
+        for (int i = 1; i < ranked.size(); i++) {
+            final String skippedNodeId = ranked.get(i).currentNodeId();
+            if (skippedNodeId.equals(selectedNodeId) == false) {
+                collector.onNodeSkipped(skippedNodeId, selectedNodeId);
+            }
+        }
+        return ranked;
+    }
+
     /**
      * Returns true if no primaries are active or initializing for this shard
      */
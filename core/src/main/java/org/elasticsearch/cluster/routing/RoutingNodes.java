@@ -78,6 +78,8 @@ public class RoutingNodes implements Iterable<RoutingNode> {
 
     private int relocatingShards = 0;
 
+    private long modificationCount = 0;
+
     private final Map<String, ObjectIntHashMap<String>> nodesPerAttributeNames = new HashMap<>();
     private final Map<String, Recoveries> recoveriesPerNode = new HashMap<>();
 
@@ -1060,6 +1062,16 @@ public class RoutingNodes implements Iterable<RoutingNode> {
         if (readOnly) {
             throw new IllegalStateException("can't modify RoutingNodes - readonly");
         }
+        // all modifications go through here, count them so that state derived from the routing nodes can be invalidated
+        modificationCount++;
+    }
+
+    /**
+     * Returns the number of modifications made to these routing nodes so far. Any change to the assigned or unassigned shards
+     * increments this count, which allows to detect whether state derived from the routing nodes is still up to date.
+     */
+    public long getModificationCount() {
+        return modificationCount;
     }
 
     /**
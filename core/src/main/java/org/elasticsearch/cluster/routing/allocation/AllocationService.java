@@ -383,6 +383,9 @@ public class AllocationService extends AbstractComponent {
     private boolean reroute(RoutingAllocation allocation) {
         assert deassociateDeadNodes(allocation) == false : "dead nodes should be explicitly cleaned up. See deassociateDeadNodes";
 
+        if (logger.isDebugEnabled()) {
+            allocation.decisionCache().enableProfiling();
+        }
         boolean changed = false;
         // now allocate all the unassigned to available nodes
         if (allocation.routingNodes().unassigned().size() > 0) {
@@ -392,6 +395,9 @@ public class AllocationService extends AbstractComponent {
 
         changed |= shardsAllocator.allocate(allocation);
         assert RoutingNodes.assertShardStats(allocation.routingNodes());
+        if (logger.isDebugEnabled()) {
+            logger.debug("time spent in allocation deciders: {}", allocationDeciders.getDecisionTimes(allocation));
+        }
         return changed;
     }
 
@@ -27,6 +27,7 @@ import org.elasticsearch.cluster.routing.RoutingNodes;
 import org.elasticsearch.cluster.routing.RoutingTable;
 import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.cluster.routing.allocation.decider.DecisionCache;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.index.shard.ShardId;
 
@@ -142,6 +143,8 @@ public class RoutingAllocation {
 
     private final long currentNanoTime;
 
+    private final DecisionCache decisionCache;
+
 
     /**
      * Creates a new {@link RoutingAllocation}
@@ -161,6 +164,7 @@ public class RoutingAllocation {
         this.clusterInfo = clusterInfo;
         this.currentNanoTime = currentNanoTime;
         this.retryFailed = retryFailed;
+        this.decisionCache = new DecisionCache(routingNodes);
     }
 
     /** returns the nano time captured at the beginning of the allocation. used to make sure all time based decisions are aligned */
@@ -225,6 +229,10 @@ public class RoutingAllocation {
     }
 
     public void ignoreDisable(boolean ignoreDisable) {
+        if (this.ignoreDisable != ignoreDisable) {
+            // deciders take this flag into account
+            decisionCache.clear();
+        }
         this.ignoreDisable = ignoreDisable;
     }
 
@@ -232,6 +240,14 @@ public class RoutingAllocation {
         return this.ignoreDisable;
     }
 
+    /**
+     * Get the cache of the decisions made by the {@link AllocationDeciders} during this allocation
+     * @return the decision cache of this allocation
+     */
+    public DecisionCache decisionCache() {
+        return decisionCache;
+    }
+
     public void debugDecision(boolean debug) {
         this.debugDecision = debug;
     }
@@ -350,18 +350,39 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
             final AllocationDeciders deciders = allocation.deciders();
             final ModelNode[] modelNodes = sorter.modelNodes;
             final float[] weights = sorter.weights;
-            for (String index : buildWeightOrderedIndices(sorter)) {
+            final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
+            final float[] deltas = new float[indices.length];
+            buildWeightOrderedIndices(sorter, indices, deltas);
+            for (int i = 0; i < indices.length; i++) {
+                final String index = indices[i];
+                /*
+                 * The weight delta of an index across all nodes bounds the delta between any two nodes we consider below, so if it
+                 * is within the threshold nothing of this index can be relocated and we don't need to ask the deciders about every
+                 * node. As long as nothing moved the delta computed upfront is still accurate, and since the indices are ordered by
+                 * delta none of the remaining indices needs balancing either. Once shards moved, the weights of the nodes involved
+                 * changed and we recompute the delta for the index.
+                 */
+                final float indexDelta = changed ? sorter.delta(index) : deltas[i];
+                if (lessThan(indexDelta, threshold)) {
+                    if (changed) {
+                        continue;
+                    }
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Stop balancing, index [{}] and all following indices are balanced, delta: [{}]", index, indexDelta);
+                    }
+                    break;
+                }
                 IndexMetaData indexMetaData = metaData.index(index);
 
                 // find nodes that have a shard of this index or where shards of this index are allowed to stay
                 // move these nodes to the front of modelNodes so that we can only balance based on these nodes
                 int relevantNodes = 0;
-                for (int i = 0; i < modelNodes.length; i++) {
-                    ModelNode modelNode = modelNodes[i];
+                for (int j = 0; j < modelNodes.length; j++) {
+                    ModelNode modelNode = modelNodes[j];
                     if (modelNode.getIndex(index) != null
                         || deciders.canAllocate(indexMetaData, modelNode.getRoutingNode(), allocation).type() != Type.NO) {
-                        // swap nodes at position i and relevantNodes
-                        modelNodes[i] = modelNodes[relevantNodes];
+                        // swap nodes at position j and relevantNodes
+                        modelNodes[j] = modelNodes[relevantNodes];
                         modelNodes[relevantNodes] = modelNode;
                         relevantNodes++;
                     }
@@ -459,7 +480,16 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
          */
         private String[] buildWeightOrderedIndices(NodeSorter sorter) {
             final String[] indices = allocation.routingTable().indicesRouting().keys().toArray(String.class);
-            final float[] deltas = new float[indices.length];
+            buildWeightOrderedIndices(sorter, indices, new float[indices.length]);
+            return indices;
+        }
+
+        /**
+         * Orders the given indices in place, most unbalanced first, and fills the given deltas array with the weight delta of
+         * each index in that same order.
+         */
+        private void buildWeightOrderedIndices(NodeSorter sorter, String[] indices, float[] deltas) {
+            assert indices.length == deltas.length;
             for (int i = 0; i < deltas.length; i++) {
                 sorter.reset(indices[i]);
                 deltas[i] = sorter.delta();
@@ -493,8 +523,6 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
                     return Float.compare(deltas[j], pivotWeight);
                 }
             }.sort(0, deltas.length);
-
-            return indices;
         }
 
         /**
@@ -1032,5 +1060,20 @@ public class BalancedShardsAllocator extends AbstractComponent implements Shards
         public float delta() {
             return weights[weights.length - 1] - weights[0];
         }
+
+        /**
+         * Returns the delta between the highest and the lowest weight of all nodes for the given index. Unlike
+         * {@link #reset(String)} followed by {@link #delta()} this doesn't sort the nodes nor change the state of the sorter.
+         */
+        public float delta(String index) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (ModelNode node : modelNodes) {
+                final float weight = function.weight(balancer, node, index);
+                min = Math.min(min, weight);
+                max = Math.max(max, weight);
+            }
+            return max - min;
+        }
     }
 }
@@ -41,6 +41,15 @@ public abstract class AllocationDecider extends AbstractComponent {
         super(settings);
     }
 
+    /**
+     * Returns <code>true</code> iff the decisions of this decider only depend on the arguments, the shards allocated in the
+     * {@link RoutingAllocation} and settings, so that they can be reused within an allocation round until a shard is moved.
+     * Deciders that take anything else into account, like the current time, must not be cached. The default is <code>false</code>.
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Returns a {@link Decision} whether the given shard routing can be
      * re-balanced to the given allocation. The default is
@@ -23,22 +23,44 @@ import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.routing.RoutingNode;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * A composite {@link AllocationDecider} combining the "decision" of multiple
  * {@link AllocationDecider} implementations into a single allocation decision.
+ * <p>
+ * Decisions of {@link AllocationDecider#isCacheable() cacheable} deciders are cached in the {@link DecisionCache} of the
+ * {@link RoutingAllocation} until the routing nodes are modified, unless the allocation asks for debug decisions.
  */
 public class AllocationDeciders extends AllocationDecider {
 
+    private static final int CAN_REBALANCE_SHARD = 0;
+    private static final int CAN_ALLOCATE_SHARD_TO_NODE = 1;
+    private static final int CAN_REMAIN = 2;
+    private static final int CAN_ALLOCATE_INDEX_TO_NODE = 3;
+    private static final int CAN_ALLOCATE_SHARD = 4;
+    private static final int CAN_ALLOCATE_TO_NODE = 5;
+    private static final int CAN_REBALANCE = 6;
+
     private final AllocationDecider[] allocations;
+    private final boolean[] cacheable;
 
     public AllocationDeciders(Settings settings, AllocationDecider[] allocations) {
         super(settings);
         this.allocations = allocations;
+        this.cacheable = new boolean[allocations.length];
+        for (int i = 0; i < allocations.length; i++) {
+            cacheable[i] = allocations[i].isCacheable();
+        }
     }
 
     @Inject
@@ -48,21 +70,8 @@ public class AllocationDeciders extends AllocationDecider {
 
     @Override
     public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canRebalance(shardRouting, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_REBALANCE_SHARD, shardRouting, null,
+            allocationDecider -> allocationDecider.canRebalance(shardRouting, allocation), null);
     }
 
     @Override
@@ -70,27 +79,10 @@ public class AllocationDeciders extends AllocationDecider {
         if (allocation.shouldIgnoreShardForNode(shardRouting.shardId(), node.nodeId())) {
             return Decision.NO;
         }
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canAllocate(shardRouting, node, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Can not allocate [{}] on node [{}] due to [{}]", shardRouting, node.nodeId(), allocationDecider.getClass().getSimpleName());
-                }
-                // short circuit only if debugging is not enabled
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                // the assumption is that a decider that returns the static instance Decision#ALWAYS
-                // does not really implements canAllocate
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_ALLOCATE_SHARD_TO_NODE, shardRouting, node,
+            allocationDecider -> allocationDecider.canAllocate(shardRouting, node, allocation),
+            logger.isTraceEnabled() == false ? null : allocationDecider -> logger.trace("Can not allocate [{}] on node [{}] due to [{}]",
+                shardRouting, node.nodeId(), allocationDecider.getClass().getSimpleName()));
     }
 
     @Override
@@ -101,99 +93,97 @@ public class AllocationDeciders extends AllocationDecider {
             }
             return Decision.NO;
         }
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canRemain(shardRouting, node, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (logger.isTraceEnabled()) {
-                    logger.trace("Shard [{}] can not remain on node [{}] due to [{}]", shardRouting, node.nodeId(), allocationDecider.getClass().getSimpleName());
-                }
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_REMAIN, shardRouting, node,
+            allocationDecider -> allocationDecider.canRemain(shardRouting, node, allocation),
+            logger.isTraceEnabled() == false ? null : allocationDecider -> logger.trace("Shard [{}] can not remain on node [{}] due to [{}]",
+                shardRouting, node.nodeId(), allocationDecider.getClass().getSimpleName()));
     }
 
     @Override
     public Decision canAllocate(IndexMetaData indexMetaData, RoutingNode node, RoutingAllocation allocation) {
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canAllocate(indexMetaData, node, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_ALLOCATE_INDEX_TO_NODE, indexMetaData, node,
+            allocationDecider -> allocationDecider.canAllocate(indexMetaData, node, allocation), null);
     }
 
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingAllocation allocation) {
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canAllocate(shardRouting, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_ALLOCATE_SHARD, shardRouting, null,
+            allocationDecider -> allocationDecider.canAllocate(shardRouting, allocation), null);
     }
 
     @Override
     public Decision canAllocate(RoutingNode node, RoutingAllocation allocation) {
-        Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canAllocate(node, allocation);
-            // short track if a NO is returned.
-            if (decision == Decision.NO) {
-                if (!allocation.debugDecision()) {
-                    return decision;
-                } else {
-                    ret.add(decision);
-                }
-            } else if (decision != Decision.ALWAYS) {
-                ret.add(decision);
-            }
-        }
-        return ret;
+        return decide(allocation, CAN_ALLOCATE_TO_NODE, node, null,
+            allocationDecider -> allocationDecider.canAllocate(node, allocation), null);
     }
 
     @Override
     public Decision canRebalance(RoutingAllocation allocation) {
+        return decide(allocation, CAN_REBALANCE, null, null,
+            allocationDecider -> allocationDecider.canRebalance(allocation), null);
+    }
+
+    /**
+     * Returns the time spent in each decider during the given allocation, by decider class. Times are only recorded if
+     * profiling was enabled on the {@link DecisionCache} of the allocation.
+     */
+    public Map<String, TimeValue> getDecisionTimes(RoutingAllocation allocation) {
+        final DecisionCache cache = allocation.decisionCache();
+        final Map<String, Long> nanosByDecider = new LinkedHashMap<>();
+        for (int i = 0; i < allocations.length; i++) {
+            nanosByDecider.merge(allocations[i].getClass().getSimpleName(), cache.getDecisionTimeInNanos(i), Long::sum);
+        }
+        final Map<String, TimeValue> times = new LinkedHashMap<>();
+        nanosByDecider.forEach((decider, nanos) -> times.put(decider, new TimeValue(nanos, TimeUnit.NANOSECONDS)));
+        return times;
+    }
+
+    /**
+     * Combines the decisions of all deciders, reusing cached decisions of cacheable deciders.
+     */
+    private Decision decide(RoutingAllocation allocation, int type, Object first, Object second,
+                            DecisionFunction function, @Nullable Consumer<AllocationDecider> onNo) {
+        final DecisionCache cache = allocation.decisionCache();
+        // debug decisions carry explanations that are specific to the call, never cache them
+        final Decision[] cached = allocation.debugDecision() ? null :
+            cache.decisions(new DecisionCache.Key(type, first, second), allocations.length);
+        final boolean profiling = cache.isProfiling();
         Decision.Multi ret = new Decision.Multi();
-        for (AllocationDecider allocationDecider : allocations) {
-            Decision decision = allocationDecider.canRebalance(allocation);
+        for (int i = 0; i < allocations.length; i++) {
+            final AllocationDecider allocationDecider = allocations[i];
+            Decision decision = cached == null ? null : cached[i];
+            if (decision == null) {
+                final long startTime = profiling ? System.nanoTime() : 0L;
+                decision = function.decide(allocationDecider);
+                if (profiling) {
+                    cache.addDecisionTime(i, System.nanoTime() - startTime);
+                }
+                if (cached != null && cacheable[i]) {
+                    cached[i] = decision;
+                }
+            }
             // short track if a NO is returned.
             if (decision == Decision.NO) {
+                if (onNo != null) {
+                    onNo.accept(allocationDecider);
+                }
+                // short circuit only if debugging is not enabled
                 if (!allocation.debugDecision()) {
                     return decision;
                 } else {
                     ret.add(decision);
                 }
             } else if (decision != Decision.ALWAYS) {
+                // the assumption is that a decider that returns the static instance Decision#ALWAYS
+                // does not really implements the decision
                 ret.add(decision);
             }
         }
         return ret;
     }
+
+    @FunctionalInterface
+    private interface DecisionFunction {
+        Decision decide(AllocationDecider allocationDecider);
+    }
 }
@@ -130,6 +130,11 @@ public class AwarenessAllocationDecider extends AllocationDecider {
         this.awarenessAttributes = awarenessAttributes;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         return underCapacity(shardRouting, node, allocation, true);
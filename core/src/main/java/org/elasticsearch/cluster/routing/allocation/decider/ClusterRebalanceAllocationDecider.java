@@ -106,6 +106,11 @@ public class ClusterRebalanceAllocationDecider extends AllocationDecider {
         this.type = type;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
         return canRebalance(allocation);
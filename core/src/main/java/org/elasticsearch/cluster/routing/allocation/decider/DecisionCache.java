@@ -0,0 +1,130 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.cluster.routing.RoutingNodes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the decisions of the individual {@link AllocationDecider}s for the duration of an allocation round. Cached decisions
+ * are dropped as soon as the {@link RoutingNodes} are modified, since deciders base their decisions on the shards allocated in
+ * the cluster. Only decisions of deciders that are {@link AllocationDecider#isCacheable() cacheable} are reused.
+ * <p>
+ * It also keeps track of the time spent in each decider if profiling is enabled.
+ */
+public final class DecisionCache {
+
+    private final RoutingNodes routingNodes;
+    private final Map<Key, Decision[]> decisions = new HashMap<>();
+    private long modificationCount = -1;
+    private long[] decisionTimesInNanos;
+
+    public DecisionCache(RoutingNodes routingNodes) {
+        this.routingNodes = routingNodes;
+    }
+
+    /**
+     * Returns the per decider decisions for the given decision, creating an empty array if nothing has been cached yet.
+     * Entries of the returned array are <code>null</code> for deciders that have not been asked yet.
+     */
+    Decision[] decisions(Key key, int numDeciders) {
+        if (modificationCount != routingNodes.getModificationCount()) {
+            decisions.clear();
+            modificationCount = routingNodes.getModificationCount();
+        }
+        Decision[] cached = decisions.get(key);
+        if (cached == null) {
+            cached = new Decision[numDeciders];
+            decisions.put(key, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Drops all cached decisions.
+     */
+    public void clear() {
+        decisions.clear();
+    }
+
+    /**
+     * Enables recording the time spent in each decider for this allocation round.
+     */
+    public void enableProfiling() {
+        if (decisionTimesInNanos == null) {
+            decisionTimesInNanos = new long[0];
+        }
+    }
+
+    boolean isProfiling() {
+        return decisionTimesInNanos != null;
+    }
+
+    void addDecisionTime(int decider, long nanos) {
+        if (decider >= decisionTimesInNanos.length) {
+            long[] times = new long[decider + 1];
+            System.arraycopy(decisionTimesInNanos, 0, times, 0, decisionTimesInNanos.length);
+            decisionTimesInNanos = times;
+        }
+        decisionTimesInNanos[decider] += nanos;
+    }
+
+    long getDecisionTimeInNanos(int decider) {
+        return decisionTimesInNanos == null || decider >= decisionTimesInNanos.length ? 0 : decisionTimesInNanos[decider];
+    }
+
+    /**
+     * Identifies a decision by the kind of decision and the arguments it is made for. Arguments are compared by identity, routing
+     * objects are immutable and a modified shard is always represented by a new instance.
+     */
+    static final class Key {
+        private final int type;
+        private final Object first;
+        private final Object second;
+
+        Key(int type, Object first, Object second) {
+            this.type = type;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return type == that.type && first == that.first && second == that.second;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = type;
+            result = 31 * result + System.identityHashCode(first);
+            result = 31 * result + System.identityHashCode(second);
+            return result;
+        }
+    }
+}
@@ -324,6 +324,11 @@ public class DiskThresholdDecider extends AllocationDecider {
     }
 
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         ClusterInfo clusterInfo = allocation.clusterInfo();
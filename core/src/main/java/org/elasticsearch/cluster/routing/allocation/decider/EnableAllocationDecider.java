@@ -96,6 +96,11 @@ public class EnableAllocationDecider extends AllocationDecider {
         this.enableAllocation = enableAllocation;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         if (allocation.ignoreDisable()) {
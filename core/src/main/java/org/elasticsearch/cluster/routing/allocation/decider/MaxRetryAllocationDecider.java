@@ -54,6 +54,11 @@ public class MaxRetryAllocationDecider extends AllocationDecider {
         super(settings);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingAllocation allocation) {
         UnassignedInfo unassignedInfo = shardRouting.unassignedInfo();
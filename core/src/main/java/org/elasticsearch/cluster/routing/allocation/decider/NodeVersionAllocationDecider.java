@@ -43,6 +43,11 @@ public class NodeVersionAllocationDecider extends AllocationDecider {
         super(settings);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         if (shardRouting.primary()) {
@@ -36,6 +36,11 @@ public class RebalanceOnlyWhenActiveAllocationDecider extends AllocationDecider
         super(settings);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canRebalance(ShardRouting shardRouting, RoutingAllocation allocation) {
         if (!allocation.routingNodes().allReplicasActive(shardRouting.shardId(), allocation.metaData())) {
@@ -37,6 +37,11 @@ public class ReplicaAfterPrimaryActiveAllocationDecider extends AllocationDecide
         super(settings);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         return canAllocate(shardRouting, allocation);
@@ -56,6 +56,11 @@ public class SameShardAllocationDecider extends AllocationDecider {
         this.sameHost = settings.getAsBoolean(SAME_HOST_SETTING, false);
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         Iterable<ShardRouting> assignedShards = allocation.routingNodes().assignedShards(shardRouting.shardId());
@@ -84,6 +84,11 @@ public class ShardsLimitAllocationDecider extends AllocationDecider {
         this.clusterShardLimit = clusterShardLimit;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         IndexMetaData indexMd = allocation.metaData().getIndexSafe(shardRouting.index());
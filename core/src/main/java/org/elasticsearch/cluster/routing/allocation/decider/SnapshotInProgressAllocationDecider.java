@@ -75,6 +75,11 @@ public class SnapshotInProgressAllocationDecider extends AllocationDecider {
         this.enableRelocation = enableRelocation;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     /**
      * Returns a {@link Decision} whether the given shard routing can be
      * re-balanced to the given allocation. The default is
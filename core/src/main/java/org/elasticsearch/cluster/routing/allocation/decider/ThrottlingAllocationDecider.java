@@ -111,6 +111,11 @@ public class ThrottlingAllocationDecider extends AllocationDecider {
         this.primariesInitialRecoveries = primariesInitialRecoveries;
     }
 
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
     @Override
     public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
         if (shardRouting.primary() && shardRouting.unassigned()) {
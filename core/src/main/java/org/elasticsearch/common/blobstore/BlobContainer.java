@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.NoSuchFileException;
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -84,6 +85,35 @@ public interface BlobContainer {
      */
     void deleteBlob(String blobName) throws IOException;
 
+    /**
+     * Deletes the blobs with the given names, ignoring the blobs that do not exist. A failure to delete a blob does not prevent
+     * the other blobs from being deleted. Implementations whose store can delete several blobs with a single request should
+     * override this method, the default implementation deletes the blobs one at a time.
+     *
+     * @param   blobNames
+     *          The names of the blobs to delete.
+     * @throws  IOException if some of the blobs exist but could not be deleted.
+     */
+    default void deleteBlobsIgnoringIfNotExists(Collection<String> blobNames) throws IOException {
+        IOException ioe = null;
+        for (String blobName : blobNames) {
+            try {
+                deleteBlob(blobName);
+            } catch (NoSuchFileException e) {
+                // the blob is already gone, nothing to do
+            } catch (IOException e) {
+                if (ioe == null) {
+                    ioe = e;
+                } else {
+                    ioe.addSuppressed(e);
+                }
+            }
+        }
+        if (ioe != null) {
+            throw ioe;
+        }
+    }
+
     /**
      * Lists all blobs in the container.
      *
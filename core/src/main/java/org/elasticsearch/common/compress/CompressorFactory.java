@@ -35,6 +35,25 @@ public class CompressorFactory {
 
     public static final Compressor COMPRESSOR = new DeflateCompressor();
 
+    /**
+     * A compressor that trades compression ratio for speed, eg. for network traffic.
+     */
+    public static final Compressor LZ4_COMPRESSOR = new LZ4Compressor();
+
+    /**
+     * Returns the compressor of the given scheme, either <code>deflate</code> or <code>lz4</code>.
+     */
+    public static Compressor compressorForScheme(String scheme) {
+        switch (scheme) {
+            case "deflate":
+                return COMPRESSOR;
+            case "lz4":
+                return LZ4_COMPRESSOR;
+            default:
+                throw new IllegalArgumentException("unknown compression scheme [" + scheme + "], must be one of [deflate, lz4]");
+        }
+    }
+
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
     }
@@ -48,6 +67,10 @@ public class CompressorFactory {
                 assert XContentFactory.xContentType(bytes) == null;
                 return COMPRESSOR;
             }
+            if (LZ4_COMPRESSOR.isCompressed(bytes)) {
+                assert XContentFactory.xContentType(bytes) == null;
+                return LZ4_COMPRESSOR;
+            }
 
         XContentType contentType = XContentFactory.xContentType(bytes);
         if (contentType == null) {
@@ -0,0 +1,226 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * {@link Compressor} implementation based on the LZ4 compression algorithm, which compresses less than
+ * {@link DeflateCompressor} but is several times faster. Data is compressed in independent blocks, each of them
+ * prefixed with its uncompressed and compressed lengths, and the stream ends with an empty block.
+ */
+public class LZ4Compressor implements Compressor {
+
+    // An arbitrary header that we use to identify compressed streams
+    // It needs to be different from other compressors and to not be specific
+    // enough so that no stream starting with these bytes could be detected as
+    // a XContent
+    private static final byte[] HEADER = new byte[] { 'L', 'Z', '4', '\0' };
+    // LZ4 finds matches in the previous 64KB, larger blocks would not compress better
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public StreamInput streamInput(StreamInput in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = 0;
+        while (len < headerBytes.length) {
+            final int read = in.read(headerBytes, len, headerBytes.length - len);
+            if (read == -1) {
+                break;
+            }
+            len += read;
+        }
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new InputStreamStreamInput(new BlockInputStream(in));
+    }
+
+    @Override
+    public StreamOutput streamOutput(StreamOutput out) throws IOException {
+        out.writeBytes(HEADER);
+        return new OutputStreamStreamOutput(new BlockOutputStream(out));
+    }
+
+    private static final class BlockOutputStream extends OutputStream {
+
+        private final StreamOutput out;
+        private final org.apache.lucene.codecs.compressing.Compressor compressor = CompressionMode.FAST.newCompressor();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private byte[] compressed = BytesRef.EMPTY_BYTES;
+        private int blockLength;
+        private boolean closed;
+
+        BlockOutputStream(StreamOutput out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (blockLength == block.length) {
+                writeBlock();
+            }
+            block[blockLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (blockLength == block.length) {
+                    writeBlock();
+                }
+                final int toCopy = Math.min(len, block.length - blockLength);
+                System.arraycopy(b, off, block, blockLength, toCopy);
+                blockLength += toCopy;
+                off += toCopy;
+                len -= toCopy;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (blockLength == 0) {
+                return;
+            }
+            // LZ4 adds at most one byte per 255 bytes that can't be compressed, plus a few bytes of overhead
+            compressed = ArrayUtil.grow(compressed, blockLength + blockLength / 255 + 16);
+            final ByteArrayDataOutput compressedOut = new ByteArrayDataOutput(compressed);
+            compressor.compress(block, 0, blockLength, compressedOut);
+            out.writeVInt(blockLength);
+            out.writeVInt(compressedOut.getPosition());
+            out.writeBytes(compressed, 0, compressedOut.getPosition());
+            blockLength = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed == false) {
+                closed = true;
+                writeBlock();
+                // the end of stream marker, which allows the reader to not read past the compressed data
+                out.writeVInt(0);
+                out.close();
+            }
+        }
+    }
+
+    private static final class BlockInputStream extends InputStream {
+
+        private final StreamInput in;
+        private final org.apache.lucene.codecs.compressing.Decompressor decompressor = CompressionMode.FAST.newDecompressor();
+        private final BytesRef block = new BytesRef();
+        private byte[] compressed = BytesRef.EMPTY_BYTES;
+        private int position;
+        private boolean eof;
+
+        BlockInputStream(StreamInput in) {
+            this.in = in;
+        }
+
+        /**
+         * Makes sure the current block has bytes left to read, returns <code>false</code> at the end of the stream.
+         */
+        private boolean fill() throws IOException {
+            while (position == block.length) {
+                if (eof) {
+                    return false;
+                }
+                final int length = in.readVInt();
+                if (length == 0) {
+                    eof = true;
+                    return false;
+                }
+                final int compressedLength = in.readVInt();
+                if (length < 0 || length > BLOCK_SIZE || compressedLength < 0) {
+                    throw new IOException("Invalid LZ4 block of length [" + length + "] compressed to [" + compressedLength + "]");
+                }
+                compressed = ArrayUtil.grow(compressed, compressedLength);
+                in.readBytes(compressed, 0, compressedLength);
+                decompressor.decompress(new ByteArrayDataInput(compressed, 0, compressedLength), length, 0, length, block);
+                position = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (fill() == false) {
+                return -1;
+            }
+            return block.bytes[block.offset + position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (fill() == false) {
+                return -1;
+            }
+            final int toCopy = Math.min(len, block.length - position);
+            System.arraycopy(block.bytes, block.offset + position, b, off, toCopy);
+            position += toCopy;
+            return toCopy;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return block.length - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -23,7 +23,10 @@ import org.elasticsearch.ElasticsearchParseException;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentParser;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -159,39 +162,9 @@ public class XContentMapValues {
                 continue;
             }
 
-            boolean exactIncludeMatch = false; // true if the current position was specifically mentioned
-            boolean pathIsPrefixOfAnInclude = false; // true if potentially a sub scope can be included
-            if (includes.length == 0) {
-                // implied match anything
-                exactIncludeMatch = true;
-            } else {
-                for (String include : includes) {
-                    // check for prefix matches as well to see if we need to zero in, something like: obj1.arr1.* or *.field
-                    // note, this does not work well with middle matches, like obj1.*.obj3
-                    if (include.charAt(0) == '*') {
-                        if (Regex.simpleMatch(include, path)) {
-                            exactIncludeMatch = true;
-                            break;
-                        }
-                        pathIsPrefixOfAnInclude = true;
-                        continue;
-                    }
-                    if (include.startsWith(path)) {
-                        if (include.length() == path.length()) {
-                            exactIncludeMatch = true;
-                            break;
-                        } else if (include.length() > path.length() && include.charAt(path.length()) == '.') {
-                            // include might may match deeper paths. Dive deeper.
-                            pathIsPrefixOfAnInclude = true;
-                            continue;
-                        }
-                    }
-                    if (Regex.simpleMatch(include, path)) {
-                        exactIncludeMatch = true;
-                        break;
-                    }
-                }
-            }
+            int includeMatch = includeMatch(includes, path);
+            boolean exactIncludeMatch = includeMatch == EXACT_INCLUDE_MATCH; // true if the current position was specifically mentioned
+            boolean pathIsPrefixOfAnInclude = includeMatch == PREFIX_INCLUDE_MATCH; // true if potentially a sub scope can be included
 
             if (!(pathIsPrefixOfAnInclude || exactIncludeMatch)) {
                 // skip subkeys, not interesting.
@@ -220,6 +193,46 @@ public class XContentMapValues {
         }
     }
 
+    private static final int NO_INCLUDE_MATCH = 0;
+    private static final int PREFIX_INCLUDE_MATCH = 1;
+    private static final int EXACT_INCLUDE_MATCH = 2;
+
+    /**
+     * Checks how the given path relates to the includes: either it is included itself, it is the prefix of a path that may be
+     * included, or it isn't interesting at all.
+     */
+    private static int includeMatch(String[] includes, String path) {
+        if (includes.length == 0) {
+            // implied match anything
+            return EXACT_INCLUDE_MATCH;
+        }
+        int match = NO_INCLUDE_MATCH;
+        for (String include : includes) {
+            // check for prefix matches as well to see if we need to zero in, something like: obj1.arr1.* or *.field
+            // note, this does not work well with middle matches, like obj1.*.obj3
+            if (include.charAt(0) == '*') {
+                if (Regex.simpleMatch(include, path)) {
+                    return EXACT_INCLUDE_MATCH;
+                }
+                match = PREFIX_INCLUDE_MATCH;
+                continue;
+            }
+            if (include.startsWith(path)) {
+                if (include.length() == path.length()) {
+                    return EXACT_INCLUDE_MATCH;
+                } else if (include.length() > path.length() && include.charAt(path.length()) == '.') {
+                    // include might may match deeper paths. Dive deeper.
+                    match = PREFIX_INCLUDE_MATCH;
+                    continue;
+                }
+            }
+            if (Regex.simpleMatch(include, path)) {
+                return EXACT_INCLUDE_MATCH;
+            }
+        }
+        return match;
+    }
+
     private static void filter(List<Object> from, List<Object> to, String[] includes, String[] excludes, StringBuilder sb) {
         if (includes.length == 0 && excludes.length == 0) {
             to.addAll(from);
@@ -245,6 +258,156 @@ public class XContentMapValues {
         }
     }
 
+    /**
+     * Streaming counterpart of {@link #filter(Map, String[], String[])}: copies the object the parser is positioned on into
+     * the builder, keeping exactly the values the map based filter would keep but without materializing the source as maps.
+     * Unlike the map based filter, fields are written in the order they appear in the source.
+     */
+    public static void filter(XContentParser parser, XContentBuilder builder, String[] includes, String[] excludes) throws IOException {
+        XContentParser.Token token = parser.currentToken();
+        if (token == null) {
+            token = parser.nextToken();
+        }
+        if (token != XContentParser.Token.START_OBJECT) {
+            throw new ElasticsearchParseException("expected an object to filter but found [{}]", token);
+        }
+        StreamingFilter filter = new StreamingFilter(parser, builder);
+        builder.startObject();
+        filter.filterObject(includes == null ? Strings.EMPTY_ARRAY : includes, excludes == null ? Strings.EMPTY_ARRAY : excludes);
+        builder.endObject();
+    }
+
+    /**
+     * Applies the same rules as the map based filter to a stream of tokens. Objects that are only kept if something
+     * inside of them is kept are not written right away but deferred until their first value is written.
+     */
+    private static final class StreamingFilter {
+
+        private final XContentParser parser;
+        private final XContentBuilder builder;
+        private final StringBuilder sb = new StringBuilder();
+        // the field names of the deferred objects and arrays, null for the ones that are elements of an array
+        private final List<String> deferredNames = new ArrayList<>();
+        private final List<Boolean> deferredArrays = new ArrayList<>();
+
+        StreamingFilter(XContentParser parser, XContentBuilder builder) {
+            this.parser = parser;
+            this.builder = builder;
+        }
+
+        void filterObject(String[] includes, String[] excludes) throws IOException {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                assert token == XContentParser.Token.FIELD_NAME : "expected a field name but got " + token;
+                String key = parser.currentName();
+                token = parser.nextToken();
+                if (includes.length == 0 && excludes.length == 0) {
+                    writeDeferred();
+                    builder.field(key);
+                    builder.copyCurrentStructure(parser);
+                    continue;
+                }
+                int mark = sb.length();
+                if (sb.length() > 0) {
+                    sb.append('.');
+                }
+                sb.append(key);
+                String path = sb.toString();
+
+                int includeMatch = Regex.simpleMatch(excludes, path) ? NO_INCLUDE_MATCH : includeMatch(includes, path);
+                if (includeMatch == NO_INCLUDE_MATCH) {
+                    // skip subkeys, not interesting.
+                    parser.skipChildren();
+                } else if (token == XContentParser.Token.START_OBJECT) {
+                    if (includeMatch == EXACT_INCLUDE_MATCH) {
+                        // if we had an exact match, we want give deeper excludes their chance
+                        writeDeferred();
+                        builder.startObject(key);
+                        filterObject(Strings.EMPTY_ARRAY, excludes);
+                        builder.endObject();
+                    } else {
+                        int depth = defer(key, false);
+                        filterObject(includes, excludes);
+                        if (wasWritten(depth)) {
+                            builder.endObject();
+                        }
+                    }
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    // arrays are kept even if they end up empty
+                    writeDeferred();
+                    builder.startArray(key);
+                    filterArray(includeMatch == EXACT_INCLUDE_MATCH ? Strings.EMPTY_ARRAY : includes, excludes);
+                    builder.endArray();
+                } else if (includeMatch == EXACT_INCLUDE_MATCH) {
+                    writeDeferred();
+                    builder.field(key);
+                    builder.copyCurrentStructure(parser);
+                }
+                sb.setLength(mark);
+            }
+        }
+
+        private void filterArray(String[] includes, String[] excludes) throws IOException {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                if (includes.length == 0 && excludes.length == 0) {
+                    writeDeferred();
+                    builder.copyCurrentStructure(parser);
+                } else if (token == XContentParser.Token.START_OBJECT) {
+                    int depth = defer(null, false);
+                    filterObject(includes, excludes);
+                    if (wasWritten(depth)) {
+                        builder.endObject();
+                    }
+                } else if (token == XContentParser.Token.START_ARRAY) {
+                    int depth = defer(null, true);
+                    filterArray(includes, excludes);
+                    if (wasWritten(depth)) {
+                        builder.endArray();
+                    }
+                } else {
+                    writeDeferred();
+                    builder.copyCurrentStructure(parser);
+                }
+            }
+        }
+
+        private int defer(String name, boolean array) {
+            deferredNames.add(name);
+            deferredArrays.add(array);
+            return deferredNames.size() - 1;
+        }
+
+        /**
+         * Returns whether the object or array deferred at the given depth has been written, and forgets about it otherwise.
+         */
+        private boolean wasWritten(int depth) {
+            if (deferredNames.size() > depth) {
+                assert deferredNames.size() == depth + 1;
+                deferredNames.remove(depth);
+                deferredArrays.remove(depth);
+                return false;
+            }
+            return true;
+        }
+
+        private void writeDeferred() throws IOException {
+            for (int i = 0; i < deferredNames.size(); i++) {
+                String name = deferredNames.get(i);
+                if (name != null) {
+                    builder.field(name);
+                }
+                if (deferredArrays.get(i)) {
+                    builder.startArray();
+                } else {
+                    builder.startObject();
+                }
+            }
+            deferredNames.clear();
+            deferredArrays.clear();
+        }
+    }
+
     public static boolean isObject(Object node) {
         return node instanceof Map;
     }
@@ -60,6 +60,12 @@ public class DiscoverySettings extends AbstractComponent {
             Property.Dynamic, Property.NodeScope);
     public static final Setting<Boolean> PUBLISH_DIFF_ENABLE_SETTING =
         Setting.boolSetting("discovery.zen.publish_diff.enable", true, Property.Dynamic, Property.NodeScope);
+    /**
+     * sets the maximum number of nodes that a cluster state is being sent to at once. the master nodes are always sent the
+     * cluster state right away, the other nodes get it as soon as earlier nodes acknowledged it.
+     */
+    public static final Setting<Integer> PUBLISH_MAX_CONCURRENT_SENDS_SETTING =
+        Setting.intSetting("discovery.zen.publish_max_concurrent_sends", 50, 1, Property.Dynamic, Property.NodeScope);
     public static final Setting<TimeValue> INITIAL_STATE_TIMEOUT_SETTING =
         Setting.positiveTimeSetting("discovery.initial_state_timeout", TimeValue.timeValueSeconds(30), Property.NodeScope);
 
@@ -68,6 +74,7 @@ public class DiscoverySettings extends AbstractComponent {
 
     private volatile TimeValue commitTimeout;
     private volatile boolean publishDiff;
+    private volatile int publishMaxConcurrentSends;
 
     public DiscoverySettings(Settings settings, ClusterSettings clusterSettings) {
         super(settings);
@@ -75,10 +82,12 @@ public class DiscoverySettings extends AbstractComponent {
         clusterSettings.addSettingsUpdateConsumer(PUBLISH_DIFF_ENABLE_SETTING, this::setPublishDiff);
         clusterSettings.addSettingsUpdateConsumer(COMMIT_TIMEOUT_SETTING, this::setCommitTimeout);
         clusterSettings.addSettingsUpdateConsumer(PUBLISH_TIMEOUT_SETTING, this::setPublishTimeout);
+        clusterSettings.addSettingsUpdateConsumer(PUBLISH_MAX_CONCURRENT_SENDS_SETTING, this::setPublishMaxConcurrentSends);
         this.noMasterBlock = NO_MASTER_BLOCK_SETTING.get(settings);
         this.publishTimeout = PUBLISH_TIMEOUT_SETTING.get(settings);
         this.commitTimeout = COMMIT_TIMEOUT_SETTING.get(settings);
         this.publishDiff = PUBLISH_DIFF_ENABLE_SETTING.get(settings);
+        this.publishMaxConcurrentSends = PUBLISH_MAX_CONCURRENT_SENDS_SETTING.get(settings);
     }
 
     /**
@@ -114,6 +123,14 @@ public class DiscoverySettings extends AbstractComponent {
 
     public boolean getPublishDiff() { return publishDiff;}
 
+    public int getPublishMaxConcurrentSends() {
+        return publishMaxConcurrentSends;
+    }
+
+    private void setPublishMaxConcurrentSends(int publishMaxConcurrentSends) {
+        this.publishMaxConcurrentSends = publishMaxConcurrentSends;
+    }
+
     private static ClusterBlock parseNoMasterBlock(String value) {
         switch (value) {
             case "all":
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.discovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -26,6 +27,7 @@ import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.discovery.zen.publish.PendingClusterStateStats;
+import org.elasticsearch.discovery.zen.publish.PublishClusterStateStats;
 
 import java.io.IOException;
 
@@ -34,8 +36,12 @@ public class DiscoveryStats implements Streamable, ToXContent {
     @Nullable
     private PendingClusterStateStats queueStats;
 
-    public DiscoveryStats(PendingClusterStateStats queueStats) {
+    @Nullable
+    private PublishClusterStateStats publishStats;
+
+    public DiscoveryStats(PendingClusterStateStats queueStats, PublishClusterStateStats publishStats) {
         this.queueStats = queueStats;
+        this.publishStats = publishStats;
     }
 
     @Override
@@ -45,6 +51,9 @@ public class DiscoveryStats implements Streamable, ToXContent {
         if (queueStats != null ){
             queueStats.toXContent(builder, params);
         }
+        if (publishStats != null) {
+            publishStats.toXContent(builder, params);
+        }
         builder.endObject();
         return builder;
     }
@@ -55,6 +64,11 @@ public class DiscoveryStats implements Streamable, ToXContent {
             queueStats = new PendingClusterStateStats();
             queueStats.readFrom(in);
         }
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            publishStats = in.readOptionalStreamable(PublishClusterStateStats::new);
+        } else {
+            publishStats = null;
+        }
     }
 
     @Override
@@ -65,6 +79,9 @@ public class DiscoveryStats implements Streamable, ToXContent {
         }else{
             out.writeBoolean(false);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeOptionalStreamable(publishStats);
+        }
     }
 
     static final class Fields {
@@ -74,4 +91,8 @@ public class DiscoveryStats implements Streamable, ToXContent {
     public PendingClusterStateStats getQueueStats() {
         return queueStats;
     }
+
+    public PublishClusterStateStats getPublishStats() {
+        return publishStats;
+    }
 }
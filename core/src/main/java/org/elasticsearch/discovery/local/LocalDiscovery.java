@@ -279,7 +279,7 @@ public class LocalDiscovery extends AbstractLifecycleComponent implements Discov
 
     @Override
     public DiscoveryStats stats() {
-        return new DiscoveryStats(null);
+        return new DiscoveryStats(null, null);
     }
 
     @Override
@@ -341,7 +341,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent implements Discover
     @Override
     public DiscoveryStats stats() {
         PendingClusterStateStats queueStats = publishClusterState.pendingStatesQueue().stats();
-        return new DiscoveryStats(queueStats);
+        return new DiscoveryStats(queueStats, publishClusterState.stats());
     }
 
     @Override
@@ -35,8 +35,10 @@ import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.discovery.AckClusterStatePublishResponseHandler;
 import org.elasticsearch.discovery.BlockingClusterStatePublishResponseHandler;
 import org.elasticsearch.discovery.Discovery;
@@ -45,6 +47,7 @@ import org.elasticsearch.discovery.zen.ZenDiscovery;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BytesTransportRequest;
 import org.elasticsearch.transport.EmptyTransportResponseHandler;
+import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
@@ -55,14 +58,17 @@ import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -87,6 +93,14 @@ public class PublishClusterStateAction extends AbstractComponent {
     private final DiscoverySettings discoverySettings;
     private final ClusterName clusterName;
     private final PendingClusterStatesQueue pendingStatesQueue;
+    private final Compressor compressor;
+
+    private final CounterMetric publishedStates = new CounterMetric();
+    private final CounterMetric failedStates = new CounterMetric();
+    private final CounterMetric serializationTimeInNanos = new CounterMetric();
+    private final CounterMetric sendTimeInNanos = new CounterMetric();
+    private final CounterMetric commitTimeInNanos = new CounterMetric();
+    private final CounterMetric applyTimeInNanos = new CounterMetric();
 
     public PublishClusterStateAction(
             Settings settings,
@@ -102,6 +116,7 @@ public class PublishClusterStateAction extends AbstractComponent {
         this.discoverySettings = discoverySettings;
         this.clusterName = clusterName;
         this.pendingStatesQueue = new PendingClusterStatesQueue(logger, settings.getAsInt(SETTINGS_MAX_PENDING_CLUSTER_STATES, 25));
+        this.compressor = Transport.TRANSPORT_COMPRESSION_SCHEME.get(settings);
         transportService.registerRequestHandler(SEND_ACTION_NAME, BytesTransportRequest::new, ThreadPool.Names.SAME, new SendClusterStateRequestHandler());
         transportService.registerRequestHandler(COMMIT_ACTION_NAME, CommitClusterStateRequest::new, ThreadPool.Names.SAME, new CommitClusterStateRequestHandler());
     }
@@ -115,6 +130,17 @@ public class PublishClusterStateAction extends AbstractComponent {
         return pendingStatesQueue;
     }
 
+    /**
+     * returns stats about the cluster states this node published to other nodes while being the master
+     */
+    public PublishClusterStateStats stats() {
+        return new PublishClusterStateStats(publishedStates.count(), failedStates.count(),
+                TimeUnit.NANOSECONDS.toMillis(serializationTimeInNanos.count()),
+                TimeUnit.NANOSECONDS.toMillis(sendTimeInNanos.count()),
+                TimeUnit.NANOSECONDS.toMillis(commitTimeInNanos.count()),
+                TimeUnit.NANOSECONDS.toMillis(applyTimeInNanos.count()));
+    }
+
     /**
      * publishes a cluster change event to other nodes. if at least minMasterNodes acknowledge the change it is committed and will
      * be processed by the master and the other nodes.
@@ -123,25 +149,31 @@ public class PublishClusterStateAction extends AbstractComponent {
      * Any other exception signals the something wrong happened but the change is committed.
      */
     public void publish(final ClusterChangedEvent clusterChangedEvent, final int minMasterNodes, final Discovery.AckListener ackListener) throws Discovery.FailedToCommitClusterStateException {
-        final DiscoveryNodes nodes;
+        final DiscoveryNodes nodes = clusterChangedEvent.state().nodes();
+        final Set<DiscoveryNode> nodesToPublishTo = new HashSet<>(nodes.getSize());
+        final DiscoveryNode localNode = nodes.getLocalNode();
+        for (final DiscoveryNode node : nodes) {
+            if (node.equals(localNode) == false) {
+                nodesToPublishTo.add(node);
+            }
+        }
+        // only publications that go over the wire are accounted for in the stats
+        final boolean trackStats = nodesToPublishTo.isEmpty() == false;
+        if (trackStats) {
+            publishedStates.inc();
+        }
         final SendingController sendingController;
-        final Set<DiscoveryNode> nodesToPublishTo;
         final Map<Version, BytesReference> serializedStates;
         final Map<Version, BytesReference> serializedDiffs;
         final boolean sendFullVersion;
         try {
-            nodes = clusterChangedEvent.state().nodes();
-            nodesToPublishTo = new HashSet<>(nodes.getSize());
-            DiscoveryNode localNode = nodes.getLocalNode();
+            final long serializationStartInNanos = System.nanoTime();
             final int totalMasterNodes = nodes.getMasterNodes().size();
-            for (final DiscoveryNode node : nodes) {
-                if (node.equals(localNode) == false) {
-                    nodesToPublishTo.add(node);
-                }
-            }
             sendFullVersion = !discoverySettings.getPublishDiff() || clusterChangedEvent.previousState() == null;
-            serializedStates = new HashMap<>();
-            serializedDiffs = new HashMap<>();
+            // the serialized states are shared by all the channels the cluster state is sent on. full states may still be
+            // serialized after sending started, if a node can't apply the diff, hence the concurrent map
+            serializedStates = ConcurrentCollections.newConcurrentMap();
+            serializedDiffs = ConcurrentCollections.newConcurrentMap();
 
             // we build these early as a best effort not to commit in the case of error.
             // sadly this is not water tight as it may that a failed diff based publishing to a node
@@ -150,19 +182,33 @@ public class PublishClusterStateAction extends AbstractComponent {
             buildDiffAndSerializeStates(clusterChangedEvent.state(), clusterChangedEvent.previousState(),
                     nodesToPublishTo, sendFullVersion, serializedStates, serializedDiffs);
 
+            if (trackStats) {
+                serializationTimeInNanos.inc(System.nanoTime() - serializationStartInNanos);
+            }
+
             final BlockingClusterStatePublishResponseHandler publishResponseHandler = new AckClusterStatePublishResponseHandler(nodesToPublishTo, ackListener);
-            sendingController = new SendingController(clusterChangedEvent.state(), minMasterNodes, totalMasterNodes, publishResponseHandler);
+            sendingController = new SendingController(clusterChangedEvent.state(), minMasterNodes, totalMasterNodes, publishResponseHandler,
+                    nodesToPublishTo.size());
         } catch (Exception e) {
+            if (trackStats) {
+                failedStates.inc();
+            }
             throw new Discovery.FailedToCommitClusterStateException("unexpected error while preparing to publish", e);
         }
 
         try {
             innerPublish(clusterChangedEvent, nodesToPublishTo, sendingController, sendFullVersion, serializedStates, serializedDiffs);
         } catch (Discovery.FailedToCommitClusterStateException t) {
+            if (trackStats) {
+                failedStates.inc();
+            }
             throw t;
         } catch (Exception e) {
             // try to fail committing, in cause it's still on going
             if (sendingController.markAsFailed("unexpected error", e)) {
+                if (trackStats) {
+                    failedStates.inc();
+                }
                 // signal the change should be rejected
                 throw new Discovery.FailedToCommitClusterStateException("unexpected error", e);
             } else {
@@ -181,7 +227,18 @@ public class PublishClusterStateAction extends AbstractComponent {
 
         final long publishingStartInNanos = System.nanoTime();
 
+        // master nodes go first so that the send window never delays the commit
+        final List<DiscoveryNode> sendOrder = new ArrayList<>(nodesToPublishTo.size());
+        int masterNodesToPublishTo = 0;
         for (final DiscoveryNode node : nodesToPublishTo) {
+            if (node.isMasterNode()) {
+                sendOrder.add(masterNodesToPublishTo++, node);
+            } else {
+                sendOrder.add(node);
+            }
+        }
+        final int maxConcurrentSends = Math.max(discoverySettings.getPublishMaxConcurrentSends(), masterNodesToPublishTo);
+        sendingController.startSending(sendOrder, maxConcurrentSends, node -> {
             // try and serialize the cluster state once (or per version), so we don't serialize it
             // per node when we send it over the wire, compress it while we are at it...
             // we don't send full version if node didn't exist in the previous version of cluster state
@@ -190,15 +247,24 @@ public class PublishClusterStateAction extends AbstractComponent {
             } else {
                 sendClusterStateDiff(clusterState, serializedDiffs, serializedStates, node, publishTimeout, sendingController);
             }
-        }
+        });
 
         sendingController.waitForCommit(discoverySettings.getCommitTimeout());
+        final long committedInNanos = System.nanoTime();
+        if (nodesToPublishTo.isEmpty() == false) {
+            commitTimeInNanos.inc(committedInNanos - publishingStartInNanos);
+        }
 
         try {
             long timeLeftInNanos = Math.max(0, publishTimeout.nanos() - (System.nanoTime() - publishingStartInNanos));
             final BlockingClusterStatePublishResponseHandler publishResponseHandler = sendingController.getPublishResponseHandler();
             sendingController.setPublishingTimedOut(!publishResponseHandler.awaitAllNodes(TimeValue.timeValueNanos(timeLeftInNanos)));
+            if (nodesToPublishTo.isEmpty() == false) {
+                applyTimeInNanos.inc(System.nanoTime() - committedInNanos);
+            }
             if (sendingController.getPublishingTimedOut()) {
+                // nodes that didn't respond yet hold on to their place in the send window, don't let them hold back the others
+                sendingController.sendAllPending();
                 DiscoveryNode[] pendingNodes = publishResponseHandler.pendingNodes();
                 // everyone may have just responded
                 if (pendingNodes.length > 0) {
@@ -219,7 +285,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                 if (sendFullVersion || !previousState.nodes().nodeExists(node)) {
                     // will send a full reference
                     if (serializedStates.containsKey(node.getVersion()) == false) {
-                        serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion()));
+                        serializedStates.put(node.getVersion(), serializeFullClusterState(clusterState, node.getVersion(), compressor));
                     }
                 } else {
                     // will send a diff
@@ -227,7 +293,7 @@ public class PublishClusterStateAction extends AbstractComponent {
                         diff = clusterState.diff(previousState);
                     }
                     if (serializedDiffs.containsKey(node.getVersion()) == false) {
-                        serializedDiffs.put(node.getVersion(), serializeDiffClusterState(diff, node.getVersion()));
+                        serializedDiffs.put(node.getVersion(), serializeDiffClusterState(diff, node.getVersion(), compressor));
                     }
                 }
             } catch (IOException e) {
@@ -241,8 +307,14 @@ public class PublishClusterStateAction extends AbstractComponent {
         BytesReference bytes = serializedStates.get(node.getVersion());
         if (bytes == null) {
             try {
-                bytes = serializeFullClusterState(clusterState, node.getVersion());
-                serializedStates.put(node.getVersion(), bytes);
+                final long serializationStartInNanos = System.nanoTime();
+                bytes = serializeFullClusterState(clusterState, node.getVersion(), compressor);
+                serializationTimeInNanos.inc(System.nanoTime() - serializationStartInNanos);
+                // nodes that failed to apply the diff concurrently may have serialized the same state, keep only one copy
+                final BytesReference existing = serializedStates.putIfAbsent(node.getVersion(), bytes);
+                if (existing != null) {
+                    bytes = existing;
+                }
             } catch (Exception e) {
                 logger.warn("failed to serialize cluster_state before publishing it to node {}", e, node);
                 sendingController.onNodeSendFailed(node, e);
@@ -334,8 +406,13 @@ public class PublishClusterStateAction extends AbstractComponent {
 
 
     public static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
+        return serializeFullClusterState(clusterState, nodeVersion, CompressorFactory.COMPRESSOR);
+    }
+
+    public static BytesReference serializeFullClusterState(ClusterState clusterState, Version nodeVersion,
+                                                           Compressor compressor) throws IOException {
         BytesStreamOutput bStream = new BytesStreamOutput();
-        try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
+        try (StreamOutput stream = compressor.streamOutput(bStream)) {
             stream.setVersion(nodeVersion);
             stream.writeBoolean(true);
             clusterState.writeTo(stream);
@@ -344,8 +421,12 @@ public class PublishClusterStateAction extends AbstractComponent {
     }
 
     public static BytesReference serializeDiffClusterState(Diff diff, Version nodeVersion) throws IOException {
+        return serializeDiffClusterState(diff, nodeVersion, CompressorFactory.COMPRESSOR);
+    }
+
+    public static BytesReference serializeDiffClusterState(Diff diff, Version nodeVersion, Compressor compressor) throws IOException {
         BytesStreamOutput bStream = new BytesStreamOutput();
-        try (StreamOutput stream = CompressorFactory.COMPRESSOR.streamOutput(bStream)) {
+        try (StreamOutput stream = compressor.streamOutput(bStream)) {
             stream.setVersion(nodeVersion);
             stream.writeBoolean(false);
             diff.writeTo(stream);
@@ -506,6 +587,13 @@ public class PublishClusterStateAction extends AbstractComponent {
         private final BlockingClusterStatePublishResponseHandler publishResponseHandler;
         final ArrayList<DiscoveryNode> sendAckedBeforeCommit = new ArrayList<>();
 
+        // the nodes the cluster state still has to be sent to, a node is taken out of the queue whenever an earlier send completes
+        private final Queue<DiscoveryNode> pendingSends = ConcurrentCollections.newQueue();
+        private volatile Consumer<DiscoveryNode> sender;
+        private final int totalSends;
+        private final AtomicInteger completedSends = new AtomicInteger();
+        private volatile long sendingStartInNanos;
+
         // writes and reads of these are protected under synchronization
         final CountDownLatch committedOrFailedLatch; // 0 count indicates that a decision was made w.r.t committing or failing
         boolean committed;  // true if cluster state was committed
@@ -515,9 +603,11 @@ public class PublishClusterStateAction extends AbstractComponent {
         // an external marker to note that the publishing process is timed out. This is useful for proper logging.
         final AtomicBoolean publishingTimedOut = new AtomicBoolean();
 
-        private SendingController(ClusterState clusterState, int minMasterNodes, int totalMasterNodes, BlockingClusterStatePublishResponseHandler publishResponseHandler) {
+        private SendingController(ClusterState clusterState, int minMasterNodes, int totalMasterNodes,
+                                  BlockingClusterStatePublishResponseHandler publishResponseHandler, int totalSends) {
             this.clusterState = clusterState;
             this.publishResponseHandler = publishResponseHandler;
+            this.totalSends = totalSends;
             this.neededMastersToCommit = Math.max(0, minMasterNodes - 1); // we are one of the master nodes
             this.pendingMasterNodes = totalMasterNodes - 1;
             if (this.neededMastersToCommit > this.pendingMasterNodes) {
@@ -527,6 +617,45 @@ public class PublishClusterStateAction extends AbstractComponent {
             this.committedOrFailedLatch = new CountDownLatch(committed ? 0 : 1);
         }
 
+        /**
+         * sends the cluster state to the given nodes, in order, with at most {@code maxConcurrentSends} of them not having
+         * acked or failed the cluster state yet
+         */
+        public void startSending(List<DiscoveryNode> nodes, int maxConcurrentSends, Consumer<DiscoveryNode> sender) {
+            this.sender = sender;
+            this.sendingStartInNanos = System.nanoTime();
+            pendingSends.addAll(nodes);
+            for (int i = 0; i < maxConcurrentSends; i++) {
+                if (sendNext() == false) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * sends the cluster state to all the nodes that are still waiting for their turn
+         */
+        public void sendAllPending() {
+            while (sendNext()) {
+            }
+        }
+
+        private boolean sendNext() {
+            final DiscoveryNode node = pendingSends.poll();
+            if (node == null) {
+                return false;
+            }
+            sender.accept(node);
+            return true;
+        }
+
+        private void onNodeSendCompleted() {
+            if (completedSends.incrementAndGet() == totalSends) {
+                sendTimeInNanos.inc(System.nanoTime() - sendingStartInNanos);
+            }
+            sendNext();
+        }
+
         public void waitForCommit(TimeValue commitTimeout) {
             boolean timedout = false;
             try {
@@ -548,7 +677,12 @@ public class PublishClusterStateAction extends AbstractComponent {
             return committed;
         }
 
-        public synchronized void onNodeSendAck(DiscoveryNode node) {
+        public void onNodeSendAck(DiscoveryNode node) {
+            processNodeSendAck(node);
+            onNodeSendCompleted();
+        }
+
+        private synchronized void processNodeSendAck(DiscoveryNode node) {
             if (committed) {
                 assert sendAckedBeforeCommit.isEmpty();
                 sendCommitToNode(node, clusterState, this);
@@ -593,7 +727,12 @@ public class PublishClusterStateAction extends AbstractComponent {
             }
         }
 
-        public synchronized void onNodeSendFailed(DiscoveryNode node, Exception e) {
+        public void onNodeSendFailed(DiscoveryNode node, Exception e) {
+            processNodeSendFailed(node, e);
+            onNodeSendCompleted();
+        }
+
+        private synchronized void processNodeSendFailed(DiscoveryNode node, Exception e) {
             if (node.isMasterNode()) {
                 logger.trace("master node {} failed to ack cluster state version [{}]. processing ... (current pending [{}], needed [{}])",
                         node, clusterState.version(), pendingMasterNodes, neededMastersToCommit);
@@ -0,0 +1,151 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.publish;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Class encapsulating stats about the cluster states published by the master, with the time spent in each phase of publishing
+ */
+public class PublishClusterStateStats implements Streamable, ToXContent {
+
+    private long total;
+    private long failed;
+    private long serializationTimeInMillis;
+    private long sendTimeInMillis;
+    private long commitTimeInMillis;
+    private long applyTimeInMillis;
+
+    public PublishClusterStateStats() {
+
+    }
+
+    public PublishClusterStateStats(long total, long failed, long serializationTimeInMillis, long sendTimeInMillis,
+                                    long commitTimeInMillis, long applyTimeInMillis) {
+        this.total = total;
+        this.failed = failed;
+        this.serializationTimeInMillis = serializationTimeInMillis;
+        this.sendTimeInMillis = sendTimeInMillis;
+        this.commitTimeInMillis = commitTimeInMillis;
+        this.applyTimeInMillis = applyTimeInMillis;
+    }
+
+    /**
+     * The number of cluster states published to other nodes.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * The number of published cluster states that failed to be committed.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * The time spent serializing cluster states and diffs before sending them.
+     */
+    public TimeValue getSerializationTime() {
+        return new TimeValue(serializationTimeInMillis);
+    }
+
+    /**
+     * The time it took for all the nodes to receive the cluster states.
+     */
+    public TimeValue getSendTime() {
+        return new TimeValue(sendTimeInMillis);
+    }
+
+    /**
+     * The time it took for enough master nodes to receive the cluster states to commit them.
+     */
+    public TimeValue getCommitTime() {
+        return new TimeValue(commitTimeInMillis);
+    }
+
+    /**
+     * The time it took for the nodes to apply the cluster states once committed.
+     */
+    public TimeValue getApplyTime() {
+        return new TimeValue(applyTimeInMillis);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.PUBLISHED_CLUSTER_STATES);
+        builder.field(Fields.TOTAL, total);
+        builder.field(Fields.FAILED, failed);
+        builder.timeValueField(Fields.SERIALIZATION_TIME_IN_MILLIS, Fields.SERIALIZATION_TIME, serializationTimeInMillis);
+        builder.timeValueField(Fields.SEND_TIME_IN_MILLIS, Fields.SEND_TIME, sendTimeInMillis);
+        builder.timeValueField(Fields.COMMIT_TIME_IN_MILLIS, Fields.COMMIT_TIME, commitTimeInMillis);
+        builder.timeValueField(Fields.APPLY_TIME_IN_MILLIS, Fields.APPLY_TIME, applyTimeInMillis);
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        total = in.readVLong();
+        failed = in.readVLong();
+        serializationTimeInMillis = in.readVLong();
+        sendTimeInMillis = in.readVLong();
+        commitTimeInMillis = in.readVLong();
+        applyTimeInMillis = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(total);
+        out.writeVLong(failed);
+        out.writeVLong(serializationTimeInMillis);
+        out.writeVLong(sendTimeInMillis);
+        out.writeVLong(commitTimeInMillis);
+        out.writeVLong(applyTimeInMillis);
+    }
+
+    static final class Fields {
+        static final String PUBLISHED_CLUSTER_STATES = "published_cluster_states";
+        static final String TOTAL = "total";
+        static final String FAILED = "failed";
+        static final String SERIALIZATION_TIME = "serialization_time";
+        static final String SERIALIZATION_TIME_IN_MILLIS = "serialization_time_in_millis";
+        static final String SEND_TIME = "send_time";
+        static final String SEND_TIME_IN_MILLIS = "send_time_in_millis";
+        static final String COMMIT_TIME = "commit_time";
+        static final String COMMIT_TIME_IN_MILLIS = "commit_time_in_millis";
+        static final String APPLY_TIME = "apply_time";
+        static final String APPLY_TIME_IN_MILLIS = "apply_time_in_millis";
+    }
+
+    @Override
+    public String toString() {
+        return "PublishClusterStateStats(total=" + total + ", failed=" + failed + ", serialization=" + serializationTimeInMillis
+            + "ms, send=" + sendTimeInMillis + "ms, commit=" + commitTimeInMillis + "ms, apply=" + applyTimeInMillis + "ms)";
+    }
+}
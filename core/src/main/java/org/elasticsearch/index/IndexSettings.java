@@ -67,6 +67,8 @@ public final class IndexSettings {
     public static final Setting<Translog.Durability> INDEX_TRANSLOG_DURABILITY_SETTING =
         new Setting<>("index.translog.durability", Translog.Durability.REQUEST.name(),
             (value) -> Translog.Durability.valueOf(value.toUpperCase(Locale.ROOT)), Property.Dynamic, Property.IndexScope);
+    public static final Setting<Boolean> INDEX_TRANSLOG_GROUP_COMMIT_SETTING =
+        Setting.boolSetting("index.translog.group_commit", false, Property.Dynamic, Property.IndexScope);
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope);
     public static final Setting<Boolean> INDEX_TTL_DISABLE_PURGE_SETTING =
@@ -122,6 +124,19 @@ public final class IndexSettings {
     public static final Setting<Integer> MAX_REFRESH_LISTENERS_PER_SHARD = Setting.intSetting("index.max_refresh_listeners", 1000, 0,
             Property.Dynamic, Property.IndexScope);
 
+    /**
+     * Index setting to collect the segments of a shard concurrently on the search_worker thread pool rather than
+     * sequentially on the search thread. This setting is realtime updateable.
+     */
+    public static final Setting<Boolean> INDEX_SEARCH_CONCURRENT_SEGMENTS_SETTING =
+        Setting.boolSetting("index.search.concurrent_segments.enabled", false, Property.Dynamic, Property.IndexScope);
+    /**
+     * The minimum number of documents of a slice when collecting segments concurrently, smaller slices aren't worth the
+     * overhead of handing them over to another thread.
+     */
+    public static final Setting<Integer> INDEX_SEARCH_CONCURRENT_SEGMENTS_MIN_DOCS_PER_SLICE_SETTING =
+        Setting.intSetting("index.search.concurrent_segments.min_docs_per_slice", 100000, 1, Property.Dynamic, Property.IndexScope);
+
     /**
      * The maximum number of slices allowed in a scroll request
      */
@@ -146,6 +161,7 @@ public final class IndexSettings {
     private final boolean defaultAllowUnmappedFields;
     private final Predicate<String> indexNameMatcher;
     private volatile Translog.Durability durability;
+    private volatile boolean translogGroupCommit;
     private final TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
     private volatile ByteSizeValue flushThresholdSize;
@@ -155,6 +171,8 @@ public final class IndexSettings {
     private long gcDeletesInMillis = DEFAULT_GC_DELETES.millis();
     private volatile boolean warmerEnabled;
     private volatile int maxResultWindow;
+    private volatile boolean concurrentSegmentSearch;
+    private volatile int concurrentSegmentSearchMinDocsPerSlice;
     private volatile int maxRescoreWindow;
     private volatile boolean TTLPurgeDisabled;
     /**
@@ -241,6 +259,7 @@ public final class IndexSettings {
         this.defaultAllowUnmappedFields = scopedSettings.get(ALLOW_UNMAPPED);
         this.indexNameMatcher = indexNameMatcher;
         this.durability = scopedSettings.get(INDEX_TRANSLOG_DURABILITY_SETTING);
+        this.translogGroupCommit = scopedSettings.get(INDEX_TRANSLOG_GROUP_COMMIT_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
         flushThresholdSize = scopedSettings.get(INDEX_TRANSLOG_FLUSH_THRESHOLD_SIZE_SETTING);
@@ -248,6 +267,8 @@ public final class IndexSettings {
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
         warmerEnabled = scopedSettings.get(INDEX_WARMER_ENABLED_SETTING);
         maxResultWindow = scopedSettings.get(MAX_RESULT_WINDOW_SETTING);
+        concurrentSegmentSearch = scopedSettings.get(INDEX_SEARCH_CONCURRENT_SEGMENTS_SETTING);
+        concurrentSegmentSearchMinDocsPerSlice = scopedSettings.get(INDEX_SEARCH_CONCURRENT_SEGMENTS_MIN_DOCS_PER_SLICE_SETTING);
         maxRescoreWindow = scopedSettings.get(MAX_RESCORE_WINDOW_SETTING);
         TTLPurgeDisabled = scopedSettings.get(INDEX_TTL_DISABLE_PURGE_SETTING);
         maxRefreshListeners = scopedSettings.get(MAX_REFRESH_LISTENERS_PER_SHARD);
@@ -267,8 +288,12 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.MAX_MERGE_COUNT_SETTING, mergeSchedulerConfig::setMaxMergeCount);
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.AUTO_THROTTLE_SETTING, mergeSchedulerConfig::setAutoThrottle);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_DURABILITY_SETTING, this::setTranslogDurability);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GROUP_COMMIT_SETTING, this::setTranslogGroupCommit);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TTL_DISABLE_PURGE_SETTING, this::setTTLPurgeDisabled);
         scopedSettings.addSettingsUpdateConsumer(MAX_RESULT_WINDOW_SETTING, this::setMaxResultWindow);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_CONCURRENT_SEGMENTS_SETTING, this::setConcurrentSegmentSearch);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_CONCURRENT_SEGMENTS_MIN_DOCS_PER_SLICE_SETTING,
+            this::setConcurrentSegmentSearchMinDocsPerSlice);
         scopedSettings.addSettingsUpdateConsumer(MAX_RESCORE_WINDOW_SETTING, this::setMaxRescoreWindow);
         scopedSettings.addSettingsUpdateConsumer(INDEX_WARMER_ENABLED_SETTING, this::setEnableWarmer);
         scopedSettings.addSettingsUpdateConsumer(INDEX_GC_DELETES_SETTING, this::setGCDeletes);
@@ -437,6 +462,18 @@ public final class IndexSettings {
         this.durability = durability;
     }
 
+    /**
+     * Returns <code>true</code> if request level translog fsyncs should be batched by a single syncer per shard instead of being
+     * executed by each write thread. Only relevant if the durability is {@link Translog.Durability#REQUEST}.
+     */
+    public boolean isTranslogGroupCommit() {
+        return translogGroupCommit;
+    }
+
+    private void setTranslogGroupCommit(boolean translogGroupCommit) {
+        this.translogGroupCommit = translogGroupCommit;
+    }
+
     /**
      * Returns true if index warmers are enabled, otherwise <code>false</code>
      */
@@ -484,6 +521,28 @@ public final class IndexSettings {
         this.maxResultWindow = maxResultWindow;
     }
 
+    /**
+     * Returns <code>true</code> if searches should collect the segments of a shard concurrently. Default is <code>false</code>
+     */
+    public boolean isConcurrentSegmentSearch() {
+        return concurrentSegmentSearch;
+    }
+
+    private void setConcurrentSegmentSearch(boolean concurrentSegmentSearch) {
+        this.concurrentSegmentSearch = concurrentSegmentSearch;
+    }
+
+    /**
+     * Returns the minimum number of documents of a slice when collecting segments concurrently.
+     */
+    public int getConcurrentSegmentSearchMinDocsPerSlice() {
+        return concurrentSegmentSearchMinDocsPerSlice;
+    }
+
+    private void setConcurrentSegmentSearchMinDocsPerSlice(int minDocsPerSlice) {
+        this.concurrentSegmentSearchMinDocsPerSlice = minDocsPerSlice;
+    }
+
     /**
      * Returns the maximum rescore window for search requests.
      */
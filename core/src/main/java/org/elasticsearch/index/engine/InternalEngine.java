@@ -49,6 +49,7 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
@@ -119,7 +120,8 @@ public class InternalEngine extends Engine {
     public InternalEngine(EngineConfig engineConfig) throws EngineException {
         super(engineConfig);
         openMode = engineConfig.getOpenMode();
-        this.versionMap = new LiveVersionMap();
+        // the paged version map is accounted for in the indexing buffer rather than the request breaker, so it gets plain pages
+        this.versionMap = engineConfig.isVersionMapPaged() ? new LiveVersionMap(BigArrays.NON_RECYCLING_INSTANCE) : new LiveVersionMap();
         store.incRef();
         IndexWriter writer = null;
         Translog translog = null;
@@ -24,6 +24,8 @@ import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
 import java.io.IOException;
@@ -54,10 +56,52 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
         }
     }
 
+    /** Paged counterpart of {@link Maps}, used instead of it if this version map was created with {@link BigArrays}. */
+    private static class PagedMaps {
+
+        // All writes (adds and deletes) go into here:
+        final PagedVersionMap current;
+
+        // Used while refresh is running, and to hold adds/deletes until refresh finishes.  We read from both current and old on lookup:
+        final PagedVersionMap old;
+
+        PagedMaps(PagedVersionMap current, PagedVersionMap old) {
+            this.current = current;
+            this.old = old;
+        }
+
+        PagedMaps(BigArrays bigArrays) {
+            this(new PagedVersionMap(bigArrays), new PagedVersionMap(bigArrays));
+        }
+    }
+
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef,VersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    /** Big arrays used to allocate the paged current and old maps, or null if they are concurrent hash maps. */
+    private final BigArrays bigArrays;
+
+    // Exactly one of these two is non-null, depending on whether this version map is paged:
+    private volatile Maps maps;
+    private volatile PagedMaps pagedMaps;
+
+    /** Creates a version map that keeps the current and old maps in concurrent hash maps. */
+    LiveVersionMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a version map that keeps the current and old maps in {@link PagedVersionMap}s allocated from the given big arrays, or in
+     * concurrent hash maps if bigArrays is null.
+     */
+    LiveVersionMap(BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        if (bigArrays == null) {
+            maps = new Maps();
+        } else {
+            pagedMaps = new PagedMaps(bigArrays);
+        }
+    }
 
     private ReferenceManager mgr;
 
@@ -96,7 +140,7 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
         // In case InternalEngine closes & opens a new IndexWriter/SearcherManager, all deletes are made visible, so we clear old and
         // current here.  This is safe because caller holds writeLock here (so no concurrent adds/deletes can be happeninge):
-        maps = new Maps();
+        resetMaps();
 
         // So we are notified when reopen starts and finishes
         mgr.addListener(this);
@@ -108,7 +152,14 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
         // map.  While reopen is running, any lookup will first
         // try this new map, then fallback to old, then to the
         // current searcher:
-        maps = new Maps(ConcurrentCollections.<BytesRef,VersionValue>newConcurrentMapWithAggressiveConcurrency(), maps.current);
+        if (bigArrays == null) {
+            maps = new Maps(ConcurrentCollections.<BytesRef,VersionValue>newConcurrentMapWithAggressiveConcurrency(), maps.current);
+        } else {
+            final PagedMaps previous = pagedMaps;
+            pagedMaps = new PagedMaps(new PagedVersionMap(bigArrays), previous.current);
+            // Like above, the previous old map is dropped here; we just also release its pages:
+            previous.old.close();
+        }
 
         // This is not 100% correct, since concurrent indexing ops can change these counters in between our execution of the previous
         // line and this one, but that should be minor, and the error won't accumulate over time:
@@ -123,11 +174,39 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
         // case.  This is because we assign new maps (in beforeRefresh) slightly before Lucene actually flushes any segments for the
         // reopen, and so any concurrent indexing requests can still sneak in a few additions to that current map that are in fact reflected
         // in the previous reader.   We don't touch tombstones here: they expire on their own index.gc_deletes timeframe:
-        maps = new Maps(maps.current, ConcurrentCollections.<BytesRef,VersionValue>newConcurrentMapWithAggressiveConcurrency());
+        if (bigArrays == null) {
+            maps = new Maps(maps.current, ConcurrentCollections.<BytesRef,VersionValue>newConcurrentMapWithAggressiveConcurrency());
+        } else {
+            // Dropping the paged old map is O(1) in the number of entries: we only release its pages. A concurrent lookup that still
+            // holds on to it will see it as empty and fall back to the tombstones and the searcher, just like a lookup that started
+            // after the swap:
+            final PagedMaps previous = pagedMaps;
+            pagedMaps = new PagedMaps(previous.current, new PagedVersionMap(bigArrays));
+            previous.old.close();
+        }
+    }
+
+    /** Replaces the current and old maps with empty ones. */
+    private void resetMaps() {
+        if (bigArrays == null) {
+            maps = new Maps();
+        } else {
+            final PagedMaps previous = pagedMaps;
+            pagedMaps = new PagedMaps(bigArrays);
+            Releasables.close(previous.current, previous.old);
+        }
     }
 
     /** Returns the live version (add or delete) for this uid. */
     VersionValue getUnderLock(final Term uid) {
+        if (bigArrays != null) {
+            final PagedMaps currentMaps = pagedMaps;
+            VersionValue value = currentMaps.current.get(uid.bytes());
+            if (value == null) {
+                value = currentMaps.old.get(uid.bytes());
+            }
+            return value != null ? value : tombstones.get(uid.bytes());
+        }
         Maps currentMaps = maps;
 
         // First try to get the "live" value:
@@ -149,6 +228,23 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
         long uidRAMBytesUsed = BASE_BYTES_PER_BYTESREF + uid.bytes.length;
 
+        if (bigArrays != null) {
+            // The paged maps account for their own RAM, so we only need to take care of the tombstones here:
+            pagedMaps.current.put(uid, version);
+            final VersionValue prevTombstone;
+            if (version.delete()) {
+                prevTombstone = tombstones.put(uid, version);
+                ramBytesUsedTombstones.addAndGet(BASE_BYTES_PER_CHM_ENTRY + version.ramBytesUsed() + uidRAMBytesUsed);
+            } else {
+                prevTombstone = tombstones.remove(uid);
+            }
+            if (prevTombstone != null) {
+                long v = ramBytesUsedTombstones.addAndGet(-(BASE_BYTES_PER_CHM_ENTRY + prevTombstone.ramBytesUsed() + uidRAMBytesUsed));
+                assert v >= 0: "bytes=" + v;
+            }
+            return;
+        }
+
         final VersionValue prev = maps.current.put(uid, version);
         if (prev != null) {
             // Deduct RAM for the version we just replaced:
@@ -204,6 +300,10 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
             long v = ramBytesUsedTombstones.addAndGet(-(BASE_BYTES_PER_CHM_ENTRY + prev.ramBytesUsed() + uidRAMBytesUsed));
             assert v >= 0: "bytes=" + v;
         }
+        if (bigArrays != null) {
+            // The paged maps account for their own RAM, so there is nothing to shift:
+            return;
+        }
         final VersionValue curVersion = maps.current.get(uid);
         if (curVersion != null && curVersion.delete()) {
             // We now shift accounting of the BytesRef from tombstones to current, because a refresh would clear this RAM.  This should be
@@ -225,7 +325,7 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
     /** Called when this index is closed. */
     synchronized void clear() {
-        maps = new Maps();
+        resetMaps();
         tombstones.clear();
         ramBytesUsedCurrent.set(0);
 
@@ -242,12 +342,16 @@ class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
     @Override
     public long ramBytesUsed() {
-        return ramBytesUsedCurrent.get() + ramBytesUsedTombstones.get();
+        return ramBytesUsedForRefresh() + ramBytesUsedTombstones.get();
     }
 
     /** Returns how much RAM would be freed up by refreshing. This is {@link ramBytesUsed} except does not include tombstones because they
      *  don't clear on refresh. */
     long ramBytesUsedForRefresh() {
+        if (bigArrays != null) {
+            // exact, rather than estimated, for paged maps:
+            return pagedMaps.current.ramBytesUsed();
+        }
         return ramBytesUsedCurrent.get();
     }
 
@@ -0,0 +1,211 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+/**
+ * Maps _uid value to its version information like a {@link java.util.concurrent.ConcurrentHashMap} would, but stores the uids and the
+ * versions in paged primitive arrays allocated from {@link BigArrays} instead of a map node, a {@link BytesRef}, a {@link VersionValue}
+ * and a {@link Translog.Location} per entry. The number of objects the garbage collector has to trace is therefore independent of the
+ * number of entries, dropping the map is just dropping a handful of arrays and {@link #ramBytesUsed()} is exact rather than estimated.
+ * <p>
+ * The map is split into stripes by uid hash, each guarded by its own lock, so concurrent operations on different uids rarely contend.
+ * Once the map is closed it behaves as if it was empty: lookups return null and puts are ignored. This mirrors what happens to a
+ * concurrent hash map that was swapped out of {@link LiveVersionMap} while another thread was still using it.
+ */
+final class PagedVersionMap implements Releasable {
+
+    private static final int NUM_STRIPES = 16; // must be a power of two
+    private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(NUM_STRIPES);
+
+    private static final byte FLAG_DELETE = 1;
+    private static final byte FLAG_HAS_LOCATION = 2;
+
+    private final BigArrays bigArrays;
+    private final Stripe[] stripes;
+
+    PagedVersionMap(BigArrays bigArrays) {
+        this.bigArrays = bigArrays;
+        this.stripes = new Stripe[NUM_STRIPES];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripe(int hash) {
+        // BytesRefHash buckets on the low bits of the (re-mixed) hash so we pick the stripe from the high bits
+        return stripes[hash >>> STRIPE_SHIFT];
+    }
+
+    /**
+     * Returns the version stored for this uid or null if there is none. The map keeps no per uid objects so the returned value is built
+     * on every call: callers should keep it rather than looking the uid up again.
+     */
+    VersionValue get(BytesRef uid) {
+        final int hash = uid.hashCode();
+        return stripe(hash).get(uid, hash);
+    }
+
+    /** Stores the version for this uid, replacing any previous version. */
+    void put(BytesRef uid, VersionValue version) {
+        final int hash = uid.hashCode();
+        stripe(hash).put(uid, hash, version);
+    }
+
+    /** Returns the number of uids in this map. */
+    long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /** Returns the exact number of bytes held by the arrays backing this map. */
+    long ramBytesUsed() {
+        long bytes = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER + RamUsageEstimator.NUM_BYTES_OBJECT_REF * 2
+            + RamUsageEstimator.shallowSizeOf(stripes);
+        for (Stripe stripe : stripes) {
+            bytes += stripe.ramBytesUsed();
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        for (Stripe stripe : stripes) {
+            stripe.close();
+        }
+    }
+
+    /**
+     * A single open addressing hash of uids to dense ids and a column per version attribute, indexed by id.
+     */
+    private final class Stripe {
+        private final BytesRefHash uids;
+        private LongArray versions;
+        private LongArray times;
+        private LongArray translogGenerations;
+        private LongArray translogOffsets;
+        private IntArray translogSizes;
+        private ByteArray flags;
+        private boolean closed;
+
+        Stripe() {
+            final long initialCapacity = 16;
+            boolean success = false;
+            try {
+                uids = new BytesRefHash(initialCapacity, bigArrays);
+                versions = bigArrays.newLongArray(initialCapacity, false);
+                times = bigArrays.newLongArray(initialCapacity, false);
+                translogGenerations = bigArrays.newLongArray(initialCapacity, false);
+                translogOffsets = bigArrays.newLongArray(initialCapacity, false);
+                translogSizes = bigArrays.newIntArray(initialCapacity, false);
+                flags = bigArrays.newByteArray(initialCapacity, false);
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        synchronized VersionValue get(BytesRef uid, int hash) {
+            if (closed) {
+                return null;
+            }
+            final long id = uids.find(uid, hash);
+            if (id < 0) {
+                return null;
+            }
+            final byte flag = flags.get(id);
+            final Translog.Location location;
+            if ((flag & FLAG_HAS_LOCATION) != 0) {
+                location = new Translog.Location(translogGenerations.get(id), translogOffsets.get(id), translogSizes.get(id));
+            } else {
+                location = null;
+            }
+            if ((flag & FLAG_DELETE) != 0) {
+                return new DeleteVersionValue(versions.get(id), times.get(id), location);
+            }
+            return new VersionValue(versions.get(id), location);
+        }
+
+        synchronized void put(BytesRef uid, int hash, VersionValue version) {
+            if (closed) {
+                return;
+            }
+            long id = uids.add(uid, hash);
+            if (id < 0) {
+                id = -1 - id;
+            } else {
+                versions = bigArrays.grow(versions, id + 1);
+                times = bigArrays.grow(times, id + 1);
+                translogGenerations = bigArrays.grow(translogGenerations, id + 1);
+                translogOffsets = bigArrays.grow(translogOffsets, id + 1);
+                translogSizes = bigArrays.grow(translogSizes, id + 1);
+                flags = bigArrays.grow(flags, id + 1);
+            }
+            byte flag = 0;
+            versions.set(id, version.version());
+            if (version.delete()) {
+                flag |= FLAG_DELETE;
+                times.set(id, version.time());
+            }
+            final Translog.Location location = version.translogLocation();
+            if (location != null) {
+                flag |= FLAG_HAS_LOCATION;
+                translogGenerations.set(id, location.generation);
+                translogOffsets.set(id, location.translogLocation);
+                translogSizes.set(id, location.size);
+            }
+            flags.set(id, flag);
+        }
+
+        synchronized long size() {
+            return closed ? 0 : uids.size();
+        }
+
+        synchronized long ramBytesUsed() {
+            if (closed) {
+                return 0;
+            }
+            return uids.ramBytesUsed() + versions.ramBytesUsed() + times.ramBytesUsed() + translogGenerations.ramBytesUsed()
+                + translogOffsets.ramBytesUsed() + translogSizes.ramBytesUsed() + flags.ramBytesUsed();
+        }
+
+        synchronized void close() {
+            if (closed == false) {
+                closed = true;
+                Releasables.close(uids, versions, times, translogGenerations, translogOffsets, translogSizes, flags);
+            }
+        }
+    }
+}
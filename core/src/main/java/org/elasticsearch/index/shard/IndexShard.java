@@ -219,6 +219,12 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      */
     @Nullable
     private final RefreshListeners refreshListeners;
+    /**
+     * Batches request level translog syncs if {@link IndexSettings#isTranslogGroupCommit()} is enabled. This is nullable because
+     * {@linkplain ShadowIndexShard} doesn't have a translog.
+     */
+    @Nullable
+    private final TranslogSyncListeners translogSyncListeners;
 
     public IndexShard(ShardRouting shardRouting, IndexSettings indexSettings, ShardPath path, Store store, IndexCache indexCache,
                       MapperService mapperService, SimilarityService similarityService, IndexFieldDataService indexFieldDataService,
@@ -272,6 +278,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         searcherWrapper = indexSearcherWrapper;
         primaryTerm = indexSettings.getIndexMetaData().primaryTerm(shardId.id());
         refreshListeners = buildRefreshListeners();
+        translogSyncListeners = buildTranslogSyncListeners();
         persistMetadata(shardRouting, null);
     }
 
@@ -1637,6 +1644,27 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         }
     }
 
+    /**
+     * Syncs the given location with the underlying storage unless already synced and calls the listener once done. If translog group
+     * commit is enabled the sync is batched with concurrent syncs for this shard and the listener is called asynchronously, otherwise
+     * the sync happens on the calling thread.
+     *
+     * @param listener called with null once the location is synced or with the exception that prevented the sync
+     */
+    public void sync(Translog.Location location, Consumer<Exception> listener) {
+        if (translogSyncListeners != null && indexSettings.isTranslogGroupCommit()) {
+            translogSyncListeners.addOrNotify(location, listener);
+        } else {
+            try {
+                sync(location);
+            } catch (Exception e) {
+                listener.accept(e);
+                return;
+            }
+            listener.accept(null);
+        }
+    }
+
     /**
      * Returns the current translog durability mode
      */
@@ -1701,6 +1729,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 logger);
     }
 
+    /**
+     * Build {@linkplain TranslogSyncListeners} for this shard. Protected so {@linkplain ShadowIndexShard} can override it to return null.
+     */
+    protected TranslogSyncListeners buildTranslogSyncListeners() {
+        return new TranslogSyncListeners(
+                this::sync,
+                threadPool.executor(ThreadPool.Names.GENERIC)::execute,
+                threadPool.executor(ThreadPool.Names.LISTENER)::execute,
+                logger);
+    }
+
     /**
      * Simple struct encapsulating a shard failure
      *
@@ -94,6 +94,12 @@ public final class ShadowIndexShard extends IndexShard {
         return null;
     }
 
+    @Override
+    protected TranslogSyncListeners buildTranslogSyncListeners() {
+        // ShadowEngine doesn't have a translog so there is nothing to sync.
+        return null;
+    }
+
     @Override
     public boolean shouldFlush() {
         // we don't need to flush since we don't write - all dominated by the primary
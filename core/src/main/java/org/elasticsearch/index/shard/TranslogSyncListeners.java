@@ -0,0 +1,167 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.collect.Tuple;
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group commit for request level translog durability. Instead of every write thread running its own fsync (and parking on the
+ * translog writer's sync lock while another thread fsyncs) write threads register a listener for the location they need to be
+ * durable and return. A single syncer per shard picks up all pending locations, fsyncs once up to the highest one and notifies every
+ * waiter. Listeners that arrive while a sync is in flight are collected into the next batch. This functionality is exposed from
+ * {@link IndexShard} but kept here so it can be tested without standing up the entire thing.
+ */
+public final class TranslogSyncListeners {
+    private final Consumer<Translog.Location> syncAction;
+    private final Executor syncExecutor;
+    private final Executor listenerExecutor;
+    private final ESLogger logger;
+
+    /**
+     * Listeners waiting for the next sync. Defaults to null and built on demand. The syncer swaps it for null before each sync so every
+     * sync cycle owns the batch it is working on. Both the reference and the contents are always modified while synchronized on
+     * {@code this}.
+     */
+    private List<Tuple<Translog.Location, Consumer<Exception>>> pendingListeners = null;
+    /**
+     * Is a syncer currently scheduled or running? Only modified while synchronized on {@code this}.
+     */
+    private boolean syncerRunning = false;
+    /**
+     * The highest translog location that is known to be synced.
+     */
+    private volatile Translog.Location lastSyncedLocation;
+
+    /**
+     * @param syncAction syncs the translog up to at least the given location, throwing an exception if that isn't possible
+     * @param syncExecutor executor the syncer runs on. The syncer blocks on fsync so this should not be a bounded write pool.
+     * @param listenerExecutor executor used to notify the listeners once their location is synced
+     */
+    public TranslogSyncListeners(Consumer<Translog.Location> syncAction, Executor syncExecutor, Executor listenerExecutor,
+                                 ESLogger logger) {
+        this.syncAction = syncAction;
+        this.syncExecutor = syncExecutor;
+        this.listenerExecutor = listenerExecutor;
+        this.logger = logger;
+    }
+
+    /**
+     * Add a listener that is called once the given location is synced, calling it immediately if the location is already synced.
+     *
+     * @param location the location that needs to be durable
+     * @param listener called with null once the location is synced or with the exception that prevented the sync
+     * @return did we call the listener (true) or register the listener to call later (false)?
+     */
+    public boolean addOrNotify(Translog.Location location, Consumer<Exception> listener) {
+        requireNonNull(listener, "listener cannot be null");
+        requireNonNull(location, "location cannot be null");
+
+        final Translog.Location synced = lastSyncedLocation;
+        if (synced != null && synced.compareTo(location) >= 0) {
+            // Location already synced, just call the listener
+            listener.accept(null);
+            return true;
+        }
+        final boolean startSyncer;
+        synchronized (this) {
+            if (pendingListeners == null) {
+                pendingListeners = new ArrayList<>();
+            }
+            pendingListeners.add(new Tuple<>(location, listener));
+            startSyncer = syncerRunning == false;
+            syncerRunning = true;
+        }
+        if (startSyncer) {
+            try {
+                syncExecutor.execute(this::syncPending);
+            } catch (Exception e) {
+                /*
+                 * We couldn't hand the batch over to a syncer (most likely because the executor is shutting down). Run it here rather
+                 * than leaving the listeners hanging forever.
+                 */
+                logger.debug("failed to fork translog syncer, syncing on the calling thread", e);
+                syncPending();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if there are listeners waiting for a sync.
+     */
+    public synchronized boolean syncNeeded() {
+        return pendingListeners != null;
+    }
+
+    /**
+     * Drains the pending listeners batch by batch until no more listeners come in. Only one thread runs this at a time.
+     */
+    private void syncPending() {
+        while (true) {
+            final List<Tuple<Translog.Location, Consumer<Exception>>> batch;
+            synchronized (this) {
+                batch = pendingListeners;
+                if (batch == null) {
+                    syncerRunning = false;
+                    return;
+                }
+                pendingListeners = null;
+            }
+            Translog.Location maxLocation = batch.get(0).v1();
+            for (Tuple<Translog.Location, Consumer<Exception>> tuple : batch) {
+                if (tuple.v1().compareTo(maxLocation) > 0) {
+                    maxLocation = tuple.v1();
+                }
+            }
+            Exception failure = null;
+            try {
+                syncAction.accept(maxLocation);
+                final Translog.Location synced = lastSyncedLocation;
+                if (synced == null || synced.compareTo(maxLocation) < 0) {
+                    lastSyncedLocation = maxLocation; // only the syncer writes this so there is no lost update here
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+            fireListeners(batch, failure);
+        }
+    }
+
+    private void fireListeners(List<Tuple<Translog.Location, Consumer<Exception>>> batch, Exception failure) {
+        listenerExecutor.execute(() -> {
+            for (Tuple<Translog.Location, Consumer<Exception>> tuple : batch) {
+                try {
+                    tuple.v2().accept(failure);
+                } catch (Exception e) {
+                    logger.warn("Error firing translog sync listener", e);
+                }
+            }
+        });
+    }
+}
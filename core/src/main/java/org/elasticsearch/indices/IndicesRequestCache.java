@@ -23,6 +23,7 @@ import com.carrotsearch.hppc.ObjectHashSet;
 import com.carrotsearch.hppc.ObjectSet;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -45,6 +46,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
@@ -59,6 +61,9 @@ import java.util.concurrent.TimeUnit;
  * Currently, the cache is only enabled for count requests, and can only be opted in on an index
  * level setting that can be dynamically changed and defaults to false.
  * <p>
+ * Entries can also be cached per segment, keyed on the segment core instead of the index reader version, so that they
+ * survive refreshes that don't touch the segment. Those entries are cleaned once the segment core is closed.
+ * <p>
  * There are still several TODOs left in this class, some easily addressable, some more complex, but the support
  * is functional.
  */
@@ -71,6 +76,11 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
      */
     public static final Setting<Boolean> INDEX_CACHE_REQUEST_ENABLED_SETTING =
         Setting.boolSetting("index.requests.cache.enable", true, Property.Dynamic, Property.IndexScope);
+    /**
+     * A setting to cache the partial aggregation results of cacheable requests per segment rather than per index reader.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENTS_ENABLED_SETTING =
+        Setting.boolSetting("index.requests.cache.segments.enable", false, Property.Dynamic, Property.IndexScope);
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE =
         Setting.byteSizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
@@ -101,7 +111,7 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
     }
 
     void clear(CacheEntity entity) {
-        keysToClean.add(new CleanupKey(entity, -1));
+        keysToClean.add(new CleanupKey(entity, null));
         cleanCache();
     }
 
@@ -130,6 +140,41 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         return value.reference;
     }
 
+    /**
+     * Same as {@link #getOrCompute(CacheEntity, DirectoryReader, BytesReference)} but for a value that only depends on a
+     * single segment. The value is keyed on the core of the segment so it is reused across index readers, which means that
+     * it is up to the caller to make sure the value still matches the deleted documents of the segment, and to
+     * {@link #invalidate(CacheEntity, LeafReader, BytesReference) invalidate} it otherwise.
+     */
+    BytesReference getOrCompute(CacheEntity cacheEntity, LeafReader segment, BytesReference cacheKey) throws Exception {
+        final Object coreCacheKey = segment.getCoreCacheKey();
+        final Key key = new Key(cacheEntity, coreCacheKey, cacheKey);
+        Loader loader = new Loader(cacheEntity);
+        Value value = cache.computeIfAbsent(key, loader);
+        if (loader.isLoaded()) {
+            key.entity.onMiss();
+            // see if its the first time we see this segment, and make sure to register a cleanup key
+            CleanupKey cleanupKey = new CleanupKey(cacheEntity, coreCacheKey);
+            if (!registeredClosedListeners.containsKey(cleanupKey)) {
+                Boolean previous = registeredClosedListeners.putIfAbsent(cleanupKey, Boolean.TRUE);
+                if (previous == null) {
+                    segment.addCoreClosedListener(cleanupKey);
+                }
+            }
+        } else {
+            key.entity.onHit();
+        }
+        return value.reference;
+    }
+
+    /**
+     * Invalidates the value cached for the given segment, eg. because documents of the segment were deleted since it
+     * was computed.
+     */
+    void invalidate(CacheEntity cacheEntity, LeafReader segment, BytesReference cacheKey) {
+        cache.invalidate(new Key(cacheEntity, segment.getCoreCacheKey(), cacheKey));
+    }
+
     private static class Loader implements CacheLoader<Key, Value> {
 
         private final CacheEntity entity;
@@ -218,12 +263,14 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
 
     static class Key implements Accountable {
         public final CacheEntity entity; // use as identity equality
-        public final long readerVersion; // use the reader version to now keep a reference to a "short" lived reader until its reaped
+        // the version of the reader, not the reader itself, to not keep a reference to a "short" lived reader until its reaped,
+        // or the core cache key of the segment for per segment entries
+        public final Object readerCacheKey;
         public final BytesReference value;
 
-        Key(CacheEntity entity, long readerVersion, BytesReference value) {
+        Key(CacheEntity entity, Object readerCacheKey, BytesReference value) {
             this.entity = entity;
-            this.readerVersion = readerVersion;
+            this.readerCacheKey = readerCacheKey;
             this.value = value;
         }
 
@@ -242,7 +289,7 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         public boolean equals(Object o) {
             if (this == o) return true;
             Key key = (Key) o;
-            if (readerVersion != key.readerVersion) return false;
+            if (!readerCacheKey.equals(key.readerCacheKey)) return false;
             if (!entity.getCacheIdentity().equals(key.entity.getCacheIdentity())) return false;
             if (!value.equals(key.value)) return false;
             return true;
@@ -251,23 +298,32 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         @Override
         public int hashCode() {
             int result = entity.getCacheIdentity().hashCode();
-            result = 31 * result + Long.hashCode(readerVersion);
+            result = 31 * result + readerCacheKey.hashCode();
             result = 31 * result + value.hashCode();
             return result;
         }
     }
 
-    private class CleanupKey implements IndexReader.ReaderClosedListener {
+    private class CleanupKey implements IndexReader.ReaderClosedListener, LeafReader.CoreClosedListener {
         final CacheEntity entity;
-        final long readerVersion; // use the reader version to now keep a reference to a "short" lived reader until its reaped
+        final Object readerCacheKey; // the reader version or segment core key, null to clean all entries of the entity
 
-        private CleanupKey(CacheEntity entity, long readerVersion) {
+        private CleanupKey(CacheEntity entity, Object readerCacheKey) {
             this.entity = entity;
-            this.readerVersion = readerVersion;
+            this.readerCacheKey = readerCacheKey;
         }
 
         @Override
         public void onClose(IndexReader reader) {
+            onClose();
+        }
+
+        @Override
+        public void onClose(Object ownerCoreCacheKey) {
+            onClose();
+        }
+
+        private void onClose() {
             Boolean remove = registeredClosedListeners.remove(this);
             if (remove != null) {
                 keysToClean.add(this);
@@ -278,7 +334,7 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         public boolean equals(Object o) {
             if (this == o) return true;
             CleanupKey that = (CleanupKey) o;
-            if (readerVersion != that.readerVersion) return false;
+            if (!Objects.equals(readerCacheKey, that.readerCacheKey)) return false;
             if (!entity.getCacheIdentity().equals(that.entity.getCacheIdentity())) return false;
             return true;
         }
@@ -286,7 +342,7 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         @Override
         public int hashCode() {
             int result = entity.getCacheIdentity().hashCode();
-            result = 31 * result + Long.hashCode(readerVersion);
+            result = 31 * result + Objects.hashCode(readerCacheKey);
             return result;
         }
     }
@@ -301,8 +357,8 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
         for (Iterator<CleanupKey> iterator = keysToClean.iterator(); iterator.hasNext(); ) {
             CleanupKey cleanupKey = iterator.next();
             iterator.remove();
-            if (cleanupKey.readerVersion == -1 || cleanupKey.entity.isOpen() == false) {
-                // -1 indicates full cleanup, as does a closed shard
+            if (cleanupKey.readerCacheKey == null || cleanupKey.entity.isOpen() == false) {
+                // null indicates full cleanup, as does a closed shard
                 currentFullClean.add(cleanupKey.entity.getCacheIdentity());
             } else {
                 currentKeysToClean.add(cleanupKey);
@@ -314,7 +370,7 @@ public final class IndicesRequestCache extends AbstractComponent implements Remo
                 if (currentFullClean.contains(key.entity.getCacheIdentity())) {
                     iterator.remove();
                 } else {
-                    if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerVersion))) {
+                    if (currentKeysToClean.contains(new CleanupKey(key.entity, key.readerCacheKey))) {
                         iterator.remove();
                     }
                 }
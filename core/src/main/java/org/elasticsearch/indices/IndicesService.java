@@ -21,6 +21,7 @@ package org.elasticsearch.indices;
 
 import com.carrotsearch.hppc.cursors.ObjectCursor;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.store.LockObtainFailedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.IOUtils;
@@ -104,6 +105,7 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QueryPhase;
 import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.query.SegmentQueryResult;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.Closeable;
@@ -1101,6 +1103,13 @@ public class IndicesService extends AbstractLifecycleComponent
      */
     public void loadIntoContext(ShardSearchRequest request, SearchContext context, QueryPhase queryPhase) throws Exception {
         assert canCache(request, context);
+        final IndexSettings settings = context.indexShard().indexSettings();
+        if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENTS_ENABLED_SETTING)
+                && QueryPhase.canExecuteBySegment(context)) {
+            final BytesReference cacheKey = request.cacheKey();
+            queryPhase.execute(context, (segment, collector) -> loadSegmentResult(context, segment.reader(), cacheKey, collector));
+            return;
+        }
         final IndexShardCacheEntity entity = new IndexShardCacheEntity(context.indexShard(), out -> {
             queryPhase.execute(context);
             context.queryResult().writeToNoId(out);
@@ -1116,6 +1125,34 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Loads the result of a single segment from the cache, computing it if needed. Cached results are keyed on the segment
+     * core, so they are reused by the readers of later refreshes as long as no documents of the segment were deleted.
+     */
+    private SegmentQueryResult loadSegmentResult(SearchContext context, LeafReader segment, BytesReference cacheKey,
+                                                 QueryPhase.SegmentCollector collector) throws Exception {
+        SegmentQueryResult result = getOrComputeSegmentResult(context, segment, cacheKey, collector);
+        if (result.numDocs() > segment.numDocs()) {
+            // documents of the segment were deleted since the result was cached
+            indicesRequestCache.invalidate(new IndexShardCacheEntity(context.indexShard(), null), segment, cacheKey);
+            result = getOrComputeSegmentResult(context, segment, cacheKey, collector);
+        }
+        if (result.numDocs() != segment.numDocs()) {
+            // cached by a concurrent search whose reader doesn't see the same deletes, compute our own without caching it
+            result = collector.collect();
+        }
+        return result;
+    }
+
+    private SegmentQueryResult getOrComputeSegmentResult(SearchContext context, LeafReader segment, BytesReference cacheKey,
+                                                         QueryPhase.SegmentCollector collector) throws Exception {
+        final IndexShardCacheEntity entity = new IndexShardCacheEntity(context.indexShard(), out -> collector.collect().writeTo(out));
+        final BytesReference bytesReference = indicesRequestCache.getOrCompute(entity, segment, cacheKey);
+        try (StreamInput in = new NamedWriteableAwareStreamInput(bytesReference.streamInput(), namedWriteableRegistry)) {
+            return new SegmentQueryResult(in);
+        }
+    }
+
     /**
      * Fetch {@linkplain FieldStats} for a field. These stats are cached until the shard changes.
      * @param shard the shard to use with the cache key
@@ -202,7 +202,8 @@ public class RecoverySource extends AbstractComponent implements IndexEventListe
                         this::delayNewRecoveries, logger);
                 } else {
                     handler = new RecoverySourceHandler(shard, recoveryTarget, request, currentClusterStateVersionSupplier,
-                        this::delayNewRecoveries, recoverySettings.getChunkSize().bytesAsInt(), logger);
+                        this::delayNewRecoveries, recoverySettings.getChunkSize().bytesAsInt(),
+                        recoverySettings.getMaxConcurrentFileChunks(), recoverySettings.getMaxConcurrentFiles(), logger);
                 }
                 return handler;
             }
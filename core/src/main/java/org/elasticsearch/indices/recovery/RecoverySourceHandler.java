@@ -30,6 +30,7 @@ import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
@@ -37,6 +38,7 @@ import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.CancellableThreads;
 import org.elasticsearch.index.engine.RecoveryEngineException;
@@ -53,7 +55,12 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
@@ -81,6 +88,8 @@ public class RecoverySourceHandler {
     private final Supplier<Long> currentClusterStateVersionSupplier;
     private final Function<String, Releasable> delayNewRecoveries;
     private final int chunkSizeInBytes;
+    private final int maxConcurrentFileChunks;
+    private final int maxConcurrentFiles;
     private final RecoveryTargetHandler recoveryTarget;
 
     protected final RecoveryResponse response;
@@ -107,6 +116,19 @@ public class RecoverySourceHandler {
                                  Function<String, Releasable> delayNewRecoveries,
                                  final int fileChunkSizeInBytes,
                                  final ESLogger logger) {
+        this(shard, recoveryTarget, request, currentClusterStateVersionSupplier, delayNewRecoveries, fileChunkSizeInBytes,
+            RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILE_CHUNKS_SETTING.getDefault(Settings.EMPTY),
+            RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_FILES_SETTING.getDefault(Settings.EMPTY), logger);
+    }
+
+    public RecoverySourceHandler(final IndexShard shard, RecoveryTargetHandler recoveryTarget,
+                                 final StartRecoveryRequest request,
+                                 final Supplier<Long> currentClusterStateVersionSupplier,
+                                 Function<String, Releasable> delayNewRecoveries,
+                                 final int fileChunkSizeInBytes,
+                                 final int maxConcurrentFileChunks,
+                                 final int maxConcurrentFiles,
+                                 final ESLogger logger) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.request = request;
@@ -116,6 +138,8 @@ public class RecoverySourceHandler {
         this.indexName = this.request.shardId().getIndex().getName();
         this.shardId = this.request.shardId().id();
         this.chunkSizeInBytes = fileChunkSizeInBytes;
+        this.maxConcurrentFileChunks = maxConcurrentFileChunks;
+        this.maxConcurrentFiles = maxConcurrentFiles;
         this.response = new RecoveryResponse();
     }
 
@@ -267,10 +291,14 @@ public class RecoverySourceHandler {
                 cancellableThreads.execute(() ->
                         recoveryTarget.receiveFileInfo(response.phase1FileNames, response.phase1FileSizes, response.phase1ExistingFileNames,
                                 response.phase1ExistingFileSizes, translogView.totalOperations()));
-                // How many bytes we've copied since we last called RateLimiter.pause
-                final Function<StoreFileMetaData, OutputStream> outputStreamFactories =
-                        md -> new BufferedOutputStream(new RecoveryOutputStream(md, translogView), chunkSizeInBytes);
-                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[phase1Files.size()]), outputStreamFactories);
+                final FileChunkPipeline fileChunkPipeline = new FileChunkPipeline(translogView);
+                sendFiles(store, phase1Files.toArray(new StoreFileMetaData[phase1Files.size()]), fileChunkPipeline::newOutputStream);
+                try {
+                    // wait for the target to acknowledge the chunks that are still being sent
+                    fileChunkPipeline.awaitCompletion();
+                } catch (FileChunkException e) {
+                    handleErrorOnSendFiles(store, e, null);
+                }
                 // Send the CLEAN_FILES request, which takes all of the files that
                 // were transferred and renames them from their temporary file
                 // names to the actual file names. It also writes checksums for
@@ -506,37 +534,137 @@ public class RecoverySourceHandler {
     }
 
 
-    final class RecoveryOutputStream extends OutputStream {
-        private final StoreFileMetaData md;
+    /**
+     * Sends files to the target in chunks without waiting for each chunk to be acknowledged before reading and sending the next one.
+     * Up to {@link #maxConcurrentFileChunks} chunks of a file are sent to the target concurrently, and the chunks of up to
+     * {@link #maxConcurrentFiles} files, so that a recovery isn't bound by the latency of the round trip to the target. The
+     * throughput remains governed by the recovery rate limiter.
+     */
+    final class FileChunkPipeline {
         private final Translog.View translogView;
-        private long position = 0;
+        private final Semaphore filePermits = new Semaphore(maxConcurrentFiles);
+        private final AtomicReference<FileChunkException> failure = new AtomicReference<>();
 
-        RecoveryOutputStream(StoreFileMetaData md, Translog.View translogView) {
-            this.md = md;
+        FileChunkPipeline(Translog.View translogView) {
             this.translogView = translogView;
         }
 
-        @Override
-        public void write(int b) throws IOException {
-            throw new UnsupportedOperationException("we can't send single bytes over the wire");
+        OutputStream newOutputStream(StoreFileMetaData md) {
+            return new BufferedOutputStream(new RecoveryOutputStream(md), chunkSizeInBytes);
         }
 
-        @Override
-        public void write(byte[] b, int offset, int length) throws IOException {
-            sendNextChunk(position, new BytesArray(b, offset, length), md.length() == position + length);
-            position += length;
-            assert md.length() >= position : "length: " + md.length() + " but positions was: " + position;
+        /**
+         * Waits for all chunks to be acknowledged by the target, rethrowing the first failure to send a chunk.
+         */
+        void awaitCompletion() throws IOException {
+            cancellableThreads.execute(() -> filePermits.acquire(maxConcurrentFiles));
+            filePermits.release(maxConcurrentFiles);
+            ensureNoFailure();
         }
 
-        private void sendNextChunk(long position, BytesArray content, boolean lastChunk) throws IOException {
-            // Actually send the file chunk to the target node, waiting for it to complete
-            cancellableThreads.executeIO(() ->
-                    recoveryTarget.writeFileChunk(md, position, content, lastChunk, translogView.totalOperations())
-            );
-            if (shard.state() == IndexShardState.CLOSED) { // check if the shard got closed on us
-                throw new IndexShardClosedException(request.shardId());
+        private void ensureNoFailure() throws FileChunkException {
+            FileChunkException e = failure.get();
+            if (e != null) {
+                throw e;
             }
         }
+
+        final class RecoveryOutputStream extends OutputStream {
+            private final StoreFileMetaData md;
+            private final Semaphore chunkPermits = new Semaphore(maxConcurrentFileChunks);
+            /** the number of chunks waiting for an acknowledgement, plus one until the stream is closed */
+            private final AtomicInteger pendingChunks = new AtomicInteger(1);
+            private long position = 0;
+            private volatile boolean holdsFilePermit = false;
+            private boolean closed = false;
+
+            RecoveryOutputStream(StoreFileMetaData md) {
+                this.md = md;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                throw new UnsupportedOperationException("we can't send single bytes over the wire");
+            }
+
+            @Override
+            public void write(byte[] b, int offset, int length) throws IOException {
+                ensureNoFailure();
+                if (holdsFilePermit == false) {
+                    cancellableThreads.execute(filePermits::acquire);
+                    holdsFilePermit = true;
+                }
+                cancellableThreads.execute(chunkPermits::acquire);
+                // the buffer is reused once we return, while the chunk may not be sent yet
+                final BytesArray content = new BytesArray(Arrays.copyOfRange(b, offset, offset + length));
+                final long chunkPosition = position;
+                final boolean lastChunk = md.length() == position + length;
+                position += length;
+                assert md.length() >= position : "length: " + md.length() + " but positions was: " + position;
+                pendingChunks.incrementAndGet();
+                final AtomicBoolean completed = new AtomicBoolean();
+                ActionListener<Void> listener = new ActionListener<Void>() {
+                    @Override
+                    public void onResponse(Void aVoid) {
+                        if (completed.compareAndSet(false, true)) {
+                            onChunkCompleted();
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        if (completed.compareAndSet(false, true)) {
+                            failure.compareAndSet(null, new FileChunkException(md, e));
+                            onChunkCompleted();
+                        }
+                    }
+                };
+                try {
+                    // Actually send the file chunk to the target node, this may pause to throttle the recovery
+                    cancellableThreads.executeIO(() ->
+                        recoveryTarget.writeFileChunk(md, chunkPosition, content, lastChunk, translogView.totalOperations(), listener)
+                    );
+                } catch (Exception e) {
+                    listener.onFailure(e);
+                    throw e;
+                }
+                if (shard.state() == IndexShardState.CLOSED) { // check if the shard got closed on us
+                    throw new IndexShardClosedException(request.shardId());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed == false) {
+                    closed = true;
+                    decrementPendingChunks();
+                }
+                ensureNoFailure();
+            }
+
+            private void onChunkCompleted() {
+                chunkPermits.release();
+                decrementPendingChunks();
+            }
+
+            private void decrementPendingChunks() {
+                if (pendingChunks.decrementAndGet() == 0 && holdsFilePermit) {
+                    filePermits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * The failure to send a chunk of a file, which may only be noticed while sending other files.
+     */
+    static final class FileChunkException extends IOException {
+        private final StoreFileMetaData md;
+
+        FileChunkException(StoreFileMetaData md, Exception cause) {
+            super("failed to send a chunk of file [" + md.name() + "]", cause);
+            this.md = md;
+        }
     }
 
     void sendFiles(Store store, StoreFileMetaData[] files, Function<StoreFileMetaData, OutputStream> outputStreamFactory) throws Exception {
@@ -550,23 +678,7 @@ public class RecoverySourceHandler {
                     // exceptions during close correctly and doesn't hide the original exception.
                     Streams.copy(new InputStreamIndexInput(indexInput, md.length()), outputStreamFactory.apply(md));
                 } catch (Exception e) {
-                    final IOException corruptIndexException;
-                    if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
-                        if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
-                            logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
-                            failEngine(corruptIndexException);
-                            throw corruptIndexException;
-                        } else { // corruption has happened on the way to replica
-                            RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
-                                    "checksums are ok", null);
-                            exception.addSuppressed(e);
-                            logger.warn("{} Remote file corruption on node {}, recovering {}. local checksum OK",
-                                    corruptIndexException, shardId, request.targetNode(), md);
-                            throw exception;
-                        }
-                    } else {
-                        throw e;
-                    }
+                    handleErrorOnSendFiles(store, e, md);
                 }
             }
         } finally {
@@ -574,6 +686,31 @@ public class RecoverySourceHandler {
         }
     }
 
+    private void handleErrorOnSendFiles(Store store, Exception e, StoreFileMetaData md) throws Exception {
+        if (e instanceof FileChunkException) {
+            // the failure may be about a chunk of another file that was sent concurrently
+            md = ((FileChunkException) e).md;
+            e = (Exception) e.getCause();
+        }
+        final IOException corruptIndexException;
+        if ((corruptIndexException = ExceptionsHelper.unwrapCorruption(e)) != null) {
+            if (store.checkIntegrityNoException(md) == false) { // we are corrupted on the primary -- fail!
+                logger.warn("{} Corrupted file detected {} checksum mismatch", shardId, md);
+                failEngine(corruptIndexException);
+                throw corruptIndexException;
+            } else { // corruption has happened on the way to replica
+                RemoteTransportException exception = new RemoteTransportException("File corruption occurred on recovery but " +
+                        "checksums are ok", null);
+                exception.addSuppressed(e);
+                logger.warn("{} Remote file corruption on node {}, recovering {}. local checksum OK",
+                        corruptIndexException, shardId, request.targetNode(), md);
+                throw exception;
+            }
+        } else {
+            throw e;
+        }
+    }
+
     protected void failEngine(IOException cause) {
         shard.failShard("recovery", cause);
     }
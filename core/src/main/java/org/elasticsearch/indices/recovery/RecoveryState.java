@@ -25,6 +25,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -380,6 +381,8 @@ public class RecoveryState implements ToXContent, Streamable {
         static final String REUSED = "reused";
         static final String REUSED_IN_BYTES = "reused_in_bytes";
         static final String PERCENT = "percent";
+        static final String THROUGHPUT = "throughput";
+        static final String THROUGHPUT_IN_BYTES_PER_SEC = "throughput_in_bytes_per_sec";
         static final String DETAILS = "details";
         static final String SIZE = "size";
         static final String SOURCE_THROTTLE_TIME = "source_throttle_time";
@@ -844,6 +847,17 @@ public class RecoveryState implements ToXContent, Streamable {
             return recovered;
         }
 
+        /**
+         * the average number of bytes recovered per second since the start of the index stage
+         */
+        public synchronized long recoveredBytesPerSecond() {
+            final long timeInMillis = time();
+            if (timeInMillis <= 0) {
+                return 0;
+            }
+            return recoveredBytes() * 1000 / timeInMillis;
+        }
+
         /**
          * total bytes of files to be recovered (potentially not yet done)
          */
@@ -946,6 +960,11 @@ public class RecoveryState implements ToXContent, Streamable {
             builder.byteSizeField(Fields.REUSED_IN_BYTES, Fields.REUSED, reusedBytes());
             builder.byteSizeField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, recoveredBytes());
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredBytesPercent()));
+            final long throughput = recoveredBytesPerSecond();
+            if (builder.humanReadable()) {
+                builder.field(Fields.THROUGHPUT, new ByteSizeValue(throughput) + "/s");
+            }
+            builder.field(Fields.THROUGHPUT_IN_BYTES_PER_SEC, throughput);
             builder.endObject();
 
             builder.startObject(Fields.FILES);
@@ -28,8 +28,10 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
@@ -46,12 +48,15 @@ import org.elasticsearch.index.store.StoreFileMetaData;
 import org.elasticsearch.index.translog.Translog;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -80,6 +85,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     private final AtomicBoolean finished = new AtomicBoolean();
 
     private final ConcurrentMap<String, IndexOutput> openIndexOutputs = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, FileChunkWriter> fileChunkWriters = ConcurrentCollections.newConcurrentMap();
     private final CancellableThreads cancellableThreads;
 
     // last time this status was accessed
@@ -285,6 +291,12 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     @Override
     protected void closeInternal() {
         try {
+            // chunks still waiting for the chunks preceding them will never be written
+            final IllegalStateException closed = new IllegalStateException("recovery [" + recoveryId + "] closed before chunk was written");
+            for (FileChunkWriter writer : fileChunkWriters.values()) {
+                writer.failPendingChunks(closed);
+            }
+            fileChunkWriters.clear();
             // clean open index outputs
             Iterator<Entry<String, IndexOutput>> iterator = openIndexOutputs.entrySet().iterator();
             while (iterator.hasNext()) {
@@ -402,12 +414,95 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    /**
+     * Writes a chunk of a file. The source sends several chunks of a file concurrently so they may arrive out of order, chunks that
+     * arrive before the ones preceding them are kept until these are written. The listener of a chunk is only notified once the chunk
+     * is written, so the source never has more chunks buffered here than it is allowed to have in flight.
+     */
     @Override
     public void writeFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
-                               boolean lastChunk, int totalTranslogOps) throws IOException {
+                               boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener) {
+        state().getTranslog().totalOperations(totalTranslogOps);
+        final FileChunkWriter writer = fileChunkWriters.computeIfAbsent(fileMetaData.name(), name -> new FileChunkWriter());
+        writer.writeChunk(new FileChunk(fileMetaData, position, content, lastChunk, listener));
+    }
+
+    private final class FileChunkWriter {
+        private final PriorityQueue<FileChunk> pendingChunks = new PriorityQueue<>(Comparator.comparingLong(chunk -> chunk.position));
+        private long nextPosition = 0;
+
+        void writeChunk(FileChunk newChunk) {
+            final List<FileChunk> written = new ArrayList<>();
+            final List<FileChunk> failed = new ArrayList<>();
+            Exception failure = null;
+            synchronized (this) {
+                if (newChunk.position != nextPosition) {
+                    // the bytes of the request may not outlive its handling
+                    pendingChunks.add(new FileChunk(newChunk.md, newChunk.position, new BytesArray(newChunk.content.toBytesRef(), true),
+                        newChunk.lastChunk, newChunk.listener));
+                    return;
+                }
+                FileChunk chunk = newChunk;
+                try {
+                    while (chunk != null) {
+                        innerWriteFileChunk(chunk.md, chunk.position, chunk.content, chunk.lastChunk);
+                        written.add(chunk);
+                        nextPosition += chunk.content.length();
+                        if (chunk.lastChunk) {
+                            fileChunkWriters.remove(chunk.md.name());
+                        }
+                        final FileChunk next = pendingChunks.peek();
+                        chunk = next != null && next.position == nextPosition ? pendingChunks.poll() : null;
+                    }
+                } catch (Exception e) {
+                    // the chunks following the one that failed can't be written anymore
+                    failure = e;
+                    failed.add(chunk);
+                    failed.addAll(pendingChunks);
+                    pendingChunks.clear();
+                }
+            }
+            // notify the listeners outside of the lock, responding to the source may be slow
+            for (FileChunk chunk : written) {
+                chunk.listener.onResponse(null);
+            }
+            for (FileChunk chunk : failed) {
+                chunk.listener.onFailure(failure);
+            }
+        }
+
+        void failPendingChunks(Exception e) {
+            final List<FileChunk> failed;
+            synchronized (this) {
+                failed = new ArrayList<>(pendingChunks);
+                pendingChunks.clear();
+            }
+            for (FileChunk chunk : failed) {
+                chunk.listener.onFailure(e);
+            }
+        }
+    }
+
+    private static final class FileChunk {
+        final StoreFileMetaData md;
+        final long position;
+        final BytesReference content;
+        final boolean lastChunk;
+        final ActionListener<Void> listener;
+
+        FileChunk(StoreFileMetaData md, long position, BytesReference content, boolean lastChunk, ActionListener<Void> listener) {
+            this.md = md;
+            this.position = position;
+            this.content = content;
+            this.lastChunk = lastChunk;
+            this.listener = listener;
+        }
+    }
+
+    private void innerWriteFileChunk(StoreFileMetaData fileMetaData, long position, BytesReference content,
+                                     boolean lastChunk) throws IOException {
         final Store store = store();
         final String name = fileMetaData.name();
-        state().getTranslog().totalOperations(totalTranslogOps);
         final RecoveryState.Index indexState = state().getIndex();
         IndexOutput indexOutput;
         if (position == 0) {
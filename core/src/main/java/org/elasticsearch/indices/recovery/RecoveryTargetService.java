@@ -24,6 +24,7 @@ import org.apache.lucene.store.RateLimiter;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchTimeoutException;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.ClusterStateObserver;
@@ -486,11 +487,29 @@ public class RecoveryTargetService extends AbstractComponent implements IndexEve
                     }
                 }
 
+                // chunks may arrive out of order, the response is only sent once the chunk is written so that the source doesn't
+                // have more chunks buffered here than it may have in flight
                 status.writeFileChunk(request.metadata(), request.position(), request.content(),
-                        request.lastChunk(), request.totalTranslogOps()
-                );
+                        request.lastChunk(), request.totalTranslogOps(), new ActionListener<Void>() {
+                            @Override
+                            public void onResponse(Void aVoid) {
+                                try {
+                                    channel.sendResponse(TransportResponse.Empty.INSTANCE);
+                                } catch (IOException e) {
+                                    logger.warn("failed to send file chunk response back to recovery source", e);
+                                }
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                try {
+                                    channel.sendResponse(e);
+                                } catch (IOException e1) {
+                                    logger.warn("failed to send error back to recovery source", e1);
+                                }
+                            }
+                        });
             }
-            channel.sendResponse(TransportResponse.Empty.INSTANCE);
         }
     }
 
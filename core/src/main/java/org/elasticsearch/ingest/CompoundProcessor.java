@@ -115,6 +115,46 @@ public class CompoundProcessor implements Processor {
         }
     }
 
+    @Override
+    public Exception[] executeBatch(List<IngestDocument> ingestDocuments) {
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        // the documents that still need to go through the next processor, along with their position in the batch
+        List<IngestDocument> documents = ingestDocuments;
+        int[] positions = new int[failures.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        for (Processor processor : processors) {
+            if (documents.isEmpty()) {
+                break;
+            }
+            Exception[] processorFailures = processor.executeBatch(documents);
+            List<IngestDocument> remaining = new ArrayList<>(documents.size());
+            for (int i = 0; i < processorFailures.length; i++) {
+                IngestDocument ingestDocument = documents.get(i);
+                if (processorFailures[i] == null || ignoreFailure) {
+                    positions[remaining.size()] = positions[i];
+                    remaining.add(ingestDocument);
+                    continue;
+                }
+
+                ElasticsearchException compoundProcessorException =
+                        newCompoundProcessorException(processorFailures[i], processor.getType(), processor.getTag());
+                if (onFailureProcessors.isEmpty()) {
+                    failures[positions[i]] = compoundProcessorException;
+                } else {
+                    try {
+                        executeOnFailure(ingestDocument, compoundProcessorException);
+                    } catch (Exception e) {
+                        failures[positions[i]] = e;
+                    }
+                }
+            }
+            documents = remaining;
+        }
+        return failures;
+    }
+
     void executeOnFailure(IngestDocument ingestDocument, ElasticsearchException exception) throws Exception {
         try {
             putFailureMetadata(ingestDocument, exception);
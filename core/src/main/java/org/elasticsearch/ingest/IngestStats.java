@@ -19,6 +19,7 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -26,17 +27,26 @@ import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 public class IngestStats implements Writeable, ToXContent {
     private final Stats totalStats;
     private final Map<String, Stats> statsPerPipeline;
+    private final Map<String, List<ProcessorStats>> processorStatsPerPipeline;
 
     public IngestStats(Stats totalStats, Map<String, Stats> statsPerPipeline) {
+        this(totalStats, statsPerPipeline, Collections.emptyMap());
+    }
+
+    public IngestStats(Stats totalStats, Map<String, Stats> statsPerPipeline,
+                       Map<String, List<ProcessorStats>> processorStatsPerPipeline) {
         this.totalStats = totalStats;
         this.statsPerPipeline = statsPerPipeline;
+        this.processorStatsPerPipeline = processorStatsPerPipeline;
     }
 
     /**
@@ -49,6 +59,15 @@ public class IngestStats implements Writeable, ToXContent {
         for (int i = 0; i < size; i++) {
             statsPerPipeline.put(in.readString(), new Stats(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            size = in.readVInt();
+            this.processorStatsPerPipeline = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                processorStatsPerPipeline.put(in.readString(), in.readList(ProcessorStats::new));
+            }
+        } else {
+            this.processorStatsPerPipeline = Collections.emptyMap();
+        }
     }
 
     @Override
@@ -59,6 +78,13 @@ public class IngestStats implements Writeable, ToXContent {
             out.writeString(entry.getKey());
             entry.getValue().writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeVInt(processorStatsPerPipeline.size());
+            for (Map.Entry<String, List<ProcessorStats>> entry : processorStatsPerPipeline.entrySet()) {
+                out.writeString(entry.getKey());
+                out.writeList(entry.getValue());
+            }
+        }
     }
 
 
@@ -76,6 +102,14 @@ public class IngestStats implements Writeable, ToXContent {
         return statsPerPipeline;
     }
 
+    /**
+     * @return The stats of the processors that report their own stats, like the pattern matches of grok processors, on a per
+     * pipeline basis
+     */
+    public Map<String, List<ProcessorStats>> getProcessorStatsPerPipeline() {
+        return processorStatsPerPipeline;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("ingest");
@@ -86,6 +120,14 @@ public class IngestStats implements Writeable, ToXContent {
         for (Map.Entry<String, Stats> entry : statsPerPipeline.entrySet()) {
             builder.startObject(entry.getKey());
             entry.getValue().toXContent(builder, params);
+            List<ProcessorStats> processorStats = processorStatsPerPipeline.get(entry.getKey());
+            if (processorStats != null && processorStats.isEmpty() == false) {
+                builder.startArray("processors");
+                for (ProcessorStats processorStat : processorStats) {
+                    processorStat.toXContent(builder, params);
+                }
+                builder.endArray();
+            }
             builder.endObject();
         }
         builder.endObject();
@@ -163,4 +205,136 @@ public class IngestStats implements Writeable, ToXContent {
             return builder;
         }
     }
+
+    /**
+     * The stats of a single processor that matches documents against a list of patterns.
+     */
+    public static class ProcessorStats implements Writeable, ToXContent {
+
+        private final String type;
+        private final String tag;
+        private final List<PatternStats> patternStats;
+
+        public ProcessorStats(String type, String tag, List<PatternStats> patternStats) {
+            this.type = type;
+            this.tag = tag;
+            this.patternStats = patternStats;
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public ProcessorStats(StreamInput in) throws IOException {
+            type = in.readString();
+            tag = in.readOptionalString();
+            patternStats = in.readList(PatternStats::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(type);
+            out.writeOptionalString(tag);
+            out.writeList(patternStats);
+        }
+
+        /**
+         * @return The type of the processor.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return The tag of the processor, if any.
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * @return The stats of each pattern of the processor, in the order the patterns are configured.
+         */
+        public List<PatternStats> getPatternStats() {
+            return patternStats;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("type", type);
+            if (tag != null) {
+                builder.field("tag", tag);
+            }
+            builder.startArray("patterns");
+            for (PatternStats patternStat : patternStats) {
+                patternStat.toXContent(builder, params);
+            }
+            builder.endArray();
+            builder.endObject();
+            return builder;
+        }
+    }
+
+    /**
+     * The number of times a pattern of a processor matched a document and the number of times it was tried but did not match.
+     */
+    public static class PatternStats implements Writeable, ToXContent {
+
+        private final String pattern;
+        private final long matchCount;
+        private final long missCount;
+
+        public PatternStats(String pattern, long matchCount, long missCount) {
+            this.pattern = pattern;
+            this.matchCount = matchCount;
+            this.missCount = missCount;
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public PatternStats(StreamInput in) throws IOException {
+            pattern = in.readString();
+            matchCount = in.readVLong();
+            missCount = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(pattern);
+            out.writeVLong(matchCount);
+            out.writeVLong(missCount);
+        }
+
+        /**
+         * @return The pattern as configured on the processor.
+         */
+        public String getPattern() {
+            return pattern;
+        }
+
+        /**
+         * @return The number of documents this pattern matched.
+         */
+        public long getMatchCount() {
+            return matchCount;
+        }
+
+        /**
+         * @return The number of documents this pattern was tried on but did not match.
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        @Override
+        public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+            builder.startObject();
+            builder.field("pattern", pattern);
+            builder.field("matched", matchCount);
+            builder.field("missed", missCount);
+            builder.endObject();
+            return builder;
+        }
+    }
 }
@@ -52,6 +52,16 @@ public final class Pipeline {
         compoundProcessor.execute(ingestDocument);
     }
 
+    /**
+     * Modifies the data of a batch of documents to be indexed based on the processor this pipeline holds
+     *
+     * @return the failure of each document, at the position of the document in the batch, or <code>null</code> for the
+     * documents that have been processed successfully
+     */
+    public Exception[] executeBatch(List<IngestDocument> ingestDocuments) {
+        return compoundProcessor.executeBatch(ingestDocuments);
+    }
+
     /**
      * The unique id of this pipeline
      */
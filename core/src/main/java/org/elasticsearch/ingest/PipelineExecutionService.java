@@ -26,29 +26,46 @@ import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public class PipelineExecutionService implements ClusterStateListener {
 
+    /**
+     * The number of chunks the index requests of a single bulk are split into, which are executed concurrently on the bulk
+     * thread pool. Defaults to 1, executing all the index requests of a bulk on the same thread.
+     */
+    public static final Setting<Integer> BULK_CONCURRENCY_SETTING =
+        Setting.intSetting("ingest.bulk.concurrency", 1, 1, Property.NodeScope);
+
     private final PipelineStore store;
     private final ThreadPool threadPool;
+    private final int bulkConcurrency;
 
     private final StatsHolder totalStats = new StatsHolder();
     private volatile Map<String, StatsHolder> statsHolderPerPipeline = Collections.emptyMap();
 
-    public PipelineExecutionService(PipelineStore store, ThreadPool threadPool) {
+    public PipelineExecutionService(Settings settings, PipelineStore store, ThreadPool threadPool) {
         this.store = store;
         this.threadPool = threadPool;
+        this.bulkConcurrency = BULK_CONCURRENCY_SETTING.get(settings);
     }
 
     public void executeIndexRequest(IndexRequest request, Consumer<Exception> failureHandler, Consumer<Boolean> completionHandler) {
@@ -68,6 +85,11 @@ public class PipelineExecutionService implements ClusterStateListener {
         });
     }
 
+    /**
+     * Executes the pipelines of the index requests of a bulk. The index requests may be split into chunks that are executed
+     * concurrently, see {@link #BULK_CONCURRENCY_SETTING}, so the item failure handler may be called from several threads
+     * at once and not in the order of the items in the bulk.
+     */
     public void executeBulkRequest(Iterable<ActionRequest<?>> actionRequests,
                                    BiConsumer<IndexRequest, Exception> itemFailureHandler,
                                    Consumer<Exception> completionHandler) {
@@ -80,22 +102,30 @@ public class PipelineExecutionService implements ClusterStateListener {
 
             @Override
             protected void doRun() throws Exception {
+                List<IndexRequest> indexRequests = new ArrayList<>();
                 for (ActionRequest actionRequest : actionRequests) {
                     if ((actionRequest instanceof IndexRequest)) {
                         IndexRequest indexRequest = (IndexRequest) actionRequest;
                         if (Strings.hasText(indexRequest.getPipeline())) {
-                            try {
-                                innerExecute(indexRequest, getPipeline(indexRequest.getPipeline()));
-                                //this shouldn't be needed here but we do it for consistency with index api
-                                // which requires it to prevent double execution
-                                indexRequest.setPipeline(null);
-                            } catch (Exception e) {
-                                itemFailureHandler.accept(indexRequest, e);
-                            }
+                            indexRequests.add(indexRequest);
                         }
                     }
                 }
-                completionHandler.accept(null);
+                int chunkSize = (indexRequests.size() + bulkConcurrency - 1) / bulkConcurrency;
+                if (chunkSize == 0 || chunkSize == indexRequests.size()) {
+                    innerExecute(indexRequests, itemFailureHandler);
+                    completionHandler.accept(null);
+                    return;
+                }
+
+                int numChunks = (indexRequests.size() + chunkSize - 1) / chunkSize;
+                BulkChunkListener listener = new BulkChunkListener(numChunks, completionHandler);
+                for (int from = chunkSize; from < indexRequests.size(); from += chunkSize) {
+                    List<IndexRequest> chunk = indexRequests.subList(from, Math.min(from + chunkSize, indexRequests.size()));
+                    threadPool.executor(ThreadPool.Names.BULK).execute(new BulkChunk(chunk, itemFailureHandler, listener));
+                }
+                // the current thread takes care of the first chunk
+                new BulkChunk(indexRequests.subList(0, chunkSize), itemFailureHandler, listener).run();
             }
         });
     }
@@ -104,11 +134,25 @@ public class PipelineExecutionService implements ClusterStateListener {
         Map<String, StatsHolder> statsHolderPerPipeline = this.statsHolderPerPipeline;
 
         Map<String, IngestStats.Stats> statsPerPipeline = new HashMap<>(statsHolderPerPipeline.size());
+        Map<String, List<IngestStats.ProcessorStats>> processorStatsPerPipeline = new HashMap<>();
         for (Map.Entry<String, StatsHolder> entry : statsHolderPerPipeline.entrySet()) {
             statsPerPipeline.put(entry.getKey(), entry.getValue().createStats());
+            Pipeline pipeline = store.get(entry.getKey());
+            if (pipeline != null) {
+                List<IngestStats.ProcessorStats> processorStats = new ArrayList<>();
+                for (Processor processor : pipeline.flattenAllProcessors()) {
+                    List<IngestStats.PatternStats> patternStats = processor.getPatternStats();
+                    if (patternStats.isEmpty() == false) {
+                        processorStats.add(new IngestStats.ProcessorStats(processor.getType(), processor.getTag(), patternStats));
+                    }
+                }
+                if (processorStats.isEmpty() == false) {
+                    processorStatsPerPipeline.put(entry.getKey(), processorStats);
+                }
+            }
         }
 
-        return new IngestStats(totalStats.createStats(), statsPerPipeline);
+        return new IngestStats(totalStats.createStats(), statsPerPipeline, processorStatsPerPipeline);
     }
 
     @Override
@@ -154,28 +198,9 @@ public class PipelineExecutionService implements ClusterStateListener {
         try {
             totalStats.preIngest();
             pipelineStats.ifPresent(StatsHolder::preIngest);
-            String index = indexRequest.index();
-            String type = indexRequest.type();
-            String id = indexRequest.id();
-            String routing = indexRequest.routing();
-            String parent = indexRequest.parent();
-            String timestamp = indexRequest.timestamp();
-            String ttl = indexRequest.ttl() == null ? null : indexRequest.ttl().toString();
-            Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
-            IngestDocument ingestDocument = new IngestDocument(index, type, id, routing, parent, timestamp, ttl, sourceAsMap);
+            IngestDocument ingestDocument = newIngestDocument(indexRequest);
             pipeline.execute(ingestDocument);
-
-            Map<IngestDocument.MetaData, String> metadataMap = ingestDocument.extractMetadata();
-            //it's fine to set all metadata fields all the time, as ingest document holds their starting values
-            //before ingestion, which might also get modified during ingestion.
-            indexRequest.index(metadataMap.get(IngestDocument.MetaData.INDEX));
-            indexRequest.type(metadataMap.get(IngestDocument.MetaData.TYPE));
-            indexRequest.id(metadataMap.get(IngestDocument.MetaData.ID));
-            indexRequest.routing(metadataMap.get(IngestDocument.MetaData.ROUTING));
-            indexRequest.parent(metadataMap.get(IngestDocument.MetaData.PARENT));
-            indexRequest.timestamp(metadataMap.get(IngestDocument.MetaData.TIMESTAMP));
-            indexRequest.ttl(metadataMap.get(IngestDocument.MetaData.TTL));
-            indexRequest.source(ingestDocument.getSourceAndMetadata());
+            updateIndexRequest(indexRequest, ingestDocument);
         } catch (Exception e) {
             totalStats.ingestFailed();
             pipelineStats.ifPresent(StatsHolder::ingestFailed);
@@ -187,6 +212,110 @@ public class PipelineExecutionService implements ClusterStateListener {
         }
     }
 
+    private void innerExecute(List<IndexRequest> indexRequests, BiConsumer<IndexRequest, Exception> itemFailureHandler) {
+        // documents going through the same pipeline are executed as a batch, so that processors can share work
+        Map<String, List<IndexRequest>> indexRequestsPerPipeline = new LinkedHashMap<>();
+        for (IndexRequest indexRequest : indexRequests) {
+            indexRequestsPerPipeline.computeIfAbsent(indexRequest.getPipeline(), k -> new ArrayList<>()).add(indexRequest);
+        }
+        for (Map.Entry<String, List<IndexRequest>> entry : indexRequestsPerPipeline.entrySet()) {
+            Pipeline pipeline;
+            try {
+                pipeline = getPipeline(entry.getKey());
+            } catch (Exception e) {
+                for (IndexRequest indexRequest : entry.getValue()) {
+                    itemFailureHandler.accept(indexRequest, e);
+                }
+                continue;
+            }
+            innerExecute(entry.getValue(), pipeline, itemFailureHandler);
+        }
+    }
+
+    private void innerExecute(List<IndexRequest> indexRequests, Pipeline pipeline,
+                              BiConsumer<IndexRequest, Exception> itemFailureHandler) {
+        if (pipeline.getProcessors().isEmpty()) {
+            indexRequests.forEach(indexRequest -> indexRequest.setPipeline(null));
+            return;
+        }
+
+        long startTimeInNanos = System.nanoTime();
+        // the pipeline specific stat holder may not exist and that is fine:
+        // (e.g. the pipeline may have been removed while we're ingesting a document
+        Optional<StatsHolder> pipelineStats = Optional.ofNullable(statsHolderPerPipeline.get(pipeline.getId()));
+        int count = indexRequests.size();
+        totalStats.preIngest(count);
+        pipelineStats.ifPresent(statsHolder -> statsHolder.preIngest(count));
+        try {
+            List<IndexRequest> executedRequests = new ArrayList<>(count);
+            List<IngestDocument> ingestDocuments = new ArrayList<>(count);
+            for (IndexRequest indexRequest : indexRequests) {
+                try {
+                    ingestDocuments.add(newIngestDocument(indexRequest));
+                    executedRequests.add(indexRequest);
+                } catch (Exception e) {
+                    onItemFailure(indexRequest, e, pipelineStats, itemFailureHandler);
+                }
+            }
+            Exception[] failures = pipeline.executeBatch(ingestDocuments);
+            for (int i = 0; i < failures.length; i++) {
+                IndexRequest indexRequest = executedRequests.get(i);
+                Exception failure = failures[i];
+                if (failure == null) {
+                    try {
+                        updateIndexRequest(indexRequest, ingestDocuments.get(i));
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                }
+                if (failure == null) {
+                    //this shouldn't be needed here but we do it for consistency with index api
+                    // which requires it to prevent double execution
+                    indexRequest.setPipeline(null);
+                } else {
+                    onItemFailure(indexRequest, failure, pipelineStats, itemFailureHandler);
+                }
+            }
+        } finally {
+            long ingestTimeInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeInNanos);
+            totalStats.postIngest(count, ingestTimeInMillis);
+            pipelineStats.ifPresent(statsHolder -> statsHolder.postIngest(count, ingestTimeInMillis));
+        }
+    }
+
+    private void onItemFailure(IndexRequest indexRequest, Exception e, Optional<StatsHolder> pipelineStats,
+                               BiConsumer<IndexRequest, Exception> itemFailureHandler) {
+        totalStats.ingestFailed();
+        pipelineStats.ifPresent(StatsHolder::ingestFailed);
+        itemFailureHandler.accept(indexRequest, e);
+    }
+
+    private static IngestDocument newIngestDocument(IndexRequest indexRequest) {
+        String index = indexRequest.index();
+        String type = indexRequest.type();
+        String id = indexRequest.id();
+        String routing = indexRequest.routing();
+        String parent = indexRequest.parent();
+        String timestamp = indexRequest.timestamp();
+        String ttl = indexRequest.ttl() == null ? null : indexRequest.ttl().toString();
+        Map<String, Object> sourceAsMap = indexRequest.sourceAsMap();
+        return new IngestDocument(index, type, id, routing, parent, timestamp, ttl, sourceAsMap);
+    }
+
+    private static void updateIndexRequest(IndexRequest indexRequest, IngestDocument ingestDocument) {
+        Map<IngestDocument.MetaData, String> metadataMap = ingestDocument.extractMetadata();
+        //it's fine to set all metadata fields all the time, as ingest document holds their starting values
+        //before ingestion, which might also get modified during ingestion.
+        indexRequest.index(metadataMap.get(IngestDocument.MetaData.INDEX));
+        indexRequest.type(metadataMap.get(IngestDocument.MetaData.TYPE));
+        indexRequest.id(metadataMap.get(IngestDocument.MetaData.ID));
+        indexRequest.routing(metadataMap.get(IngestDocument.MetaData.ROUTING));
+        indexRequest.parent(metadataMap.get(IngestDocument.MetaData.PARENT));
+        indexRequest.timestamp(metadataMap.get(IngestDocument.MetaData.TIMESTAMP));
+        indexRequest.ttl(metadataMap.get(IngestDocument.MetaData.TTL));
+        indexRequest.source(ingestDocument.getSourceAndMetadata());
+    }
+
     private Pipeline getPipeline(String pipelineId) {
         Pipeline pipeline = store.get(pipelineId);
         if (pipeline == null) {
@@ -195,6 +324,64 @@ public class PipelineExecutionService implements ClusterStateListener {
         return pipeline;
     }
 
+    /**
+     * Executes the pipelines of a chunk of the index requests of a bulk.
+     */
+    private class BulkChunk extends AbstractRunnable {
+
+        private final List<IndexRequest> indexRequests;
+        private final BiConsumer<IndexRequest, Exception> itemFailureHandler;
+        private final BulkChunkListener listener;
+
+        BulkChunk(List<IndexRequest> indexRequests, BiConsumer<IndexRequest, Exception> itemFailureHandler,
+                  BulkChunkListener listener) {
+            this.indexRequests = indexRequests;
+            this.itemFailureHandler = itemFailureHandler;
+            this.listener = listener;
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            innerExecute(indexRequests, itemFailureHandler);
+            listener.onChunkDone(null);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            listener.onChunkDone(e);
+        }
+
+        @Override
+        public void onRejection(Exception e) {
+            // the bulk thread pool is saturated, rather than failing the whole bulk the submitting thread executes the chunk
+            run();
+        }
+    }
+
+    /**
+     * Completes a bulk once all its chunks have been executed, with the first failure of a chunk if any.
+     */
+    private static class BulkChunkListener {
+
+        private final CountDown countDown;
+        private final Consumer<Exception> completionHandler;
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        BulkChunkListener(int numChunks, Consumer<Exception> completionHandler) {
+            this.countDown = new CountDown(numChunks);
+            this.completionHandler = completionHandler;
+        }
+
+        void onChunkDone(Exception e) {
+            if (e != null) {
+                failure.compareAndSet(null, e);
+            }
+            if (countDown.countDown()) {
+                completionHandler.accept(failure.get());
+            }
+        }
+    }
+
     static class StatsHolder {
 
         private final MeanMetric ingestMetric = new MeanMetric();
@@ -205,11 +392,25 @@ public class PipelineExecutionService implements ClusterStateListener {
             ingestCurrent.inc();
         }
 
+        void preIngest(int count) {
+            ingestCurrent.inc(count);
+        }
+
         void postIngest(long ingestTimeInMillis) {
             ingestCurrent.dec();
             ingestMetric.inc(ingestTimeInMillis);
         }
 
+        /**
+         * Records the ingestion of a batch of documents, spreading the time it took evenly over the documents of the batch.
+         */
+        void postIngest(int count, long ingestTimeInMillis) {
+            ingestCurrent.dec(count);
+            for (int i = 0; i < count; i++) {
+                ingestMetric.inc(ingestTimeInMillis / count + (i < ingestTimeInMillis % count ? 1 : 0));
+            }
+        }
+
         void ingestFailed() {
             ingestFailed.inc();
         }
@@ -23,6 +23,8 @@ import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.script.ScriptService;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,6 +38,25 @@ public interface Processor {
      */
     void execute(IngestDocument ingestDocument) throws Exception;
 
+    /**
+     * Introspect and potentially modify the incoming data of a batch of documents. By default each document is executed
+     * on its own, processors that can share work between the documents of a batch may override this.
+     *
+     * @return the failure of each document, at the position of the document in the batch, or <code>null</code> for the
+     * documents that have been processed successfully
+     */
+    default Exception[] executeBatch(List<IngestDocument> ingestDocuments) {
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        for (int i = 0; i < failures.length; i++) {
+            try {
+                execute(ingestDocuments.get(i));
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+        return failures;
+    }
+
     /**
      * Gets the type of a processor
      */
@@ -46,6 +67,15 @@ public interface Processor {
      */
     String getTag();
 
+    /**
+     * Gets the match stats of the patterns of a processor that matches documents against a list of patterns, in the order the
+     * patterns are configured. These are reported as part of the ingest stats of the pipelines the processor belongs to.
+     * Processors that don't match patterns return an empty list, which is the default.
+     */
+    default List<IngestStats.PatternStats> getPatternStats() {
+        return Collections.emptyList();
+    }
+
     /**
      * A factory that knows how to construct a processor based on a map of maps.
      */
@@ -305,6 +305,7 @@ public class Node implements Closeable {
             resourcesToClose.add(clusterService);
             final TribeService tribeService = new TribeService(settings, clusterService, nodeEnvironment.nodeId());
             resourcesToClose.add(tribeService);
+            final ResponseCollectorService responseCollectorService = new ResponseCollectorService(this.settings, clusterService);
             final IngestService ingestService = new IngestService(settings, threadPool, this.environment,
                 scriptModule.getScriptService(), pluginsService.filterPlugins(IngestPlugin.class));
 
@@ -363,6 +364,7 @@ public class Node implements Closeable {
                     b.bind(ScriptService.class).toInstance(scriptModule.getScriptService());
                     b.bind(AnalysisRegistry.class).toInstance(analysisModule.getAnalysisRegistry());
                     b.bind(IngestService.class).toInstance(ingestService);
+                    b.bind(ResponseCollectorService.class).toInstance(responseCollectorService);
                     b.bind(NamedWriteableRegistry.class).toInstance(namedWriteableRegistry);
                     pluginComponents.stream().forEach(p -> b.bind((Class) p.getClass()).toInstance(p));
                 }
@@ -0,0 +1,297 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.node;
+
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.component.AbstractComponent;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.metrics.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the response times, search queue sizes and service times that the nodes of the cluster report in their search
+ * responses, along with the number of search requests that are still outstanding per node, in order to rank the copies of a
+ * shard by how fast the node holding them is expected to answer.
+ */
+public final class ResponseCollectorService extends AbstractComponent implements ClusterStateListener {
+
+    /**
+     * The weight of the latest response in the moving averages of a node.
+     */
+    private static final double ALPHA = 0.3;
+
+    private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, AtomicLong> outstandingRequests = ConcurrentCollections.newConcurrentMap();
+
+    public ResponseCollectorService(Settings settings, ClusterService clusterService) {
+        super(settings);
+        clusterService.add(this);
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.nodesRemoved()) {
+            for (DiscoveryNode removedNode : event.nodesDelta().removedNodes()) {
+                removeNode(removedNode.getId());
+            }
+        }
+    }
+
+    void removeNode(String nodeId) {
+        nodeIdToStats.remove(nodeId);
+        outstandingRequests.remove(nodeId);
+    }
+
+    /**
+     * Records that a search request was sent to the node. The request is outstanding until either
+     * {@link #onResponseReceived(String, int, long, long)} or {@link #onRequestCompleted(String)} is called for it.
+     */
+    public void onRequestSent(String nodeId) {
+        outstandingRequests.computeIfAbsent(nodeId, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Records the response of the node to a search request.
+     *
+     * @param queueSize         the size of the search queue of the node when it executed the request
+     * @param responseTimeNanos the time between sending the request and receiving its response
+     * @param serviceTimeNanos  the moving average of the time the node takes to execute search requests
+     */
+    public void onResponseReceived(String nodeId, int queueSize, long responseTimeNanos, long serviceTimeNanos) {
+        decrementOutstandingRequests(nodeId);
+        addNodeStatistics(nodeId, queueSize, responseTimeNanos, serviceTimeNanos);
+    }
+
+    /**
+     * Records that a search request sent to the node completed without reporting statistics, for instance because it failed.
+     */
+    public void onRequestCompleted(String nodeId) {
+        decrementOutstandingRequests(nodeId);
+    }
+
+    /**
+     * Records that a search request was sent to the selected node rather than to the skipped one, which moves the moving
+     * averages of the skipped node towards those of the selected node. Without this, the averages of a node that was slow
+     * for a while would never recover since they are only updated by the responses that it no longer gets.
+     */
+    public void onNodeSkipped(String skippedNodeId, String selectedNodeId) {
+        final NodeStatistics selected = nodeIdToStats.get(selectedNodeId);
+        if (selected != null) {
+            nodeIdToStats.computeIfPresent(skippedNodeId, (nodeId, stats) -> {
+                stats.add(selected.queueSize.getAverage(), selected.responseTime.getAverage(), selected.serviceTime.getAverage());
+                return stats;
+            });
+        }
+    }
+
+    void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long serviceTimeNanos) {
+        nodeIdToStats.compute(nodeId, (id, stats) -> {
+            if (stats == null) {
+                return new NodeStatistics(queueSize, responseTimeNanos, serviceTimeNanos);
+            }
+            stats.add(queueSize, responseTimeNanos, serviceTimeNanos);
+            return stats;
+        });
+    }
+
+    private void decrementOutstandingRequests(String nodeId) {
+        final AtomicLong outstanding = outstandingRequests.get(nodeId);
+        if (outstanding != null) {
+            // the node may have left and come back while the request was outstanding
+            outstanding.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    private long outstandingRequests(String nodeId) {
+        final AtomicLong outstanding = outstandingRequests.get(nodeId);
+        return outstanding == null ? 0 : outstanding.get();
+    }
+
+    /**
+     * Returns the statistics of the node, or an empty optional if the node didn't respond to a search request yet.
+     */
+    public Optional<ComputedNodeStats> getNodeStatistics(String nodeId) {
+        final NodeStatistics stats = nodeIdToStats.get(nodeId);
+        if (stats == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new ComputedNodeStats(nodeId, nodeIdToStats.size(), outstandingRequests(nodeId), stats));
+    }
+
+    /**
+     * Returns the statistics of all nodes that responded to a search request, keyed by node id.
+     */
+    public Map<String, ComputedNodeStats> getAllNodeStatistics() {
+        final int clientNum = nodeIdToStats.size();
+        final Map<String, ComputedNodeStats> statistics = new HashMap<>(clientNum);
+        for (Map.Entry<String, NodeStatistics> entry : nodeIdToStats.entrySet()) {
+            final String nodeId = entry.getKey();
+            statistics.put(nodeId, new ComputedNodeStats(nodeId, clientNum, outstandingRequests(nodeId), entry.getValue()));
+        }
+        return statistics;
+    }
+
+    public AdaptiveSelectionStats getAdaptiveStats() {
+        return new AdaptiveSelectionStats(getAllNodeStatistics());
+    }
+
+    /**
+     * The moving averages of a node, updated with each of its responses.
+     */
+    private static final class NodeStatistics {
+        final ExponentiallyWeightedMovingAverage queueSize;
+        final ExponentiallyWeightedMovingAverage responseTime;
+        final ExponentiallyWeightedMovingAverage serviceTime;
+
+        NodeStatistics(double queueSize, double responseTimeNanos, double serviceTimeNanos) {
+            this.queueSize = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
+            this.responseTime = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
+            this.serviceTime = new ExponentiallyWeightedMovingAverage(ALPHA, serviceTimeNanos);
+        }
+
+        void add(double queueSize, double responseTimeNanos, double serviceTimeNanos) {
+            this.queueSize.addValue(queueSize);
+            this.responseTime.addValue(responseTimeNanos);
+            this.serviceTime.addValue(serviceTimeNanos);
+        }
+    }
+
+    /**
+     * A point in time snapshot of the statistics of a node, which ranks the node by how fast it is expected to answer a search
+     * request following the formula of <a href="https://www.usenix.org/system/files/conference/nsdi15/nsdi15-paper-suresh.pdf">
+     * C3: Cutting Tail Latency in Cloud Data Stores via Adaptive Replica Selection</a>.
+     */
+    public static final class ComputedNodeStats implements Writeable {
+
+        private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+        private final String nodeId;
+        private final int clientNum;
+        private final long outstandingRequests;
+        private final double queueSize;
+        private final double responseTime;
+        private final double serviceTime;
+
+        public ComputedNodeStats(String nodeId, int clientNum, long outstandingRequests, double queueSize,
+                                 double responseTimeNanos, double serviceTimeNanos) {
+            this.nodeId = nodeId;
+            this.clientNum = clientNum;
+            this.outstandingRequests = outstandingRequests;
+            this.queueSize = queueSize;
+            this.responseTime = responseTimeNanos;
+            this.serviceTime = serviceTimeNanos;
+        }
+
+        ComputedNodeStats(String nodeId, int clientNum, long outstandingRequests, NodeStatistics stats) {
+            this(nodeId, clientNum, outstandingRequests, stats.queueSize.getAverage(), stats.responseTime.getAverage(),
+                stats.serviceTime.getAverage());
+        }
+
+        /**
+         * Read from a stream.
+         */
+        public ComputedNodeStats(StreamInput in) throws IOException {
+            this(in.readString(), in.readVInt(), in.readVLong(), in.readDouble(), in.readDouble(), in.readDouble());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(nodeId);
+            out.writeVInt(clientNum);
+            out.writeVLong(outstandingRequests);
+            out.writeDouble(queueSize);
+            out.writeDouble(responseTime);
+            out.writeDouble(serviceTime);
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * The number of search requests sent to the node that didn't complete yet.
+         */
+        public long getOutstandingRequests() {
+            return outstandingRequests;
+        }
+
+        /**
+         * The moving average of the search queue size of the node.
+         */
+        public double getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * The moving average of the response time of the node, in nanoseconds.
+         */
+        public double getResponseTime() {
+            return responseTime;
+        }
+
+        /**
+         * The moving average of the service time of the node, in nanoseconds.
+         */
+        public double getServiceTime() {
+            return serviceTime;
+        }
+
+        /**
+         * Ranks the node based on the outstanding requests known when the statistics were taken, lower is better.
+         */
+        public double rank() {
+            return rank(outstandingRequests);
+        }
+
+        /**
+         * Ranks the node assuming that the given number of search requests are outstanding, lower is better.
+         */
+        public double rank(long outstandingRequests) {
+            // every other node that searches this one is assumed to have as many requests outstanding as this node has
+            final double concurrencyCompensation = outstandingRequests * clientNum;
+            // the queue size that the request is expected to find once it reaches the node
+            final double queueSizeEstimate = 1 + concurrencyCompensation + queueSize;
+            final double responseTimeMillis = responseTime / NANOS_PER_MILLI;
+            final double serviceTimeMillis = serviceTime / NANOS_PER_MILLI;
+            // the response time minus the service time estimates the time spent on the network and in the queue, the cubic
+            // queue size penalty is the one of the paper and favors nodes with short queues over nodes that were fast before
+            return responseTimeMillis - serviceTimeMillis + Math.pow(queueSizeEstimate, 3) * serviceTimeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "ComputedNodeStats[" + nodeId + "](nodes: " + clientNum + ", outstanding: " + outstandingRequests + ", queue: "
+                + queueSize + ", response time: " + responseTime + ", service time: " + serviceTime + ")";
+        }
+    }
+}
@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -149,6 +150,21 @@ public final class RepositoryData implements ToXContent {
         return new RepositoryData(newSnapshotIds, indexSnapshots);
     }
 
+    /**
+     * Returns the indices that are referenced by the given snapshot only, and so are no longer part of the repository
+     * once the snapshot is removed.  All the files of such indices can be deleted without looking at the other snapshots.
+     */
+    public Set<IndexId> getIndicesOnlyReferencedBy(final SnapshotId snapshotId) {
+        Set<IndexId> unreferencedIndices = new HashSet<>();
+        for (final Map.Entry<IndexId, Set<SnapshotId>> entry : indexSnapshots.entrySet()) {
+            final Set<SnapshotId> snapshotIds = entry.getValue();
+            if (snapshotIds.size() == 1 && snapshotIds.contains(snapshotId)) {
+                unreferencedIndices.add(entry.getKey());
+            }
+        }
+        return unreferencedIndices;
+    }
+
     /**
      * Returns an immutable collection of the snapshot ids for the snapshots that contain the given index.
      */
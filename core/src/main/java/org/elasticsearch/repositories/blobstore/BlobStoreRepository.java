@@ -63,6 +63,11 @@ import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.common.util.iterable.Iterables;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.common.xcontent.ToXContent;
@@ -107,9 +112,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static java.util.Collections.emptyMap;
@@ -208,6 +219,11 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private final CounterMetric restoreRateLimitingTimeInNanos = new CounterMetric();
 
+    private final int maxConcurrentTransfers;
+
+    /** The executor that helps the snapshot and restore threads transfer files, <tt>null</tt> if files are transferred one at a time. */
+    private final EsThreadPoolExecutor transferExecutor;
+
     private ChecksumBlobStoreFormat<MetaData> globalMetaDataFormat;
 
     private LegacyBlobStoreFormat<MetaData> globalMetaDataLegacyFormat;
@@ -243,6 +259,19 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         snapshotRateLimiter = getRateLimiter(metadata.settings(), "max_snapshot_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         restoreRateLimiter = getRateLimiter(metadata.settings(), "max_restore_bytes_per_sec", new ByteSizeValue(40, ByteSizeUnit.MB));
         readOnly = metadata.settings().getAsBoolean("readonly", false);
+        maxConcurrentTransfers = metadata.settings().getAsInt("max_concurrent_transfers", 4);
+        if (maxConcurrentTransfers < 1) {
+            throw new RepositoryException(metadata.name(),
+                "max_concurrent_transfers must be at least 1 but was [" + maxConcurrentTransfers + "]");
+        }
+        if (maxConcurrentTransfers > 1) {
+            // the snapshot thread pool snapshots up to 5 shards at once, each of them gets help from maxConcurrentTransfers - 1 threads
+            final int maxThreads = Math.min((EsExecutors.boundedNumberOfProcessors(settings) + 1) / 2, 5) * (maxConcurrentTransfers - 1);
+            transferExecutor = EsExecutors.newScaling("repository_transfer[" + metadata.name() + "]", 0, maxThreads, 30, TimeUnit.SECONDS,
+                EsExecutors.daemonThreadFactory(settings, "repository_transfer"), new ThreadContext(settings));
+        } else {
+            transferExecutor = null;
+        }
         indexShardSnapshotFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_CODEC, SNAPSHOT_NAME_FORMAT, BlobStoreIndexShardSnapshot.PROTO, parseFieldMatcher, isCompress());
         indexShardSnapshotLegacyFormat = new LegacyBlobStoreFormat<>(LEGACY_SNAPSHOT_NAME_FORMAT, BlobStoreIndexShardSnapshot.PROTO, parseFieldMatcher);
         indexShardSnapshotsFormat = new ChecksumBlobStoreFormat<>(SNAPSHOT_INDEX_CODEC, SNAPSHOT_INDEX_NAME_FORMAT, BlobStoreIndexShardSnapshots.PROTO, parseFieldMatcher, isCompress());
@@ -269,6 +298,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     @Override
     protected void doClose() {
+        if (transferExecutor != null) {
+            transferExecutor.shutdown();
+        }
         try {
             blobStore().close();
         } catch (Exception t) {
@@ -416,9 +448,22 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             safeGlobalMetaDataBlobDelete(snapshot, snapshotId.getUUID());
 
             // Now delete all indices
+            final Set<IndexId> unreferencedIndices = repositoryData.getIndicesOnlyReferencedBy(snapshotId);
+            final Set<IndexId> deletedIndices = new HashSet<>();
             for (String index : indices) {
                 final IndexId indexId = repositoryData.resolveIndexId(index);
                 BlobPath indexPath = basePath().add("indices").add(indexId.getId());
+                if (unreferencedIndices.contains(indexId)) {
+                    // no other snapshot references the files of this index, so there is no need to
+                    // go through the shard snapshots to find out which files can be deleted
+                    try {
+                        blobStore().delete(indexPath);
+                        deletedIndices.add(indexId);
+                        continue;
+                    } catch (IOException ex) {
+                        logger.warn("[{}] failed to delete index [{}], deleting its shards one by one", ex, snapshotId, index);
+                    }
+                }
                 BlobContainer indexMetaDataBlobContainer = blobStore().blobContainer(indexPath);
                 try {
                     indexMetaDataFormat(snapshot.version()).delete(indexMetaDataBlobContainer, snapshotId.getUUID());
@@ -442,6 +487,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             // cleanup indices that are no longer part of the repository
             final Collection<IndexId> indicesToCleanUp = Sets.newHashSet(repositoryData.getIndices().values());
             indicesToCleanUp.removeAll(updatedRepositoryData.getIndices().values());
+            indicesToCleanUp.removeAll(deletedIndices);
             final BlobContainer indicesBlobContainer = blobStore().blobContainer(basePath().add("indices"));
             for (final IndexId indexId : indicesToCleanUp) {
                 try {
@@ -970,6 +1016,103 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * A transfer of a file, or of a part of a file, between the shard store and the blob store.
+     */
+    @FunctionalInterface
+    private interface Transfer {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs the given transfers, up to {@code max_concurrent_transfers} of them at once. The calling thread runs transfers itself,
+     * and the threads of the transfer executor help it only once they are available, so that a busy executor slows transfers down
+     * but never blocks them. This method returns once none of the transfers is running anymore. The first failure stops the
+     * transfers that did not start yet and is rethrown.
+     */
+    private void runTransfers(List<Transfer> transfers) throws IOException {
+        final Queue<Transfer> queue = ConcurrentCollections.newQueue();
+        queue.addAll(transfers);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable drain = () -> {
+            Transfer transfer;
+            while (failure.get() == null && (transfer = queue.poll()) != null) {
+                try {
+                    transfer.run();
+                } catch (Exception e) {
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                }
+            }
+        };
+        final int numHelpers = transferExecutor == null || transfers.isEmpty() ? 0 : Math.min(maxConcurrentTransfers, transfers.size()) - 1;
+        final List<TransferHelper> helpers = new ArrayList<>(numHelpers);
+        for (int i = 0; i < numHelpers; i++) {
+            TransferHelper helper = new TransferHelper(drain);
+            try {
+                transferExecutor.execute(helper);
+            } catch (EsRejectedExecutionException e) {
+                // the repository is closing, the calling thread runs the transfers on its own
+                break;
+            }
+            helpers.add(helper);
+        }
+        drain.run();
+        boolean interrupted = false;
+        for (TransferHelper helper : helpers) {
+            while (true) {
+                try {
+                    helper.awaitDone();
+                    break;
+                } catch (InterruptedException e) {
+                    // keep waiting, transfers must not outlive the store reference of the snapshot or restore
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final Exception e = failure.get();
+        if (e != null) {
+            if (e instanceof IOException) {
+                throw (IOException) e;
+            }
+            throw ExceptionsHelper.convertToRuntime(e);
+        }
+    }
+
+    /**
+     * Runs transfers on a thread of the transfer executor, unless the calling thread was done before the helper got to start.
+     */
+    private static final class TransferHelper implements Runnable {
+        private final Runnable drain;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        TransferHelper(Runnable drain) {
+            this.drain = drain;
+        }
+
+        @Override
+        public void run() {
+            if (started.compareAndSet(false, true)) {
+                try {
+                    drain.run();
+                } finally {
+                    done.countDown();
+                }
+            }
+        }
+
+        void awaitDone() throws InterruptedException {
+            if (started.compareAndSet(false, true) == false) {
+                done.await();
+            }
+        }
+    }
+
     /**
      * Context for snapshot/restore operations
      */
@@ -998,6 +1141,88 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
          * Delete shard snapshot
          */
         public void delete() {
+            final Map<String, BlobMetaData> indexBlobs;
+            final Map<String, BlobMetaData> tempIndexBlobs;
+            try {
+                // only the shard index files are listed, the data blobs to delete are computed from the latest one
+                indexBlobs = blobContainer.listBlobsByPrefix(SNAPSHOT_INDEX_PREFIX);
+                tempIndexBlobs = blobContainer.listBlobsByPrefix(indexShardSnapshotsFormat.tempBlobName(""));
+            } catch (IOException e) {
+                throw new IndexShardSnapshotException(shardId, "Failed to list content of gateway", e);
+            }
+
+            final Tuple<BlobStoreIndexShardSnapshots, Integer> tuple = readLatestBlobStoreIndexShardSnapshots(indexBlobs);
+            if (tuple == null) {
+                // the shard index file can't be read, fall back to listing all the blobs of the shard
+                deleteFromListing();
+                return;
+            }
+            BlobStoreIndexShardSnapshots snapshots = tuple.v1();
+            int fileListGeneration = tuple.v2();
+
+            try {
+                indexShardSnapshotFormat(version).delete(blobContainer, snapshotId.getUUID());
+            } catch (IOException e) {
+                logger.debug("[{}] [{}] failed to delete shard snapshot file", shardId, snapshotId);
+            }
+
+            // Build a list of snapshots that should be preserved, and count the references to their files
+            List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
+            SnapshotFiles deletedSnapshot = null;
+            Set<String> referencedFiles = new HashSet<>();
+            for (SnapshotFiles point : snapshots) {
+                if (point.snapshot().equals(snapshotId.getName())) {
+                    deletedSnapshot = point;
+                } else {
+                    newSnapshotsList.add(point);
+                    for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : point.indexFiles()) {
+                        referencedFiles.add(fileInfo.name());
+                    }
+                }
+            }
+            List<String> unreferencedBlobs = new ArrayList<>();
+            if (deletedSnapshot != null) {
+                for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : deletedSnapshot.indexFiles()) {
+                    if (referencedFiles.contains(fileInfo.name()) == false) {
+                        for (int i = 0; i < fileInfo.numberOfParts(); i++) {
+                            unreferencedBlobs.add(fileInfo.partName(i));
+                        }
+                    }
+                }
+            }
+
+            // leftovers of failed index file writes would prevent writing the new index file
+            deleteIndexFiles(tempIndexBlobs.keySet());
+            if (newSnapshotsList.isEmpty()) {
+                // no snapshot is left, the index files must be gone before the files they reference are deleted
+                deleteIndexFiles(indexBlobs.keySet());
+            } else {
+                // write the new index file first, so that the latest index file never references deleted files
+                final BlobStoreIndexShardSnapshots newSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
+                try {
+                    indexShardSnapshotsFormat.writeAtomic(newSnapshots, blobContainer, Integer.toString(fileListGeneration + 1));
+                } catch (IOException e) {
+                    throw new IndexShardSnapshotFailedException(shardId, "Failed to write file list", e);
+                }
+                try {
+                    blobContainer.deleteBlobsIgnoringIfNotExists(indexBlobs.keySet());
+                } catch (IOException e) {
+                    // the new index file is the latest one, stale index files are cleaned up by the next snapshot or delete
+                    logger.debug("[{}] [{}] error deleting old index files during cleanup", e, snapshotId, shardId);
+                }
+            }
+            try {
+                blobContainer.deleteBlobsIgnoringIfNotExists(unreferencedBlobs);
+            } catch (IOException e) {
+                // unreferenced blobs are cleaned up by the next snapshot of the shard
+                logger.debug("[{}] [{}] error deleting unreferenced blobs during cleanup", e, snapshotId, shardId);
+            }
+        }
+
+        /**
+         * Delete shard snapshot by listing all the blobs of the shard and removing the ones that no snapshot references anymore.
+         */
+        private void deleteFromListing() {
             final Map<String, BlobMetaData> blobs;
             try {
                 blobs = blobContainer.listBlobs();
@@ -1026,6 +1251,21 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             finalize(newSnapshotsList, fileListGeneration + 1, blobs);
         }
 
+        /**
+         * Deletes the given index files of the shard.
+         *
+         * @param indexBlobs names of the index files and of their temporary files
+         */
+        private void deleteIndexFiles(Collection<String> indexBlobs) {
+            try {
+                blobContainer.deleteBlobsIgnoringIfNotExists(indexBlobs);
+            } catch (IOException e) {
+                // We cannot delete index file - this is fatal, we cannot continue, otherwise we might end up
+                // with references to non-existing files
+                throw new IndexShardSnapshotFailedException(shardId, "error deleting index files " + indexBlobs + " during cleanup", e);
+            }
+        }
+
         /**
          * Loads information about shard snapshot
          */
@@ -1051,32 +1291,20 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         protected void finalize(List<SnapshotFiles> snapshots, int fileListGeneration, Map<String, BlobMetaData> blobs) {
             BlobStoreIndexShardSnapshots newSnapshots = new BlobStoreIndexShardSnapshots(snapshots);
             // delete old index files first
-            for (String blobName : blobs.keySet()) {
-                if (indexShardSnapshotsFormat.isTempBlobName(blobName) || blobName.startsWith(SNAPSHOT_INDEX_PREFIX)) {
-                    try {
-                        blobContainer.deleteBlob(blobName);
-                    } catch (IOException e) {
-                        // We cannot delete index file - this is fatal, we cannot continue, otherwise we might end up
-                        // with references to non-existing files
-                        throw new IndexShardSnapshotFailedException(shardId, "error deleting index file ["
-                            + blobName + "] during cleanup", e);
-                    }
-                }
-            }
+            deleteIndexFiles(blobs.keySet().stream()
+                .filter(blobName -> indexShardSnapshotsFormat.isTempBlobName(blobName) || blobName.startsWith(SNAPSHOT_INDEX_PREFIX))
+                .collect(Collectors.toList()));
 
             // now go over all the blobs, and if they don't exist in a snapshot, delete them
-            for (String blobName : blobs.keySet()) {
-                // delete unused files
-                if (blobName.startsWith(DATA_BLOB_PREFIX)) {
-                    if (newSnapshots.findNameFile(BlobStoreIndexShardSnapshot.FileInfo.canonicalName(blobName)) == null) {
-                        try {
-                            blobContainer.deleteBlob(blobName);
-                        } catch (IOException e) {
-                            // TODO: don't catch and let the user handle it?
-                            logger.debug("[{}] [{}] error deleting blob [{}] during cleanup", e, snapshotId, shardId, blobName);
-                        }
-                    }
-                }
+            final List<String> unusedBlobs = blobs.keySet().stream()
+                .filter(blobName -> blobName.startsWith(DATA_BLOB_PREFIX))
+                .filter(blobName -> newSnapshots.findNameFile(BlobStoreIndexShardSnapshot.FileInfo.canonicalName(blobName)) == null)
+                .collect(Collectors.toList());
+            try {
+                blobContainer.deleteBlobsIgnoringIfNotExists(unusedBlobs);
+            } catch (IOException e) {
+                // TODO: don't catch and let the user handle it?
+                logger.debug("[{}] [{}] error deleting unused blobs during cleanup", e, snapshotId, shardId);
             }
 
             // If we deleted all snapshots - we don't need to create the index file
@@ -1125,12 +1353,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
 
         /**
-         * Loads all available snapshots in the repository
+         * Loads the snapshots of the shard from its latest index file
          *
-         * @param blobs list of blobs in repository
-         * @return tuple of BlobStoreIndexShardSnapshots and the last snapshot index generation
+         * @param blobs list of blobs in repository, only the index files are required
+         * @return tuple of BlobStoreIndexShardSnapshots and the last snapshot index generation, or {@code null} if there
+         *         is no index file or the latest one can't be read
          */
-        protected Tuple<BlobStoreIndexShardSnapshots, Integer> buildBlobStoreIndexShardSnapshots(Map<String, BlobMetaData> blobs) {
+        protected Tuple<BlobStoreIndexShardSnapshots, Integer> readLatestBlobStoreIndexShardSnapshots(Map<String, BlobMetaData> blobs) {
             int latest = -1;
             for (String name : blobs.keySet()) {
                 if (name.startsWith(SNAPSHOT_INDEX_PREFIX)) {
@@ -1153,6 +1382,20 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     logger.warn("failed to read index file  [{}]", e, SNAPSHOT_INDEX_PREFIX + latest);
                 }
             }
+            return null;
+        }
+
+        /**
+         * Loads all available snapshots in the repository
+         *
+         * @param blobs list of blobs in repository
+         * @return tuple of BlobStoreIndexShardSnapshots and the last snapshot index generation
+         */
+        protected Tuple<BlobStoreIndexShardSnapshots, Integer> buildBlobStoreIndexShardSnapshots(Map<String, BlobMetaData> blobs) {
+            final Tuple<BlobStoreIndexShardSnapshots, Integer> latestIndexFile = readLatestBlobStoreIndexShardSnapshots(blobs);
+            if (latestIndexFile != null) {
+                return latestIndexFile;
+            }
 
             // We couldn't load the index file - falling back to loading individual snapshots
             List<SnapshotFiles> snapshots = new ArrayList<>();
@@ -1282,12 +1525,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
                 snapshotStatus.updateStage(IndexShardSnapshotStatus.Stage.STARTED);
 
+                // the parts of a file are uploaded one after the other so its checksum can be verified while it is read
+                final List<Transfer> transfers = new ArrayList<>();
                 for (BlobStoreIndexShardSnapshot.FileInfo snapshotFileInfo : filesToSnapshot) {
-                    try {
-                        snapshotFile(snapshotFileInfo);
-                    } catch (IOException e) {
-                        throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
-                    }
+                    transfers.add(() -> snapshotFile(snapshotFileInfo));
+                }
+                try {
+                    runTransfers(transfers);
+                } catch (IOException e) {
+                    throw new IndexShardSnapshotFailedException(shardId, "Failed to perform snapshot (index files)", e);
                 }
 
                 snapshotStatus.indexVersion(snapshotIndexCommit.getGeneration());
@@ -1333,16 +1579,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final String file = fileInfo.physicalName();
             try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
                 for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                    final long partBytes = fileInfo.partBytes(i);
-
-                    final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes);
-                    InputStream inputStream = inputStreamIndexInput;
-                    if (snapshotRateLimiter != null) {
-                        inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
-                                                                  snapshotRateLimitingTimeInNanos::inc);
-                    }
-                    inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
-                    blobContainer.writeBlob(fileInfo.partName(i), inputStream, partBytes);
+                    writePart(fileInfo, i, indexInput);
                 }
                 Store.verify(indexInput);
                 snapshotStatus.addProcessedFile(fileInfo.length());
@@ -1353,6 +1590,19 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             }
         }
 
+        private void writePart(final BlobStoreIndexShardSnapshot.FileInfo fileInfo, final int part, final IndexInput indexInput)
+            throws IOException {
+            final long partBytes = fileInfo.partBytes(part);
+            final InputStreamIndexInput inputStreamIndexInput = new InputStreamIndexInput(indexInput, partBytes);
+            InputStream inputStream = inputStreamIndexInput;
+            if (snapshotRateLimiter != null) {
+                inputStream = new RateLimitingInputStream(inputStreamIndexInput, snapshotRateLimiter,
+                                                          snapshotRateLimitingTimeInNanos::inc);
+            }
+            inputStream = new AbortableInputStream(inputStream, fileInfo.physicalName());
+            blobContainer.writeBlob(fileInfo.partName(part), inputStream, partBytes);
+        }
+
         private void failStoreIfCorrupted(Exception e) {
             if (e instanceof CorruptIndexException || e instanceof IndexFormatTooOldException || e instanceof IndexFormatTooNewException) {
                 try {
@@ -1577,10 +1827,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         index.totalRecoverFiles(), new ByteSizeValue(index.totalRecoverBytes()), index.reusedFileCount(), new ByteSizeValue(index.reusedFileCount()));
                 }
                 try {
+                    // a file is written sequentially, so files rather than parts are restored concurrently
+                    final List<Transfer> transfers = new ArrayList<>(filesToRecover.size());
                     for (final BlobStoreIndexShardSnapshot.FileInfo fileToRecover : filesToRecover) {
-                        logger.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
-                        restoreFile(fileToRecover, store);
+                        transfers.add(() -> {
+                            logger.trace("[{}] [{}] restoring file [{}]", shardId, snapshotId, fileToRecover.name());
+                            restoreFile(fileToRecover, store);
+                        });
                     }
+                    runTransfers(transfers);
                 } catch (IOException ex) {
                     throw new IndexShardRestoreFailedException(shardId, "Failed to recover index", ex);
                 }
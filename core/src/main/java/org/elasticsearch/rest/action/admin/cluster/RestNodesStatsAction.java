@@ -77,6 +77,7 @@ public class RestNodesStatsAction extends BaseRestHandler {
             nodesStatsRequest.script(metrics.contains("script"));
             nodesStatsRequest.discovery(metrics.contains("discovery"));
             nodesStatsRequest.ingest(metrics.contains("ingest"));
+            nodesStatsRequest.adaptiveSelection(metrics.contains("adaptive_selection"));
 
             // check for index specific metrics
             if (metrics.contains("indices")) {
@@ -126,6 +126,8 @@ public class RestSearchAction extends BaseRestHandler {
         }
         parseSearchSource(searchRequest.source(), request);
         searchRequest.requestCache(request.paramAsBoolean("request_cache", null));
+        final int batchedReduceSize = request.paramAsInt("batched_reduce_size", searchRequest.batchedReduceSize());
+        searchRequest.batchedReduceSize(batchedReduceSize);
 
         String scroll = request.param("scroll");
         if (scroll != null) {
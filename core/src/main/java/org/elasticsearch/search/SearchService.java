@@ -32,6 +32,7 @@ import org.elasticsearch.common.ParseFieldMatcher;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.metrics.ExponentiallyWeightedMovingAverage;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -45,6 +46,7 @@ import org.elasticsearch.common.xcontent.XContentLocation;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.query.InnerHitBuilder;
 import org.elasticsearch.index.query.QueryShardContext;
@@ -101,6 +103,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Collections.unmodifiableMap;
@@ -153,6 +157,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private final ParseFieldMatcher parseFieldMatcher;
 
+    /**
+     * The moving average of the time spent on query phases, reported in query results so that the coordinating nodes can rank
+     * the copies of a shard.
+     */
+    private final ExponentiallyWeightedMovingAverage queryPhaseServiceTime = new ExponentiallyWeightedMovingAverage(0.3, 0);
+
     @Inject
     public SearchService(Settings settings, ClusterSettings clusterSettings, ClusterService clusterService, IndicesService indicesService,
                          ThreadPool threadPool, ScriptService scriptService, BigArrays bigArrays, FetchPhase fetchPhase) {
@@ -274,7 +284,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             } else {
                 contextProcessedSuccessfully(context);
             }
-            operationListener.onQueryPhase(context, System.nanoTime() - time);
+            final long took = System.nanoTime() - time;
+            operationListener.onQueryPhase(context, took);
+            recordServiceTime(context.queryResult(), took);
 
             return context.queryResult();
         } catch (Exception e) {
@@ -330,7 +342,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             } else {
                 contextProcessedSuccessfully(context);
             }
-            operationListener.onQueryPhase(context, System.nanoTime() - time);
+            final long took = System.nanoTime() - time;
+            operationListener.onQueryPhase(context, took);
+            recordServiceTime(context.queryResult(), took);
             return context.queryResult();
         } catch (Exception e) {
             operationListener.onFailedQueryPhase(context);
@@ -342,6 +356,24 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         }
     }
 
+    /**
+     * Adds the time taken by a query phase to the moving average of the service time, and reports the moving average and the
+     * current size of the search queue in its result.
+     */
+    private void recordServiceTime(QuerySearchResult result, long tookInNanos) {
+        queryPhaseServiceTime.addValue(tookInNanos);
+        result.serviceTimeEWMA((long) queryPhaseServiceTime.getAverage());
+        result.nodeQueueSize(searchQueueSize());
+    }
+
+    private int searchQueueSize() {
+        final Executor executor = threadPool.executor(Names.SEARCH);
+        if (executor instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return 0;
+    }
+
     private boolean fetchPhaseShouldFreeContext(SearchContext context) {
         if (context.scrollContext() == null) {
             // simple search, no scroll
@@ -367,6 +399,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             }
             long time2 = System.nanoTime();
             operationListener.onQueryPhase(context, time2 - time);
+            recordServiceTime(context.queryResult(), time2 - time);
             operationListener.onPreFetchPhase(context);
             try {
                 shortcutDocIdsToLoad(context);
@@ -407,6 +440,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             }
             long time2 = System.nanoTime();
             operationListener.onQueryPhase(context, time2 - time);
+            recordServiceTime(context.queryResult(), time2 - time);
             operationListener.onPreFetchPhase(context);
             try {
                 shortcutDocIdsToLoad(context);
@@ -447,6 +481,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             }
             long time2 = System.nanoTime();
             operationListener.onQueryPhase(context, time2 - time);
+            recordServiceTime(context.queryResult(), time2 - time);
             operationListener.onPreFetchPhase(context);
             try {
                 shortcutDocIdsToLoad(context);
@@ -538,6 +573,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 indexService,
                 indexShard, scriptService, bigArrays, threadPool.estimatedTimeInMillisCounter(), parseFieldMatcher,
                 defaultSearchTimeout, fetchPhase);
+        IndexSettings indexSettings = indexService.getIndexSettings();
+        if (indexSettings.isConcurrentSegmentSearch()) {
+            context.searcher().setSliceExecutor(threadPool.executor(Names.SEARCH_WORKER), threadPool.info(Names.SEARCH_WORKER).getMax(),
+                    indexSettings.getConcurrentSegmentSearchMinDocsPerSlice());
+        }
         SearchContext.setCurrent(context);
         try {
             request.rewrite(context.getQueryShardContext());
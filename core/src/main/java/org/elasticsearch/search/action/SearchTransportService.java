@@ -31,6 +31,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResult;
@@ -74,12 +75,15 @@ public class SearchTransportService extends AbstractComponent {
 
     private final TransportService transportService;
     private final SearchService searchService;
+    private final ResponseCollectorService responseCollectorService;
 
     @Inject
-    public SearchTransportService(Settings settings, TransportService transportService, SearchService searchService) {
+    public SearchTransportService(Settings settings, TransportService transportService, SearchService searchService,
+                                  ResponseCollectorService responseCollectorService) {
         super(settings);
         this.transportService = transportService;
         this.searchService = searchService;
+        this.responseCollectorService = responseCollectorService;
         transportService.registerRequestHandler(FREE_CONTEXT_SCROLL_ACTION_NAME, ScrollFreeContextRequest::new, ThreadPool.Names.SAME,
                 new FreeContextTransportHandler<>());
         transportService.registerRequestHandler(FREE_CONTEXT_ACTION_NAME, SearchFreeContextRequest::new, ThreadPool.Names.SAME,
@@ -106,6 +110,13 @@ public class SearchTransportService extends AbstractComponent {
                 new FetchByIdTransportHandler<>());
     }
 
+    /**
+     * Returns the statistics collected from the responses to query requests, to rank the copies of shards by.
+     */
+    public ResponseCollectorService getResponseCollectorService() {
+        return responseCollectorService;
+    }
+
     public void sendFreeContext(DiscoveryNode node, final long contextId, SearchRequest request) {
         transportService.sendRequest(node, FREE_CONTEXT_ACTION_NAME, new SearchFreeContextRequest(request, contextId),
                 new ActionListenerResponseHandler<>(new ActionListener<SearchFreeContextResponse>() {
@@ -139,12 +150,12 @@ public class SearchTransportService extends AbstractComponent {
     public void sendExecuteQuery(DiscoveryNode node, final ShardSearchTransportRequest request,
                                  final ActionListener<QuerySearchResultProvider> listener) {
         transportService.sendRequest(node, QUERY_ACTION_NAME, request,
-                new ActionListenerResponseHandler<>(listener, QuerySearchResult::new));
+                new ActionListenerResponseHandler<>(collectResponseStats(node, listener), QuerySearchResult::new));
     }
 
     public void sendExecuteQuery(DiscoveryNode node, final QuerySearchRequest request, final ActionListener<QuerySearchResult> listener) {
         transportService.sendRequest(node, QUERY_ID_ACTION_NAME, request,
-            new ActionListenerResponseHandler<>(listener, QuerySearchResult::new));
+            new ActionListenerResponseHandler<>(collectResponseStats(node, listener), QuerySearchResult::new));
     }
 
     public void sendExecuteQuery(DiscoveryNode node, final InternalScrollSearchRequest request,
@@ -156,13 +167,13 @@ public class SearchTransportService extends AbstractComponent {
     public void sendExecuteFetch(DiscoveryNode node, final ShardSearchTransportRequest request,
                                  final ActionListener<QueryFetchSearchResult> listener) {
         transportService.sendRequest(node, QUERY_FETCH_ACTION_NAME, request,
-                new ActionListenerResponseHandler<>(listener, QueryFetchSearchResult::new));
+                new ActionListenerResponseHandler<>(collectResponseStats(node, listener), QueryFetchSearchResult::new));
     }
 
     public void sendExecuteFetch(DiscoveryNode node, final QuerySearchRequest request,
                                  final ActionListener<QueryFetchSearchResult> listener) {
         transportService.sendRequest(node, QUERY_QUERY_FETCH_ACTION_NAME, request,
-                new ActionListenerResponseHandler<>(listener, QueryFetchSearchResult::new));
+                new ActionListenerResponseHandler<>(collectResponseStats(node, listener), QueryFetchSearchResult::new));
     }
 
     public void sendExecuteFetch(DiscoveryNode node, final InternalScrollSearchRequest request,
@@ -171,6 +182,36 @@ public class SearchTransportService extends AbstractComponent {
                 new ActionListenerResponseHandler<>(listener, ScrollQueryFetchSearchResult::new));
     }
 
+    /**
+     * Wraps the listener of a query request so that the response time of the node, and the search queue size and service time
+     * that it reports, are collected to rank the copies of shards in subsequent searches.
+     */
+    private <Result extends QuerySearchResultProvider> ActionListener<Result> collectResponseStats(DiscoveryNode node,
+                                                                                                 ActionListener<Result> listener) {
+        final String nodeId = node.getId();
+        final long startNanos = System.nanoTime();
+        responseCollectorService.onRequestSent(nodeId);
+        return new ActionListener<Result>() {
+            @Override
+            public void onResponse(Result result) {
+                final QuerySearchResult queryResult = result.queryResult();
+                if (queryResult.nodeQueueSize() >= 0) {
+                    responseCollectorService.onResponseReceived(nodeId, queryResult.nodeQueueSize(), System.nanoTime() - startNanos,
+                        queryResult.serviceTimeEWMA());
+                } else {
+                    responseCollectorService.onRequestCompleted(nodeId);
+                }
+                listener.onResponse(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                responseCollectorService.onRequestCompleted(nodeId);
+                listener.onFailure(e);
+            }
+        };
+    }
+
     public void sendExecuteFetch(DiscoveryNode node, final ShardFetchSearchRequest request,
                                  final ActionListener<FetchSearchResult> listener) {
         sendExecuteFetch(node, FETCH_ID_ACTION_NAME, request, listener);
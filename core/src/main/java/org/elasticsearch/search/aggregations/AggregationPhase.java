@@ -81,6 +81,29 @@ public class AggregationPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Creates the collector for an additional slice of a concurrent search. It is backed by its own top level aggregators,
+     * which are reduced into the main aggregators once collection is done. Returns <tt>null</tt> if only global aggregations
+     * were requested, as those are not collected by the query.
+     */
+    public static Collector createSliceCollector(SearchContext context) throws IOException {
+        assert context.aggregations().factories().supportsConcurrentCollection();
+        Aggregator[] aggregators = context.aggregations().factories().createTopLevelAggregators();
+        context.aggregations().addSliceAggregators(aggregators);
+        List<Aggregator> collectors = new ArrayList<>();
+        for (Aggregator aggregator : aggregators) {
+            if (aggregator instanceof GlobalAggregator == false) {
+                collectors.add(aggregator);
+            }
+        }
+        if (collectors.isEmpty()) {
+            return null;
+        }
+        BucketCollector collector = BucketCollector.wrap(collectors);
+        collector.preCollection();
+        return collector;
+    }
+
     @Override
     public void execute(SearchContext context) {
         if (context.aggregations() == null) {
@@ -136,11 +159,30 @@ public class AggregationPhase implements SearchPhase {
             }
         }
 
+        List<Aggregator[]> sliceAggregators = context.aggregations().sliceAggregators();
+        List<InternalAggregations> segmentAggregations = context.aggregations().segmentAggregations();
         List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
+        for (int i = 0; i < aggregators.length; i++) {
+            Aggregator aggregator = aggregators[i];
             try {
                 aggregator.postCollection();
-                aggregations.add(aggregator.buildAggregation(0));
+                InternalAggregation aggregation = aggregator.buildAggregation(0);
+                if ((sliceAggregators.isEmpty() == false || segmentAggregations.isEmpty() == false)
+                        && aggregator instanceof GlobalAggregator == false) {
+                    // merge the results of the slices or segments, the shard result must remain reducible with the other shard results
+                    List<InternalAggregation> slices = new ArrayList<>(sliceAggregators.size() + segmentAggregations.size() + 1);
+                    slices.add(aggregation);
+                    for (Aggregator[] slice : sliceAggregators) {
+                        slice[i].postCollection();
+                        slices.add(slice[i].buildAggregation(0));
+                    }
+                    for (InternalAggregations segment : segmentAggregations) {
+                        slices.add(segment.get(aggregator.name()));
+                    }
+                    aggregation = aggregation.reduce(slices,
+                            new InternalAggregation.ReduceContext(context.bigArrays(), context.scriptService(), null, false));
+                }
+                aggregations.add(aggregation);
             } catch (IOException e) {
                 throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
             }
@@ -124,6 +124,20 @@ public class AggregatorFactories {
         return pipelineAggregatorFactories.size();
     }
 
+    /**
+     * Whether all the aggregators created by these factories support collecting slices of a shard concurrently.
+     *
+     * @see AggregatorFactory#supportsConcurrentCollection()
+     */
+    public boolean supportsConcurrentCollection() {
+        for (AggregatorFactory<?> factory : factories) {
+            if (factory.supportsConcurrentCollection() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void validate() {
         for (AggregatorFactory<?> factory : factories) {
             factory.validate();
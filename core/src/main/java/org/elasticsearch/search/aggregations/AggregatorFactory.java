@@ -229,6 +229,14 @@ public abstract class AggregatorFactory<AF extends AggregatorFactory<AF>> {
         return type.name();
     }
 
+    /**
+     * Whether the aggregators of this factory and of its sub factories can collect different slices of the segments of a
+     * shard concurrently, each slice with its own aggregator, and have their results reduced into the result of the shard.
+     */
+    public boolean supportsConcurrentCollection() {
+        return factories.supportsConcurrentCollection();
+    }
+
     public AggregatorFactory<?> getParent() {
         return parent;
     }
@@ -20,6 +20,9 @@ package org.elasticsearch.search.aggregations;
 
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The aggregation context that is part of the search context.
  */
@@ -27,6 +30,8 @@ public class SearchContextAggregations {
 
     private final AggregatorFactories factories;
     private Aggregator[] aggregators;
+    private final List<Aggregator[]> sliceAggregators = new ArrayList<>();
+    private final List<InternalAggregations> segmentAggregations = new ArrayList<>();
     private AggregationContext aggregationContext;
 
     /**
@@ -61,4 +66,35 @@ public class SearchContextAggregations {
         this.aggregators = aggregators;
     }
 
+    /**
+     * The top level aggregators of the additional slices of a concurrent search, whose results are reduced into the
+     * results of the {@link #aggregators()}.
+     */
+    public List<Aggregator[]> sliceAggregators() {
+        return sliceAggregators;
+    }
+
+    /**
+     * Registers the top level aggregators that collect an additional slice of a concurrent search.
+     */
+    public void addSliceAggregators(Aggregator[] aggregators) {
+        assert aggregators.length == this.aggregators.length;
+        sliceAggregators.add(aggregators);
+    }
+
+    /**
+     * The partial results of the non global aggregations computed on single segments, which are reduced into the results of
+     * the {@link #aggregators()}.
+     */
+    public List<InternalAggregations> segmentAggregations() {
+        return segmentAggregations;
+    }
+
+    /**
+     * Registers the partial results of the non global aggregations of a single segment.
+     */
+    public void addSegmentAggregations(InternalAggregations aggregations) {
+        segmentAggregations.add(aggregations);
+    }
+
 }
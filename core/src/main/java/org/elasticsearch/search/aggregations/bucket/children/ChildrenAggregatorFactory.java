@@ -53,6 +53,12 @@ public class ChildrenAggregatorFactory
         this.parentFilter = parentFilter;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // the children of the collected parents are looked up over all segments after collection
+        return false;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
@@ -192,7 +192,8 @@ public class InternalGeoHashGrid extends InternalMultiBucketAggregation<Internal
             }
         }
 
-        final int size = (int) Math.min(requiredSize, buckets.size());
+        // partial reduces must keep all buckets, they can only be trimmed once all shard results are known
+        final int size = Math.toIntExact(reduceContext.isFinalReduce() ? Math.min(requiredSize, buckets.size()) : buckets.size());
         BucketPriorityQueue ordered = new BucketPriorityQueue(size);
         for (LongObjectPagedHashMap.Cursor<List<Bucket>> cursor : buckets) {
             List<Bucket> sameCellBuckets = cursor.value;
@@ -287,7 +287,7 @@ public final class InternalDateHistogram extends InternalMultiBucketAggregation<
                 if (top.current.key != key) {
                     // the key changes, reduce what we already buffered and reset the buffer for current buckets
                     final Bucket reduced = currentBuckets.get(0).reduce(currentBuckets, reduceContext);
-                    if (reduced.getDocCount() >= minDocCount) {
+                    if (reduced.getDocCount() >= minDocCount || reduceContext.isFinalReduce() == false) {
                         reducedBuckets.add(reduced);
                     }
                     currentBuckets.clear();
@@ -308,7 +308,7 @@ public final class InternalDateHistogram extends InternalMultiBucketAggregation<
 
             if (currentBuckets.isEmpty() == false) {
                 final Bucket reduced = currentBuckets.get(0).reduce(currentBuckets, reduceContext);
-                if (reduced.getDocCount() >= minDocCount) {
+                if (reduced.getDocCount() >= minDocCount || reduceContext.isFinalReduce() == false) {
                     reducedBuckets.add(reduced);
                 }
             }
@@ -380,14 +380,15 @@ public final class InternalDateHistogram extends InternalMultiBucketAggregation<
         List<Bucket> reducedBuckets = reduceBuckets(aggregations, reduceContext);
 
         // adding empty buckets if needed
-        if (minDocCount == 0) {
+        if (minDocCount == 0 && reduceContext.isFinalReduce()) {
             addEmptyBuckets(reducedBuckets, reduceContext);
         }
 
-        if (order == InternalOrder.KEY_ASC) {
+        if (order == InternalOrder.KEY_ASC || reduceContext.isFinalReduce() == false) {
             // nothing to do, data are already sorted since shards return
             // sorted buckets and the merge-sort performed by reduceBuckets
-            // maintains order
+            // maintains order. Partial reduces must keep this order so
+            // that their output can be merge-sorted again.
         } else if (order == InternalOrder.KEY_DESC) {
             // we just need to reverse here...
             List<Bucket> reverse = new ArrayList<>(reducedBuckets);
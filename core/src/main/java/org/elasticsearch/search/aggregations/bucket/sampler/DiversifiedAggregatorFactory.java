@@ -53,6 +53,12 @@ public class DiversifiedAggregatorFactory extends ValuesSourceAggregatorFactory<
         this.executionHint = executionHint;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // diversity is enforced per sample, which would be taken per slice
+        return false;
+    }
+
     @Override
     protected Aggregator doCreateInternal(ValuesSource valuesSource, Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
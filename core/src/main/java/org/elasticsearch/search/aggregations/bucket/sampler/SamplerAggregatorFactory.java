@@ -40,6 +40,12 @@ public class SamplerAggregatorFactory extends AggregatorFactory<SamplerAggregato
         this.shardSize = shardSize;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // the sample would be taken per slice, so the sample size would grow with the number of slices
+        return false;
+    }
+
     @Override
     public Aggregator createInternal(Aggregator parent, boolean collectsFromSingleBucket, List<PipelineAggregator> pipelineAggregators,
             Map<String, Object> metaData) throws IOException {
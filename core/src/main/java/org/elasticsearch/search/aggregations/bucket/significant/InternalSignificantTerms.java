@@ -198,13 +198,14 @@ public abstract class InternalSignificantTerms<A extends InternalSignificantTerm
         }
 
         getSignificanceHeuristic().initialize(reduceContext);
-        final int size = Math.min(requiredSize, buckets.size());
+        // partial reduces must keep all buckets, they can only be trimmed once all shard results are known
+        final int size = reduceContext.isFinalReduce() ? Math.min(requiredSize, buckets.size()) : buckets.size();
         BucketSignificancePriorityQueue<B> ordered = new BucketSignificancePriorityQueue<>(size);
         for (Map.Entry<String, List<B>> entry : buckets.entrySet()) {
             List<B> sameTermBuckets = entry.getValue();
             final B b = sameTermBuckets.get(0).reduce(sameTermBuckets, reduceContext);
             b.updateScore(getSignificanceHeuristic());
-            if ((b.score > 0) && (b.subsetDf >= minDocCount)) {
+            if ((b.score > 0 && b.subsetDf >= minDocCount) || reduceContext.isFinalReduce() == false) {
                 ordered.insertWithOverflow(b);
             }
         }
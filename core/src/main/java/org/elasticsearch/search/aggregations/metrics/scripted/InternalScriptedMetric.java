@@ -40,11 +40,22 @@ import java.util.Map;
 public class InternalScriptedMetric extends InternalMetricsAggregation implements ScriptedMetric {
     private final Script reduceScript;
     private final Object aggregation;
+    /**
+     * The shard level objects gathered by a partial reduce, <code>null</code> unless this is the result of a partial reduce. The reduce
+     * script can only run once all of them are known.
+     */
+    private final List<Object> partialAggregations;
 
     public InternalScriptedMetric(String name, Object aggregation, Script reduceScript, List<PipelineAggregator> pipelineAggregators,
             Map<String, Object> metaData) {
+        this(name, aggregation, null, reduceScript, pipelineAggregators, metaData);
+    }
+
+    private InternalScriptedMetric(String name, Object aggregation, List<Object> partialAggregations, Script reduceScript,
+            List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) {
         super(name, pipelineAggregators, metaData);
         this.aggregation = aggregation;
+        this.partialAggregations = partialAggregations;
         this.reduceScript = reduceScript;
     }
 
@@ -55,10 +66,12 @@ public class InternalScriptedMetric extends InternalMetricsAggregation implement
         super(in);
         reduceScript = in.readOptionalWriteable(Script::new);
         aggregation = in.readGenericValue();
+        partialAggregations = null;
     }
 
     @Override
     protected void doWriteTo(StreamOutput out) throws IOException {
+        assert partialAggregations == null : "partially reduced results are never sent over the wire";
         out.writeOptionalWriteable(reduceScript);
         out.writeGenericValue(aggregation);
     }
@@ -78,9 +91,17 @@ public class InternalScriptedMetric extends InternalMetricsAggregation implement
         List<Object> aggregationObjects = new ArrayList<>();
         for (InternalAggregation aggregation : aggregations) {
             InternalScriptedMetric mapReduceAggregation = (InternalScriptedMetric) aggregation;
-            aggregationObjects.add(mapReduceAggregation.aggregation());
+            if (mapReduceAggregation.partialAggregations != null) {
+                aggregationObjects.addAll(mapReduceAggregation.partialAggregations);
+            } else {
+                aggregationObjects.add(mapReduceAggregation.aggregation());
+            }
         }
         InternalScriptedMetric firstAggregation = ((InternalScriptedMetric) aggregations.get(0));
+        if (reduceContext.isFinalReduce() == false) {
+            return new InternalScriptedMetric(firstAggregation.getName(), aggregationObjects, aggregationObjects,
+                    firstAggregation.reduceScript, pipelineAggregators(), getMetaData());
+        }
         Object aggregation;
         if (firstAggregation.reduceScript != null) {
             Map<String, Object> vars = new HashMap<>();
@@ -55,6 +55,12 @@ public class ScriptedMetricAggregatorFactory extends AggregatorFactory<ScriptedM
         this.params = params;
     }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // the per shard script state can only be combined by the reduce script on the coordinating node
+        return false;
+    }
+
     @Override
     public Aggregator createInternal(Aggregator parent, boolean collectsFromSingleBucket, List<PipelineAggregator> pipelineAggregators,
             Map<String, Object> metaData) throws IOException {
@@ -92,6 +92,9 @@ public class InternalTopHits extends InternalMetricsAggregation implements TopHi
 
         final TopDocs reducedTopDocs;
         final TopDocs[] shardDocs;
+        // partial reduces must keep the leading hits that the final reduce is going to skip
+        final int from = reduceContext.isFinalReduce() ? this.from : 0;
+        final int size = reduceContext.isFinalReduce() ? this.size : this.from + this.size;
 
         try {
             if (topDocs instanceof TopFieldDocs) {
@@ -123,7 +126,7 @@ public class InternalTopHits extends InternalMetricsAggregation implements TopHi
                 } while (shardDocs[scoreDoc.shardIndex].scoreDocs[position] != scoreDoc);
                 hits[i] = (InternalSearchHit) shardHits[scoreDoc.shardIndex].getAt(position);
             }
-            return new InternalTopHits(name, from, size, reducedTopDocs, new InternalSearchHits(hits, reducedTopDocs.totalHits,
+            return new InternalTopHits(name, this.from, this.size, reducedTopDocs, new InternalSearchHits(hits, reducedTopDocs.totalHits,
                     reducedTopDocs.getMaxScore()),
                     pipelineAggregators(), getMetaData());
         } catch (IOException e) {
@@ -45,6 +45,12 @@ public abstract class ValuesSourceAggregatorFactory<VS extends ValuesSource, AF
         return config.timezone();
         }
 
+    @Override
+    public boolean supportsConcurrentCollection() {
+        // scripts share the source lookup of the search context, which isn't thread-safe
+        return config.script() == null && super.supportsConcurrentCollection();
+    }
+
     @Override
     public Aggregator createInternal(Aggregator parent, boolean collectsFromSingleBucket,
             List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
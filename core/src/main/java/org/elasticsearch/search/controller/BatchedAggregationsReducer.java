@@ -0,0 +1,140 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.controller;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.search.query.QuerySearchResultProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reduces the aggregations of shard level query results in batches while they arrive on the coordinating node. Once
+ * <code>batchedReduceSize</code> results are buffered they are partially reduced into a single result, which bounds the number
+ * of shard level aggregation trees that are held at the same time by the batch size rather than by the number of shards.
+ * The final reduce, including pipeline aggregations, is left to
+ * {@link SearchPhaseController#merge(boolean, org.apache.lucene.search.ScoreDoc[], AtomicArray, AtomicArray, BatchedAggregationsReducer)}.
+ */
+public final class BatchedAggregationsReducer {
+
+    private final Function<Boolean, ReduceContext> reduceContextFunction;
+    private final int batchedReduceSize;
+    private final boolean releaseShardAggregations;
+    private final boolean[] consumed;
+    private final List<InternalAggregations> buffer = new ArrayList<>();
+    private int numReducePhases = 0;
+    private long reduceTimeInNanos = 0;
+    private Exception failure;
+
+    /**
+     * @param reduceContextFunction     creates the reduce context for a partial (<code>false</code>) or final (<code>true</code>) reduce
+     * @param batchedReduceSize         the number of buffered aggregations that triggers a partial reduce
+     * @param numShards                 the number of shards of the search request
+     * @param releaseShardAggregations  whether the aggregations of consumed shard results can be dropped. This must not be done for
+     *                                  scroll requests since the shard may still reference the same result instance.
+     */
+    BatchedAggregationsReducer(Function<Boolean, ReduceContext> reduceContextFunction, int batchedReduceSize, int numShards,
+                               boolean releaseShardAggregations) {
+        if (batchedReduceSize <= 1) {
+            throw new IllegalArgumentException("batchedReduceSize must be >= 2");
+        }
+        this.reduceContextFunction = reduceContextFunction;
+        this.batchedReduceSize = batchedReduceSize;
+        this.consumed = new boolean[numShards];
+        this.releaseShardAggregations = releaseShardAggregations;
+    }
+
+    /**
+     * Buffers the aggregations of the given shard result and partially reduces the buffer once it is full. Failures of the
+     * partial reduce are not thrown here but rethrown by the final reduce.
+     */
+    public synchronized void consume(int shardIndex, QuerySearchResultProvider result) {
+        final QuerySearchResult queryResult = result.queryResult();
+        if (failure != null || queryResult.aggregations() == null) {
+            return;
+        }
+        consumed[shardIndex] = true;
+        buffer.add((InternalAggregations) queryResult.aggregations());
+        if (releaseShardAggregations) {
+            queryResult.aggregations(null);
+        }
+        if (buffer.size() >= batchedReduceSize) {
+            try {
+                InternalAggregations reduced = reduce(false);
+                buffer.clear();
+                buffer.add(reduced);
+            } catch (Exception e) {
+                failure = e;
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Reduces the buffered aggregations together with the aggregations of all results that were not consumed by this reducer.
+     * Returns <code>null</code> if there is nothing to reduce.
+     */
+    synchronized InternalAggregations finalReduce(List<? extends AtomicArray.Entry<? extends QuerySearchResultProvider>> queryResults) {
+        if (failure != null) {
+            throw ExceptionsHelper.convertToElastic(failure);
+        }
+        for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
+            if (entry.index >= consumed.length || consumed[entry.index] == false) {
+                InternalAggregations aggregations = (InternalAggregations) entry.value.queryResult().aggregations();
+                if (aggregations != null) {
+                    buffer.add(aggregations);
+                }
+            }
+        }
+        if (buffer.isEmpty()) {
+            return null;
+        }
+        InternalAggregations reduced = reduce(true);
+        buffer.clear();
+        return reduced;
+    }
+
+    private InternalAggregations reduce(boolean isFinalReduce) {
+        final long start = System.nanoTime();
+        InternalAggregations reduced = InternalAggregations.reduce(buffer, reduceContextFunction.apply(isFinalReduce));
+        reduceTimeInNanos += System.nanoTime() - start;
+        numReducePhases++;
+        return reduced;
+    }
+
+    /**
+     * Returns the number of reduce phases executed so far, partial and final ones.
+     */
+    public synchronized int getNumReducePhases() {
+        return numReducePhases;
+    }
+
+    /**
+     * Returns the total time spent in reduce phases so far, in nanoseconds.
+     */
+    public synchronized long getReduceTimeInNanos() {
+        return reduceTimeInNanos;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopFieldDocs;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.HppcMaps;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
@@ -351,6 +352,20 @@ public class SearchPhaseController extends AbstractComponent {
         }
     }
 
+    /**
+     * Creates a reducer that reduces the aggregations of shard results in batches of <code>batchedReduceSize</code> while they
+     * arrive. It must be passed to {@link #merge(boolean, ScoreDoc[], AtomicArray, AtomicArray, BatchedAggregationsReducer)}
+     * to take part in the final reduce.
+     */
+    public BatchedAggregationsReducer newBatchedAggregationsReducer(int batchedReduceSize, int numShards,
+                                                                    boolean releaseShardAggregations) {
+        return new BatchedAggregationsReducer(this::newReduceContext, batchedReduceSize, numShards, releaseShardAggregations);
+    }
+
+    private ReduceContext newReduceContext(boolean isFinalReduce) {
+        return new ReduceContext(bigArrays, scriptService, clusterService.state(), isFinalReduce);
+    }
+
     /**
      * Enriches search hits and completion suggestion hits from <code>sortedDocs</code> using <code>fetchResultsArr</code>,
      * merges suggestions, aggregations and profile results
@@ -361,6 +376,21 @@ public class SearchPhaseController extends AbstractComponent {
     public InternalSearchResponse merge(boolean ignoreFrom, ScoreDoc[] sortedDocs,
                                         AtomicArray<? extends QuerySearchResultProvider> queryResultsArr,
                                         AtomicArray<? extends FetchSearchResultProvider> fetchResultsArr) {
+        return merge(ignoreFrom, sortedDocs, queryResultsArr, fetchResultsArr, null);
+    }
+
+    /**
+     * Enriches search hits and completion suggestion hits from <code>sortedDocs</code> using <code>fetchResultsArr</code>,
+     * merges suggestions, aggregations and profile results. If a {@link BatchedAggregationsReducer} is given, the aggregations
+     * it has consumed are taken from the reducer rather than from the query results.
+     *
+     * Expects sortedDocs to have top search docs across all shards, optionally followed by top suggest docs for each named
+     * completion suggestion ordered by suggestion name
+     */
+    public InternalSearchResponse merge(boolean ignoreFrom, ScoreDoc[] sortedDocs,
+                                        AtomicArray<? extends QuerySearchResultProvider> queryResultsArr,
+                                        AtomicArray<? extends FetchSearchResultProvider> fetchResultsArr,
+                                        @Nullable BatchedAggregationsReducer aggregationsReducer) {
 
         List<? extends AtomicArray.Entry<? extends QuerySearchResultProvider>> queryResults = queryResultsArr.asList();
         List<? extends AtomicArray.Entry<? extends FetchSearchResultProvider>> fetchResults = fetchResultsArr.asList();
@@ -489,15 +519,25 @@ public class SearchPhaseController extends AbstractComponent {
 
         // merge Aggregation
         InternalAggregations aggregations = null;
-        if (firstResult.aggregations() != null && firstResult.aggregations().asList() != null) {
+        int numReducePhases = 1;
+        long reduceTimeInNanos = 0;
+        if (aggregationsReducer != null) {
+            aggregations = aggregationsReducer.finalReduce(queryResults);
+            numReducePhases = Math.max(1, aggregationsReducer.getNumReducePhases());
+            reduceTimeInNanos = aggregationsReducer.getReduceTimeInNanos();
+        } else if (firstResult.aggregations() != null && firstResult.aggregations().asList() != null) {
             List<InternalAggregations> aggregationsList = new ArrayList<>(queryResults.size());
             for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
                 aggregationsList.add((InternalAggregations) entry.value.queryResult().aggregations());
             }
-            ReduceContext reduceContext = new ReduceContext(bigArrays, scriptService, clusterService.state());
-            aggregations = InternalAggregations.reduce(aggregationsList, reduceContext);
+            final long reduceStart = System.nanoTime();
+            aggregations = InternalAggregations.reduce(aggregationsList, newReduceContext(true));
+            reduceTimeInNanos = System.nanoTime() - reduceStart;
+        }
+        if (aggregations != null) {
             List<SiblingPipelineAggregator> pipelineAggregators = firstResult.pipelineAggregators();
             if (pipelineAggregators != null) {
+                ReduceContext reduceContext = newReduceContext(true);
                 List<InternalAggregation> newAggs = StreamSupport.stream(aggregations.spliterator(), false)
                     .map((p) -> (InternalAggregation) p)
                     .collect(Collectors.toList());
@@ -522,7 +562,8 @@ public class SearchPhaseController extends AbstractComponent {
 
         InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits, maxScore);
 
-        return new InternalSearchResponse(searchHits, aggregations, suggest, shardResults, timedOut, terminatedEarly);
+        return new InternalSearchResponse(searchHits, aggregations, suggest, shardResults, timedOut, terminatedEarly,
+            numReducePhases, reduceTimeInNanos);
     }
 
     /**
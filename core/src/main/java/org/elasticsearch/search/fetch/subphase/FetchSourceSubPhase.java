@@ -20,8 +20,12 @@
 package org.elasticsearch.search.fetch.subphase;
 
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.support.XContentMapValues;
 import org.elasticsearch.search.fetch.FetchSubPhase;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.lookup.SourceLookup;
@@ -43,13 +47,25 @@ public final class FetchSourceSubPhase implements FetchSubPhase {
         }
 
         SourceLookup source = context.lookup().source();
-        Object value = source.filter(fetchSourceContext.includes(), fetchSourceContext.excludes());
+        BytesReference sourceRef = source.internalSourceRef();
         try {
-            final int initialCapacity = Math.min(1024, source.internalSourceRef().length());
+            if (sourceRef == null || source.source() != null) {
+                // the source has already been parsed, or was only ever provided as a map, like for nested hits whose map
+                // wraps the nested object into its path while the bytes only hold the nested object itself
+                Object value = source.filter(fetchSourceContext.includes(), fetchSourceContext.excludes());
+                XContentBuilder builder = new XContentBuilder(source.sourceContentType().xContent(), new BytesStreamOutput());
+                builder.value(value);
+                hitContext.hit().sourceRef(builder.bytes());
+                return;
+            }
+            // filter the tokens of the stored source straight into the response rather than parsing it into maps first
+            final int initialCapacity = Math.min(1024, sourceRef.length());
             BytesStreamOutput streamOutput = new BytesStreamOutput(initialCapacity);
-            XContentBuilder builder = new XContentBuilder(context.lookup().source().sourceContentType().xContent(), streamOutput);
-            builder.value(value);
-            hitContext.hit().sourceRef(builder.bytes());
+            try (XContentParser parser = XContentHelper.createParser(sourceRef)) {
+                XContentBuilder builder = new XContentBuilder(parser.contentType().xContent(), streamOutput);
+                XContentMapValues.filter(parser, builder, fetchSourceContext.includes(), fetchSourceContext.excludes());
+                hitContext.hit().sourceRef(builder.bytes());
+            }
         } catch (IOException e) {
             throw new ElasticsearchException("Error filtering source", e);
         }
@@ -20,9 +20,11 @@
 package org.elasticsearch.search.internal;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermContext;
 import org.apache.lucene.search.CollectionStatistics;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -30,7 +32,9 @@ import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
 import org.elasticsearch.search.profile.query.ProfileWeight;
@@ -39,6 +43,13 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
@@ -57,6 +68,11 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     // TODO revisit moving the profiler to inheritance or wrapping model in the future
     private QueryProfiler profiler;
 
+    /** The executor that slices are collected on, or <tt>null</tt> if leaves are collected sequentially. */
+    private Executor sliceExecutor;
+
+    private List<List<LeafReaderContext>> slices;
+
     public ContextIndexSearcher(Engine.Searcher searcher,
             QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
         super(searcher.reader());
@@ -75,6 +91,134 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         this.profiler = profiler;
     }
 
+    /**
+     * Splits the leaves into at most <code>maxSlices</code> slices of at least <code>minDocsPerSlice</code> documents, that
+     * {@link #searchSlices(Query, List)} collects concurrently using the given executor.
+     */
+    public void setSliceExecutor(Executor executor, int maxSlices, int minDocsPerSlice) {
+        this.sliceExecutor = Objects.requireNonNull(executor);
+        this.slices = slices(getIndexReader().leaves(), maxSlices, minDocsPerSlice);
+    }
+
+    /**
+     * Returns the number of slices that the leaves are collected in, <code>1</code> if they are collected sequentially.
+     */
+    public int getSliceCount() {
+        return slices == null ? 1 : slices.size();
+    }
+
+    /**
+     * Collects the matches of the query into one collector per slice, collecting the slices concurrently. The calling thread
+     * collects the first slice itself and waits for the others to complete, so that none of them is still running once this
+     * method returns. The first failure of a slice, if any, is rethrown.
+     */
+    public void searchSlices(Query query, List<? extends Collector> collectors) throws IOException {
+        if (collectors.size() != getSliceCount()) {
+            throw new IllegalArgumentException("expected [" + getSliceCount() + "] collectors but got [" + collectors.size() + "]");
+        }
+        boolean needsScores = false;
+        for (Collector collector : collectors) {
+            needsScores |= collector.needsScores();
+        }
+        final Weight weight = createNormalizedWeight(query, needsScores);
+        if (slices == null) {
+            search(leafContexts, weight, collectors.get(0));
+            return;
+        }
+        List<FutureTask<Void>> tasks = new ArrayList<>(slices.size() - 1);
+        for (int i = 1; i < slices.size(); i++) {
+            final List<LeafReaderContext> leaves = slices.get(i);
+            final Collector collector = collectors.get(i);
+            FutureTask<Void> task = new FutureTask<>(() -> {
+                search(leaves, weight, collector);
+                return null;
+            });
+            try {
+                sliceExecutor.execute(task);
+            } catch (EsRejectedExecutionException e) {
+                task.run();
+            }
+            tasks.add(task);
+        }
+        Exception failure = null;
+        try {
+            search(slices.get(0), weight, collectors.get(0));
+        } catch (Exception e) {
+            failure = e;
+        }
+        boolean interrupted = false;
+        for (FutureTask<Void> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // keep waiting, slices must not outlive the resources of the search
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            throw ExceptionsHelper.convertToRuntime(failure);
+        }
+    }
+
+    /**
+     * Collects the matches of the given weight in a single leaf.
+     */
+    public void search(LeafReaderContext leaf, Weight weight, Collector collector) throws IOException {
+        search(Collections.singletonList(leaf), weight, collector);
+    }
+
+    /**
+     * Splits the leaves into at most <code>maxSlices</code> slices of consecutive leaves holding roughly the same number of
+     * documents, but no less than <code>minDocsPerSlice</code> documents each. Keeping leaves in order means that merging the
+     * top docs of the slices breaks ties the same way as a sequential collection. Returns <tt>null</tt> if a single slice
+     * would hold all leaves.
+     */
+    static List<List<LeafReaderContext>> slices(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        final int numSlices = (int) Math.min(Math.min(maxSlices, leaves.size()), Math.max(1, totalDocs / minDocsPerSlice));
+        if (numSlices <= 1) {
+            return null;
+        }
+        List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        List<LeafReaderContext> current = new ArrayList<>();
+        long docs = 0;
+        for (int i = 0; i < leaves.size(); i++) {
+            LeafReaderContext leaf = leaves.get(i);
+            current.add(leaf);
+            docs += leaf.reader().maxDoc();
+            final int remainingLeaves = leaves.size() - i - 1;
+            final int remainingSlices = numSlices - slices.size() - 1;
+            // close the slice once it holds its share of the documents, or if the remaining slices need all remaining leaves
+            if (remainingSlices > 0 && (docs >= totalDocs * (slices.size() + 1) / numSlices || remainingLeaves == remainingSlices)) {
+                slices.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        slices.add(current);
+        assert slices.size() == numSlices;
+        return Collections.unmodifiableList(slices);
+    }
+
     public void setAggregatedDfs(AggregatedDfs aggregatedDfs) {
         this.aggregatedDfs = aggregatedDfs;
     }
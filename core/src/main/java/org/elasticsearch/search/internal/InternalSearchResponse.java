@@ -59,17 +59,29 @@ public class InternalSearchResponse implements Streamable, ToXContent {
 
     private Boolean terminatedEarly = null;
 
+    private int numReducePhases = 1;
+
+    private long reduceTimeInNanos;
+
     private InternalSearchResponse() {
     }
 
     public InternalSearchResponse(InternalSearchHits hits, InternalAggregations aggregations, Suggest suggest,
                                   SearchProfileShardResults profileResults, boolean timedOut, Boolean terminatedEarly) {
+        this(hits, aggregations, suggest, profileResults, timedOut, terminatedEarly, 1, 0);
+    }
+
+    public InternalSearchResponse(InternalSearchHits hits, InternalAggregations aggregations, Suggest suggest,
+                                  SearchProfileShardResults profileResults, boolean timedOut, Boolean terminatedEarly,
+                                  int numReducePhases, long reduceTimeInNanos) {
         this.hits = hits;
         this.aggregations = aggregations;
         this.suggest = suggest;
         this.profileResults = profileResults;
         this.timedOut = timedOut;
         this.terminatedEarly = terminatedEarly;
+        this.numReducePhases = numReducePhases;
+        this.reduceTimeInNanos = reduceTimeInNanos;
     }
 
     public boolean timedOut() {
@@ -80,6 +92,21 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         return this.terminatedEarly;
     }
 
+    /**
+     * Returns the number of reduce phases applied to the aggregations of the shard results. This is <code>1</code> unless the
+     * coordinating node reduced the shard results in batches.
+     */
+    public int getNumReducePhases() {
+        return numReducePhases;
+    }
+
+    /**
+     * Returns the total time the coordinating node spent reducing the aggregations of the shard results, in nanoseconds.
+     */
+    public long getReduceTimeInNanos() {
+        return reduceTimeInNanos;
+    }
+
     public SearchHits hits() {
         return hits;
     }
@@ -138,6 +165,13 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         timedOut = in.readBoolean();
         terminatedEarly = in.readOptionalBoolean();
         profileResults = in.readOptionalWriteable(SearchProfileShardResults::new);
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            numReducePhases = in.readVInt();
+            reduceTimeInNanos = in.readVLong();
+        } else {
+            numReducePhases = 1;
+            reduceTimeInNanos = 0;
+        }
     }
 
     @Override
@@ -158,5 +192,9 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         out.writeBoolean(timedOut);
         out.writeOptionalBoolean(terminatedEarly);
         out.writeOptionalWriteable(profileResults);
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeVInt(numReducePhases);
+            out.writeVLong(reduceTimeInNanos);
+        }
     }
 }
@@ -193,8 +193,11 @@ public abstract class AbstractInternalProfileTree<PB extends AbstractProfileBrea
      */
     private static long getNodeTime(Map<String, Long> timings) {
         long nodeTime = 0;
-        for (long time : timings.values()) {
-            nodeTime += time;
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            // counts are reported along with the timings, but they are not times
+            if (timing.getKey().endsWith("_count") == false) {
+                nodeTime += timing.getValue();
+            }
         }
         return nodeTime;
     }
@@ -0,0 +1,36 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile.query;
+
+import java.util.Map;
+
+/**
+ * Implemented by a {@link org.apache.lucene.search.Weight} that keeps counts which are useful to understand where time
+ * is spent, for example the number of matches it had to verify. When the query is profiled these counts are reported
+ * along with its timings.
+ */
+public interface ProfileCounters {
+
+    /**
+     * @return the counts keyed by name, names should end with <code>_count</code>
+     */
+    Map<String, Long> getProfileCounts();
+
+}
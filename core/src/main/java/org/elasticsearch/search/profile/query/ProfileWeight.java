@@ -44,6 +44,9 @@ public final class ProfileWeight extends Weight {
         super(query);
         this.subQueryWeight = subQueryWeight;
         this.profile = profile;
+        if (subQueryWeight instanceof ProfileCounters) {
+            profile.setCounters((ProfileCounters) subQueryWeight);
+        }
     }
 
     @Override
@@ -21,6 +21,10 @@ package org.elasticsearch.search.profile.query;
 
 import org.elasticsearch.search.profile.AbstractProfileBreakdown;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * A record of timings for the various operations that may happen during query execution.
  * A node's time may be composed of several internal attributes (rewriting, weighting,
@@ -28,8 +32,27 @@ import org.elasticsearch.search.profile.AbstractProfileBreakdown;
  */
 public final class QueryProfileBreakdown extends AbstractProfileBreakdown<QueryTimingType> {
 
+    private ProfileCounters counters;
+
     /** Sole constructor. */
     public QueryProfileBreakdown() {
         super(QueryTimingType.values());
     }
+
+    /**
+     * Sets the query specific counts that are reported along with the timings of this breakdown.
+     */
+    public void setCounters(ProfileCounters counters) {
+        this.counters = counters;
+    }
+
+    @Override
+    public Map<String, Long> toTimingMap() {
+        if (counters == null) {
+            return super.toTimingMap();
+        }
+        Map<String, Long> map = new HashMap<>(super.toTimingMap());
+        map.putAll(counters.getProfileCounts());
+        return Collections.unmodifiableMap(map);
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TimeLimitingCollector;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.MinimumScoreCollector;
+import org.elasticsearch.common.lucene.search.FilteredCollector;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.rescore.RescoreSearchContext;
+import org.elasticsearch.search.sort.SortAndFormats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query phase execution that collects the slices of a {@link ContextIndexSearcher} concurrently. Every slice gets its own
+ * collectors, including its own aggregators: top docs are merged once all slices are collected, aggregations are reduced
+ * by the {@link AggregationPhase}.
+ */
+final class ConcurrentQueryPhase {
+
+    private ConcurrentQueryPhase() {
+    }
+
+    /**
+     * Whether the query phase of the given search can collect the slices of the searcher concurrently.
+     */
+    static boolean canExecute(SearchContext searchContext, ContextIndexSearcher searcher) {
+        if (searcher.getSliceCount() <= 1) {
+            return false;
+        }
+        if (searchContext.getProfilers() != null) {
+            // profiles describe a single tree of collectors
+            return false;
+        }
+        if (searchContext.scrollContext() != null) {
+            // scrolls need to know the last emitted doc and may terminate early
+            return false;
+        }
+        if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return false;
+        }
+        for (Class<?> collectorKey : searchContext.queryCollectors().keySet()) {
+            if (collectorKey != AggregationPhase.class) {
+                return false;
+            }
+        }
+        if (searchContext.size() == 0 && searchContext.queryCollectors().isEmpty()) {
+            // plain counts are better served by the sequential execution, which can often use index statistics
+            return false;
+        }
+        return searchContext.aggregations() == null || searchContext.aggregations().factories().supportsConcurrentCollection();
+    }
+
+    /**
+     * Executes the query with one collector per slice of the searcher.
+     *
+     * @return whether the rescoring phase should be executed
+     */
+    static boolean execute(SearchContext searchContext, ContextIndexSearcher searcher, Query query) throws Exception {
+        assert canExecute(searchContext, searcher);
+        final QuerySearchResult queryResult = searchContext.queryResult();
+        final int sliceCount = searcher.getSliceCount();
+        final int totalNumDocs = searcher.getIndexReader().numDocs();
+        int numDocs = Math.min(searchContext.from() + searchContext.size(), totalNumDocs);
+        if (totalNumDocs == 0) {
+            // top collectors don't like a size of 0
+            numDocs = 1;
+        }
+        boolean rescore = false;
+        DocValueFormat[] sortValueFormats = new DocValueFormat[0];
+        final Sort sort;
+        if (searchContext.sort() != null) {
+            SortAndFormats sf = searchContext.sort();
+            sort = sf.sort;
+            sortValueFormats = sf.formats;
+        } else {
+            sort = null;
+            rescore = !searchContext.rescore().isEmpty();
+            for (RescoreSearchContext rescoreContext : searchContext.rescore()) {
+                numDocs = Math.max(rescoreContext.window(), numDocs);
+            }
+        }
+
+        final Weight postFilterWeight = searchContext.parsedPostFilter() == null ? null
+                : searcher.createNormalizedWeight(searchContext.parsedPostFilter().query(), false);
+        final boolean timeoutSet = searchContext.timeout() != null && !searchContext.timeout().equals(SearchService.NO_TIMEOUT);
+        final Collector aggregationCollector = searchContext.queryCollectors().get(AggregationPhase.class);
+
+        final List<TotalHitCountCollector> hitCountCollectors = new ArrayList<>(sliceCount);
+        final List<TopDocsCollector<?>> topDocsCollectors = new ArrayList<>(sliceCount);
+        final List<Collector> collectors = new ArrayList<>(sliceCount);
+        for (int i = 0; i < sliceCount; i++) {
+            Collector collector;
+            if (searchContext.size() == 0) {
+                TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+                hitCountCollectors.add(hitCountCollector);
+                collector = hitCountCollector;
+            } else {
+                TopDocsCollector<?> topDocsCollector;
+                if (sort != null) {
+                    topDocsCollector = TopFieldCollector.create(sort, numDocs, (FieldDoc) searchContext.searchAfter(), true,
+                            searchContext.trackScores(), searchContext.trackScores());
+                } else {
+                    topDocsCollector = TopScoreDocCollector.create(numDocs, searchContext.searchAfter());
+                }
+                topDocsCollectors.add(topDocsCollector);
+                collector = topDocsCollector;
+            }
+            if (postFilterWeight != null) {
+                collector = new FilteredCollector(collector, postFilterWeight);
+            }
+            if (aggregationCollector != null) {
+                // the first slice collects into the aggregators of the search context
+                Collector sliceAggregationCollector = i == 0 ? aggregationCollector : AggregationPhase.createSliceCollector(searchContext);
+                collector = MultiCollector.wrap(collector, sliceAggregationCollector);
+            }
+            // apply the minimum score after multi collector so we filter aggs as well
+            if (searchContext.minimumScore() != null) {
+                collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
+            }
+            if (timeoutSet) {
+                collector = Lucene.wrapTimeLimitingCollector(collector, searchContext.timeEstimateCounter(),
+                        searchContext.timeout().millis());
+            }
+            collectors.add(collector);
+        }
+
+        try {
+            searcher.searchSlices(query, collectors);
+        } catch (TimeLimitingCollector.TimeExceededException e) {
+            assert timeoutSet : "TimeExceededException thrown even though timeout wasn't set";
+            queryResult.searchTimedOut(true);
+        } finally {
+            searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
+        }
+
+        if (searchContext.size() == 0) {
+            int totalHits = 0;
+            for (TotalHitCountCollector hitCountCollector : hitCountCollectors) {
+                totalHits += hitCountCollector.getTotalHits();
+            }
+            queryResult.topDocs(new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, 0), sortValueFormats);
+        } else {
+            queryResult.topDocs(mergeTopDocs(sort, numDocs, topDocsCollectors), sortValueFormats);
+        }
+        return rescore;
+    }
+
+    /**
+     * Merges the top docs of the slices the same way a single collector over all leaves would have sorted them.
+     */
+    static TopDocs mergeTopDocs(Sort sort, int numDocs, List<TopDocsCollector<?>> collectors) throws IOException {
+        final TopDocs[] topDocs = sort == null ? new TopDocs[collectors.size()] : new TopFieldDocs[collectors.size()];
+        int totalHits = 0;
+        float maxScore = Float.NaN;
+        for (int i = 0; i < topDocs.length; i++) {
+            topDocs[i] = collectors.get(i).topDocs();
+            totalHits += topDocs[i].totalHits;
+            if (Float.isNaN(topDocs[i].getMaxScore()) == false) {
+                maxScore = Float.isNaN(maxScore) ? topDocs[i].getMaxScore() : Math.max(maxScore, topDocs[i].getMaxScore());
+            }
+        }
+        // slices hold consecutive leaves, so breaking ties on the slice index keeps the doc id order
+        final TopDocs merged = sort == null ? TopDocs.merge(numDocs, topDocs) : TopDocs.merge(sort, numDocs, (TopFieldDocs[]) topDocs);
+        for (ScoreDoc scoreDoc : merged.scoreDocs) {
+            // the shard index is set by the coordinating node
+            scoreDoc.shardIndex = -1;
+        }
+        merged.totalHits = totalHits;
+        merged.setMaxScore(maxScore);
+        return merged;
+    }
+}
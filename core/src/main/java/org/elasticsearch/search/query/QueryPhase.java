@@ -50,6 +50,7 @@ import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.ProfileShardResult;
@@ -61,6 +62,7 @@ import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.search.suggest.SuggestPhase;
 
+import java.io.IOException;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -87,8 +89,42 @@ public class QueryPhase implements SearchPhase {
         context.preProcess();
     }
 
+    /**
+     * Provides the results of single segments, eg. from a cache.
+     */
+    @FunctionalInterface
+    public interface SegmentResultLoader {
+        /**
+         * Returns the result of the given segment, using the collector to compute it if it isn't available.
+         */
+        SegmentQueryResult load(LeafReaderContext segment, SegmentCollector collector) throws Exception;
+    }
+
+    /**
+     * Computes the result of a single segment.
+     */
+    @FunctionalInterface
+    public interface SegmentCollector {
+        SegmentQueryResult collect() throws IOException;
+    }
+
+    /**
+     * Whether {@link #execute(SearchContext, SegmentResultLoader)} can compute the result of the search per segment.
+     */
+    public static boolean canExecuteBySegment(SearchContext searchContext) {
+        return searchContext.hasOnlySuggest() == false && SegmentQueryPhase.canExecute(searchContext);
+    }
+
     @Override
     public void execute(SearchContext searchContext) throws QueryPhaseExecutionException {
+        execute(searchContext, (SegmentResultLoader) null);
+    }
+
+    /**
+     * Executes the query phase, computing the result per segment with the given loader if possible. Otherwise, eg. if
+     * aggregations need scores, the result is computed over the whole shard and the loader is not used.
+     */
+    public void execute(SearchContext searchContext, SegmentResultLoader segmentResultLoader) throws QueryPhaseExecutionException {
         if (searchContext.hasOnlySuggest()) {
             suggestPhase.execute(searchContext);
             // TODO: fix this once we can fetch docs for suggestions
@@ -102,7 +138,14 @@ public class QueryPhase implements SearchPhase {
         // here to make sure it happens during the QUERY phase
         aggregationPhase.preProcess(searchContext);
 
-        boolean rescore = execute(searchContext, searchContext.searcher());
+        final boolean rescore;
+        if (segmentResultLoader != null && SegmentQueryPhase.canExecuteAggregations(searchContext)) {
+            assert canExecuteBySegment(searchContext);
+            SegmentQueryPhase.execute(searchContext, searchContext.searcher(), segmentResultLoader);
+            rescore = false;
+        } else {
+            rescore = execute(searchContext, searchContext.searcher());
+        }
 
         if (rescore) { // only if we do a regular search
             rescorePhase.execute(searchContext);
@@ -156,6 +199,11 @@ public class QueryPhase implements SearchPhase {
 
             assert query == searcher.rewrite(query); // already rewritten
 
+            if (searcher instanceof ContextIndexSearcher
+                    && ConcurrentQueryPhase.canExecute(searchContext, (ContextIndexSearcher) searcher)) {
+                return ConcurrentQueryPhase.execute(searchContext, (ContextIndexSearcher) searcher, query);
+            }
+
             if (searchContext.size() == 0) { // no matter what the value of from is
                 final TotalHitCountCollector totalHitCountCollector = new TotalHitCountCollector();
                 collector = totalHitCountCollector;
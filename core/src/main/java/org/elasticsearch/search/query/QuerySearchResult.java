@@ -59,6 +59,8 @@ public class QuerySearchResult extends QuerySearchResultProvider {
     private boolean searchTimedOut;
     private Boolean terminatedEarly = null;
     private ProfileShardResult profileShardResults;
+    private int nodeQueueSize = -1;
+    private long serviceTimeEWMA = -1;
 
     public QuerySearchResult() {
 
@@ -170,6 +172,31 @@ public class QuerySearchResult extends QuerySearchResultProvider {
         this.suggest = suggest;
     }
 
+    /**
+     * Returns the size of the search queue of the node that executed the query, or <code>-1</code> if unknown.
+     */
+    public int nodeQueueSize() {
+        return nodeQueueSize;
+    }
+
+    public QuerySearchResult nodeQueueSize(int nodeQueueSize) {
+        this.nodeQueueSize = nodeQueueSize;
+        return this;
+    }
+
+    /**
+     * Returns the moving average of the time, in nanoseconds, that the node that executed the query spends on the query
+     * phase, or <code>-1</code> if unknown.
+     */
+    public long serviceTimeEWMA() {
+        return serviceTimeEWMA;
+    }
+
+    public QuerySearchResult serviceTimeEWMA(long serviceTimeEWMA) {
+        this.serviceTimeEWMA = serviceTimeEWMA;
+        return this;
+    }
+
     public int from() {
         return from;
     }
@@ -236,6 +263,13 @@ public class QuerySearchResult extends QuerySearchResultProvider {
         if (in.getVersion().onOrAfter(Version.V_2_2_0) && in.readBoolean()) {
             profileShardResults = new ProfileShardResult(in);
         }
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            nodeQueueSize = in.readInt();
+            serviceTimeEWMA = in.readZLong();
+        } else {
+            nodeQueueSize = -1;
+            serviceTimeEWMA = -1;
+        }
     }
 
     @Override
@@ -282,5 +316,9 @@ public class QuerySearchResult extends QuerySearchResultProvider {
                 profileShardResults.writeTo(out);
             }
         }
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeInt(nodeQueueSize);
+            out.writeZLong(serviceTimeEWMA);
+        }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.BucketCollector;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregator;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query phase execution that computes the result of each segment on its own, so that the results of the segments can be
+ * cached and reused until the segment changes. Segment results are loaded through a {@link QueryPhase.SegmentResultLoader},
+ * their aggregations are reduced by the {@link AggregationPhase}.
+ */
+final class SegmentQueryPhase {
+
+    private SegmentQueryPhase() {
+    }
+
+    /**
+     * Whether the result of the given search can be computed per segment, before aggregations are pre-processed. Only requests
+     * that don't return hits and whose aggregations can be reduced per segment are eligible.
+     */
+    static boolean canExecute(SearchContext searchContext) {
+        if (searchContext.size() != 0 || searchContext.aggregations() == null) {
+            return false;
+        }
+        if (searchContext.getProfilers() != null || searchContext.scrollContext() != null) {
+            return false;
+        }
+        if (searchContext.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+                || searchContext.parsedPostFilter() != null
+                || searchContext.minimumScore() != null) {
+            return false;
+        }
+        if (searchContext.timeout() != null && !searchContext.timeout().equals(SearchService.NO_TIMEOUT)) {
+            // the result of a segment must not be partial
+            return false;
+        }
+        return searchContext.aggregations().factories().supportsConcurrentCollection();
+    }
+
+    /**
+     * Whether the result can still be computed per segment once aggregations are pre-processed.
+     */
+    static boolean canExecuteAggregations(SearchContext searchContext) {
+        for (Class<?> collectorKey : searchContext.queryCollectors().keySet()) {
+            if (collectorKey != AggregationPhase.class) {
+                return false;
+            }
+        }
+        final Collector aggregationCollector = searchContext.queryCollectors().get(AggregationPhase.class);
+        // scores depend on the statistics of the whole shard, and global aggregations aren't collected by the query anyway
+        return aggregationCollector != null && aggregationCollector.needsScores() == false;
+    }
+
+    /**
+     * Loads the result of every segment and registers their aggregations to be reduced by the {@link AggregationPhase}.
+     */
+    static void execute(SearchContext searchContext, ContextIndexSearcher searcher, QueryPhase.SegmentResultLoader loader)
+            throws QueryPhaseExecutionException {
+        final QuerySearchResult queryResult = searchContext.queryResult();
+        queryResult.searchTimedOut(false);
+        try {
+            queryResult.from(searchContext.from());
+            queryResult.size(searchContext.size());
+            final SegmentCollector collector = new SegmentCollector(searchContext, searcher);
+            int totalHits = 0;
+            for (LeafReaderContext segment : searcher.getIndexReader().leaves()) {
+                SegmentQueryResult result = loader.load(segment, () -> collector.collect(segment));
+                totalHits += result.totalHits();
+                searchContext.aggregations().addSegmentAggregations(result.aggregations());
+            }
+            queryResult.topDocs(new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS, 0), new DocValueFormat[0]);
+        } catch (Exception e) {
+            throw new QueryPhaseExecutionException(searchContext, "Failed to execute main query", e);
+        }
+    }
+
+    /**
+     * Collects single segments, using a new set of top level aggregators for each of them.
+     */
+    private static final class SegmentCollector {
+        private final SearchContext searchContext;
+        private final ContextIndexSearcher searcher;
+        private Weight weight; // created lazily, all segments might be cached
+
+        private SegmentCollector(SearchContext searchContext, ContextIndexSearcher searcher) {
+            this.searchContext = searchContext;
+            this.searcher = searcher;
+        }
+
+        SegmentQueryResult collect(LeafReaderContext segment) throws IOException {
+            if (weight == null) {
+                Query query = searchContext.query();
+                assert query == searcher.rewrite(query); // already rewritten
+                weight = searcher.createNormalizedWeight(query, false);
+            }
+            List<Aggregator> aggregators = new ArrayList<>();
+            for (Aggregator aggregator : searchContext.aggregations().factories().createTopLevelAggregators()) {
+                if (aggregator instanceof GlobalAggregator == false) {
+                    aggregators.add(aggregator);
+                }
+            }
+            final TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+            final BucketCollector aggregationCollector = BucketCollector.wrap(aggregators);
+            aggregationCollector.preCollection();
+            try {
+                searcher.search(segment, weight, MultiCollector.wrap(hitCountCollector, aggregationCollector));
+            } finally {
+                searchContext.clearReleasables(SearchContext.Lifetime.COLLECTION);
+            }
+            List<InternalAggregation> aggregations = new ArrayList<>(aggregators.size());
+            for (Aggregator aggregator : aggregators) {
+                aggregator.postCollection();
+                aggregations.add(aggregator.buildAggregation(0));
+            }
+            return new SegmentQueryResult(segment.reader().numDocs(), hitCountCollector.getTotalHits(),
+                    new InternalAggregations(aggregations));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+
+import java.io.IOException;
+
+/**
+ * The partial result of the query phase over a single segment: the number of hits and the partial results of the
+ * aggregations, which are reduced with the results of the other segments of the shard.
+ */
+public final class SegmentQueryResult implements Writeable {
+
+    private final int numDocs;
+    private final int totalHits;
+    private final InternalAggregations aggregations;
+
+    public SegmentQueryResult(int numDocs, int totalHits, InternalAggregations aggregations) {
+        this.numDocs = numDocs;
+        this.totalHits = totalHits;
+        this.aggregations = aggregations;
+    }
+
+    public SegmentQueryResult(StreamInput in) throws IOException {
+        numDocs = in.readVInt();
+        totalHits = in.readVInt();
+        aggregations = InternalAggregations.readAggregations(in);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(numDocs);
+        out.writeVInt(totalHits);
+        aggregations.writeTo(out);
+    }
+
+    /**
+     * The number of live documents of the segment at the time the result was computed. Deletes can only decrease it, so the
+     * result is still valid as long as it matches the number of live documents of the segment.
+     */
+    public int numDocs() {
+        return numDocs;
+    }
+
+    public int totalHits() {
+        return totalHits;
+    }
+
+    public InternalAggregations aggregations() {
+        return aggregations;
+    }
+}
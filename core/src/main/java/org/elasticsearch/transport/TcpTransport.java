@@ -174,6 +174,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
     // connections while no connect operations is going on... (this might help with 100% CPU when stopping the transport?)
     protected final ReadWriteLock globalLock = new ReentrantReadWriteLock();
     protected final boolean compress;
+    protected final Compressor compressor;
     protected volatile BoundTransportAddress boundAddress;
     private final String transportName;
 
@@ -188,6 +189,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         this.pingSchedule = PING_SCHEDULE.get(settings);
         this.namedWriteableRegistry = namedWriteableRegistry;
         this.compress = Transport.TRANSPORT_TCP_COMPRESS.get(settings);
+        this.compressor = Transport.TRANSPORT_COMPRESSION_SCHEME.get(settings);
         this.networkService = networkService;
         this.transportName = transportName;
 
@@ -890,7 +892,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
             // the header part is compressed, and the "body" can't be extracted as compressed
             if (options.compress() && canCompress(request)) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.COMPRESSOR.streamOutput(stream);
+                stream = compressor.streamOutput(stream);
             }
 
             // we pick the smallest of the 2, to support both backward and forward compatibility
@@ -982,7 +984,7 @@ public abstract class TcpTransport<Channel> extends AbstractLifecycleComponent i
         try {
             if (options.compress()) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.COMPRESSOR.streamOutput(stream);
+                stream = compressor.streamOutput(stream);
             }
             threadPool.getThreadContext().writeTo(stream);
             stream.setVersion(nodeVersion);
@@ -23,6 +23,8 @@ import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.component.LifecycleComponent;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.transport.BoundTransportAddress;
@@ -39,6 +41,12 @@ public interface Transport extends LifecycleComponent {
 
 
     Setting<Boolean> TRANSPORT_TCP_COMPRESS = Setting.boolSetting("transport.tcp.compress", false, Property.NodeScope);
+    /**
+     * The compressor used for compressed transport messages and published cluster states, receivers detect it from the
+     * header of the compressed bytes.
+     */
+    Setting<Compressor> TRANSPORT_COMPRESSION_SCHEME =
+        new Setting<>("transport.compression_scheme", "deflate", CompressorFactory::compressorForScheme, Property.NodeScope);
 
     void transportServiceAdapter(TransportServiceAdapter service);
 
@@ -21,11 +21,15 @@
 package org.elasticsearch.action.bulk;
 
 import org.elasticsearch.action.admin.indices.mapping.get.GetMappingsResponse;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.test.ESIntegTestCase;
 
 import java.nio.charset.StandardCharsets;
 
 import static org.elasticsearch.test.StreamsUtils.copyToStringFromClasspath;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
 
 public class BulkIntegrationIT extends ESIntegTestCase {
     public void testBulkIndexCreatesMapping() throws Exception {
@@ -42,4 +46,38 @@ public class BulkIntegrationIT extends ESIntegTestCase {
             }
         });
     }
+
+    public void testSmallShardRequests() throws Exception {
+        assertAcked(prepareCreate("test").setSettings(Settings.builder().put("index.number_of_shards", randomIntBetween(1, 3))));
+        ensureGreen("test");
+        client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .put(TransportBulkAction.MAX_SHARD_REQUEST_SIZE_SETTING.getKey(), randomIntBetween(1, 200) + "b")).get();
+        try {
+            final int numDocs = randomIntBetween(1, 20);
+            BulkRequestBuilder bulkBuilder = client().prepareBulk();
+            for (int i = 0; i < numDocs; i++) {
+                bulkBuilder.add(client().prepareIndex("test", "type", Integer.toString(i)).setSource("field", 0));
+            }
+            // updates of the same document must be executed in order even if they end up in different shard requests
+            for (int round = 1; round <= 3; round++) {
+                for (int i = 0; i < numDocs; i++) {
+                    bulkBuilder.add(client().prepareUpdate("test", "type", Integer.toString(i)).setDoc("field", round));
+                }
+            }
+            bulkBuilder.add(client().prepareDelete("test", "type", "0"));
+            BulkResponse response = bulkBuilder.get();
+            assertFalse(response.buildFailureMessage(), response.hasFailures());
+            assertThat(response.getItems().length, equalTo(numDocs * 4 + 1));
+
+            assertFalse(client().prepareGet("test", "type", "0").get().isExists());
+            for (int i = 1; i < numDocs; i++) {
+                GetResponse getResponse = client().prepareGet("test", "type", Integer.toString(i)).get();
+                assertThat(getResponse.getSource().get("field"), equalTo(3));
+                assertThat(getResponse.getVersion(), equalTo(4L));
+            }
+        } finally {
+            client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                    .putNull(TransportBulkAction.MAX_SHARD_REQUEST_SIZE_SETTING.getKey())).get();
+        }
+    }
 }
@@ -0,0 +1,254 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BulkShardRequestDispatcherTests extends ESTestCase {
+
+    private static final long ITEM_SIZE = 10;
+
+    public void testSplitsShardRequestsBySize() {
+        final int maxItemsPerRequest = randomIntBetween(1, 5);
+        TestDispatcher dispatcher = new TestDispatcher(maxItemsPerRequest * ITEM_SIZE,
+                new NoopCircuitBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS), false);
+        ShardId[] shards = new ShardId[randomIntBetween(1, 3)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ShardId("index", "_na_", i);
+        }
+        final int numItems = randomIntBetween(1, 50);
+        Map<ShardId, List<Integer>> expectedItems = new HashMap<>();
+        for (int i = 0; i < numItems; i++) {
+            ShardId shardId = randomFrom(shards);
+            expectedItems.computeIfAbsent(shardId, s -> new ArrayList<>()).add(i);
+            dispatcher.add(shardId, item(i), ITEM_SIZE);
+            // a shard request is dispatched as soon as it is full
+            assertThat(dispatcher.pendingItems(shardId), lessThanOrEqualTo(maxItemsPerRequest - 1));
+        }
+        dispatcher.close();
+        while (dispatcher.executing.isEmpty() == false) {
+            assertThat(dispatcher.completed.get(), equalTo(0));
+            // only one shard request per shard is executed at a time
+            assertThat(dispatcher.executingShards().size(), equalTo(dispatcher.executing.size()));
+            dispatcher.respond(randomIntBetween(0, dispatcher.executing.size() - 1));
+        }
+        assertThat(dispatcher.completed.get(), equalTo(1));
+
+        Map<ShardId, List<Integer>> executedItems = new HashMap<>();
+        for (BulkShardRequest request : dispatcher.executed) {
+            assertThat(request.items().length, lessThanOrEqualTo(maxItemsPerRequest));
+            for (BulkItemRequest item : request.items()) {
+                executedItems.computeIfAbsent(request.shardId(), s -> new ArrayList<>()).add(item.id());
+            }
+        }
+        // the items of the same shard are executed in order
+        assertThat(executedItems, equalTo(expectedItems));
+        assertThat(dispatcher.responses.size(), equalTo(dispatcher.executed.size()));
+    }
+
+    public void testItemsLargerThanLimit() {
+        TestDispatcher dispatcher = new TestDispatcher(ITEM_SIZE, new NoopCircuitBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS), false);
+        ShardId shardId = new ShardId("index", "_na_", 0);
+        dispatcher.add(shardId, item(0), ITEM_SIZE * 3);
+        dispatcher.add(shardId, item(1), ITEM_SIZE * 3);
+        dispatcher.close();
+        assertThat(dispatcher.executing.size(), equalTo(1));
+        dispatcher.respond(0);
+        dispatcher.respond(0);
+        assertThat(dispatcher.executed.size(), equalTo(2));
+        assertThat(dispatcher.completed.get(), equalTo(1));
+    }
+
+    public void testNoItems() {
+        TestDispatcher dispatcher = new TestDispatcher(ITEM_SIZE, new NoopCircuitBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS), false);
+        dispatcher.close();
+        assertThat(dispatcher.completed.get(), equalTo(1));
+        expectThrows(IllegalStateException.class, () -> dispatcher.add(new ShardId("index", "_na_", 0), item(0), ITEM_SIZE));
+    }
+
+    public void testRemoteShardRequestsWaitForCircuitBreaker() {
+        MemoryCircuitBreaker breaker = new MemoryCircuitBreaker(new ByteSizeValue(ITEM_SIZE * 3), 1.0, logger);
+        TestDispatcher dispatcher = new TestDispatcher(ITEM_SIZE * 2, breaker, true);
+        ShardId shard0 = new ShardId("index", "_na_", 0);
+        ShardId shard1 = new ShardId("index", "_na_", 1);
+        dispatcher.add(shard0, item(0), ITEM_SIZE);
+        dispatcher.add(shard0, item(1), ITEM_SIZE);
+        assertThat(dispatcher.executing.size(), equalTo(1));
+        assertThat(breaker.getUsed(), equalTo(ITEM_SIZE * 2));
+        dispatcher.add(shard1, item(2), ITEM_SIZE);
+        dispatcher.add(shard1, item(3), ITEM_SIZE);
+        // the second shard request would trip the breaker, it waits for the first one to complete
+        assertThat(dispatcher.executing.size(), equalTo(1));
+        assertThat(breaker.getUsed(), equalTo(ITEM_SIZE * 2));
+        dispatcher.close();
+        dispatcher.respond(0);
+        assertThat(dispatcher.executing.size(), equalTo(1));
+        assertThat(dispatcher.executing.get(0).request.shardId(), equalTo(shard1));
+        assertThat(breaker.getUsed(), equalTo(ITEM_SIZE * 2));
+        dispatcher.respond(0);
+        assertThat(breaker.getUsed(), equalTo(0L));
+        assertThat(dispatcher.completed.get(), equalTo(1));
+        assertThat(dispatcher.failures.size(), equalTo(0));
+    }
+
+    public void testFailsWhenCircuitBreakerTripsWithNothingToWaitFor() {
+        MemoryCircuitBreaker breaker = new MemoryCircuitBreaker(new ByteSizeValue(ITEM_SIZE), 1.0, logger);
+        TestDispatcher dispatcher = new TestDispatcher(ITEM_SIZE * 2, breaker, true);
+        ShardId shardId = new ShardId("index", "_na_", 0);
+        dispatcher.add(shardId, item(0), ITEM_SIZE);
+        dispatcher.add(shardId, item(1), ITEM_SIZE);
+        dispatcher.close();
+        assertThat(dispatcher.executed.size(), equalTo(0));
+        assertThat(dispatcher.failures.size(), equalTo(1));
+        assertThat(dispatcher.failures.get(0), instanceOf(CircuitBreakingException.class));
+        assertThat(breaker.getUsed(), equalTo(0L));
+        assertThat(dispatcher.completed.get(), equalTo(1));
+    }
+
+    public void testLocalShardRequestsAreNotAccounted() {
+        MemoryCircuitBreaker breaker = new MemoryCircuitBreaker(new ByteSizeValue(ITEM_SIZE), 1.0, logger);
+        TestDispatcher dispatcher = new TestDispatcher(ITEM_SIZE * 2, breaker, false);
+        ShardId shardId = new ShardId("index", "_na_", 0);
+        dispatcher.add(shardId, item(0), ITEM_SIZE);
+        dispatcher.add(shardId, item(1), ITEM_SIZE);
+        dispatcher.close();
+        assertThat(dispatcher.executing.size(), equalTo(1));
+        assertThat(breaker.getUsed(), equalTo(0L));
+        dispatcher.fail(0, new IllegalStateException("boom"));
+        assertThat(dispatcher.failures.size(), equalTo(1));
+        assertThat(dispatcher.completed.get(), equalTo(1));
+    }
+
+    private static BulkItemRequest item(int id) {
+        return new BulkItemRequest(id, new DeleteRequest("index", "type", Integer.toString(id)));
+    }
+
+    private static final class Execution {
+        final BulkShardRequest request;
+        final ActionListener<BulkShardResponse> listener;
+
+        Execution(BulkShardRequest request, ActionListener<BulkShardResponse> listener) {
+            this.request = request;
+            this.listener = listener;
+        }
+    }
+
+    private static final class TestDispatcher extends BulkShardRequestDispatcher {
+        final boolean remote;
+        final List<Execution> executing = new ArrayList<>();
+        final List<BulkShardRequest> executed = new ArrayList<>();
+        final List<BulkShardResponse> responses = new ArrayList<>();
+        final List<Exception> failures = new ArrayList<>();
+        final AtomicInteger completed = new AtomicInteger();
+        final Map<ShardId, Integer> added = new HashMap<>();
+        final Map<ShardId, Integer> dispatched = new HashMap<>();
+
+        TestDispatcher(long maxShardRequestSizeInBytes, CircuitBreaker breaker, boolean remote) {
+            super(maxShardRequestSizeInBytes, breaker);
+            this.remote = remote;
+        }
+
+        @Override
+        void add(ShardId shardId, BulkItemRequest item, long sizeInBytes) {
+            added.merge(shardId, 1, Integer::sum);
+            super.add(shardId, item, sizeInBytes);
+        }
+
+        int pendingItems(ShardId shardId) {
+            return added.getOrDefault(shardId, 0) - dispatched.getOrDefault(shardId, 0);
+        }
+
+        List<ShardId> executingShards() {
+            List<ShardId> shards = new ArrayList<>();
+            for (Execution execution : executing) {
+                if (shards.contains(execution.request.shardId()) == false) {
+                    shards.add(execution.request.shardId());
+                }
+            }
+            return shards;
+        }
+
+        void respond(int index) {
+            Execution execution = executing.remove(index);
+            executed.add(execution.request);
+            BulkItemResponse[] itemResponses = new BulkItemResponse[execution.request.items().length];
+            for (int i = 0; i < itemResponses.length; i++) {
+                BulkItemRequest item = execution.request.items()[i];
+                itemResponses[i] = new BulkItemResponse(item.id(), "delete",
+                        new BulkItemResponse.Failure("index", "type", Integer.toString(item.id()), new IllegalStateException()));
+            }
+            execution.listener.onResponse(new BulkShardResponse(execution.request.shardId(), itemResponses));
+        }
+
+        void fail(int index, Exception e) {
+            executing.remove(index).listener.onFailure(e);
+        }
+
+        @Override
+        BulkShardRequest newShardRequest(ShardId shardId, BulkItemRequest[] items) {
+            dispatched.merge(shardId, items.length, Integer::sum);
+            return new BulkShardRequest(shardId, randomFrom(WriteRequest.RefreshPolicy.values()), items);
+        }
+
+        @Override
+        boolean isRemote(ShardId shardId) {
+            return remote;
+        }
+
+        @Override
+        void execute(BulkShardRequest request, ActionListener<BulkShardResponse> listener) {
+            executing.add(new Execution(request, listener));
+        }
+
+        @Override
+        void onShardResponse(BulkShardResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        void onShardFailure(BulkShardRequest request, Exception e) {
+            failures.add(e);
+        }
+
+        @Override
+        void onCompletion() {
+            completed.incrementAndGet();
+        }
+    }
+}
@@ -35,6 +35,8 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.CapturingTransport;
@@ -114,6 +116,7 @@ public class TransportBulkActionTookTests extends ESTestCase {
                     actionFilters,
                     resolver,
                     null,
+                    new NoneCircuitBreakerService(),
                     expected::get) {
                 @Override
                 public void executeBulk(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
@@ -143,6 +146,7 @@ public class TransportBulkActionTookTests extends ESTestCase {
                     actionFilters,
                     resolver,
                     null,
+                    new NoneCircuitBreakerService(),
                     System::nanoTime) {
                 @Override
                 public void executeBulk(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
@@ -230,6 +234,7 @@ public class TransportBulkActionTookTests extends ESTestCase {
                 ActionFilters actionFilters,
                 IndexNameExpressionResolver indexNameExpressionResolver,
                 AutoCreateIndex autoCreateIndex,
+                CircuitBreakerService circuitBreakerService,
                 LongSupplier relativeTimeProvider) {
             super(
                     settings,
@@ -241,6 +246,7 @@ public class TransportBulkActionTookTests extends ESTestCase {
                     actionFilters,
                     indexNameExpressionResolver,
                     autoCreateIndex,
+                    circuitBreakerService,
                     relativeTimeProvider);
         }
 
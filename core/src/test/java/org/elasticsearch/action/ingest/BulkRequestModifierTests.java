@@ -32,6 +32,7 @@ import org.hamcrest.Matchers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,9 +56,9 @@ public class BulkRequestModifierTests extends ESTestCase {
         int i = 0;
         Set<Integer> failedSlots = new HashSet<>();
         while (bulkRequestModifier.hasNext()) {
-            bulkRequestModifier.next();
+            IndexRequest indexRequest = (IndexRequest) bulkRequestModifier.next();
             if (randomBoolean()) {
-                bulkRequestModifier.markCurrentItemAsFailed(new RuntimeException());
+                bulkRequestModifier.markItemAsFailed(indexRequest, new RuntimeException());
                 failedSlots.add(i);
             }
             i++;
@@ -93,9 +94,9 @@ public class BulkRequestModifierTests extends ESTestCase {
 
         IngestActionFilter.BulkRequestModifier modifier = new IngestActionFilter.BulkRequestModifier(originalBulkRequest);
         for (int i = 0; modifier.hasNext(); i++) {
-            modifier.next();
+            IndexRequest indexRequest = (IndexRequest) modifier.next();
             if (i % 2 == 0) {
-                modifier.markCurrentItemAsFailed(new RuntimeException());
+                modifier.markItemAsFailed(indexRequest, new RuntimeException());
             }
         }
 
@@ -129,6 +130,57 @@ public class BulkRequestModifierTests extends ESTestCase {
         }
     }
 
+    public void testPipelineFailuresOutOfOrder() {
+        BulkRequest originalBulkRequest = new BulkRequest();
+        for (int i = 0; i < 32; i++) {
+            originalBulkRequest.add(new IndexRequest("index", "type", String.valueOf(i)));
+        }
+
+        IngestActionFilter.BulkRequestModifier modifier = new IngestActionFilter.BulkRequestModifier(originalBulkRequest);
+        while (modifier.hasNext()) {
+            modifier.next();
+        }
+        // items of a bulk are executed per pipeline, so they may fail after the bulk has been iterated and in any order
+        List<ActionRequest<?>> failedRequests = new ArrayList<>();
+        for (int i = 0; i < 32; i += 2) {
+            failedRequests.add(originalBulkRequest.requests().get(i));
+        }
+        Collections.shuffle(failedRequests, random());
+        for (ActionRequest<?> failedRequest : failedRequests) {
+            modifier.markItemAsFailed((IndexRequest) failedRequest, new RuntimeException());
+        }
+
+        BulkRequest bulkRequest = modifier.getBulkRequest();
+        assertThat(bulkRequest.requests().size(), Matchers.equalTo(16));
+
+        List<BulkItemResponse> responses = new ArrayList<>();
+        ActionListener<BulkResponse> bulkResponseListener = modifier.wrapActionListenerIfNeeded(1L, new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse bulkItemResponses) {
+                responses.addAll(Arrays.asList(bulkItemResponses.getItems()));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        });
+
+        List<BulkItemResponse> originalResponses = new ArrayList<>();
+        for (ActionRequest actionRequest : bulkRequest.requests()) {
+            IndexRequest indexRequest = (IndexRequest) actionRequest;
+            assertThat(Integer.parseInt(indexRequest.id()) % 2, equalTo(1));
+            IndexResponse indexResponse = new IndexResponse(new ShardId("index", "_na_", 0), indexRequest.type(), indexRequest.id(), 1, true);
+            originalResponses.add(new BulkItemResponse(Integer.parseInt(indexRequest.id()), indexRequest.opType().lowercase(), indexResponse));
+        }
+        bulkResponseListener.onResponse(new BulkResponse(originalResponses.toArray(new BulkItemResponse[originalResponses.size()]), 0));
+
+        assertThat(responses.size(), Matchers.equalTo(32));
+        for (int i = 0; i < 32; i++) {
+            assertThat(responses.get(i).getId(), Matchers.equalTo(String.valueOf(i)));
+            assertThat(responses.get(i).isFailed(), is(i % 2 == 0));
+        }
+    }
+
     public void testNoFailures() {
         BulkRequest originalBulkRequest = new BulkRequest();
         for (int i = 0; i < 32; i++) {
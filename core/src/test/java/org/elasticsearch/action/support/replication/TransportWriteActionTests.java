@@ -43,6 +43,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class TransportWriteActionTests extends ESTestCase {
     private IndexShard indexShard;
@@ -128,6 +129,40 @@ public class TransportWriteActionTests extends ESTestCase {
         resultChecker.accept(listener.response, forcedRefresh);
     }
 
+    public void testPrimaryWaitsForTranslogSync() throws Exception {
+        waitForTranslogSync(TestAction::shardOperationOnPrimary, TestAction.WritePrimaryResult::respond);
+    }
+
+    public void testReplicaWaitsForTranslogSync() throws Exception {
+        waitForTranslogSync(TestAction::shardOperationOnReplica, TestAction.WriteReplicaResult::respond);
+    }
+
+    private <Result, Response> void waitForTranslogSync(ThrowingBiFunction<TestAction, TestRequest, Result> action,
+                                                        BiConsumer<Result, CapturingActionListener<Response>> responder) throws Exception {
+        when(indexShard.getTranslogDurability()).thenReturn(Translog.Durability.REQUEST);
+        TestRequest request = new TestRequest();
+        request.setRefreshPolicy(RefreshPolicy.NONE);
+        Result result = action.apply(new TestAction(), request);
+        CapturingActionListener<Response> listener = new CapturingActionListener<>();
+        responder.accept(result, listener);
+        assertNull(listener.response); // Haven't synced yet
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ArgumentCaptor<Consumer<Exception>> syncListener = ArgumentCaptor.forClass((Class) Consumer.class);
+        verify(indexShard).sync(any(), syncListener.capture());
+
+        if (randomBoolean()) {
+            syncListener.getValue().accept(null);
+            assertNotNull(listener.response);
+            assertNull(listener.failure);
+        } else {
+            Exception failure = new RuntimeException("failed to sync translog");
+            syncListener.getValue().accept(failure);
+            assertNull(listener.response);
+            assertSame(failure, listener.failure);
+        }
+    }
+
     private class TestAction extends TransportWriteAction<TestRequest, TestResponse> {
         protected TestAction() {
             super(Settings.EMPTY, "test", mock(TransportService.class), null, null, null, null, new ActionFilters(new HashSet<>()),
@@ -172,6 +207,7 @@ public class TransportWriteActionTests extends ESTestCase {
 
     private static class CapturingActionListener<R> implements ActionListener<R> {
         private R response;
+        private Exception failure;
 
         @Override
         public void onResponse(R response) {
@@ -180,7 +216,7 @@ public class TransportWriteActionTests extends ESTestCase {
 
         @Override
         public void onFailure(Exception e) {
-            throw new RuntimeException(e);
+            this.failure = e;
         }
     }
 
@@ -28,6 +28,7 @@ import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.test.ClusterServiceUtils;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
@@ -40,11 +41,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.object.HasToString.hasToString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
 
 public class OperationRoutingTests extends ESTestCase{
 
@@ -291,4 +294,72 @@ public class OperationRoutingTests extends ESTestCase{
         }
     }
 
+    public void testAdaptiveReplicaSelection() throws Exception {
+        TestThreadPool threadPool = null;
+        ClusterService clusterService = null;
+        try {
+            threadPool = new TestThreadPool("testAdaptiveReplicaSelection");
+            // primaries on node_0, replicas on node_1
+            clusterService = ClusterServiceUtils.createClusterService(
+                ClusterStateCreationUtils.stateWithAssignedPrimariesAndOneReplica("test", 1), threadPool);
+            final ResponseCollectorService collector = new ResponseCollectorService(Settings.EMPTY, clusterService);
+            final Settings settings = Settings.builder().put(OperationRouting.USE_ADAPTIVE_REPLICA_SELECTION_SETTING.getKey(), true).build();
+            final OperationRouting operationRouting =
+                new OperationRouting(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+            final String[] indices = new String[] {"test"};
+
+            // without statistics, both copies are returned
+            GroupShardsIterator groupIterator = operationRouting.searchShards(clusterService.state(), indices, null, null, collector);
+            assertThat(groupIterator.size(), equalTo(1));
+            assertThat(groupIterator.iterator().next().size(), equalTo(2));
+
+            collector.onResponseReceived("node_0", 20, TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(10));
+            collector.onResponseReceived("node_1", 0, TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(1));
+            for (int i = 0; i < 5; i++) {
+                groupIterator = operationRouting.searchShards(clusterService.state(), indices, null, null, collector);
+                ShardIterator shardIterator = groupIterator.iterator().next();
+                assertThat(shardIterator.size(), equalTo(2));
+                assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_1"));
+                assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_0"));
+            }
+            // the skipped node gets closer to the selected node every time
+            assertThat(collector.getNodeStatistics("node_0").get().getQueueSize(), lessThan(20.0));
+
+            // a preference disables the ranking
+            groupIterator = operationRouting.searchShards(clusterService.state(), indices, null, "_primary", collector);
+            assertThat(groupIterator.iterator().next().nextOrNull().currentNodeId(), equalTo("node_0"));
+        } finally {
+            IOUtils.close(clusterService);
+            terminate(threadPool);
+        }
+    }
+
+    public void testAdaptiveReplicaSelectionSpreadsShardsOfASearch() throws Exception {
+        TestThreadPool threadPool = null;
+        ClusterService clusterService = null;
+        try {
+            threadPool = new TestThreadPool("testAdaptiveReplicaSelectionSpreadsShardsOfASearch");
+            clusterService = ClusterServiceUtils.createClusterService(
+                ClusterStateCreationUtils.stateWithAssignedPrimariesAndOneReplica("test", 2), threadPool);
+            final ResponseCollectorService collector = new ResponseCollectorService(Settings.EMPTY, clusterService);
+            final Settings settings = Settings.builder().put(OperationRouting.USE_ADAPTIVE_REPLICA_SELECTION_SETTING.getKey(), true).build();
+            final OperationRouting operationRouting =
+                new OperationRouting(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+            final long oneMilli = TimeUnit.MILLISECONDS.toNanos(1);
+            collector.onResponseReceived("node_0", 0, oneMilli, oneMilli);
+            collector.onResponseReceived("node_1", 0, oneMilli, oneMilli);
+
+            // both nodes rank the same, but the shard that is routed first counts against its node when ranking the other one
+            GroupShardsIterator groupIterator = operationRouting.searchShards(clusterService.state(), new String[] {"test"}, null, null,
+                collector);
+            final Set<String> selectedNodes = new HashSet<>();
+            for (ShardIterator shardIterator : groupIterator) {
+                selectedNodes.add(shardIterator.nextOrNull().currentNodeId());
+            }
+            assertThat(selectedNodes, containsInAnyOrder("node_0", "node_1"));
+        } finally {
+            IOUtils.close(clusterService);
+            terminate(threadPool);
+        }
+    }
 }
@@ -35,7 +35,11 @@ import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.routing.allocation.allocator.BalancedShardsAllocator;
 import org.elasticsearch.cluster.routing.allocation.allocator.ShardsAllocator;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.AllocationDeciders;
 import org.elasticsearch.cluster.routing.allocation.decider.ClusterRebalanceAllocationDecider;
+import org.elasticsearch.cluster.routing.allocation.decider.Decision;
+import org.elasticsearch.cluster.routing.allocation.decider.SameShardAllocationDecider;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.ClusterSettings;
@@ -46,6 +50,7 @@ import org.hamcrest.Matchers;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.elasticsearch.cluster.routing.ShardRoutingState.INITIALIZING;
 import static org.elasticsearch.cluster.routing.ShardRoutingState.STARTED;
@@ -296,6 +301,55 @@ public class BalanceConfigurationTests extends ESAllocationTestCase {
         assertThat(allocator.getThreshold(), Matchers.equalTo(3.0f));
     }
 
+    public void testBalancedIndicesSkipDeciders() {
+        final AtomicInteger indexLevelDecisions = new AtomicInteger();
+        AllocationDecider countingDecider = new AllocationDecider(Settings.EMPTY) {
+            @Override
+            public Decision canAllocate(IndexMetaData indexMetaData, RoutingNode node, RoutingAllocation allocation) {
+                indexLevelDecisions.incrementAndGet();
+                return Decision.YES;
+            }
+        };
+        AllocationService strategy = new AllocationService(Settings.EMPTY, new AllocationDeciders(Settings.EMPTY,
+                new AllocationDecider[] {new SameShardAllocationDecider(Settings.EMPTY), countingDecider}),
+                NoopGatewayAllocator.INSTANCE, new BalancedShardsAllocator(Settings.EMPTY), EmptyClusterInfoService.INSTANCE);
+
+        final int numIndices = randomIntBetween(3, 20);
+        MetaData.Builder metaDataBuilder = MetaData.builder();
+        for (int i = 0; i < numIndices; i++) {
+            metaDataBuilder.put(IndexMetaData.builder("test" + i).settings(settings(Version.CURRENT)).numberOfShards(2).numberOfReplicas(0));
+        }
+        MetaData metaData = metaDataBuilder.build();
+        RoutingTable.Builder routingTableBuilder = RoutingTable.builder();
+        for (ObjectCursor<IndexMetaData> cursor : metaData.indices().values()) {
+            routingTableBuilder.addAsNew(cursor.value);
+        }
+        ClusterState clusterState = ClusterState.builder(org.elasticsearch.cluster.ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+                .nodes(DiscoveryNodes.builder().add(newNode("node0")).add(newNode("node1")))
+                .metaData(metaData).routingTable(routingTableBuilder.build()).build();
+
+        logger.info("allocate one shard of every index to each node");
+        clusterState = ClusterState.builder(clusterState).routingResult(strategy.reroute(clusterState, "reroute")).build();
+        for (RoutingNode routingNode : clusterState.getRoutingNodes()) {
+            assertThat(routingNode.size(), Matchers.equalTo(numIndices));
+        }
+
+        logger.info("start the shards, all indices are balanced so the deciders are not asked about rebalancing any index");
+        indexLevelDecisions.set(0);
+        RoutingAllocation.Result result = strategy.applyStartedShards(clusterState,
+                clusterState.getRoutingNodes().shardsWithState(INITIALIZING));
+        clusterState = ClusterState.builder(clusterState).routingResult(result).build();
+        assertThat(indexLevelDecisions.get(), Matchers.equalTo(0));
+        assertThat(clusterState.getRoutingNodes().shardsWithState(STARTED).size(), Matchers.equalTo(numIndices * 2));
+
+        logger.info("add a node, the indices are no longer balanced and shards relocate to it");
+        clusterState = ClusterState.builder(clusterState)
+                .nodes(DiscoveryNodes.builder(clusterState.nodes()).add(newNode("node2"))).build();
+        clusterState = ClusterState.builder(clusterState).routingResult(strategy.reroute(clusterState, "reroute")).build();
+        assertThat(indexLevelDecisions.get(), Matchers.greaterThan(0));
+        assertThat(clusterState.getRoutingNodes().node("node2").size(), Matchers.greaterThan(0));
+    }
+
     public void testNoRebalanceOnPrimaryOverload() {
         Settings.Builder settings = Settings.builder();
         AllocationService strategy = new AllocationService(settings.build(), randomAllocationDeciders(settings.build(),
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster.routing.allocation.decider;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.RoutingNode;
+import org.elasticsearch.cluster.routing.RoutingNodes;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.RoutingAllocation;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESAllocationTestCase;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+public class AllocationDecidersTests extends ESAllocationTestCase {
+
+    public void testCacheableDecisionsAreReusedUntilRoutingChanges() {
+        CountingDecider cacheable = new CountingDecider(true);
+        CountingDecider notCacheable = new CountingDecider(false);
+        AllocationDeciders deciders = new AllocationDeciders(Settings.EMPTY, new AllocationDecider[] {cacheable, notCacheable});
+        RoutingAllocation allocation = newAllocation(deciders);
+        RoutingNodes routingNodes = allocation.routingNodes();
+        ShardRouting shard = routingNodes.unassigned().iterator().next();
+        RoutingNode node = routingNodes.node("node1");
+
+        assertThat(deciders.canAllocate(shard, node, allocation).type(), equalTo(Decision.Type.YES));
+        assertThat(deciders.canAllocate(shard, node, allocation).type(), equalTo(Decision.Type.YES));
+        assertThat(cacheable.calls.get(), equalTo(1));
+        assertThat(notCacheable.calls.get(), equalTo(2));
+
+        // a different kind of decision for the same shard is not taken from the cache
+        deciders.canAllocate(shard, allocation);
+        assertThat(cacheable.calls.get(), equalTo(2));
+
+        // modifying the routing nodes invalidates the cached decisions
+        RoutingNodes.UnassignedShards.UnassignedIterator unassignedIterator = routingNodes.unassigned().iterator();
+        unassignedIterator.next();
+        unassignedIterator.initialize("node2", null, -1);
+        deciders.canAllocate(shard, node, allocation);
+        assertThat(cacheable.calls.get(), equalTo(3));
+        assertThat(notCacheable.calls.get(), equalTo(4));
+
+        // debug decisions are never cached
+        allocation.debugDecision(true);
+        deciders.canAllocate(shard, node, allocation);
+        deciders.canAllocate(shard, node, allocation);
+        assertThat(cacheable.calls.get(), equalTo(5));
+    }
+
+    public void testDecisionTimesPerDecider() {
+        AllocationDeciders deciders = new AllocationDeciders(Settings.EMPTY,
+            new AllocationDecider[] {new CountingDecider(true), new SameShardAllocationDecider(Settings.EMPTY)});
+        RoutingAllocation allocation = newAllocation(deciders);
+        ShardRouting shard = allocation.routingNodes().unassigned().iterator().next();
+
+        deciders.canAllocate(shard, allocation.routingNodes().node("node1"), allocation);
+        Map<String, TimeValue> times = deciders.getDecisionTimes(allocation);
+        assertThat(times.keySet(), contains("CountingDecider", "SameShardAllocationDecider"));
+        assertThat(times.get("CountingDecider").nanos(), equalTo(0L));
+
+        allocation.decisionCache().enableProfiling();
+        deciders.canAllocate(shard, allocation.routingNodes().node("node2"), allocation);
+        times = deciders.getDecisionTimes(allocation);
+        assertTrue(times.get("CountingDecider").nanos() >= 0);
+        assertTrue(times.get("SameShardAllocationDecider").nanos() >= 0);
+    }
+
+    private RoutingAllocation newAllocation(AllocationDeciders deciders) {
+        MetaData metaData = MetaData.builder()
+            .put(IndexMetaData.builder("idx").settings(settings(Version.CURRENT)).numberOfShards(1).numberOfReplicas(0))
+            .build();
+        RoutingTable routingTable = RoutingTable.builder().addAsNew(metaData.index("idx")).build();
+        ClusterState clusterState = ClusterState.builder(ClusterName.CLUSTER_NAME_SETTING.getDefault(Settings.EMPTY))
+            .metaData(metaData).routingTable(routingTable)
+            .nodes(DiscoveryNodes.builder().add(newNode("node1")).add(newNode("node2"))).build();
+        return new RoutingAllocation(deciders, new RoutingNodes(clusterState, false), clusterState, null, 0, false);
+    }
+
+    private static final class CountingDecider extends AllocationDecider {
+        private final boolean cacheable;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingDecider(boolean cacheable) {
+            super(Settings.EMPTY);
+            this.cacheable = cacheable;
+        }
+
+        @Override
+        public boolean isCacheable() {
+            return cacheable;
+        }
+
+        @Override
+        public Decision canAllocate(ShardRouting shardRouting, RoutingNode node, RoutingAllocation allocation) {
+            calls.incrementAndGet();
+            return Decision.YES;
+        }
+
+        @Override
+        public Decision canAllocate(ShardRouting shardRouting, RoutingAllocation allocation) {
+            calls.incrementAndGet();
+            return Decision.YES;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+
+public class LZ4CompressTests extends AbstractCompressTestCase {
+
+    private final Compressor compressor = new LZ4Compressor();
+
+    public LZ4CompressTests() {
+        super(new LZ4Compressor());
+    }
+
+    public void testEmpty() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        compressor.streamOutput(out).close();
+        assertTrue(compressor.isCompressed(out.bytes()));
+        try (StreamInput in = compressor.streamInput(out.bytes().streamInput())) {
+            assertEquals(-1, in.read());
+        }
+    }
+
+    public void testDoesNotReadPastEndOfStream() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        final int numStrings = randomIntBetween(1, 10000);
+        StreamOutput compressedOut = compressor.streamOutput(out);
+        for (int i = 0; i < numStrings; i++) {
+            compressedOut.writeString("value " + (i % 100));
+            if (rarely()) {
+                compressedOut.flush();
+            }
+        }
+        compressedOut.close();
+        out.writeString("trailer");
+
+        StreamInput rawIn = out.bytes().streamInput();
+        StreamInput in = compressor.streamInput(rawIn);
+        for (int i = 0; i < numStrings; i++) {
+            assertEquals("value " + (i % 100), in.readString());
+        }
+        assertEquals(-1, in.read());
+        assertEquals("trailer", rawIn.readString());
+    }
+
+    public void testCompressorDetection() throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        try (StreamOutput compressedOut = CompressorFactory.compressorForScheme("lz4").streamOutput(out)) {
+            compressedOut.writeString(randomAsciiOfLength(100));
+        }
+        BytesReference bytes = out.bytes();
+        assertSame(CompressorFactory.LZ4_COMPRESSOR, CompressorFactory.compressor(bytes));
+        assertTrue(CompressorFactory.isCompressed(bytes));
+        assertSame(CompressorFactory.COMPRESSOR, CompressorFactory.compressorForScheme("deflate"));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> CompressorFactory.compressorForScheme("lzf"));
+        assertEquals("unknown compression scheme [lzf], must be one of [deflate, lz4]", e.getMessage());
+    }
+}
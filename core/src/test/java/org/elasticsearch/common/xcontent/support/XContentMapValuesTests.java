@@ -30,6 +30,7 @@ import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -551,4 +552,84 @@ public class XContentMapValuesTests extends ESTestCase {
                     parser.list());
         }
     }
+
+    public void testStreamingFilter() throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .field("field", "value")
+                .startObject("obj1").field("field", "value").startObject("obj2").field("field", "value").endObject().endObject()
+                .startArray("arr1").value(1).startObject().field("field", "value").field("other", "value").endObject().endArray()
+                .startObject("empty").endObject()
+                .endObject();
+
+        assertStreamingFilter(builder, new String[] {"obj1.obj2"}, Strings.EMPTY_ARRAY,
+                "{\"obj1\":{\"obj2\":{\"field\":\"value\"}}}");
+        assertStreamingFilter(builder, new String[] {"arr1.field"}, Strings.EMPTY_ARRAY,
+                "{\"arr1\":[1,{\"field\":\"value\"}]}");
+        assertStreamingFilter(builder, new String[] {"*.other"}, Strings.EMPTY_ARRAY,
+                "{\"arr1\":[1,{\"other\":\"value\"}]}");
+        assertStreamingFilter(builder, new String[] {"nothing"}, Strings.EMPTY_ARRAY, "{}");
+        assertStreamingFilter(builder, Strings.EMPTY_ARRAY, new String[] {"obj1.*", "arr1"},
+                "{\"field\":\"value\",\"obj1\":{},\"empty\":{}}");
+        assertStreamingFilter(builder, new String[] {"obj1"}, new String[] {"obj1.field"},
+                "{\"obj1\":{\"obj2\":{\"field\":\"value\"}}}");
+    }
+
+    private static void assertStreamingFilter(XContentBuilder source, String[] includes, String[] excludes,
+                                              String expected) throws IOException {
+        XContentBuilder builder = XContentFactory.jsonBuilder();
+        try (XContentParser parser = XContentHelper.createParser(source.bytes())) {
+            XContentMapValues.filter(parser, builder, includes, excludes);
+        }
+        assertEquals(expected, builder.string());
+    }
+
+    public void testStreamingFilterMatchesMapFilter() throws IOException {
+        String[] patterns = new String[] {"a", "b", "a.b", "a.c", "b.a.c", "*.c", "a.*", "b*", "*", "c.*.a", "*b"};
+        for (int iter = 0; iter < 100; iter++) {
+            Map<String, Object> source = randomSourceObject(0);
+            String[] includes = new String[randomIntBetween(0, 2)];
+            for (int i = 0; i < includes.length; i++) {
+                includes[i] = randomFrom(patterns);
+            }
+            String[] excludes = new String[randomIntBetween(0, 2)];
+            for (int i = 0; i < excludes.length; i++) {
+                excludes[i] = randomFrom(patterns);
+            }
+            XContentType xContentType = randomFrom(XContentType.values());
+            XContentBuilder sourceBuilder = XContentFactory.contentBuilder(xContentType).map(source);
+            XContentBuilder builder = XContentFactory.contentBuilder(xContentType);
+            try (XContentParser parser = XContentHelper.createParser(sourceBuilder.bytes())) {
+                XContentMapValues.filter(parser, builder, includes, excludes);
+            }
+            Map<String, Object> filtered = XContentHelper.convertToMap(builder.bytes(), false).v2();
+            assertEquals("includes " + Arrays.toString(includes) + " excludes " + Arrays.toString(excludes) + " source " + source,
+                    XContentMapValues.filter(source, includes, excludes), filtered);
+        }
+    }
+
+    private static Map<String, Object> randomSourceObject(int depth) {
+        Map<String, Object> object = new HashMap<>();
+        for (String key : new String[] {"a", "b", "c"}) {
+            if (randomBoolean()) {
+                object.put(key, randomSourceValue(depth + 1));
+            }
+        }
+        return object;
+    }
+
+    private static Object randomSourceValue(int depth) {
+        switch (depth > 3 ? 0 : randomIntBetween(0, 3)) {
+            case 0:
+                return randomBoolean() ? randomAsciiOfLength(3) : randomIntBetween(0, 10);
+            case 1:
+                return randomSourceObject(depth);
+            default:
+                List<Object> list = new ArrayList<>();
+                int size = randomIntBetween(0, 3);
+                for (int i = 0; i < size; i++) {
+                    list.add(randomSourceValue(depth + 1));
+                }
+                return list;
+        }
+    }
 }
@@ -338,6 +338,14 @@ public class ZenDiscoveryIT extends ESIntegTestCase {
                 "      \"total\" : 0,\n" +
                 "      \"pending\" : 0,\n" +
                 "      \"committed\" : 0\n" +
+                "    },\n" +
+                "    \"published_cluster_states\" : {\n" +
+                "      \"total\" : 0,\n" +
+                "      \"failed\" : 0,\n" +
+                "      \"serialization_time_in_millis\" : 0,\n" +
+                "      \"send_time_in_millis\" : 0,\n" +
+                "      \"commit_time_in_millis\" : 0,\n" +
+                "      \"apply_time_in_millis\" : 0\n" +
                 "    }\n" +
                 "  }\n" +
                 "}";
@@ -356,6 +364,8 @@ public class ZenDiscoveryIT extends ESIntegTestCase {
         assertThat(stats.getQueueStats().getTotal(), equalTo(0));
         assertThat(stats.getQueueStats().getCommitted(), equalTo(0));
         assertThat(stats.getQueueStats().getPending(), equalTo(0));
+        assertThat(stats.getPublishStats(), notNullValue());
+        assertThat(stats.getPublishStats().getTotal(), equalTo(0L));
 
         XContentBuilder builder = XContentFactory.jsonBuilder().prettyPrint();
         builder.startObject();
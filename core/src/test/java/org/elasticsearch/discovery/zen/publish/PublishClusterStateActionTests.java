@@ -331,6 +331,43 @@ public class PublishClusterStateActionTests extends ESTestCase {
         assertSameStateFromFull(nodeC.clusterState, clusterState);
     }
 
+    public void testPublishingWithBoundedSendWindow() throws Exception {
+        Settings settings = Settings.builder()
+                .put(DiscoverySettings.PUBLISH_MAX_CONCURRENT_SENDS_SETTING.getKey(), randomIntBetween(1, 3))
+                .build();
+        MockNode master = createMockNode("master", settings).setAsMaster();
+        DiscoveryNodes.Builder discoveryNodesBuilder = DiscoveryNodes.builder(master.clusterState.nodes());
+        final int dataNodes = randomIntBetween(2, 8);
+        final Settings dataSettings = Settings.builder().put(Node.NODE_MASTER_SETTING.getKey(), false).build();
+        List<MockNode> nodes = new ArrayList<>();
+        for (int i = 0; i < dataNodes; i++) {
+            MockNode node = createMockNode("data_" + i, dataSettings);
+            discoveryNodesBuilder.add(node.discoveryNode);
+            nodes.add(node);
+        }
+        ClusterState previousClusterState = master.clusterState;
+        ClusterState clusterState = ClusterState.builder(previousClusterState).nodes(discoveryNodesBuilder).incrementVersion().build();
+        publishStateAndWait(master.action, clusterState, previousClusterState);
+        for (MockNode node : nodes) {
+            assertSameStateFromFull(node.clusterState, clusterState);
+        }
+
+        previousClusterState = clusterState;
+        clusterState = ClusterState.builder(clusterState).blocks(ClusterBlocks.builder().addGlobalBlock(MetaData.CLUSTER_READ_ONLY_BLOCK)).incrementVersion().build();
+        publishStateAndWait(master.action, clusterState, previousClusterState);
+        for (MockNode node : nodes) {
+            assertSameStateFromDiff(node.clusterState, clusterState);
+        }
+
+        PublishClusterStateStats stats = master.action.stats();
+        assertThat(stats.getTotal(), equalTo(2L));
+        assertThat(stats.getFailed(), equalTo(0L));
+        // the data nodes never published anything
+        for (MockNode node : nodes) {
+            assertThat(node.action.stats().getTotal(), equalTo(0L));
+        }
+    }
+
     public void testUnexpectedDiffPublishing() throws Exception {
         MockNode nodeA = createMockNode("nodeA", Settings.EMPTY, event -> {
             fail("Shouldn't send cluster state to myself");
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PagedVersionMapTests extends ESTestCase {
+
+    private static VersionValue randomVersionValue() {
+        final Translog.Location location = randomBoolean() ? null
+            : new Translog.Location(randomIntBetween(1, 10), randomIntBetween(0, 100000), randomIntBetween(1, 1000));
+        if (randomBoolean()) {
+            return new DeleteVersionValue(randomLong(), randomLong(), location);
+        }
+        return new VersionValue(randomLong(), location);
+    }
+
+    private static void assertVersionValue(VersionValue expected, VersionValue actual) {
+        assertNotNull(actual);
+        assertEquals(expected.version(), actual.version());
+        assertEquals(expected.delete(), actual.delete());
+        if (expected.delete()) {
+            assertEquals(expected.time(), actual.time());
+        }
+        assertEquals(expected.translogLocation(), actual.translogLocation());
+    }
+
+    public void testPutAndGet() {
+        Map<BytesRef, VersionValue> reference = new HashMap<>();
+        try (PagedVersionMap map = new PagedVersionMap(BigArrays.NON_RECYCLING_INSTANCE)) {
+            final long emptyBytes = map.ramBytesUsed();
+            int iters = scaledRandomIntBetween(100, 5000);
+            for (int i = 0; i < iters; i++) {
+                BytesRef uid = new BytesRef(randomAsciiOfLengthBetween(1, 20));
+                VersionValue value = randomVersionValue();
+                map.put(uid, value);
+                reference.put(uid, value);
+            }
+            assertEquals(reference.size(), map.size());
+            for (Map.Entry<BytesRef, VersionValue> entry : reference.entrySet()) {
+                assertVersionValue(entry.getValue(), map.get(entry.getKey()));
+            }
+            assertNull(map.get(new BytesRef(randomAsciiOfLength(21))));
+            assertTrue(map.ramBytesUsed() > emptyBytes);
+        }
+    }
+
+    public void testClosedMapIsEmpty() {
+        PagedVersionMap map = new PagedVersionMap(BigArrays.NON_RECYCLING_INSTANCE);
+        BytesRef uid = new BytesRef("1");
+        map.put(uid, randomVersionValue());
+        assertNotNull(map.get(uid));
+        map.close();
+        assertNull(map.get(uid));
+        map.put(uid, randomVersionValue());
+        assertNull(map.get(uid));
+        assertEquals(0, map.size());
+    }
+
+    public void testPagedLiveVersionMapRefresh() throws Exception {
+        LiveVersionMap versionMap = new LiveVersionMap(BigArrays.NON_RECYCLING_INSTANCE);
+        BytesRef uid = new BytesRef("1");
+        Term term = new Term("_uid", uid);
+        VersionValue value = new VersionValue(1, null);
+        versionMap.putUnderLock(uid, value);
+        assertVersionValue(value, versionMap.getUnderLock(term));
+        final long emptyBytes;
+        try (PagedVersionMap empty = new PagedVersionMap(BigArrays.NON_RECYCLING_INSTANCE)) {
+            emptyBytes = empty.ramBytesUsed();
+        }
+        for (int i = 0; i < 1000; i++) {
+            versionMap.putUnderLock(new BytesRef("other_" + i), new VersionValue(1, null));
+        }
+        final long bytesBeforeRefresh = versionMap.ramBytesUsedForRefresh();
+
+        versionMap.beforeRefresh();
+        // still visible from the old map while the refresh is running
+        assertVersionValue(value, versionMap.getUnderLock(term));
+        assertTrue(bytesBeforeRefresh > emptyBytes);
+        assertEquals(emptyBytes, versionMap.ramBytesUsedForRefresh());
+        versionMap.afterRefresh(true);
+        assertNull(versionMap.getUnderLock(term));
+
+        // deletes stay around as tombstones
+        VersionValue delete = new DeleteVersionValue(2, 0, null);
+        versionMap.putUnderLock(uid, delete);
+        versionMap.beforeRefresh();
+        versionMap.afterRefresh(true);
+        assertVersionValue(delete, versionMap.getUnderLock(term));
+        versionMap.removeTombstoneUnderLock(uid);
+        assertNull(versionMap.getUnderLock(term));
+        assertEquals(0, versionMap.ramBytesUsed() - versionMap.ramBytesUsedForRefresh());
+    }
+}
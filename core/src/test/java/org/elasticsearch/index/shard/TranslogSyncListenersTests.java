@@ -0,0 +1,115 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Tests the batching behaviour of {@linkplain TranslogSyncListeners} against a fake sync action.
+ */
+public class TranslogSyncListenersTests extends ESTestCase {
+
+    public void testAlreadySyncedLocationNotifiesImmediately() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        TranslogSyncListeners listeners = new TranslogSyncListeners(location -> syncs.incrementAndGet(), Runnable::run, Runnable::run,
+                logger);
+        AtomicReference<Exception> result = new AtomicReference<>(new Exception("not called"));
+        assertFalse(listeners.addOrNotify(new Translog.Location(1, 100, 10), result::set));
+        assertNull(result.get());
+        assertEquals(1, syncs.get());
+
+        result.set(new Exception("not called"));
+        assertTrue(listeners.addOrNotify(new Translog.Location(1, 50, 10), result::set));
+        assertNull(result.get());
+        assertEquals("an already synced location must not sync again", 1, syncs.get());
+        assertFalse(listeners.syncNeeded());
+    }
+
+    public void testConcurrentListenersShareOneSync() throws Exception {
+        CountDownLatch syncStarted = new CountDownLatch(1);
+        CountDownLatch releaseSync = new CountDownLatch(1);
+        List<Translog.Location> syncedLocations = new ArrayList<>();
+        TranslogSyncListeners listeners = new TranslogSyncListeners(location -> {
+            synchronized (syncedLocations) {
+                syncedLocations.add(location);
+            }
+            syncStarted.countDown();
+            try {
+                releaseSync.await();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }, r -> new Thread(r).start(), Runnable::run, logger);
+
+        int numListeners = randomIntBetween(2, 50);
+        CountDownLatch notified = new CountDownLatch(numListeners + 1);
+        Consumer<Exception> listener = e -> {
+            assertNull(e);
+            notified.countDown();
+        };
+        // the first listener starts a sync and blocks it so all others have to queue up behind it
+        assertFalse(listeners.addOrNotify(new Translog.Location(1, 0, 10), listener));
+        assertTrue(syncStarted.await(10, TimeUnit.SECONDS));
+        Translog.Location maxLocation = null;
+        for (int i = 0; i < numListeners; i++) {
+            Translog.Location location = new Translog.Location(1, randomIntBetween(10, 10000), 10);
+            if (maxLocation == null || location.compareTo(maxLocation) > 0) {
+                maxLocation = location;
+            }
+            assertFalse(listeners.addOrNotify(location, listener));
+        }
+        assertTrue(listeners.syncNeeded());
+        releaseSync.countDown();
+        assertTrue(notified.await(10, TimeUnit.SECONDS));
+        synchronized (syncedLocations) {
+            assertEquals("queued listeners must be synced in a single batch", 2, syncedLocations.size());
+            assertEquals(maxLocation, syncedLocations.get(1));
+        }
+    }
+
+    public void testSyncFailureIsDeliveredToEveryListener() throws Exception {
+        RuntimeException failure = new RuntimeException("boom");
+        TranslogSyncListeners listeners = new TranslogSyncListeners(location -> {
+            throw failure;
+        }, Runnable::run, Runnable::run, logger);
+        int numListeners = randomIntBetween(1, 10);
+        List<Exception> results = new ArrayList<>();
+        for (int i = 0; i < numListeners; i++) {
+            listeners.addOrNotify(new Translog.Location(1, i * 10, 10), results::add);
+        }
+        assertEquals(numListeners, results.size());
+        for (Exception e : results) {
+            assertSame(failure, e);
+        }
+        // nothing was synced so a new listener has to trigger a sync again
+        AtomicReference<Exception> result = new AtomicReference<>();
+        assertFalse(listeners.addOrNotify(new Translog.Location(1, 0, 10), result::set));
+        assertSame(failure, result.get());
+    }
+}
@@ -22,18 +22,26 @@ package org.elasticsearch.indices;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.index.cache.request.RequestCacheStats;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram.Bucket;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.test.InternalSettingsPlugin;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.chrono.ISOChronology;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
 import static org.hamcrest.Matchers.equalTo;
@@ -41,6 +49,11 @@ import static org.hamcrest.Matchers.greaterThan;
 
 public class IndicesRequestCacheIT extends ESIntegTestCase {
 
+    @Override
+    protected Collection<Class<? extends Plugin>> nodePlugins() {
+        return Arrays.asList(InternalSettingsPlugin.class);
+    }
+
     // One of the primary purposes of the query cache is to cache aggs results
     public void testCacheAggs() throws Exception {
         assertAcked(client().admin().indices().prepareCreate("index")
@@ -84,6 +97,76 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         }
     }
 
+    public void testCacheAggsPerSegment() throws Exception {
+        assertAcked(client().admin().indices().prepareCreate("index")
+                .addMapping("type", "f", "type=date", "tag", "type=keyword")
+                .setSettings(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true,
+                        IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENTS_ENABLED_SETTING.getKey(), true,
+                        MergePolicyConfig.INDEX_MERGE_ENABLED, false,
+                        IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1,
+                        IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0)
+                .get());
+        ensureGreen("index");
+        int id = 0;
+        for (int i = 0; i < 5; i++) {
+            client().prepareIndex("index", "type", Integer.toString(id++))
+                    .setSource("f", "2016-03-1" + i, "tag", randomFrom("a", "b", "c")).get();
+        }
+        refresh("index");
+        assertSameAggsAsUncached();
+        RequestCacheStats stats = requestCacheStats();
+        assertThat(stats.getHitCount(), equalTo(0L));
+        assertThat(stats.getMissCount(), equalTo(1L));
+
+        // a refresh adds a segment, the result of the first segment is reused
+        for (int i = 0; i < 5; i++) {
+            client().prepareIndex("index", "type", Integer.toString(id++))
+                    .setSource("f", "2016-04-1" + i, "tag", randomFrom("a", "b", "c")).get();
+        }
+        refresh("index");
+        assertSameAggsAsUncached();
+        stats = requestCacheStats();
+        assertThat(stats.getHitCount(), equalTo(1L));
+        assertThat(stats.getMissCount(), equalTo(2L));
+
+        // results of segments with new deletes are computed again
+        client().prepareDelete("index", "type", "0").get();
+        refresh("index");
+        assertSameAggsAsUncached();
+        assertSameAggsAsUncached();
+    }
+
+    private RequestCacheStats requestCacheStats() {
+        return client().admin().indices().prepareStats("index").setRequestCache(true).get().getTotal().getRequestCache();
+    }
+
+    private void assertSameAggsAsUncached() {
+        final SearchResponse uncached = client().prepareSearch("index").setSize(0).setRequestCache(false)
+                .addAggregation(terms("tags").field("tag"))
+                .addAggregation(dateHistogram("histo").field("f").dateHistogramInterval(DateHistogramInterval.MONTH))
+                .get();
+        assertSearchResponse(uncached);
+        final SearchResponse cached = client().prepareSearch("index").setSize(0)
+                .addAggregation(terms("tags").field("tag"))
+                .addAggregation(dateHistogram("histo").field("f").dateHistogramInterval(DateHistogramInterval.MONTH))
+                .get();
+        assertSearchResponse(cached);
+        assertEquals(uncached.getHits().getTotalHits(), cached.getHits().getTotalHits());
+        Terms expectedTerms = uncached.getAggregations().get("tags");
+        Terms actualTerms = cached.getAggregations().get("tags");
+        assertEquals(expectedTerms.getBuckets().size(), actualTerms.getBuckets().size());
+        for (Terms.Bucket expected : expectedTerms.getBuckets()) {
+            assertEquals(expected.getDocCount(), actualTerms.getBucketByKey(expected.getKeyAsString()).getDocCount());
+        }
+        Histogram expectedHisto = uncached.getAggregations().get("histo");
+        Histogram actualHisto = cached.getAggregations().get("histo");
+        assertEquals(expectedHisto.getBuckets().size(), actualHisto.getBuckets().size());
+        for (int i = 0; i < expectedHisto.getBuckets().size(); i++) {
+            assertEquals(expectedHisto.getBuckets().get(i).getKey(), actualHisto.getBuckets().get(i).getKey());
+            assertEquals(expectedHisto.getBuckets().get(i).getDocCount(), actualHisto.getBuckets().get(i).getDocCount());
+        }
+    }
+
     public void testQueryRewrite() throws Exception {
         assertAcked(client().admin().indices().prepareCreate("index").addMapping("type", "s", "type=date")
                 .setSettings(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true,
@@ -24,6 +24,7 @@ import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -188,6 +189,67 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testCacheSegments() throws Exception {
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        AtomicBoolean indexShard =  new AtomicBoolean(true);
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+
+        // the next reader adds a segment but shares the first one
+        writer.addDocument(newDoc(1, "bar"));
+        DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        assertEquals(1, reader.leaves().size());
+        assertEquals(2, secondReader.leaves().size());
+
+        // initial cache
+        TestEntity entity = new TestEntity(requestCacheStats, reader, indexShard, 0);
+        BytesReference value = cache.getOrCompute(entity, reader.leaves().get(0).reader(), termQuery.buildAsBytes());
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(0, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertFalse(entity.loadedFromCache());
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+
+        // the shared segment is a hit for the second reader
+        entity = new TestEntity(requestCacheStats, secondReader, indexShard, 0);
+        value = cache.getOrCompute(entity, secondReader.leaves().get(0).reader(), termQuery.buildAsBytes());
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+        assertTrue(entity.loadedFromCache());
+        assertEquals(1, cache.count());
+
+        // closing the first reader doesn't clean the entry since the segment is still open
+        reader.close();
+        cache.cleanCache();
+        assertEquals(1, cache.count());
+        assertEquals(1, cache.numRegisteredCloseListeners());
+
+        // invalidated entries are computed again
+        cache.invalidate(entity, secondReader.leaves().get(0).reader(), termQuery.buildAsBytes());
+        assertEquals(0, cache.count());
+        entity = new TestEntity(requestCacheStats, secondReader, indexShard, 0);
+        value = cache.getOrCompute(entity, secondReader.leaves().get(0).reader(), termQuery.buildAsBytes());
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(2, requestCacheStats.stats().getMissCount());
+        assertFalse(entity.loadedFromCache());
+        assertEquals(1, cache.count());
+
+        // the entry is cleaned once the segment is closed
+        IOUtils.close(secondReader, writer);
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        assertEquals(0, requestCacheStats.stats().getMemorySize().bytesAsInt());
+        assertEquals(0, cache.numRegisteredCloseListeners());
+        IOUtils.close(dir, cache);
+    }
+
     public void testEviction() throws Exception {
         final ByteSizeValue size;
         {
@@ -30,11 +30,15 @@ import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.store.IndexOutputOutputStream;
@@ -59,14 +63,22 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -128,6 +140,97 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, targetStore);
     }
 
+    public void testSendFilesWithConcurrentFileChunks() throws Throwable {
+        StartRecoveryRequest request = new StartRecoveryRequest(shardId,
+                new DiscoveryNode("b", LocalTransportAddress.buildUnique(), emptyMap(), emptySet(), Version.CURRENT),
+                new DiscoveryNode("b", LocalTransportAddress.buildUnique(), emptyMap(), emptySet(), Version.CURRENT),
+            null, RecoveryState.Type.REPLICA, randomLong());
+        Store store = newStore(createTempDir());
+        Directory dir = store.directory();
+        RandomIndexWriter writer = new RandomIndexWriter(random(), dir, newIndexWriterConfig());
+        int numDocs = randomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            Document document = new Document();
+            document.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+            document.add(newField("field", randomUnicodeOfCodepointLengthBetween(1, 10), TextField.TYPE_STORED));
+            writer.addDocument(document);
+        }
+        writer.commit();
+        writer.close();
+        Store.MetadataSnapshot metadata = store.getMetadata(null);
+        List<StoreFileMetaData> metas = new ArrayList<>();
+        for (StoreFileMetaData md : metadata) {
+            metas.add(md);
+        }
+
+        final int maxConcurrentFileChunks = randomIntBetween(1, 4);
+        final int maxConcurrentFiles = randomIntBetween(1, 4);
+        final Map<String, byte[]> targetFiles = new HashMap<>();
+        final List<Runnable> pendingAcks = new ArrayList<>();
+        final Map<String, Integer> pendingChunksPerFile = new HashMap<>();
+        RecoveryTargetHandler targetHandler = mock(RecoveryTargetHandler.class);
+        doAnswer(invocation -> {
+            StoreFileMetaData md = (StoreFileMetaData) invocation.getArguments()[0];
+            long position = (Long) invocation.getArguments()[1];
+            BytesReference content = (BytesReference) invocation.getArguments()[2];
+            @SuppressWarnings("unchecked")
+            ActionListener<Void> listener = (ActionListener<Void>) invocation.getArguments()[5];
+            synchronized (pendingAcks) {
+                int pendingChunks = pendingChunksPerFile.merge(md.name(), 1, Integer::sum);
+                assertThat(pendingChunks, lessThanOrEqualTo(maxConcurrentFileChunks));
+                assertThat(pendingChunksPerFile.size(), lessThanOrEqualTo(maxConcurrentFiles));
+                pendingAcks.add(() -> {
+                    byte[] file = targetFiles.computeIfAbsent(md.name(), name -> new byte[(int) md.length()]);
+                    BytesRef bytes = content.toBytesRef();
+                    System.arraycopy(bytes.bytes, bytes.offset, file, (int) position, bytes.length);
+                    if (pendingChunksPerFile.merge(md.name(), -1, Integer::sum) == 0) {
+                        pendingChunksPerFile.remove(md.name());
+                    }
+                    listener.onResponse(null);
+                });
+            }
+            return null;
+        }).when(targetHandler).writeFileChunk(any(StoreFileMetaData.class), anyLong(), any(BytesReference.class), anyBoolean(),
+            anyInt(), any(ActionListener.class));
+        IndexShard shard = mock(IndexShard.class);
+        when(shard.state()).thenReturn(IndexShardState.RECOVERING);
+        RecoverySourceHandler handler = new RecoverySourceHandler(shard, targetHandler, request, () -> 0L, e -> () -> {},
+            randomIntBetween(16, 1024), maxConcurrentFileChunks, maxConcurrentFiles, logger);
+
+        // acknowledges chunks in random order, like a target that handles them concurrently
+        final AtomicBoolean done = new AtomicBoolean();
+        final Random ackRandom = new Random(randomLong());
+        Thread acknowledger = new Thread(() -> {
+            while (done.get() == false || pendingAcks.isEmpty() == false) {
+                synchronized (pendingAcks) {
+                    if (pendingAcks.isEmpty() == false) {
+                        pendingAcks.remove(ackRandom.nextInt(pendingAcks.size())).run();
+                    }
+                }
+                Thread.yield();
+            }
+        });
+        acknowledger.start();
+        try {
+            RecoverySourceHandler.FileChunkPipeline pipeline = handler.new FileChunkPipeline(mock(Translog.View.class));
+            handler.sendFiles(store, metas.toArray(new StoreFileMetaData[0]), pipeline::newOutputStream);
+            pipeline.awaitCompletion();
+        } finally {
+            done.set(true);
+            acknowledger.join();
+        }
+
+        assertThat(targetFiles.size(), equalTo(metas.size()));
+        for (StoreFileMetaData md : metas) {
+            byte[] expected = new byte[(int) md.length()];
+            try (IndexInput input = dir.openInput(md.name(), IOContext.READONCE)) {
+                input.readBytes(expected, 0, expected.length);
+            }
+            assertArrayEquals("file [" + md.name() + "] differs", expected, targetFiles.get(md.name()));
+        }
+        IOUtils.close(store);
+    }
+
     public void testHandleCorruptedIndexOnSendSendFiles() throws Throwable {
         Settings settings = Settings.builder().put("indices.recovery.concurrent_streams", 1).
                 put("indices.recovery.concurrent_small_file_streams", 1).build();
@@ -21,7 +21,9 @@ package org.elasticsearch.indices.recovery;
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.IndexOutput;
 import org.elasticsearch.Version;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.transport.LocalTransportAddress;
 import org.elasticsearch.common.util.set.Sets;
 import org.elasticsearch.index.IndexService;
@@ -85,4 +87,41 @@ public class RecoveryStatusTests extends ESSingleNodeTestCase {
         // we must fail the recovery because marking it as done will try to move the shard to POST_RECOVERY, which will fail because it's started
         status.fail(new RecoveryFailedException(status.state(), "end of test. OK.", null), false);
     }
+
+    public void testOutOfOrderChunksAreAcknowledgedOnceWritten() throws IOException {
+        IndexService service = createIndex("foo");
+
+        IndexShard indexShard = service.getShardOrNull(0);
+        DiscoveryNode node = new DiscoveryNode("foo", new LocalTransportAddress("bar"), emptyMap(), emptySet(), Version.CURRENT);
+        RecoveryTarget status = new RecoveryTarget(indexShard, node, new RecoveryTargetService.RecoveryListener() {
+            @Override
+            public void onRecoveryDone(RecoveryState state) {
+            }
+
+            @Override
+            public void onRecoveryFailure(RecoveryState state, RecoveryFailedException e, boolean sendShardFailure) {
+            }
+        }, version -> {});
+        StoreFileMetaData md = new StoreFileMetaData("foo.bar", 32 + CodecUtil.footerLength(), "9z51nw");
+        status.state().getIndex().addFileDetail(md.name(), md.length(), false);
+
+        PlainActionFuture<Void> second = new PlainActionFuture<>();
+        status.writeFileChunk(md, 8, new BytesArray(new byte[8]), false, 0, second);
+        // the chunk can't be written before the one preceding it so the source may not send another one yet
+        assertFalse(second.isDone());
+
+        PlainActionFuture<Void> first = new PlainActionFuture<>();
+        status.writeFileChunk(md, 0, new BytesArray(new byte[8]), false, 0, first);
+        assertTrue(first.isDone());
+        assertTrue(second.isDone());
+        assertEquals(16, status.getOpenIndexOutput(md.name()).getFilePointer());
+
+        PlainActionFuture<Void> pending = new PlainActionFuture<>();
+        status.writeFileChunk(md, 24, new BytesArray(new byte[8]), false, 0, pending);
+        assertFalse(pending.isDone());
+        // fail the recovery since the shard is already started
+        status.fail(new RecoveryFailedException(status.state(), "end of test. OK.", null), false);
+        // chunks that were never written are failed once the recovery is closed
+        expectThrows(IllegalStateException.class, pending::actionGet);
+    }
 }
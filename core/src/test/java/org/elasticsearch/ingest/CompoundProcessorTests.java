@@ -23,14 +23,18 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.test.ESTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 
 public class CompoundProcessorTests extends ESTestCase {
@@ -206,4 +210,74 @@ public class CompoundProcessorTests extends ESTestCase {
         assertThat(onFailureProcessor.getInvokedCounter(), equalTo(1));
 
     }
+
+    public void testExecuteBatch() throws Exception {
+        TestProcessor firstProcessor = new TestProcessor("id1", "first", ingestDocument -> {
+            if (ingestDocument.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+        });
+        TestProcessor secondProcessor = new TestProcessor("id2", "second",
+            ingestDocument -> ingestDocument.setFieldValue("field", "value"));
+        CompoundProcessor compoundProcessor = new CompoundProcessor(firstProcessor, secondProcessor);
+
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        int numDocs = randomIntBetween(1, 16);
+        int numFailures = 0;
+        for (int i = 0; i < numDocs; i++) {
+            IngestDocument ingestDocument = new IngestDocument(new HashMap<>(), new HashMap<>());
+            if (randomBoolean()) {
+                ingestDocument.setFieldValue("fail", true);
+                numFailures++;
+            }
+            ingestDocuments.add(ingestDocument);
+        }
+        Exception[] failures = compoundProcessor.executeBatch(ingestDocuments);
+        assertThat(failures.length, equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            IngestDocument ingestDocument = ingestDocuments.get(i);
+            if (ingestDocument.hasField("fail")) {
+                assertThat(failures[i], instanceOf(ElasticsearchException.class));
+                assertThat(((ElasticsearchException) failures[i]).getRootCause().getMessage(), equalTo("error"));
+                assertThat(((ElasticsearchException) failures[i]).getHeader("processor_tag"), equalTo(Collections.singletonList("id1")));
+                assertThat(ingestDocument.hasField("field"), is(false));
+            } else {
+                assertThat(failures[i], nullValue());
+                assertThat(ingestDocument.getFieldValue("field", String.class), equalTo("value"));
+            }
+        }
+        assertThat(firstProcessor.getInvokedCounter(), equalTo(numDocs));
+        assertThat(secondProcessor.getInvokedCounter(), equalTo(numDocs - numFailures));
+    }
+
+    public void testExecuteBatchWithOnFailureProcessor() throws Exception {
+        TestProcessor processor = new TestProcessor("id", "first", ingestDocument -> {
+            if (ingestDocument.hasField("fail")) {
+                throw new RuntimeException("error");
+            }
+        });
+        TestProcessor onFailureProcessor = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.hasField("fail_on_failure")) {
+                throw new RuntimeException("on_failure_error");
+            }
+            ingestDocument.setFieldValue("failure", ingestDocument.getIngestMetadata().get(CompoundProcessor.ON_FAILURE_MESSAGE_FIELD));
+        });
+        CompoundProcessor compoundProcessor = new CompoundProcessor(false, Collections.singletonList(processor),
+            Collections.singletonList(onFailureProcessor));
+
+        IngestDocument succeeding = new IngestDocument(new HashMap<>(), new HashMap<>());
+        IngestDocument handled = new IngestDocument(new HashMap<>(), new HashMap<>());
+        handled.setFieldValue("fail", true);
+        IngestDocument failing = new IngestDocument(new HashMap<>(), new HashMap<>());
+        failing.setFieldValue("fail", true);
+        failing.setFieldValue("fail_on_failure", true);
+
+        Exception[] failures = compoundProcessor.executeBatch(Arrays.asList(succeeding, handled, failing));
+        assertThat(failures[0], nullValue());
+        assertThat(failures[1], nullValue());
+        assertThat(handled.getFieldValue("failure", String.class), equalTo("error"));
+        assertThat(((ElasticsearchException) failures[2]).getRootCause().getMessage(), equalTo("on_failure_error"));
+        assertThat(processor.getInvokedCounter(), equalTo(3));
+        assertThat(onFailureProcessor.getInvokedCounter(), equalTo(2));
+    }
 }
@@ -19,12 +19,15 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public class IngestStatsTests extends ESTestCase {
@@ -59,10 +62,54 @@ public class IngestStatsTests extends ESTestCase {
         assertEquals(leftStats.getIngestCurrent(), rightStats.getIngestCurrent());
     }
 
+    public void testSerializationWithProcessorStats() throws IOException {
+        IngestStats.Stats total = new IngestStats.Stats(5, 10, 20, 30);
+        List<IngestStats.PatternStats> patternStats = Arrays.asList(new IngestStats.PatternStats("%{WORD:a}", 3, 4),
+            new IngestStats.PatternStats("%{NUMBER:b}", 0, 7));
+        IngestStats.ProcessorStats processorStats = new IngestStats.ProcessorStats("grok", randomBoolean() ? null : "tag",
+            patternStats);
+        IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", total),
+            Collections.singletonMap("foo", Collections.singletonList(processorStats)));
+        IngestStats serialize = serialize(ingestStats);
+
+        assertEquals(1, serialize.getProcessorStatsPerPipeline().size());
+        List<IngestStats.ProcessorStats> processors = serialize.getProcessorStatsPerPipeline().get("foo");
+        assertEquals(1, processors.size());
+        assertEquals(processorStats.getType(), processors.get(0).getType());
+        assertEquals(processorStats.getTag(), processors.get(0).getTag());
+        assertEquals(2, processors.get(0).getPatternStats().size());
+        for (int i = 0; i < patternStats.size(); i++) {
+            IngestStats.PatternStats left = patternStats.get(i);
+            IngestStats.PatternStats right = processors.get(0).getPatternStats().get(i);
+            assertEquals(left.getPattern(), right.getPattern());
+            assertEquals(left.getMatchCount(), right.getMatchCount());
+            assertEquals(left.getMissCount(), right.getMissCount());
+        }
+    }
+
+    public void testProcessorStatsAreNotSentToOlderNodes() throws IOException {
+        IngestStats.Stats total = new IngestStats.Stats(5, 10, 20, 30);
+        IngestStats.ProcessorStats processorStats = new IngestStats.ProcessorStats("grok", null,
+            Collections.singletonList(new IngestStats.PatternStats("%{WORD:a}", 3, 4)));
+        IngestStats ingestStats = new IngestStats(total, Collections.singletonMap("foo", total),
+            Collections.singletonMap("foo", Collections.singletonList(processorStats)));
+        IngestStats serialize = serialize(ingestStats, Version.V_5_0_0_alpha5);
+
+        assertEquals(total.getIngestCount(), serialize.getTotalStats().getIngestCount());
+        assertEquals(1, serialize.getStatsPerPipeline().size());
+        assertTrue(serialize.getProcessorStatsPerPipeline().isEmpty());
+    }
+
     private IngestStats serialize(IngestStats stats) throws IOException {
+        return serialize(stats, Version.CURRENT);
+    }
+
+    private IngestStats serialize(IngestStats stats, Version version) throws IOException {
         BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
         stats.writeTo(out);
         StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
         return new IngestStats(in);
     }
 }
@@ -27,24 +27,35 @@ import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.hamcrest.CustomTypeSafeMatcher;
 import org.junit.Before;
 import org.mockito.ArgumentMatcher;
 import org.mockito.invocation.InvocationOnMock;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
@@ -68,7 +79,7 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         store = mock(PipelineStore.class);
         ThreadPool threadPool = mock(ThreadPool.class);
         when(threadPool.executor(anyString())).thenReturn(Runnable::run);
-        executionService = new PipelineExecutionService(store, threadPool);
+        executionService = new PipelineExecutionService(Settings.EMPTY, store, threadPool);
     }
 
     public void testExecuteIndexPipelineDoesNotExist() {
@@ -333,7 +344,11 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         CompoundProcessor processor = mock(CompoundProcessor.class);
         when(processor.getProcessors()).thenReturn(Collections.singletonList(mock(Processor.class)));
         Exception error = new RuntimeException();
-        doThrow(error).when(processor).execute(any());
+        doAnswer(invocationOnMock -> {
+            Exception[] failures = new Exception[((List<?>) invocationOnMock.getArguments()[0]).size()];
+            Arrays.fill(failures, error);
+            return failures;
+        }).when(processor).executeBatch(any());
         when(store.get(pipelineId)).thenReturn(new Pipeline(pipelineId, null, processor));
 
         BiConsumer<IndexRequest, Exception> requestItemErrorHandler = mock(BiConsumer.class);
@@ -367,6 +382,116 @@ public class PipelineExecutionServiceTests extends ESTestCase {
         verify(completionHandler, times(1)).accept(null);
     }
 
+    public void testBulkRequestExecutionPerPipeline() throws Exception {
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = scaledRandomIntBetween(8, 64);
+        int numFailures = 0;
+        for (int i = 0; i < numRequest; i++) {
+            IndexRequest indexRequest = new IndexRequest("_index", "_type", "_id").setPipeline(randomFrom("_id1", "_id2"));
+            boolean fail = randomBoolean();
+            numFailures += fail ? 1 : 0;
+            indexRequest.source("fail", fail);
+            bulkRequest.add(indexRequest);
+        }
+
+        Processor processor1 = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.getFieldValue("fail", Boolean.class)) {
+                throw new IllegalArgumentException("error");
+            }
+            ingestDocument.setFieldValue("pipeline", "_id1");
+        });
+        Processor processor2 = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.getFieldValue("fail", Boolean.class)) {
+                throw new IllegalArgumentException("error");
+            }
+            ingestDocument.setFieldValue("pipeline", "_id2");
+        });
+        when(store.get("_id1")).thenReturn(new Pipeline("_id1", null, new CompoundProcessor(processor1)));
+        when(store.get("_id2")).thenReturn(new Pipeline("_id2", null, new CompoundProcessor(processor2)));
+        Map<String, PipelineConfiguration> configurationMap = new HashMap<>();
+        configurationMap.put("_id1", new PipelineConfiguration("_id1", new BytesArray("{}")));
+        configurationMap.put("_id2", new PipelineConfiguration("_id2", new BytesArray("{}")));
+        executionService.updatePipelineStats(new IngestMetadata(configurationMap));
+
+        List<IndexRequest> failedRequests = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        Consumer<Exception> completionHandler = mock(Consumer.class);
+        executionService.executeBulkRequest(bulkRequest.requests(), (indexRequest, e) -> failedRequests.add(indexRequest),
+            completionHandler);
+
+        assertThat(failedRequests.size(), equalTo(numFailures));
+        for (ActionRequest<?> actionRequest : bulkRequest.requests()) {
+            IndexRequest indexRequest = (IndexRequest) actionRequest;
+            if (failedRequests.contains(indexRequest)) {
+                assertThat(indexRequest.getPipeline(), notNullValue());
+            } else {
+                assertThat(indexRequest.getPipeline(), nullValue());
+                assertThat(indexRequest.sourceAsMap().get("pipeline"), notNullValue());
+            }
+        }
+        IngestStats ingestStats = executionService.stats();
+        assertThat(ingestStats.getTotalStats().getIngestCount(), equalTo((long) numRequest));
+        assertThat(ingestStats.getTotalStats().getIngestCurrent(), equalTo(0L));
+        assertThat(ingestStats.getTotalStats().getIngestFailedCount(), equalTo((long) numFailures));
+        assertThat(ingestStats.getStatsPerPipeline().get("_id1").getIngestCount()
+            + ingestStats.getStatsPerPipeline().get("_id2").getIngestCount(), equalTo((long) numRequest));
+        verify(completionHandler, times(1)).accept(null);
+    }
+
+    public void testConcurrentBulkRequestExecution() throws Exception {
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = scaledRandomIntBetween(8, 256);
+        int numFailures = 0;
+        for (int i = 0; i < numRequest; i++) {
+            if (rarely()) {
+                bulkRequest.add(new DeleteRequest("_index", "_type", "_id"));
+                continue;
+            }
+            IndexRequest indexRequest = new IndexRequest("_index", "_type", String.valueOf(i)).setPipeline("_id");
+            boolean fail = randomBoolean();
+            numFailures += fail ? 1 : 0;
+            indexRequest.source("fail", fail);
+            bulkRequest.add(indexRequest);
+        }
+        Processor processor = new TestProcessor(ingestDocument -> {
+            if (ingestDocument.getFieldValue("fail", Boolean.class)) {
+                throw new IllegalArgumentException("error");
+            }
+            ingestDocument.setFieldValue("processed", true);
+        });
+        when(store.get("_id")).thenReturn(new Pipeline("_id", null, new CompoundProcessor(processor)));
+
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        try {
+            Settings settings = Settings.builder()
+                .put(PipelineExecutionService.BULK_CONCURRENCY_SETTING.getKey(), randomIntBetween(2, 8))
+                .build();
+            PipelineExecutionService concurrentExecutionService = new PipelineExecutionService(settings, store, threadPool);
+            Set<IndexRequest> failedRequests = ConcurrentCollections.newConcurrentSet();
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicReference<Exception> completionFailure = new AtomicReference<>();
+            concurrentExecutionService.executeBulkRequest(bulkRequest.requests(), (indexRequest, e) -> failedRequests.add(indexRequest),
+                e -> {
+                    completionFailure.set(e);
+                    latch.countDown();
+                });
+            latch.await();
+
+            assertThat(completionFailure.get(), nullValue());
+            assertThat(failedRequests.size(), equalTo(numFailures));
+            for (ActionRequest<?> actionRequest : bulkRequest.requests()) {
+                if (actionRequest instanceof IndexRequest) {
+                    IndexRequest indexRequest = (IndexRequest) actionRequest;
+                    boolean fail = (Boolean) indexRequest.sourceAsMap().get("fail");
+                    assertThat(failedRequests.contains(indexRequest), equalTo(fail));
+                    assertThat(indexRequest.sourceAsMap().containsKey("processed"), equalTo(fail == false));
+                }
+            }
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
     public void testStats() throws Exception {
         IngestStats ingestStats = executionService.stats();
         assertThat(ingestStats.getStatsPerPipeline().size(), equalTo(0));
@@ -0,0 +1,171 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.node;
+
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.ResponseCollectorService.ComputedNodeStats;
+import org.elasticsearch.test.ClusterServiceUtils;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ResponseCollectorServiceTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+    private ClusterService clusterService;
+    private ResponseCollectorService collector;
+
+    @Before
+    public void setUpCollector() {
+        threadPool = new TestThreadPool("response_collector_tests");
+        clusterService = ClusterServiceUtils.createClusterService(threadPool);
+        collector = new ResponseCollectorService(Settings.EMPTY, clusterService);
+    }
+
+    @After
+    public void tearDownCollector() throws Exception {
+        IOUtils.close(clusterService);
+        terminate(threadPool);
+    }
+
+    public void testNodeStats() {
+        assertFalse(collector.getNodeStatistics("node_0").isPresent());
+        collector.addNodeStatistics("node_0", 4, 1000, 200);
+        ComputedNodeStats stats = collector.getNodeStatistics("node_0").get();
+        assertThat(stats.getNodeId(), equalTo("node_0"));
+        // the first response initializes the averages
+        assertThat(stats.getQueueSize(), equalTo(4.0));
+        assertThat(stats.getResponseTime(), equalTo(1000.0));
+        assertThat(stats.getServiceTime(), equalTo(200.0));
+
+        collector.addNodeStatistics("node_0", 14, 2000, 1200);
+        stats = collector.getNodeStatistics("node_0").get();
+        assertEquals(7.0, stats.getQueueSize(), 0.0001);
+        assertEquals(1300.0, stats.getResponseTime(), 0.0001);
+        assertEquals(500.0, stats.getServiceTime(), 0.0001);
+    }
+
+    public void testOutstandingRequests() {
+        collector.onRequestSent("node_0");
+        collector.onRequestSent("node_0");
+        collector.onRequestSent("node_1");
+        // outstanding requests alone don't make statistics
+        assertFalse(collector.getNodeStatistics("node_0").isPresent());
+
+        collector.onResponseReceived("node_0", 1, 1000, 500);
+        assertThat(collector.getNodeStatistics("node_0").get().getOutstandingRequests(), equalTo(1L));
+        collector.onRequestCompleted("node_0");
+        assertThat(collector.getNodeStatistics("node_0").get().getOutstandingRequests(), equalTo(0L));
+        // completions of requests sent before the node was forgotten don't go negative
+        collector.onRequestCompleted("node_0");
+        assertThat(collector.getNodeStatistics("node_0").get().getOutstandingRequests(), equalTo(0L));
+
+        collector.onResponseReceived("node_1", 1, 1000, 500);
+        assertThat(collector.getNodeStatistics("node_1").get().getOutstandingRequests(), equalTo(0L));
+    }
+
+    public void testRank() {
+        collector.addNodeStatistics("node_0", 0, 2_000_000, 1_000_000);
+        collector.addNodeStatistics("node_1", 10, 2_000_000, 1_000_000);
+        collector.addNodeStatistics("node_2", 0, 20_000_000, 1_000_000);
+        final double rank0 = collector.getNodeStatistics("node_0").get().rank();
+        // longer queues rank worse
+        assertThat(collector.getNodeStatistics("node_1").get().rank(), greaterThan(rank0));
+        // slower responses rank worse
+        assertThat(collector.getNodeStatistics("node_2").get().rank(), greaterThan(rank0));
+        // and so do outstanding requests
+        assertThat(collector.getNodeStatistics("node_0").get().rank(1), greaterThan(rank0));
+        collector.onRequestSent("node_0");
+        assertThat(collector.getNodeStatistics("node_0").get().rank(), greaterThan(rank0));
+    }
+
+    public void testSkippedNodeMovesTowardsSelectedNode() {
+        collector.addNodeStatistics("node_0", 0, 1_000_000, 500_000);
+        collector.addNodeStatistics("node_1", 20, 50_000_000, 5_000_000);
+        final double rank1 = collector.getNodeStatistics("node_1").get().rank();
+        collector.onNodeSkipped("node_1", "node_0");
+        ComputedNodeStats stats = collector.getNodeStatistics("node_1").get();
+        assertThat(stats.getQueueSize(), lessThan(20.0));
+        assertThat(stats.getResponseTime(), lessThan(50_000_000.0));
+        assertThat(stats.getServiceTime(), lessThan(5_000_000.0));
+        assertThat(stats.rank(), lessThan(rank1));
+        // the selected node is not affected, and nodes without statistics don't get any
+        assertThat(collector.getNodeStatistics("node_0").get().getResponseTime(), equalTo(1_000_000.0));
+        collector.onNodeSkipped("node_2", "node_0");
+        assertFalse(collector.getNodeStatistics("node_2").isPresent());
+    }
+
+    public void testForgetsRemovedNodes() {
+        ClusterState state = ClusterStateCreationUtils.stateWithAssignedPrimariesAndOneReplica("test", 1);
+        ClusterServiceUtils.setState(clusterService, state);
+        collector.addNodeStatistics("node_0", 1, 1000, 500);
+        collector.addNodeStatistics("node_2", 1, 1000, 500);
+        ClusterServiceUtils.setState(clusterService, ClusterState.builder(state)
+            .nodes(DiscoveryNodes.builder(state.nodes()).remove("node_2")));
+        assertTrue(collector.getNodeStatistics("node_0").isPresent());
+        assertFalse(collector.getNodeStatistics("node_2").isPresent());
+        assertThat(collector.getAllNodeStatistics().keySet().size(), equalTo(1));
+    }
+
+    public void testSerialization() throws Exception {
+        final int numNodes = randomIntBetween(0, 5);
+        for (int i = 0; i < numNodes; i++) {
+            collector.addNodeStatistics("node_" + i, randomIntBetween(0, 100), randomIntBetween(0, 1_000_000),
+                randomIntBetween(0, 1_000_000));
+            if (randomBoolean()) {
+                collector.onRequestSent("node_" + i);
+            }
+        }
+        final AdaptiveSelectionStats stats = collector.getAdaptiveStats();
+        final AdaptiveSelectionStats deserialized;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                deserialized = new AdaptiveSelectionStats(in);
+            }
+        }
+        assertThat(deserialized.getComputedStats().size(), equalTo(numNodes));
+        for (Map.Entry<String, ComputedNodeStats> entry : stats.getComputedStats().entrySet()) {
+            ComputedNodeStats expected = entry.getValue();
+            ComputedNodeStats actual = deserialized.getComputedStats().get(entry.getKey());
+            assertThat(actual.getNodeId(), equalTo(expected.getNodeId()));
+            assertThat(actual.getOutstandingRequests(), equalTo(expected.getOutstandingRequests()));
+            assertThat(actual.getQueueSize(), equalTo(expected.getQueueSize()));
+            assertThat(actual.getResponseTime(), equalTo(expected.getResponseTime()));
+            assertThat(actual.getServiceTime(), equalTo(expected.getServiceTime()));
+            assertThat(actual.rank(), equalTo(expected.rank()));
+        }
+    }
+}
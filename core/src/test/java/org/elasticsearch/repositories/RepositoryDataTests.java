@@ -122,6 +122,25 @@ public class RepositoryDataTests extends ESTestCase {
         }
     }
 
+    public void testIndicesOnlyReferencedBy() {
+        RepositoryData repositoryData = generateRandomRepoData();
+        List<SnapshotId> snapshotIds = repositoryData.getSnapshotIds();
+        SnapshotId snapshotId = snapshotIds.get(randomIntBetween(0, snapshotIds.size() - 1));
+        Set<IndexId> unreferencedIndices = repositoryData.getIndicesOnlyReferencedBy(snapshotId);
+        RepositoryData newRepositoryData = repositoryData.removeSnapshot(snapshotId);
+        // the indices referenced by the snapshot only are exactly the ones the removal drops
+        for (final IndexId indexId : repositoryData.getIndices().values()) {
+            assertEquals(unreferencedIndices.contains(indexId), newRepositoryData.getIndices().containsValue(indexId) == false);
+        }
+        // a new snapshot of an index adds a reference to it
+        if (unreferencedIndices.isEmpty() == false) {
+            IndexId indexId = unreferencedIndices.iterator().next();
+            SnapshotId newSnapshot = new SnapshotId(randomAsciiOfLength(7), UUIDs.randomBase64UUID());
+            RepositoryData withNewSnapshot = repositoryData.addSnapshot(newSnapshot, Collections.singletonList(indexId));
+            assertFalse(withNewSnapshot.getIndicesOnlyReferencedBy(snapshotId).contains(indexId));
+        }
+    }
+
     public void testResolveIndexId() {
         RepositoryData repositoryData = generateRandomRepoData();
         Map<String, IndexId> indices = repositoryData.getIndices();
@@ -19,9 +19,12 @@
 
 package org.elasticsearch.repositories.blobstore;
 
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.admin.cluster.repositories.put.PutRepositoryResponse;
 import org.elasticsearch.action.admin.cluster.snapshots.create.CreateSnapshotResponse;
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -29,12 +32,15 @@ import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.RepositoryException;
 import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.snapshots.SnapshotState;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
@@ -46,6 +52,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.repositories.RepositoryDataTests.generateRandomRepoData;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 
 /**
@@ -107,6 +115,68 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
         assertThat(snapshotIds, equalTo(originalSnapshots));
     }
 
+    public void testSnapshotAndRestoreWithConcurrentTransfers() throws Exception {
+        final Client client = client();
+        final Path location = ESIntegTestCase.randomRepoPath(node().settings());
+        final String repositoryName = "test-repo";
+
+        logger.info("-->  creating repository");
+        PutRepositoryResponse putRepositoryResponse =
+            client.admin().cluster().preparePutRepository(repositoryName)
+                                    .setType("fs")
+                                    .setSettings(Settings.builder().put(node().settings()).put("location", location)
+                                        .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)
+                                        .put("max_concurrent_transfers", randomIntBetween(2, 8)))
+                                    .get();
+        assertThat(putRepositoryResponse.isAcknowledged(), equalTo(true));
+
+        logger.info("--> creating an index and indexing documents");
+        final String indexName = "test-idx";
+        createIndex(indexName, Settings.builder().put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).build());
+        ensureGreen();
+        int numDocs = randomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            String id = Integer.toString(i);
+            client().prepareIndex(indexName, "type1", id).setSource("text", randomAsciiOfLength(randomIntBetween(10, 100))).get();
+            if (rarely()) {
+                client().admin().indices().prepareFlush(indexName).get();
+            }
+        }
+        client().admin().indices().prepareFlush(indexName).setWaitIfOngoing(true).get();
+
+        logger.info("--> snapshot");
+        CreateSnapshotResponse createSnapshotResponse = client.admin()
+                                                              .cluster()
+                                                              .prepareCreateSnapshot(repositoryName, "test-snap")
+                                                              .setWaitForCompletion(true)
+                                                              .setIndices(indexName)
+                                                              .get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+        assertThat(createSnapshotResponse.getSnapshotInfo().failedShards(), equalTo(0));
+
+        logger.info("--> delete the index and restore it");
+        client.admin().indices().prepareDelete(indexName).get();
+        RestoreSnapshotResponse restoreSnapshotResponse = client.admin()
+                                                                .cluster()
+                                                                .prepareRestoreSnapshot(repositoryName, "test-snap")
+                                                                .setWaitForCompletion(true)
+                                                                .get();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().failedShards(), equalTo(0));
+        ensureGreen();
+        assertHitCount(client.prepareSearch(indexName).setSize(0).get(), numDocs);
+    }
+
+    public void testInvalidMaxConcurrentTransfers() throws Exception {
+        final Path location = ESIntegTestCase.randomRepoPath(node().settings());
+        Exception e = expectThrows(RepositoryException.class, () ->
+            client().admin().cluster().preparePutRepository("test-repo")
+                                      .setType("fs")
+                                      .setSettings(Settings.builder().put(node().settings()).put("location", location)
+                                          .put("max_concurrent_transfers", 0))
+                                      .get());
+        assertThat(ExceptionsHelper.detailedMessage(e), containsString("max_concurrent_transfers must be at least 1 but was [0]"));
+    }
+
     public void testReadAndWriteSnapshotsThroughIndexFile() throws Exception {
         final BlobStoreRepository repository = setupRepo();
 
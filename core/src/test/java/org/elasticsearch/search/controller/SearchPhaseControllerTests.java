@@ -26,7 +26,14 @@ import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.bucket.terms.LongTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.max.InternalMax;
 import org.elasticsearch.search.fetch.FetchSearchResult;
 import org.elasticsearch.search.fetch.FetchSearchResultProvider;
 import org.elasticsearch.search.internal.InternalSearchHit;
@@ -48,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.elasticsearch.search.controller.SearchPhaseController.EMPTY_DOCS;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
@@ -118,6 +126,92 @@ public class SearchPhaseControllerTests extends ESTestCase {
         }
     }
 
+    public void testBatchedAggregationsReduce() throws IOException {
+        int nShards = randomIntBetween(1, 100);
+        int batchedReduceSize = randomIntBetween(2, 10);
+        int numTerms = randomIntBetween(1, 20);
+        long[][] docCounts = new long[nShards][numTerms];
+        double[] maxValues = new double[nShards];
+        for (int shardIndex = 0; shardIndex < nShards; shardIndex++) {
+            maxValues[shardIndex] = randomDouble();
+            for (int term = 0; term < numTerms; term++) {
+                docCounts[shardIndex][term] = randomIntBetween(0, 3);
+            }
+        }
+        // terms that only reach min_doc_count once shards are combined must survive the partial reduces
+        final long minDocCount = randomIntBetween(1, 4);
+        final int requiredSize = randomIntBetween(1, numTerms);
+
+        AtomicArray<QuerySearchResultProvider> queryResults = new AtomicArray<>(nShards);
+        BatchedAggregationsReducer reducer = new BatchedAggregationsReducer(
+            isFinal -> new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, null, isFinal), batchedReduceSize, nShards, true);
+        List<InternalAggregations> expectedInput = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < nShards; shardIndex++) {
+            QuerySearchResult result = new QuerySearchResult(shardIndex, new SearchShardTarget("", new Index("", ""), shardIndex));
+            result.topDocs(new TopDocs(0, new ScoreDoc[0], 0), null);
+            result.aggregations(shardAggregations(maxValues[shardIndex], docCounts[shardIndex], minDocCount, requiredSize));
+            expectedInput.add(shardAggregations(maxValues[shardIndex], docCounts[shardIndex], minDocCount, requiredSize));
+            queryResults.set(shardIndex, result);
+            reducer.consume(shardIndex, result);
+            assertNull("consumed aggregations should be released", result.aggregations());
+        }
+        InternalAggregations expected = InternalAggregations.reduce(expectedInput,
+            new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, null));
+
+        InternalSearchResponse response = searchPhaseController.merge(true, EMPTY_DOCS, queryResults, new AtomicArray<>(nShards),
+            reducer);
+        int expectedReducePhases = 1 + (nShards < batchedReduceSize ? 0 : 1 + (nShards - batchedReduceSize) / (batchedReduceSize - 1));
+        assertEquals(expectedReducePhases, response.getNumReducePhases());
+
+        InternalMax max = response.aggregations().get("max");
+        assertEquals(((InternalMax) expected.get("max")).getValue(), max.getValue(), 0d);
+        LongTerms terms = response.aggregations().get("terms");
+        LongTerms expectedTerms = expected.get("terms");
+        assertEquals(expectedTerms.getBuckets().size(), terms.getBuckets().size());
+        for (int i = 0; i < terms.getBuckets().size(); i++) {
+            assertEquals(expectedTerms.getBuckets().get(i).getKey(), terms.getBuckets().get(i).getKey());
+            assertEquals(expectedTerms.getBuckets().get(i).getDocCount(), terms.getBuckets().get(i).getDocCount());
+        }
+    }
+
+    public void testBatchedAggregationsReduceKeepsScrollResults() throws IOException {
+        int nShards = randomIntBetween(2, 10);
+        AtomicArray<QuerySearchResultProvider> queryResults = new AtomicArray<>(nShards);
+        BatchedAggregationsReducer reducer = new BatchedAggregationsReducer(
+            isFinal -> new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, null, isFinal), 2, nShards, false);
+        double expectedMax = Double.NEGATIVE_INFINITY;
+        for (int shardIndex = 0; shardIndex < nShards; shardIndex++) {
+            QuerySearchResult result = new QuerySearchResult(shardIndex, new SearchShardTarget("", new Index("", ""), shardIndex));
+            result.topDocs(new TopDocs(0, new ScoreDoc[0], 0), null);
+            double value = randomDouble();
+            expectedMax = Math.max(expectedMax, value);
+            result.aggregations(new InternalAggregations(Collections.singletonList(
+                new InternalMax("max", value, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap()))));
+            queryResults.set(shardIndex, result);
+            reducer.consume(shardIndex, result);
+            assertNotNull(result.aggregations());
+        }
+        InternalSearchResponse response = searchPhaseController.merge(true, EMPTY_DOCS, queryResults, new AtomicArray<>(nShards),
+            reducer);
+        assertEquals(nShards, response.getNumReducePhases());
+        InternalMax max = response.aggregations().get("max");
+        assertEquals(expectedMax, max.getValue(), 0d);
+    }
+
+    private static InternalAggregations shardAggregations(double maxValue, long[] docCounts, long minDocCount, int requiredSize) {
+        List<LongTerms.Bucket> buckets = new ArrayList<>();
+        for (int term = 0; term < docCounts.length; term++) {
+            if (docCounts[term] > 0) {
+                buckets.add(new LongTerms.Bucket(term, docCounts[term], InternalAggregations.EMPTY, false, 0, DocValueFormat.RAW));
+            }
+        }
+        List<InternalAggregation> aggregations = new ArrayList<>();
+        aggregations.add(new InternalMax("max", maxValue, DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap()));
+        aggregations.add(new LongTerms("terms", Terms.Order.term(true), requiredSize, minDocCount, Collections.emptyList(),
+            Collections.emptyMap(), DocValueFormat.RAW, docCounts.length, false, 0, buckets, 0));
+        return new InternalAggregations(aggregations);
+    }
+
     private AtomicArray<QuerySearchResultProvider> generateQueryResults(int nShards,
                                                                         List<CompletionSuggestion> suggestions,
                                                                         int searchHitsSize) {
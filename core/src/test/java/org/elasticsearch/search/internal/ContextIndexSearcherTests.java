@@ -0,0 +1,157 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ContextIndexSearcherTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+    private Directory dir;
+    private DirectoryReader reader;
+
+    @Before
+    public void setUpIndex() throws IOException {
+        threadPool = new TestThreadPool(getTestName());
+        dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+        final int numSegments = randomIntBetween(1, 10);
+        for (int i = 0; i < numSegments; i++) {
+            final int numDocs = randomIntBetween(1, 100);
+            for (int j = 0; j < numDocs; j++) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomFrom("bar", "baz"), Store.NO));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        reader = DirectoryReader.open(w);
+        w.close();
+    }
+
+    @After
+    public void tearDownIndex() throws IOException {
+        reader.close();
+        dir.close();
+        ThreadPool.terminate(threadPool, 10, TimeUnit.SECONDS);
+    }
+
+    private ContextIndexSearcher newSearcher() {
+        Engine.Searcher engineSearcher = new Engine.Searcher("test", new IndexSearcher(reader));
+        return new ContextIndexSearcher(engineSearcher, null, IndexSearcher.getDefaultQueryCachingPolicy());
+    }
+
+    public void testSlices() {
+        List<LeafReaderContext> leaves = reader.leaves();
+        final int maxSlices = randomIntBetween(1, 12);
+        final int minDocsPerSlice = randomIntBetween(1, 200);
+        List<List<LeafReaderContext>> slices = ContextIndexSearcher.slices(leaves, maxSlices, minDocsPerSlice);
+        if (slices == null) {
+            return;
+        }
+        assertTrue(slices.size() > 1);
+        assertTrue(slices.size() <= maxSlices);
+        assertTrue(reader.maxDoc() / slices.size() >= minDocsPerSlice);
+        List<LeafReaderContext> concatenated = new ArrayList<>();
+        for (List<LeafReaderContext> slice : slices) {
+            assertFalse(slice.isEmpty());
+            concatenated.addAll(slice);
+        }
+        // slices hold consecutive leaves
+        assertEquals(leaves, concatenated);
+    }
+
+    public void testSingleLeafIsNotSliced() {
+        assertNull(ContextIndexSearcher.slices(reader.leaves().subList(0, 1), 8, 1));
+    }
+
+    public void testSearchSlices() throws IOException {
+        ContextIndexSearcher searcher = newSearcher();
+        assertEquals(1, searcher.getSliceCount());
+        searcher.setSliceExecutor(threadPool.executor(ThreadPool.Names.SEARCH_WORKER), randomIntBetween(1, 8), 1);
+        assertTrue(searcher.getSliceCount() <= reader.leaves().size());
+
+        Query query = randomBoolean() ? new MatchAllDocsQuery() : new TermQuery(new Term("foo", "bar"));
+        List<TotalHitCountCollector> collectors = new ArrayList<>();
+        for (int i = 0; i < searcher.getSliceCount(); i++) {
+            collectors.add(new TotalHitCountCollector());
+        }
+        searcher.searchSlices(query, collectors);
+        int totalHits = 0;
+        for (TotalHitCountCollector collector : collectors) {
+            totalHits += collector.getTotalHits();
+        }
+        assertEquals(new IndexSearcher(reader).count(query), totalHits);
+
+        expectThrows(IllegalArgumentException.class, () -> searcher.searchSlices(query, new ArrayList<>()));
+    }
+
+    public void testSearchSlicesRethrowsFailures() throws IOException {
+        ContextIndexSearcher searcher = newSearcher();
+        searcher.setSliceExecutor(threadPool.executor(ThreadPool.Names.SEARCH_WORKER), 8, 1);
+        final int failingSlice = randomIntBetween(0, searcher.getSliceCount() - 1);
+        List<SimpleCollector> collectors = new ArrayList<>();
+        for (int i = 0; i < searcher.getSliceCount(); i++) {
+            final boolean fail = i == failingSlice;
+            collectors.add(new SimpleCollector() {
+                @Override
+                public void collect(int doc) throws IOException {
+                    if (fail) {
+                        throw new IllegalStateException("boom");
+                    }
+                }
+
+                @Override
+                public boolean needsScores() {
+                    return false;
+                }
+            });
+        }
+        IllegalStateException e = expectThrows(IllegalStateException.class,
+                () -> searcher.searchSlices(new MatchAllDocsQuery(), collectors));
+        assertEquals("boom", e.getMessage());
+    }
+}
@@ -25,8 +25,11 @@ import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.health.ClusterHealthStatus;
+import org.elasticsearch.cluster.routing.OperationRouting;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.node.AdaptiveSelectionStats;
+import org.elasticsearch.node.ResponseCollectorService.ComputedNodeStats;
 import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESIntegTestCase;
 
@@ -215,6 +218,38 @@ public class SearchPreferenceIT extends ESIntegTestCase {
         assertSearchOnRandomNodes(request);
     }
 
+    public void testAdaptiveReplicaSelection() throws Exception {
+        assertAcked(prepareCreate("test").setSettings(Settings.builder().put("index.number_of_shards", 1)
+            .put("index.number_of_replicas", cluster().numDataNodes() - 1)));
+        ensureGreen();
+        for (int i = 0; i < 10; i++) {
+            client().prepareIndex("test", "type1", "" + i).setSource("field1", "value1").get();
+        }
+        refresh();
+        assertAcked(client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+            .put(OperationRouting.USE_ADAPTIVE_REPLICA_SELECTION_SETTING.getKey(), true)));
+        try {
+            final String coordinatingNode = randomFrom(internalCluster().getNodeNames());
+            final Client client = internalCluster().client(coordinatingNode);
+            for (int i = 0; i < 10; i++) {
+                SearchResponse searchResponse = client.prepareSearch("test").setQuery(matchAllQuery()).get();
+                assertThat(searchResponse.getHits().totalHits(), equalTo(10L));
+            }
+            NodesStatsResponse nodesStats = client().admin().cluster().prepareNodesStats(coordinatingNode).clear()
+                .setAdaptiveSelection(true).get();
+            AdaptiveSelectionStats adaptiveStats = nodesStats.getNodes().get(0).getAdaptiveSelectionStats();
+            assertNotNull(adaptiveStats);
+            assertThat(adaptiveStats.getComputedStats().size(), greaterThan(0));
+            for (ComputedNodeStats stats : adaptiveStats.getComputedStats().values()) {
+                assertThat(stats.getOutstandingRequests(), equalTo(0L));
+                assertThat(stats.getResponseTime(), greaterThan(0.0));
+            }
+        } finally {
+            assertAcked(client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .putNull(OperationRouting.USE_ADAPTIVE_REPLICA_SELECTION_SETTING.getKey())));
+        }
+    }
+
     private void assertSearchOnRandomNodes(SearchRequestBuilder request) {
         Set<String> hitNodes = new HashSet<>();
         for (int i = 0; i < 2; i++) {
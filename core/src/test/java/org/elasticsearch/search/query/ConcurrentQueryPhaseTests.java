@@ -0,0 +1,148 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.avg.Avg;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+import org.elasticsearch.test.InternalSettingsPlugin;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.threadpool.ThreadPoolStats;
+
+import java.util.Collection;
+
+import static org.elasticsearch.index.query.QueryBuilders.matchQuery;
+import static org.elasticsearch.index.query.QueryBuilders.rangeQuery;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.histogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class ConcurrentQueryPhaseTests extends ESSingleNodeTestCase {
+
+    @Override
+    protected Collection<Class<? extends Plugin>> getPlugins() {
+        return pluginList(InternalSettingsPlugin.class);
+    }
+
+    @Override
+    protected Settings nodeSettings() {
+        return Settings.builder().put("thread_pool.search_worker.size", 4).build();
+    }
+
+    public void testSameResultsAsSequentialExecution() throws Exception {
+        createIndex("test", Settings.builder()
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+                .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                .put(IndexSettings.INDEX_SEARCH_CONCURRENT_SEGMENTS_MIN_DOCS_PER_SLICE_SETTING.getKey(), 1)
+                .build(), "type", "tag", "type=keyword", "value", "type=long", "body", "type=text");
+        final int numSegments = randomIntBetween(2, 6);
+        int id = 0;
+        for (int i = 0; i < numSegments; i++) {
+            final int numDocs = randomIntBetween(10, 50);
+            for (int j = 0; j < numDocs; j++) {
+                client().prepareIndex("test", "type", Integer.toString(id++)).setSource(
+                        "tag", randomFrom("a", "b", "c", "d", "e"),
+                        "value", randomIntBetween(0, 100),
+                        "body", randomFrom("foo", "bar", "foo bar", "foo foo baz", "baz")).get();
+            }
+            client().admin().indices().prepareRefresh("test").get();
+        }
+
+        for (int iter = 0; iter < 10; iter++) {
+            SearchRequestBuilder search = client().prepareSearch("test").setRequestCache(false)
+                    .setQuery(randomBoolean() ? matchQuery("body", "foo bar") : rangeQuery("value").gte(randomIntBetween(0, 50)))
+                    .setSize(randomIntBetween(0, 20))
+                    .addAggregation(terms("tags").field("tag").subAggregation(avg("avg").field("value")))
+                    .addAggregation(histogram("histo").field("value").interval(10));
+            if (randomBoolean()) {
+                search.addSort("value", randomFrom(SortOrder.values()));
+            }
+            if (randomBoolean()) {
+                search.setPostFilter(rangeQuery("value").lte(randomIntBetween(50, 100)));
+            }
+            enableConcurrentSegments(false);
+            SearchResponse sequential = search.get();
+            assertSearchResponse(sequential);
+
+            enableConcurrentSegments(true);
+            final long completedSlices = completedSlices();
+            SearchResponse concurrent = search.get();
+            assertSearchResponse(concurrent);
+            // the pool counts a slice as completed only after the search got its result
+            assertBusy(() -> assertThat(completedSlices(), greaterThan(completedSlices)));
+
+            assertEquals(sequential.getHits().getTotalHits(), concurrent.getHits().getTotalHits());
+            assertEquals(sequential.getHits().getMaxScore(), concurrent.getHits().getMaxScore(), 0f);
+            assertEquals(sequential.getHits().getHits().length, concurrent.getHits().getHits().length);
+            for (int i = 0; i < sequential.getHits().getHits().length; i++) {
+                SearchHit expected = sequential.getHits().getAt(i);
+                SearchHit actual = concurrent.getHits().getAt(i);
+                assertEquals(expected.getId(), actual.getId());
+                assertEquals(expected.getScore(), actual.getScore(), 0f);
+            }
+
+            Terms expectedTerms = sequential.getAggregations().get("tags");
+            Terms actualTerms = concurrent.getAggregations().get("tags");
+            assertEquals(expectedTerms.getBuckets().size(), actualTerms.getBuckets().size());
+            for (Terms.Bucket expected : expectedTerms.getBuckets()) {
+                Terms.Bucket actual = actualTerms.getBucketByKey(expected.getKeyAsString());
+                assertNotNull(actual);
+                assertEquals(expected.getDocCount(), actual.getDocCount());
+                Avg expectedAvg = expected.getAggregations().get("avg");
+                Avg actualAvg = actual.getAggregations().get("avg");
+                assertEquals(expectedAvg.getValue(), actualAvg.getValue(), 0.0001d);
+            }
+
+            Histogram expectedHisto = sequential.getAggregations().get("histo");
+            Histogram actualHisto = concurrent.getAggregations().get("histo");
+            assertEquals(expectedHisto.getBuckets().size(), actualHisto.getBuckets().size());
+            for (int i = 0; i < expectedHisto.getBuckets().size(); i++) {
+                assertEquals(expectedHisto.getBuckets().get(i).getKey(), actualHisto.getBuckets().get(i).getKey());
+                assertEquals(expectedHisto.getBuckets().get(i).getDocCount(), actualHisto.getBuckets().get(i).getDocCount());
+            }
+        }
+    }
+
+    private void enableConcurrentSegments(boolean enabled) {
+        client().admin().indices().prepareUpdateSettings("test").setSettings(Settings.builder()
+                .put(IndexSettings.INDEX_SEARCH_CONCURRENT_SEGMENTS_SETTING.getKey(), enabled)).get();
+    }
+
+    private long completedSlices() {
+        for (ThreadPoolStats.Stats stats : getInstanceFromNode(ThreadPool.class).stats()) {
+            if (stats.getName().equals(ThreadPool.Names.SEARCH_WORKER)) {
+                return stats.getCompleted();
+            }
+        }
+        throw new AssertionError("no stats for the " + ThreadPool.Names.SEARCH_WORKER + " thread pool");
+    }
+}
@@ -31,7 +31,8 @@ public class FsBlobStoreRepositoryIT extends ESBlobStoreRepositoryIntegTestCase
             .setType("fs").setSettings(Settings.builder()
                 .put("location", randomRepoPath())
                 .put("compress", randomBoolean())
-                .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)));
+                .put("chunk_size", randomIntBetween(100, 1000), ByteSizeUnit.BYTES)
+                .put("max_concurrent_transfers", randomIntBetween(1, 8))));
 
     }
 }
@@ -25,6 +25,7 @@ import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -136,6 +137,25 @@ public final class ConvertProcessor extends AbstractProcessor {
 
     @Override
     public void execute(IngestDocument document) {
+        execute(document, null);
+    }
+
+    @Override
+    public Exception[] executeBatch(List<IngestDocument> documents) {
+        // the documents of a batch often carry the same values, these only need to be converted once
+        Map<String, Object> convertedValues = new HashMap<>();
+        Exception[] failures = new Exception[documents.size()];
+        for (int i = 0; i < failures.length; i++) {
+            try {
+                execute(documents.get(i), convertedValues);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+        return failures;
+    }
+
+    private void execute(IngestDocument document, Map<String, Object> convertedValues) {
         Object oldValue = document.getFieldValue(field, Object.class);
         Object newValue;
         if (oldValue == null) {
@@ -146,15 +166,23 @@ public final class ConvertProcessor extends AbstractProcessor {
             List<?> list = (List<?>) oldValue;
             List<Object> newList = new ArrayList<>();
             for (Object value : list) {
-                newList.add(convertType.convert(value));
+                newList.add(convert(value, convertedValues));
             }
             newValue = newList;
         } else {
-            newValue = convertType.convert(oldValue);
+            newValue = convert(oldValue, convertedValues);
         }
         document.setFieldValue(targetField, newValue);
     }
 
+    private Object convert(Object value, Map<String, Object> convertedValues) {
+        // only strings are cached, they convert to immutable values that can be shared between documents
+        if (convertedValues != null && value instanceof String) {
+            return convertedValues.computeIfAbsent((String) value, convertType::convert);
+        }
+        return convertType.convert(value);
+    }
+
     @Override
     public String getType() {
         return TYPE;
@@ -29,6 +29,7 @@ import org.joda.time.DateTimeZone;
 import org.joda.time.format.ISODateTimeFormat;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.IllformedLocaleException;
 import java.util.List;
 import java.util.Locale;
@@ -64,7 +65,32 @@ public final class DateProcessor extends AbstractProcessor {
     @Override
     public void execute(IngestDocument ingestDocument) {
         String value = ingestDocument.getFieldValue(field, String.class);
+        ingestDocument.setFieldValue(targetField, parse(value));
+    }
+
+    @Override
+    public Exception[] executeBatch(List<IngestDocument> ingestDocuments) {
+        // the documents of a batch often carry the same dates, these only need to be parsed and formatted once
+        Map<String, String> formattedDates = new HashMap<>();
+        Exception[] failures = new Exception[ingestDocuments.size()];
+        for (int i = 0; i < failures.length; i++) {
+            IngestDocument ingestDocument = ingestDocuments.get(i);
+            try {
+                String value = ingestDocument.getFieldValue(field, String.class);
+                String formattedDate = formattedDates.get(value);
+                if (formattedDate == null) {
+                    formattedDate = parse(value);
+                    formattedDates.put(value, formattedDate);
+                }
+                ingestDocument.setFieldValue(targetField, formattedDate);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+        return failures;
+    }
 
+    private String parse(String value) {
         DateTime dateTime = null;
         Exception lastException = null;
         for (Function<String, DateTime> dateParser : dateParsers) {
@@ -80,7 +106,7 @@ public final class DateProcessor extends AbstractProcessor {
             throw new IllegalArgumentException("unable to parse date [" + value + "]", lastException);
         }
 
-        ingestDocument.setFieldValue(targetField, ISODateTimeFormat.dateTime().print(dateTime));
+        return ISODateTimeFormat.dateTime().print(dateTime);
     }
 
     @Override
@@ -29,8 +29,10 @@ import org.joni.Syntax;
 import org.joni.exception.ValueException;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -58,6 +60,7 @@ final class Grok {
     private final boolean namedCaptures;
     private final Regex compiledExpression;
     private final String expression;
+    private final String[] requiredLiterals;
 
 
     public Grok(Map<String, String> patternBank, String grokPattern) {
@@ -72,6 +75,7 @@ final class Grok {
         this.expression = toRegex(grokPattern);
         byte[] expressionBytes = expression.getBytes(StandardCharsets.UTF_8);
         this.compiledExpression = new Regex(expressionBytes, 0, expressionBytes.length, Option.DEFAULT, UTF8Encoding.INSTANCE);
+        this.requiredLiterals = requiredLiterals(grokPattern);
     }
 
 
@@ -125,18 +129,99 @@ final class Grok {
         return grokPattern;
     }
 
+    /**
+     * Extracts the literal strings that any text matching the given grok pattern must contain. Only the parts of the pattern
+     * outside of the grok references are considered, and nothing is extracted if they contain regex constructs like groups,
+     * alternations, character classes or quantifiers that make it hard to tell what is required.
+     */
+    static String[] requiredLiterals(String grokPattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < grokPattern.length(); i++) {
+            char c = grokPattern.charAt(i);
+            if (c == '%' && i + 1 < grokPattern.length() && grokPattern.charAt(i + 1) == '{') {
+                int end = grokPattern.indexOf('}', i);
+                if (end == -1) {
+                    return new String[0];
+                }
+                addLiteral(literals, current);
+                i = end;
+            } else if (c == '\\') {
+                if (i + 1 == grokPattern.length()) {
+                    return new String[0];
+                }
+                char escaped = grokPattern.charAt(++i);
+                if ("sSdDwWhHbBAzZG".indexOf(escaped) != -1) {
+                    // character classes like \s or \d and anchors
+                    addLiteral(literals, current);
+                } else if (Character.isLetterOrDigit(escaped)) {
+                    // code points, properties, back references and the like
+                    return new String[0];
+                } else {
+                    current.append(escaped);
+                }
+            } else if ("|()[]{}?*+".indexOf(c) != -1) {
+                return new String[0];
+            } else if (c == '.' || c == '^' || c == '$') {
+                addLiteral(literals, current);
+            } else {
+                current.append(c);
+            }
+        }
+        addLiteral(literals, current);
+        return literals.toArray(new String[literals.size()]);
+    }
+
+    private static void addLiteral(List<String> literals, StringBuilder current) {
+        if (current.length() > 0) {
+            literals.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Returns <code>false</code> if the given text can't match as it lacks literals that the grok pattern requires. A cheap
+     * check to run before the actual regex matching.
+     */
+    public boolean mayMatch(String text) {
+        for (String literal : requiredLiterals) {
+            if (text.contains(literal) == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean match(String text) {
-        Matcher matcher = compiledExpression.matcher(text.getBytes(StandardCharsets.UTF_8));
-        int result = matcher.search(0, text.length(), Option.DEFAULT);
+        byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
+        Matcher matcher = compiledExpression.matcher(textAsBytes);
+        int result = matcher.search(0, textAsBytes.length, Option.DEFAULT);
         return (result != -1);
     }
 
+    /**
+     * Creates a matcher of the compiled expression for the given UTF-8 encoded text.
+     */
+    Matcher matcher(byte[] textAsBytes) {
+        return compiledExpression.matcher(textAsBytes);
+    }
+
     public Map<String, Object> captures(String text) {
         byte[] textAsBytes = text.getBytes(StandardCharsets.UTF_8);
-        Map<String, Object> fields = new HashMap<>();
         Matcher matcher = compiledExpression.matcher(textAsBytes);
         int result = matcher.search(0, textAsBytes.length, Option.DEFAULT);
-        if (result != -1 && compiledExpression.numberOfNames() > 0) {
+        if (result != -1) {
+            return captures(matcher, textAsBytes);
+        }
+        return null;
+    }
+
+    /**
+     * Extracts the captures of a successful search of the given matcher on the given UTF-8 encoded text.
+     */
+    Map<String, Object> captures(Matcher matcher, byte[] textAsBytes) {
+        Map<String, Object> fields = new HashMap<>();
+        if (compiledExpression.numberOfNames() > 0) {
             Region region = matcher.getEagerRegion();
             for (Iterator<NameEntry> entry = compiledExpression.namedBackrefIterator(); entry.hasNext();) {
                 NameEntry e = entry.next();
@@ -151,11 +236,8 @@ final class Grok {
                 GrokMatchGroup match = new GrokMatchGroup(groupName, matchValue);
                 fields.put(match.getName(), match.getValue());
             }
-            return fields;
-        } else if (result != -1) {
-            return fields;
         }
-        return null;
+        return fields;
     }
 }
 
@@ -19,11 +19,18 @@
 
 package org.elasticsearch.ingest.common;
 
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.ConfigurationUtils;
 import org.elasticsearch.ingest.IngestDocument;
+import org.elasticsearch.ingest.IngestStats;
 import org.elasticsearch.ingest.Processor;
+import org.joni.Matcher;
+import org.joni.Option;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,7 +44,10 @@ public final class GrokProcessor extends AbstractProcessor {
     private static final String PATTERN_MATCH_KEY = "_ingest._grok_match_index";
 
     private final String matchField;
-    private final Grok grok;
+    private final List<String> matchPatterns;
+    private final List<Grok> groks;
+    private final CounterMetric[] matchCounts;
+    private final CounterMetric[] missCounts;
     private final boolean traceMatch;
 
     public GrokProcessor(String tag, Map<String, String> patternBank, List<String> matchPatterns, String matchField) {
@@ -47,28 +57,67 @@ public final class GrokProcessor extends AbstractProcessor {
     public GrokProcessor(String tag, Map<String, String> patternBank, List<String> matchPatterns, String matchField, boolean traceMatch) {
         super(tag);
         this.matchField = matchField;
-        this.grok = new Grok(patternBank, combinePatterns(matchPatterns, traceMatch));
+        this.matchPatterns = Collections.unmodifiableList(new ArrayList<>(matchPatterns));
+        List<Grok> groks = new ArrayList<>(matchPatterns.size());
+        for (String matchPattern : matchPatterns) {
+            groks.add(new Grok(patternBank, matchPattern));
+        }
+        this.groks = Collections.unmodifiableList(groks);
+        this.matchCounts = new CounterMetric[matchPatterns.size()];
+        this.missCounts = new CounterMetric[matchPatterns.size()];
+        for (int i = 0; i < matchPatterns.size(); i++) {
+            matchCounts[i] = new CounterMetric();
+            missCounts[i] = new CounterMetric();
+        }
         this.traceMatch = traceMatch;
     }
 
     @Override
     public void execute(IngestDocument ingestDocument) throws Exception {
         String fieldValue = ingestDocument.getFieldValue(matchField, String.class);
-        Map<String, Object> matches = grok.captures(fieldValue);
-        if (matches == null) {
+        byte[] fieldValueAsBytes = fieldValue.getBytes(StandardCharsets.UTF_8);
+        /*
+         * Each pattern is compiled on its own, so that patterns whose required literals are missing from the value can be
+         * skipped without running the regex. The result is the same as matching the alternation of all patterns: the match
+         * starting first in the value wins, and on ties the pattern configured first. Once a pattern matched, the following
+         * patterns only need to be searched for matches that start earlier.
+         */
+        int matchIndex = -1;
+        int matchStart = -1;
+        Matcher match = null;
+        for (int i = 0; i < groks.size(); i++) {
+            if (match != null && matchStart == 0) {
+                break;
+            }
+            Grok grok = groks.get(i);
+            if (grok.mayMatch(fieldValue) == false) {
+                missCounts[i].inc();
+                continue;
+            }
+            Matcher matcher = grok.matcher(fieldValueAsBytes);
+            int start = matcher.search(0, match == null ? fieldValueAsBytes.length : matchStart, Option.DEFAULT);
+            if (start == -1) {
+                if (match == null) {
+                    missCounts[i].inc();
+                }
+            } else if (match == null || start < matchStart) {
+                matchIndex = i;
+                matchStart = start;
+                match = matcher;
+            }
+        }
+        if (match == null) {
             throw new IllegalArgumentException("Provided Grok expressions do not match field value: [" + fieldValue + "]");
         }
+        matchCounts[matchIndex].inc();
+        Map<String, Object> matches = groks.get(matchIndex).captures(match, fieldValueAsBytes);
 
         matches.entrySet().stream()
             .filter((e) -> Objects.nonNull(e.getValue()))
             .forEach((e) -> ingestDocument.setFieldValue(e.getKey(), e.getValue()));
 
         if (traceMatch) {
-            @SuppressWarnings("unchecked")
-            HashMap<String, String> matchMap = (HashMap<String, String>) ingestDocument.getFieldValue(PATTERN_MATCH_KEY, Object.class);
-            matchMap.keySet().stream().findFirst().ifPresent((index) -> {
-                ingestDocument.setFieldValue(PATTERN_MATCH_KEY, index);
-            });
+            ingestDocument.setFieldValue(PATTERN_MATCH_KEY, String.valueOf(matchIndex));
         }
     }
 
@@ -77,41 +126,21 @@ public final class GrokProcessor extends AbstractProcessor {
         return TYPE;
     }
 
-    public Grok getGrok() {
-        return grok;
+    @Override
+    public List<IngestStats.PatternStats> getPatternStats() {
+        List<IngestStats.PatternStats> patternStats = new ArrayList<>(matchPatterns.size());
+        for (int i = 0; i < matchPatterns.size(); i++) {
+            patternStats.add(new IngestStats.PatternStats(matchPatterns.get(i), matchCounts[i].count(), missCounts[i].count()));
+        }
+        return patternStats;
     }
 
-    String getMatchField() {
-        return matchField;
+    List<Grok> getGroks() {
+        return groks;
     }
 
-    static String combinePatterns(List<String> patterns, boolean traceMatch) {
-        String combinedPattern;
-        if (patterns.size() > 1) {
-            if (traceMatch) {
-                combinedPattern = "";
-                for (int i = 0; i < patterns.size(); i++) {
-                    String valueWrap = "(?<" + PATTERN_MATCH_KEY + "." + i + ">" + patterns.get(i) + ")";
-                    if (combinedPattern.equals("")) {
-                        combinedPattern = valueWrap;
-                    } else {
-                        combinedPattern = combinedPattern + "|" + valueWrap;
-                    }
-                }
-            } else {
-                combinedPattern = patterns.stream().reduce("", (prefix, value) -> {
-                    if (prefix.equals("")) {
-                        return "(?:" + value + ")";
-                    } else {
-                        return prefix + "|" + "(?:" + value + ")";
-                    }
-                });
-            }
-        }  else {
-            combinedPattern = patterns.get(0);
-        }
-
-        return combinedPattern;
+    String getMatchField() {
+        return matchField;
     }
 
     public static final class Factory implements Processor.Factory {
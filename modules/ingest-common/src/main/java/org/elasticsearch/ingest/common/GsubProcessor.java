@@ -23,6 +23,7 @@ import org.elasticsearch.ingest.AbstractProcessor;
 import org.elasticsearch.ingest.IngestDocument;
 import org.elasticsearch.ingest.Processor;
 
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -64,12 +65,30 @@ public final class GsubProcessor extends AbstractProcessor {
 
     @Override
     public void execute(IngestDocument document) {
+        execute(document, pattern.matcher(""));
+    }
+
+    @Override
+    public Exception[] executeBatch(List<IngestDocument> documents) {
+        // the same matcher gets reset for each document of the batch rather than creating one per document
+        Matcher matcher = pattern.matcher("");
+        Exception[] failures = new Exception[documents.size()];
+        for (int i = 0; i < failures.length; i++) {
+            try {
+                execute(documents.get(i), matcher);
+            } catch (Exception e) {
+                failures[i] = e;
+            }
+        }
+        return failures;
+    }
+
+    private void execute(IngestDocument document, Matcher matcher) {
         String oldVal = document.getFieldValue(field, String.class);
         if (oldVal == null) {
             throw new IllegalArgumentException("field [" + field + "] is null, cannot match pattern.");
         }
-        Matcher matcher = pattern.matcher(oldVal);
-        String newVal = matcher.replaceAll(replacement);
+        String newVal = matcher.reset(oldVal).replaceAll(replacement);
         document.setFieldValue(field, newVal);
     }
 
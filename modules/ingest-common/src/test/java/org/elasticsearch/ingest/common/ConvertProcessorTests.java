@@ -25,6 +25,7 @@ import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.test.ESTestCase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,7 @@ import java.util.Map;
 import static org.elasticsearch.ingest.common.ConvertProcessor.Type;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 
 public class ConvertProcessorTests extends ESTestCase {
@@ -343,4 +345,24 @@ public class ConvertProcessorTests extends ESTestCase {
         assertThat(ingestDocument.getFieldValue(targetField, Integer.class), equalTo(randomInt));
 
     }
+
+    public void testExecuteBatch() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (Object value : Arrays.asList("200", "abc", Arrays.asList("404", "200"), "200")) {
+            IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+            ingestDocument.setFieldValue(fieldName, value);
+            ingestDocuments.add(ingestDocument);
+        }
+        Processor processor = new ConvertProcessor(randomAsciiOfLength(10), fieldName, fieldName, Type.INTEGER);
+        Exception[] failures = processor.executeBatch(ingestDocuments);
+        assertThat(failures[0], nullValue());
+        assertThat(ingestDocuments.get(0).getFieldValue(fieldName, Integer.class), equalTo(200));
+        assertThat(failures[1].getMessage(), equalTo("unable to convert [abc] to integer"));
+        assertThat(ingestDocuments.get(1).getFieldValue(fieldName, String.class), equalTo("abc"));
+        assertThat(failures[2], nullValue());
+        assertThat(ingestDocuments.get(2).getFieldValue(fieldName, List.class), equalTo(Arrays.asList(404, 200)));
+        assertThat(failures[3], nullValue());
+        assertThat(ingestDocuments.get(3).getFieldValue(fieldName, Integer.class), equalTo(200));
+    }
 }
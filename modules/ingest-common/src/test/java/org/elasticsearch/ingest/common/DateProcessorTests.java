@@ -26,6 +26,7 @@ import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +35,7 @@ import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
 
 public class DateProcessorTests extends ESTestCase {
 
@@ -145,4 +147,24 @@ public class DateProcessorTests extends ESTestCase {
         dateProcessor.execute(ingestDocument);
         assertThat(ingestDocument.getFieldValue("date_as_date", String.class), equalTo("1970-01-01T00:16:40.500Z"));
     }
+
+    public void testExecuteBatch() {
+        DateProcessor dateProcessor = new DateProcessor(randomAsciiOfLength(10), DateTimeZone.forID("Europe/Amsterdam"), Locale.ENGLISH,
+                "date_as_string", Collections.singletonList("yyyy dd MM"), "date_as_date");
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (String date : Arrays.asList("2010 12 06", "2010 13 06", "not a date", "2010 12 06")) {
+            Map<String, Object> document = new HashMap<>();
+            document.put("date_as_string", date);
+            ingestDocuments.add(RandomDocumentPicks.randomIngestDocument(random(), document));
+        }
+        Exception[] failures = dateProcessor.executeBatch(ingestDocuments);
+        assertThat(failures[0], nullValue());
+        assertThat(ingestDocuments.get(0).getFieldValue("date_as_date", String.class), equalTo("2010-06-12T00:00:00.000+02:00"));
+        assertThat(failures[1], nullValue());
+        assertThat(ingestDocuments.get(1).getFieldValue("date_as_date", String.class), equalTo("2010-06-13T00:00:00.000+02:00"));
+        assertThat(failures[2].getMessage(), equalTo("unable to parse date [not a date]"));
+        assertThat(ingestDocuments.get(2).hasField("date_as_date"), equalTo(false));
+        assertThat(failures[3], nullValue());
+        assertThat(ingestDocuments.get(3).getFieldValue("date_as_date", String.class), equalTo("2010-06-12T00:00:00.000+02:00"));
+    }
 }
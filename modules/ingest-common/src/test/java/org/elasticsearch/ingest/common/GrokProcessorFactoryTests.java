@@ -41,7 +41,7 @@ public class GrokProcessorFactoryTests extends ESTestCase {
         GrokProcessor processor = factory.create(null, processorTag, config);
         assertThat(processor.getTag(), equalTo(processorTag));
         assertThat(processor.getMatchField(), equalTo("_field"));
-        assertThat(processor.getGrok(), notNullValue());
+        assertThat(processor.getGroks().get(0), notNullValue());
     }
 
     public void testBuildMissingField() throws Exception {
@@ -78,8 +78,8 @@ public class GrokProcessorFactoryTests extends ESTestCase {
         config.put("pattern_definitions", Collections.singletonMap("MY_PATTERN", "foo"));
         GrokProcessor processor = factory.create(null, null, config);
         assertThat(processor.getMatchField(), equalTo("_field"));
-        assertThat(processor.getGrok(), notNullValue());
-        assertThat(processor.getGrok().match("foo!"), equalTo(true));
+        assertThat(processor.getGroks().get(0), notNullValue());
+        assertThat(processor.getGroks().get(0).match("foo!"), equalTo(true));
     }
 
     public void testCreateWithInvalidPattern() throws Exception {
@@ -20,12 +20,14 @@
 package org.elasticsearch.ingest.common;
 
 import org.elasticsearch.ingest.IngestDocument;
+import org.elasticsearch.ingest.IngestStats;
 import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.test.ESTestCase;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -116,19 +118,46 @@ public class GrokProcessorTests extends ESTestCase {
         assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
     }
 
-    public void testCombinedPatterns() {
-        String combined;
-        combined = GrokProcessor.combinePatterns(Arrays.asList(""), false);
-        assertThat(combined, equalTo(""));
-        combined = GrokProcessor.combinePatterns(Arrays.asList(""), true);
-        assertThat(combined, equalTo(""));
-        combined = GrokProcessor.combinePatterns(Arrays.asList("foo"), false);
-        assertThat(combined, equalTo("foo"));
-        combined = GrokProcessor.combinePatterns(Arrays.asList("foo"), true);
-        assertThat(combined, equalTo("foo"));
-        combined = GrokProcessor.combinePatterns(Arrays.asList("foo", "bar"), false);
-        assertThat(combined, equalTo("(?:foo)|(?:bar)"));
-        combined = GrokProcessor.combinePatterns(Arrays.asList("foo", "bar"), true);
-        assertThat(combined, equalTo("(?<_ingest._grok_match_index.0>foo)|(?<_ingest._grok_match_index.1>bar)"));
+    public void testFirstMatchInValueWins() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "a3 b2");
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("TWO", "2");
+        patternBank.put("THREE", "3");
+        GrokProcessor processor = new GrokProcessor(randomAsciiOfLength(10), patternBank,
+            Arrays.asList("b%{TWO:two}", "a%{THREE:three}"), fieldName, true);
+        processor.execute(doc);
+        // like the alternation of all patterns, the pattern that matches first in the value wins over the earlier pattern
+        assertThat(doc.hasField("two"), equalTo(false));
+        assertThat(doc.getFieldValue("three", String.class), equalTo("3"));
+        assertThat(doc.getFieldValue("_ingest._grok_match_index", String.class), equalTo("1"));
+    }
+
+    public void testPatternStats() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        Map<String, String> patternBank = new HashMap<>();
+        patternBank.put("ONE", "1");
+        patternBank.put("TWO", "2");
+        GrokProcessor processor = new GrokProcessor(randomAsciiOfLength(10), patternBank,
+            Arrays.asList("one:%{ONE:one}", "two:%{TWO:two}"), fieldName);
+
+        IngestDocument doc = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+        doc.setFieldValue(fieldName, "two:2");
+        processor.execute(doc);
+        doc.setFieldValue(fieldName, "one:1");
+        processor.execute(doc);
+        doc.setFieldValue(fieldName, "three:3");
+        expectThrows(IllegalArgumentException.class, () -> processor.execute(doc));
+
+        List<IngestStats.PatternStats> patternStats = processor.getPatternStats();
+        assertThat(patternStats.size(), equalTo(2));
+        assertThat(patternStats.get(0).getPattern(), equalTo("one:%{ONE:one}"));
+        assertThat(patternStats.get(0).getMatchCount(), equalTo(1L));
+        assertThat(patternStats.get(0).getMissCount(), equalTo(2L));
+        assertThat(patternStats.get(1).getPattern(), equalTo("two:%{TWO:two}"));
+        assertThat(patternStats.get(1).getMatchCount(), equalTo(1L));
+        // the second pattern is not tried once the first one matched at the start of the value
+        assertThat(patternStats.get(1).getMissCount(), equalTo(1L));
     }
 }
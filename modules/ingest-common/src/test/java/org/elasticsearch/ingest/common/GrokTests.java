@@ -48,6 +48,24 @@ public class GrokTests extends ESTestCase {
         assertEquals(0, matches.size());
     }
 
+    public void testRequiredLiterals() {
+        assertThat(Grok.requiredLiterals("%{WORD:a} - %{NUMBER:b}/x"), equalTo(new String[] {" - ", "/x"}));
+        assertThat(Grok.requiredLiterals("\\[%{HTTPDATE:timestamp}\\] %{WORD}"), equalTo(new String[] {"[", "] "}));
+        assertThat(Grok.requiredLiterals("^GET\\s%{URIPATH}$"), equalTo(new String[] {"GET"}));
+        assertThat(Grok.requiredLiterals("%{WORD}"), equalTo(new String[0]));
+        // optional parts, alternations and escapes that aren't plain characters disable the prefilter
+        assertThat(Grok.requiredLiterals("foo?"), equalTo(new String[0]));
+        assertThat(Grok.requiredLiterals("(?:foo|bar) %{WORD}"), equalTo(new String[0]));
+        assertThat(Grok.requiredLiterals("\\x41bc"), equalTo(new String[0]));
+    }
+
+    public void testMayMatch() {
+        Grok grok = new Grok(basePatterns, "%{WORD:verb} /%{NOTSPACE:path} HTTP");
+        assertThat(grok.mayMatch("GET /index.html HTTP"), equalTo(true));
+        assertThat(grok.mayMatch("GET /index.html"), equalTo(false));
+        assertThat(grok.match("GET /index.html"), equalTo(false));
+    }
+
     public void testSimpleSyslogLine() {
         String line = "Mar 16 00:01:25 evita postfix/smtpd[1713]: connect from camomile.cloud9.net[168.100.1.3]";
         Grok grok = new Grok(basePatterns, "%{SYSLOGLINE}");
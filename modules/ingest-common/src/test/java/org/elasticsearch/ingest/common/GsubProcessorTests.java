@@ -24,12 +24,17 @@ import org.elasticsearch.ingest.Processor;
 import org.elasticsearch.ingest.RandomDocumentPicks;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
 
 public class GsubProcessorTests extends ESTestCase {
 
@@ -77,4 +82,21 @@ public class GsubProcessorTests extends ESTestCase {
             assertThat(e.getMessage(), equalTo("field [field] is null, cannot match pattern."));
         }
     }
+
+    public void testExecuteBatch() throws Exception {
+        String fieldName = RandomDocumentPicks.randomFieldName(random());
+        List<IngestDocument> ingestDocuments = new ArrayList<>();
+        for (Object value : Arrays.asList("127.0.0.1", 123, "10.0.0.1")) {
+            IngestDocument ingestDocument = RandomDocumentPicks.randomIngestDocument(random(), new HashMap<>());
+            ingestDocument.setFieldValue(fieldName, value);
+            ingestDocuments.add(ingestDocument);
+        }
+        Processor processor = new GsubProcessor(randomAsciiOfLength(10), fieldName, Pattern.compile("\\."), "-");
+        Exception[] failures = processor.executeBatch(ingestDocuments);
+        assertThat(failures[0], nullValue());
+        assertThat(ingestDocuments.get(0).getFieldValue(fieldName, String.class), equalTo("127-0-0-1"));
+        assertThat(failures[1], instanceOf(IllegalArgumentException.class));
+        assertThat(failures[2], nullValue());
+        assertThat(ingestDocuments.get(2).getFieldValue(fieldName, String.class), equalTo("10-0-0-1"));
+    }
 }
@@ -30,6 +30,7 @@ import java.security.CodeSource;
 import java.security.SecureClassLoader;
 import java.security.cert.Certificate;
 import java.util.BitSet;
+import java.util.Set;
 
 import static org.elasticsearch.painless.WriterConstants.CLASS_NAME;
 
@@ -107,9 +108,9 @@ final class Compiler {
         try {
             Class<? extends Executable> clazz = loader.define(CLASS_NAME, root.getBytes());
             java.lang.reflect.Constructor<? extends Executable> constructor =
-                    clazz.getConstructor(String.class, String.class, BitSet.class);
+                    clazz.getConstructor(String.class, String.class, BitSet.class, CompilerSettings.class, Set.class);
 
-            return constructor.newInstance(name, source, root.getStatements());
+            return constructor.newInstance(name, source, root.getStatements(), settings, root.getDocFields());
         } catch (Exception exception) { // Catch everything to let the user know this is something caused internally.
             throw new IllegalStateException("An internal error occurred attempting to define the script [" + name + "].", exception);
         }
@@ -19,6 +19,9 @@
 
 package org.elasticsearch.painless;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Settings to use when compiling a script.
  */
@@ -55,6 +58,11 @@ public final class CompilerSettings {
      */
     private int initialCallSiteDepth = 0;
 
+    /**
+     * The doc values types of doc fields that are known when compiling.
+     */
+    private Map<String, Class<?>> docValuesTypes = Collections.emptyMap();
+
     /**
      * Returns the value for the cumulative total number of statements that can be made in all loops
      * in a script before an exception is thrown.  This attempts to prevent infinite loops.  Note if
@@ -104,4 +112,34 @@ public final class CompilerSettings {
     public void setInitialCallSiteDepth(int depth) {
         this.initialCallSiteDepth = depth;
     }
+
+    /**
+     * Returns the doc values types, like {@code ScriptDocValues.Longs}, of the doc fields whose mapping is known when
+     * compiling. Reads of these fields with a constant key, like {@code doc['field'].value}, are statically typed rather
+     * than going through dynamic dispatch.
+     */
+    public Map<String, Class<?>> getDocValuesTypes() {
+        return docValuesTypes;
+    }
+
+    /**
+     * Set the doc values types of the doc fields whose mapping is known when compiling.
+     * @see #getDocValuesTypes()
+     */
+    public void setDocValuesTypes(Map<String, Class<?>> docValuesTypes) {
+        this.docValuesTypes = docValuesTypes;
+    }
+
+    /**
+     * Returns a copy of these settings with the specified doc values types.
+     * @see #getDocValuesTypes()
+     */
+    CompilerSettings withDocValuesTypes(Map<String, Class<?>> docValuesTypes) {
+        CompilerSettings settings = new CompilerSettings();
+        settings.setMaxLoopCounter(maxLoopCounter);
+        settings.setPicky(picky);
+        settings.setInitialCallSiteDepth(initialCallSiteDepth);
+        settings.setDocValuesTypes(docValuesTypes);
+        return settings;
+    }
 }
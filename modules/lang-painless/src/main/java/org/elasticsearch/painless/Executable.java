@@ -24,6 +24,9 @@ import org.elasticsearch.search.lookup.LeafDocLookup;
 
 import java.util.BitSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * The superclass used to build all Painless scripts on top of.
@@ -33,11 +36,17 @@ public abstract class Executable {
     private final String name;
     private final String source;
     private final BitSet statements;
+    private final CompilerSettings settings;
+    private final Set<String> docFields;
+    /** Versions of this script compiled for known doc values types, see {@link CompilerSettings#getDocValuesTypes()}. */
+    private final Map<Map<String, Class<?>>, Executable> specializations = new ConcurrentHashMap<>();
 
-    public Executable(String name, String source, BitSet statements) {
+    public Executable(String name, String source, BitSet statements, CompilerSettings settings, Set<String> docFields) {
         this.name = name;
         this.source = source;
         this.statements = statements;
+        this.settings = settings;
+        this.docFields = docFields;
     }
 
     public String getName() {
@@ -48,6 +57,28 @@ public abstract class Executable {
         return source;
     }
 
+    /**
+     * The settings this script was compiled with.
+     */
+    public CompilerSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * The fields of the doc map this script reads with a constant key, like {@code doc['field']}.
+     */
+    public Set<String> getDocFields() {
+        return docFields;
+    }
+
+    /**
+     * Returns the version of this script specialized for the specified doc values types, compiling it the first time.
+     */
+    Executable getSpecialization(Map<String, Class<?>> docValuesTypes,
+                                 Function<Map<String, Class<?>>, Executable> compiler) {
+        return specializations.computeIfAbsent(docValuesTypes, compiler);
+    }
+
     /** 
      * Finds the start of the first statement boundary that is
      * on or before {@code offset}. If one is not found, {@code -1}
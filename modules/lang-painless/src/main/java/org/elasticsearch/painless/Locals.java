@@ -102,8 +102,11 @@ public final class Locals {
     }
     
     /** Creates a new main method scope */
-    public static Locals newMainMethodScope(Locals programScope, boolean usesScore, boolean usesCtx, int maxLoopCounter) {
+    public static Locals newMainMethodScope(Locals programScope, boolean usesScore, boolean usesCtx, int maxLoopCounter,
+                                            Map<String, Class<?>> docValuesTypes) {
         Locals locals = new Locals(programScope, Definition.OBJECT_TYPE);
+        locals.docFields = new HashSet<>();
+        locals.docValuesTypes = docValuesTypes;
         // This reference.  Internal use only.
         locals.defineVariable(null, Definition.getType("Object"), THIS, true);
 
@@ -194,6 +197,28 @@ public final class Locals {
         return defineVariable(location, type, name, readonly);
     }
     
+    /**
+     * Records a read of the doc map with a constant key, like {@code doc['field']}, and returns the doc values type of the
+     * field if it is known at compile time, or null otherwise. The doc map is only available in the main method.
+     */
+    public Type readDocField(String field) {
+        Locals locals = this;
+        while (locals != null && locals.docFields == null) {
+            locals = locals.getParent();
+        }
+        if (locals == null) {
+            return null;
+        }
+        locals.docFields.add(field);
+        Class<?> docValuesType = locals.docValuesTypes.get(field);
+        return docValuesType == null ? null : Definition.getType(docValuesType.getCanonicalName());
+    }
+
+    /** Returns the doc fields read with a constant key in this main method scope. */
+    public Set<String> getDocFields() {
+        return docFields == null ? Collections.emptySet() : Collections.unmodifiableSet(docFields);
+    }
+
     /** Return type of this scope (e.g. int, if inside a function that returns int) */
     public Type getReturnType() {
         return returnType;
@@ -220,6 +245,10 @@ public final class Locals {
     private Map<String,Variable> variables;
     // method name+arity -> methods
     private Map<MethodKey,Method> methods;
+    // doc fields read with a constant key, only tracked in the main method scope
+    private Set<String> docFields;
+    // field name -> doc values type known at compile time, only set in the main method scope
+    private Map<String,Class<?>> docValuesTypes;
 
     /**
      * Create a new Locals
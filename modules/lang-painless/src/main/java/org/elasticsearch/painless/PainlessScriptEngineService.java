@@ -23,6 +23,10 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.SpecialPermission;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.index.fielddata.plain.SortedNumericDVIndexFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.painless.Compiler.Loader;
 import org.elasticsearch.script.CompiledScript;
 import org.elasticsearch.script.ExecutableScript;
@@ -139,6 +143,13 @@ public final class PainlessScriptEngineService extends AbstractComponent impleme
             }
         }
 
+        return compile(scriptName, scriptSource, compilerSettings);
+    }
+
+    /**
+     * Compiles the script with no permissions.
+     */
+    private Executable compile(String scriptName, final String scriptSource, final CompilerSettings compilerSettings) {
         // Check we ourselves are not being called by unprivileged code.
         final SecurityManager sm = System.getSecurityManager();
 
@@ -188,6 +199,8 @@ public final class PainlessScriptEngineService extends AbstractComponent impleme
      */
     @Override
     public SearchScript search(final CompiledScript compiledScript, final SearchLookup lookup, final Map<String, Object> vars) {
+        final Executable executable = specialize((Executable)compiledScript.compiled(), lookup);
+
         return new SearchScript() {
             /**
              * Get the search script that will have access to search field values.
@@ -196,7 +209,7 @@ public final class PainlessScriptEngineService extends AbstractComponent impleme
              */
             @Override
             public LeafSearchScript getLeafSearchScript(final LeafReaderContext context) throws IOException {
-                return new ScriptImpl((Executable)compiledScript.compiled(), vars, lookup.getLeafSearchLookup(context));
+                return new ScriptImpl(executable, vars, lookup.getLeafSearchLookup(context));
             }
 
             /**
@@ -204,11 +217,60 @@ public final class PainlessScriptEngineService extends AbstractComponent impleme
              */
             @Override
             public boolean needsScores() {
-                return compiledScript.compiled() instanceof NeedsScore;
+                return executable instanceof NeedsScore;
             }
         };
     }
 
+    /**
+     * Returns a version of the script where the doc values it reads are statically typed according to the mapping, so
+     * that for instance {@code doc['field'].value} on a long field compiles to a direct call returning a {@code long}
+     * instead of a dynamic invocation returning a boxed value. Falls back to the generic script if no field read by the
+     * script has plain numeric doc values or if the specialized script does not compile.
+     */
+    private Executable specialize(final Executable executable, final SearchLookup lookup) {
+        final Map<String, Class<?>> docValuesTypes = new HashMap<>();
+
+        for (String field : executable.getDocFields()) {
+            final MappedFieldType fieldType = lookup.doc().mapperService().fullName(field);
+
+            if (fieldType == null) {
+                continue;
+            }
+
+            final IndexFieldData<?> fieldData;
+
+            try {
+                fieldData = lookup.doc().fieldDataService().getForField(fieldType);
+            } catch (IllegalArgumentException e) {
+                // The field has no doc values, the script fails when reading it either way.
+                continue;
+            }
+
+            // Only the plain numeric doc values are known to read as Longs or Doubles, other numeric field data such as that of
+            // scaled_float fields may report a numeric type that does not match the script values they return.
+            if (fieldData instanceof SortedNumericDVIndexFieldData) {
+                final boolean floatingPoint = ((SortedNumericDVIndexFieldData)fieldData).getNumericType().isFloatingPoint();
+                docValuesTypes.put(field, floatingPoint ? ScriptDocValues.Doubles.class : ScriptDocValues.Longs.class);
+            }
+        }
+
+        if (docValuesTypes.isEmpty()) {
+            return executable;
+        }
+
+        return executable.getSpecialization(docValuesTypes, types -> {
+            try {
+                return compile(executable.getName(), executable.getSource(), executable.getSettings().withDocValuesTypes(types));
+            } catch (ScriptException e) {
+                // Remember the failure so that the script is not compiled again for every search.
+                logger.debug("failed to compile script [{}] with doc values types {}, using the generic version",
+                    e, executable.getName(), types);
+                return executable;
+            }
+        });
+    }
+
     /**
      * Action taken when the engine is closed.
      */
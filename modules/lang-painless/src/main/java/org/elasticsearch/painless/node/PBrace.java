@@ -40,6 +40,9 @@ public final class PBrace extends AStoreable {
 
     private AStoreable sub = null;
 
+    // the doc values type of a doc field read with a constant key, if known at compile time
+    private Type docValuesType = null;
+
     public PBrace(Location location, AExpression prefix, AExpression index) {
         super(location, prefix);
 
@@ -54,6 +57,8 @@ public final class PBrace extends AStoreable {
 
     @Override
     void analyze(Locals locals) {
+        boolean docField = prefix instanceof EVariable && Locals.DOC.equals(((EVariable) prefix).name) && index instanceof EString;
+
         prefix.analyze(locals);
         prefix.expected = prefix.actual;
         prefix = prefix.cast(locals);
@@ -78,12 +83,26 @@ public final class PBrace extends AStoreable {
         sub.explicit = explicit;
         sub.analyze(locals);
         actual = sub.actual;
+
+        if (docField) {
+            Type type = locals.readDocField((String) index.constant);
+
+            // only specialize doc['field'] when it is accessed further, like doc['field'].value, as the result is used as is
+            if (type != null && expected == null && read && !write) {
+                docValuesType = type;
+                actual = type;
+            }
+        }
     }
 
     @Override
     void write(MethodWriter writer, Globals globals) {
         prefix.write(writer, globals);
         sub.write(writer, globals);
+
+        if (docValuesType != null) {
+            writer.checkCast(docValuesType.type);
+        }
     }
 
     @Override
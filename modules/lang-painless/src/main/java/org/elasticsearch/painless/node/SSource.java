@@ -174,7 +174,8 @@ public final class SSource extends AStatement {
             throw createError(new IllegalArgumentException("Cannot generate an empty script."));
         }
 
-        mainMethod = Locals.newMainMethodScope(program, reserved.usesScore(), reserved.usesCtx(), reserved.getMaxLoopCounter());
+        mainMethod = Locals.newMainMethodScope(program, reserved.usesScore(), reserved.usesCtx(), reserved.getMaxLoopCounter(),
+                                               settings.getDocValuesTypes());
 
         AStatement last = statements.get(statements.size() - 1);
 
@@ -325,6 +326,13 @@ public final class SSource extends AStatement {
         }
     }
 
+    /**
+     * The fields of the doc map read with a constant key by the main method.
+     */
+    public Set<String> getDocFields() {
+        return mainMethod.getDocFields();
+    }
+
     public BitSet getStatements() {
         return globals.getStatements();
     }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.painless;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.fielddata.ScriptDocValues;
+import org.elasticsearch.script.CompiledScript;
+import org.elasticsearch.script.LeafSearchScript;
+import org.elasticsearch.script.ScriptService.ScriptType;
+import org.elasticsearch.script.SearchScript;
+import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Tests that reads of doc values are statically typed when the mapping of the field is known.
+ */
+public class DocValuesTypesTests extends ESSingleNodeTestCase {
+
+    public void testDocFields() {
+        PainlessScriptEngineService service = new PainlessScriptEngineService(Settings.EMPTY);
+        Executable executable = (Executable) service.compile(null,
+            "String f = 'c'; doc['a'].value + doc.b.value + doc[f].value + doc['a'].values.size()", Collections.emptyMap());
+        // only reads with a constant key are recorded
+        assertThat(executable.getDocFields(), containsInAnyOrder("a"));
+        service.close();
+    }
+
+    public void testBytecode() {
+        String script = "doc['l'].value + doc['d'].value";
+
+        String asm = Debugger.toString(script);
+        assertThat(asm, containsString("INVOKEDYNAMIC value(Ljava/lang/Object;)Ljava/lang/Object;"));
+        assertThat(asm, not(containsString("CHECKCAST org/elasticsearch/index/fielddata/ScriptDocValues")));
+
+        Map<String, Class<?>> docValuesTypes = new HashMap<>();
+        docValuesTypes.put("l", ScriptDocValues.Longs.class);
+        docValuesTypes.put("d", ScriptDocValues.Doubles.class);
+        CompilerSettings settings = new CompilerSettings();
+        settings.setDocValuesTypes(docValuesTypes);
+
+        asm = Debugger.toString(script, settings);
+        assertThat(asm, containsString("CHECKCAST org/elasticsearch/index/fielddata/ScriptDocValues$Longs"));
+        assertThat(asm, containsString("INVOKEVIRTUAL org/elasticsearch/index/fielddata/ScriptDocValues$Longs.getValue ()J"));
+        assertThat(asm, containsString("CHECKCAST org/elasticsearch/index/fielddata/ScriptDocValues$Doubles"));
+        assertThat(asm, containsString("INVOKEVIRTUAL org/elasticsearch/index/fielddata/ScriptDocValues$Doubles.getValue ()D"));
+        assertThat(asm, not(containsString("INVOKEDYNAMIC value")));
+    }
+
+    public void testDocFieldNotSpecializedWhenUsedDirectly() {
+        CompilerSettings settings = new CompilerSettings();
+        settings.setDocValuesTypes(Collections.singletonMap("l", ScriptDocValues.Longs.class));
+        String asm = Debugger.toString("def x = doc['l']; return x.value", settings);
+        assertThat(asm, not(containsString("CHECKCAST org/elasticsearch/index/fielddata/ScriptDocValues$Longs")));
+    }
+
+    public void testSpecializationIsCached() {
+        PainlessScriptEngineService service = new PainlessScriptEngineService(Settings.EMPTY);
+        Executable executable = (Executable) service.compile(null, "doc['l'].value", Collections.emptyMap());
+        Map<String, Class<?>> docValuesTypes = Collections.singletonMap("l", ScriptDocValues.Longs.class);
+        AtomicInteger compilations = new AtomicInteger();
+        Executable first = executable.getSpecialization(docValuesTypes, types -> {
+            compilations.incrementAndGet();
+            return (Executable) service.compile(null, "doc['l'].value", Collections.emptyMap());
+        });
+        Executable second = executable.getSpecialization(new HashMap<>(docValuesTypes), types -> {
+            compilations.incrementAndGet();
+            return executable;
+        });
+        assertThat(second, sameInstance(first));
+        assertEquals(1, compilations.get());
+        service.close();
+    }
+
+    public void testSearch() throws Exception {
+        IndexService index = createIndex("test", Settings.EMPTY, "type", "l", "type=long", "d", "type=double", "s", "type=keyword");
+        client().prepareIndex("test", "type", "1").setSource("l", 3, "d", 1.5, "s", "foo").get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        PainlessScriptEngineService service = new PainlessScriptEngineService(Settings.EMPTY);
+        SearchLookup lookup = new SearchLookup(index.mapperService(), index.fieldData(), null);
+
+        try (Engine.Searcher searcher = index.getShard(0).acquireSearcher("test")) {
+            LeafReaderContext context = searcher.reader().leaves().get(0);
+
+            assertEquals(4.5, run(service, lookup, context, "doc['l'].value + doc['d'].value"));
+            assertEquals(6L, run(service, lookup, context, "doc['l'].value * 2"));
+            assertEquals(1L, run(service, lookup, context, "doc['l'].value / 2"));
+            assertEquals("foo3", run(service, lookup, context, "doc['s'].value + doc['l'].value"));
+            assertEquals(3L, run(service, lookup, context, "doc['l'].values[0]"));
+        }
+        service.close();
+    }
+
+    public void testSearchOtherNumericFields() throws Exception {
+        IndexService index = createIndex("test", Settings.EMPTY, "type",
+            "p", "type=scaled_float,scaling_factor=100", "dt", "type=date", "b", "type=boolean");
+        client().prepareIndex("test", "type", "1").setSource("p", 1.25, "dt", "2016-01-01", "b", true).get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        PainlessScriptEngineService service = new PainlessScriptEngineService(Settings.EMPTY);
+        SearchLookup lookup = new SearchLookup(index.mapperService(), index.fieldData(), null);
+
+        try (Engine.Searcher searcher = index.getShard(0).acquireSearcher("test")) {
+            LeafReaderContext context = searcher.reader().leaves().get(0);
+
+            // scaled_float field data reports a long numeric type but reads as doubles
+            assertEquals(1.25, run(service, lookup, context, "doc['p'].value"));
+            assertEquals(2.5, run(service, lookup, context, "doc['p'].value * 2"));
+            assertEquals(1451606400000L, run(service, lookup, context, "doc['dt'].value"));
+            assertEquals(1451606400001L, run(service, lookup, context, "doc['dt'].value + doc['b'].value"));
+            assertEquals(1L, run(service, lookup, context, "doc['b'].value"));
+        }
+        service.close();
+    }
+
+    private static Object run(PainlessScriptEngineService service, SearchLookup lookup, LeafReaderContext context, String script)
+            throws Exception {
+        Object compiled = service.compile(null, script, Collections.emptyMap());
+        SearchScript searchScript = service.search(new CompiledScript(ScriptType.INLINE, "randomName", "painless", compiled),
+                                                   lookup, Collections.emptyMap());
+        LeafSearchScript leafScript = searchScript.getLeafSearchScript(context);
+        leafScript.setDocument(0);
+        return leafScript.run();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.StringHelper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Selects the percolator queries that may match the document being percolated. For each percolator query it counts how
+ * many of its extracted terms and ranges match the document and only selects the query if at least the query's minimum
+ * number of extractions match. Percolator queries from which nothing could be extracted are always selected.
+ */
+final class CandidateMatchesQuery extends Query {
+
+    /**
+     * The highest minimum number of matching extractions that is enforced, matches are counted up to this number.
+     */
+    static final int MAX_MINIMUM_SHOULD_MATCH = Byte.MAX_VALUE;
+
+    private final String termsField;
+    private final List<BytesRef> terms;
+    private final String rangesField;
+    private final List<byte[][]> ranges;
+    private final String minimumShouldMatchField;
+    private final Term extractionFailedTerm;
+
+    /**
+     * @param termsField              the field holding the extracted terms of percolator queries
+     * @param terms                   the terms of the document, encoded the way extracted terms are
+     * @param rangesField             the field holding the extracted ranges of percolator queries
+     * @param ranges                  the smallest and largest value of each point field of the document, encoded the way
+     *                                extracted ranges are
+     * @param minimumShouldMatchField the field holding the minimum number of extractions a percolator query requires
+     * @param extractionFailedTerm    the term marking percolator queries from which nothing could be extracted
+     */
+    CandidateMatchesQuery(String termsField, List<BytesRef> terms, String rangesField, List<byte[][]> ranges,
+                          String minimumShouldMatchField, Term extractionFailedTerm) {
+        this.termsField = Objects.requireNonNull(termsField);
+        this.terms = Objects.requireNonNull(terms);
+        this.rangesField = Objects.requireNonNull(rangesField);
+        this.ranges = Objects.requireNonNull(ranges);
+        this.minimumShouldMatchField = Objects.requireNonNull(minimumShouldMatchField);
+        this.extractionFailedTerm = Objects.requireNonNull(extractionFailedTerm);
+    }
+
+    List<BytesRef> getTerms() {
+        return terms;
+    }
+
+    List<byte[][]> getRanges() {
+        return ranges;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
+        return new ConstantScoreWeight(this) {
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                LeafReader reader = context.reader();
+                byte[] counts = new byte[reader.maxDoc()];
+                countTerms(reader, counts);
+                countRanges(reader, counts);
+
+                FixedBitSet candidates = new FixedBitSet(reader.maxDoc());
+                SortedNumericDocValues minimumShouldMatchValues = DocValues.getSortedNumeric(reader, minimumShouldMatchField);
+                for (int docId = 0; docId < counts.length; docId++) {
+                    if (counts[docId] == 0) {
+                        continue;
+                    }
+                    // percolator queries without a minimum should match only require one of their extractions to match
+                    int minimumShouldMatch = 1;
+                    minimumShouldMatchValues.setDocument(docId);
+                    if (minimumShouldMatchValues.count() > 0) {
+                        minimumShouldMatch = (int) minimumShouldMatchValues.valueAt(0);
+                    }
+                    if (counts[docId] >= Math.min(minimumShouldMatch, MAX_MINIMUM_SHOULD_MATCH)) {
+                        candidates.set(docId);
+                    }
+                }
+                addExtractionFailed(reader, candidates);
+
+                long cost = candidates.cardinality();
+                if (cost == 0) {
+                    return null;
+                }
+                return new ConstantScoreScorer(this, score(), new BitSetIterator(candidates, cost));
+            }
+        };
+    }
+
+    private void countTerms(LeafReader reader, byte[] counts) throws IOException {
+        Terms indexedTerms = reader.terms(termsField);
+        if (indexedTerms == null) {
+            return;
+        }
+        TermsEnum termsEnum = indexedTerms.iterator();
+        PostingsEnum postings = null;
+        for (BytesRef term : terms) {
+            if (termsEnum.seekExact(term)) {
+                postings = termsEnum.postings(postings, PostingsEnum.NONE);
+                for (int docId = postings.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = postings.nextDoc()) {
+                    increment(counts, docId);
+                }
+            }
+        }
+    }
+
+    private void countRanges(LeafReader reader, byte[] counts) throws IOException {
+        FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(rangesField);
+        if (fieldInfo == null || fieldInfo.getPointDimensionCount() == 0) {
+            return;
+        }
+        PointValues pointValues = reader.getPointValues();
+        final int bytesPerDim = fieldInfo.getPointNumBytes();
+        for (byte[][] range : ranges) {
+            final byte[] min = range[0];
+            final byte[] max = range[1];
+            // An extracted range is indexed as a point with its lower bound as first and its upper bound as second
+            // dimension, it may contain values of the document if the lower bound is below the document's largest
+            // value and the upper bound is above the document's smallest value.
+            pointValues.intersect(rangesField, new PointValues.IntersectVisitor() {
+                @Override
+                public void visit(int docId) throws IOException {
+                    increment(counts, docId);
+                }
+
+                @Override
+                public void visit(int docId, byte[] packedValue) throws IOException {
+                    if (StringHelper.compare(bytesPerDim, packedValue, 0, max, 0) <= 0
+                            && StringHelper.compare(bytesPerDim, packedValue, bytesPerDim, min, 0) >= 0) {
+                        increment(counts, docId);
+                    }
+                }
+
+                @Override
+                public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                    if (StringHelper.compare(bytesPerDim, minPackedValue, 0, max, 0) > 0
+                            || StringHelper.compare(bytesPerDim, maxPackedValue, bytesPerDim, min, 0) < 0) {
+                        return PointValues.Relation.CELL_OUTSIDE_QUERY;
+                    }
+                    if (StringHelper.compare(bytesPerDim, maxPackedValue, 0, max, 0) <= 0
+                            && StringHelper.compare(bytesPerDim, minPackedValue, bytesPerDim, min, 0) >= 0) {
+                        return PointValues.Relation.CELL_INSIDE_QUERY;
+                    }
+                    return PointValues.Relation.CELL_CROSSES_QUERY;
+                }
+            });
+        }
+    }
+
+    private void addExtractionFailed(LeafReader reader, FixedBitSet candidates) throws IOException {
+        // Percolator queries from which nothing could be extracted always need to be verified by MemoryIndex:
+        Terms extractionResults = reader.terms(extractionFailedTerm.field());
+        if (extractionResults == null) {
+            return;
+        }
+        TermsEnum termsEnum = extractionResults.iterator();
+        if (termsEnum.seekExact(extractionFailedTerm.bytes())) {
+            PostingsEnum postings = termsEnum.postings(null, PostingsEnum.NONE);
+            for (int docId = postings.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = postings.nextDoc()) {
+                candidates.set(docId);
+            }
+        }
+    }
+
+    private static void increment(byte[] counts, int docId) {
+        if (counts[docId] < MAX_MINIMUM_SHOULD_MATCH) {
+            counts[docId]++;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (sameClassAs(o) == false) return false;
+        CandidateMatchesQuery that = (CandidateMatchesQuery) o;
+        if (termsField.equals(that.termsField) == false) return false;
+        if (terms.equals(that.terms) == false) return false;
+        if (rangesField.equals(that.rangesField) == false) return false;
+        if (ranges.size() != that.ranges.size()) return false;
+        for (int i = 0; i < ranges.size(); i++) {
+            if (Arrays.deepEquals(ranges.get(i), that.ranges.get(i)) == false) return false;
+        }
+        if (minimumShouldMatchField.equals(that.minimumShouldMatchField) == false) return false;
+        return extractionFailedTerm.equals(that.extractionFailedTerm);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = classHash();
+        result = 31 * result + termsField.hashCode();
+        result = 31 * result + terms.hashCode();
+        result = 31 * result + rangesField.hashCode();
+        for (byte[][] range : ranges) {
+            result = 31 * result + Arrays.deepHashCode(range);
+        }
+        result = 31 * result + minimumShouldMatchField.hashCode();
+        result = 31 * result + extractionFailedTerm.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString(String field) {
+        return "CandidateMatchesQuery{terms=" + terms.size() + ",ranges=" + ranges.size() + ",minimum_should_match_field="
+                + minimumShouldMatchField + "}";
+    }
+
+}
@@ -34,8 +34,12 @@ import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Bits;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.search.profile.query.ProfileCounters;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -44,17 +48,21 @@ final class PercolateQuery extends Query implements Accountable {
     // cost of matching the query against the document, arbitrary as it would be really complex to estimate
     public static final float MATCH_COST = 1000;
 
+    static final String CANDIDATES_COUNT = "percolator_candidates_count";
+    static final String MATCHES_COUNT = "percolator_matches_count";
+    static final String VERIFICATIONS_COUNT = "percolator_verifications_count";
+
     private final String documentType;
     private final QueryStore queryStore;
-    private final BytesReference documentSource;
+    private final List<BytesReference> documents;
     private final Query candidateMatchesQuery;
     private final Query verifiedMatchesQuery;
     private final IndexSearcher percolatorIndexSearcher;
 
-    PercolateQuery(String documentType, QueryStore queryStore, BytesReference documentSource,
+    PercolateQuery(String documentType, QueryStore queryStore, List<BytesReference> documents,
                           Query candidateMatchesQuery, IndexSearcher percolatorIndexSearcher, Query verifiedMatchesQuery) {
         this.documentType = Objects.requireNonNull(documentType);
-        this.documentSource = Objects.requireNonNull(documentSource);
+        this.documents = Objects.requireNonNull(documents);
         this.candidateMatchesQuery = Objects.requireNonNull(candidateMatchesQuery);
         this.queryStore = Objects.requireNonNull(queryStore);
         this.percolatorIndexSearcher = Objects.requireNonNull(percolatorIndexSearcher);
@@ -65,7 +73,7 @@ final class PercolateQuery extends Query implements Accountable {
     public Query rewrite(IndexReader reader) throws IOException {
         Query rewritten = candidateMatchesQuery.rewrite(reader);
         if (rewritten != candidateMatchesQuery) {
-            return new PercolateQuery(documentType, queryStore, documentSource, rewritten, percolatorIndexSearcher,
+            return new PercolateQuery(documentType, queryStore, documents, rewritten, percolatorIndexSearcher,
                     verifiedMatchesQuery);
         } else {
             return this;
@@ -76,7 +84,7 @@ final class PercolateQuery extends Query implements Accountable {
     public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
         final Weight verifiedMatchesWeight = verifiedMatchesQuery.createWeight(searcher, false);
         final Weight candidateMatchesWeight = candidateMatchesQuery.createWeight(searcher, false);
-        return new Weight(this) {
+        return new PercolateWeight(this) {
             @Override
             public void extractTerms(Set<Term> set) {
             }
@@ -130,6 +138,7 @@ final class PercolateQuery extends Query implements Accountable {
                         boolean matchDocId(int docId) throws IOException {
                             Query query = percolatorQueries.getQuery(docId);
                             if (query != null) {
+                                percolateWeight.verifications++;
                                 TopDocs topDocs = percolatorIndexSearcher.search(query, 1);
                                 if (topDocs.totalHits > 0) {
                                     score = topDocs.scoreDocs[0].score;
@@ -167,7 +176,11 @@ final class PercolateQuery extends Query implements Accountable {
                                 return true;
                             }
                             Query query = percolatorQueries.getQuery(docId);
-                            return query != null && Lucene.exists(percolatorIndexSearcher, query);
+                            if (query == null) {
+                                return false;
+                            }
+                            percolateWeight.verifications++;
+                            return Lucene.exists(percolatorIndexSearcher, query);
                         }
                     };
                 }
@@ -183,8 +196,11 @@ final class PercolateQuery extends Query implements Accountable {
         return documentType;
     }
 
-    public BytesReference getDocumentSource() {
-        return documentSource;
+    /**
+     * @return the documents being percolated, in the order of their root documents in the percolator index searcher
+     */
+    public List<BytesReference> getDocuments() {
+        return documents;
     }
 
     public QueryStore getQueryStore() {
@@ -200,7 +216,7 @@ final class PercolateQuery extends Query implements Accountable {
         PercolateQuery that = (PercolateQuery) o;
 
         if (!documentType.equals(that.documentType)) return false;
-        return documentSource.equals(that.documentSource);
+        return documents.equals(that.documents);
 
     }
 
@@ -208,19 +224,30 @@ final class PercolateQuery extends Query implements Accountable {
     public int hashCode() {
         int result = classHash();
         result = 31 * result + documentType.hashCode();
-        result = 31 * result + documentSource.hashCode();
+        result = 31 * result + documents.hashCode();
         return result;
     }
 
     @Override
     public String toString(String s) {
-        return "PercolateQuery{document_type={" + documentType + "},document_source={" + documentSource.utf8ToString() +
+        StringBuilder sources = new StringBuilder();
+        for (BytesReference document : documents) {
+            if (sources.length() > 0) {
+                sources.append(',');
+            }
+            sources.append(document.utf8ToString());
+        }
+        return "PercolateQuery{document_type={" + documentType + "},document_sources={" + sources +
                 "},inner={" + candidateMatchesQuery.toString(s)  + "}}";
     }
 
     @Override
     public long ramBytesUsed() {
-        return documentSource.ramBytesUsed();
+        long ramUsed = 0;
+        for (BytesReference document : documents) {
+            ramUsed += document.ramBytesUsed();
+        }
+        return ramUsed;
     }
 
     @FunctionalInterface
@@ -237,14 +264,42 @@ final class PercolateQuery extends Query implements Accountable {
 
     }
 
+    /**
+     * Counts the candidate matches, how many of them matched and how many of them had to be verified by running the
+     * percolator query, so that the selectivity of the candidate query shows up when the percolate query is profiled.
+     */
+    abstract static class PercolateWeight extends Weight implements ProfileCounters {
+
+        long candidates;
+        long matches;
+        long verifications;
+
+        PercolateWeight(Query query) {
+            super(query);
+        }
+
+        @Override
+        public Map<String, Long> getProfileCounts() {
+            Map<String, Long> counts = new HashMap<>();
+            counts.put(CANDIDATES_COUNT, candidates);
+            counts.put(MATCHES_COUNT, matches);
+            counts.put(VERIFICATIONS_COUNT, verifications);
+            return counts;
+        }
+
+    }
+
     abstract static class BaseScorer extends Scorer {
 
+        final PercolateWeight percolateWeight;
         final Scorer approximation;
         final QueryStore.Leaf percolatorQueries;
         final IndexSearcher percolatorIndexSearcher;
 
-        BaseScorer(Weight weight, Scorer approximation, QueryStore.Leaf percolatorQueries, IndexSearcher percolatorIndexSearcher) {
+        BaseScorer(PercolateWeight weight, Scorer approximation, QueryStore.Leaf percolatorQueries,
+                   IndexSearcher percolatorIndexSearcher) {
             super(weight);
+            this.percolateWeight = weight;
             this.approximation = approximation;
             this.percolatorQueries = percolatorQueries;
             this.percolatorIndexSearcher = percolatorIndexSearcher;
@@ -260,7 +315,12 @@ final class PercolateQuery extends Query implements Accountable {
             return new TwoPhaseIterator(approximation.iterator()) {
                 @Override
                 public boolean matches() throws IOException {
-                    return matchDocId(approximation.docID());
+                    percolateWeight.candidates++;
+                    if (matchDocId(approximation.docID())) {
+                        percolateWeight.matches++;
+                        return true;
+                    }
+                    return false;
                 }
 
                 @Override
@@ -74,6 +74,9 @@ import org.elasticsearch.index.query.QueryShardContext;
 import org.elasticsearch.index.query.QueryShardException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -84,6 +87,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     public static final String NAME = "percolate";
 
     static final ParseField DOCUMENT_FIELD = new ParseField("document");
+    static final ParseField DOCUMENTS_FIELD = new ParseField("documents");
     private static final ParseField QUERY_FIELD = new ParseField("field");
     private static final ParseField DOCUMENT_TYPE_FIELD = new ParseField("document_type");
     private static final ParseField INDEXED_DOCUMENT_FIELD_INDEX = new ParseField("index");
@@ -95,7 +99,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     private final String field;
     private final String documentType;
-    private final BytesReference document;
+    private final List<BytesReference> documents;
 
     private final String indexedDocumentIndex;
     private final String indexedDocumentType;
@@ -105,18 +109,31 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
     private final Long indexedDocumentVersion;
 
     public PercolateQueryBuilder(String field, String documentType, BytesReference document) {
+        this(field, documentType, Collections.singletonList(document));
+    }
+
+    /**
+     * Percolates multiple documents at once. The documents are indexed together, so each percolator query is only
+     * evaluated once and a hit is returned for every percolator query that matches at least one of the documents.
+     */
+    public PercolateQueryBuilder(String field, String documentType, List<BytesReference> documents) {
         if (field == null) {
             throw new IllegalArgumentException("[field] is a required argument");
         }
         if (documentType == null) {
             throw new IllegalArgumentException("[document_type] is a required argument");
         }
-        if (document == null) {
-            throw new IllegalArgumentException("[document] is a required argument");
+        if (documents == null || documents.isEmpty()) {
+            throw new IllegalArgumentException("[documents] is a required argument");
+        }
+        for (BytesReference document : documents) {
+            if (document == null) {
+                throw new IllegalArgumentException("[document] is a required argument");
+            }
         }
         this.field = field;
         this.documentType = documentType;
-        this.document = document;
+        this.documents = documents;
         indexedDocumentIndex = null;
         indexedDocumentType = null;
         indexedDocumentId = null;
@@ -151,7 +168,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         this.indexedDocumentRouting = indexedDocumentRouting;
         this.indexedDocumentPreference = indexedDocumentPreference;
         this.indexedDocumentVersion = indexedDocumentVersion;
-        this.document = null;
+        this.documents = Collections.emptyList();
     }
 
     /**
@@ -171,7 +188,17 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         } else {
             indexedDocumentVersion = null;
         }
-        document = in.readOptionalBytesReference();
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            int size = in.readVInt();
+            List<BytesReference> documents = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                documents.add(in.readBytesReference());
+            }
+            this.documents = documents;
+        } else {
+            BytesReference document = in.readOptionalBytesReference();
+            documents = document != null ? Collections.singletonList(document) : Collections.emptyList();
+        }
     }
 
     @Override
@@ -189,7 +216,18 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         } else {
             out.writeBoolean(false);
         }
-        out.writeOptionalBytesReference(document);
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeVInt(documents.size());
+            for (BytesReference document : documents) {
+                out.writeBytesReference(document);
+            }
+        } else {
+            if (documents.size() > 1) {
+                throw new IllegalArgumentException("Nodes prior to " + Version.V_5_0_0_alpha6 + " don't support percolating " +
+                        "multiple documents");
+            }
+            out.writeOptionalBytesReference(documents.isEmpty() ? null : documents.get(0));
+        }
     }
 
     @Override
@@ -197,17 +235,15 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         builder.startObject(NAME);
         builder.field(DOCUMENT_TYPE_FIELD.getPreferredName(), documentType);
         builder.field(QUERY_FIELD.getPreferredName(), field);
-        if (document != null) {
-            XContentType contentType = XContentFactory.xContentType(document);
-            if (contentType == builder.contentType()) {
-                builder.rawField(DOCUMENT_FIELD.getPreferredName(), document);
-            } else {
-                try (XContentParser parser = XContentFactory.xContent(contentType).createParser(document)) {
-                    parser.nextToken();
-                    builder.field(DOCUMENT_FIELD.getPreferredName());
-                    builder.copyCurrentStructure(parser);
-                }
+        if (documents.size() == 1) {
+            builder.field(DOCUMENT_FIELD.getPreferredName());
+            writeDocument(builder, documents.get(0));
+        } else if (documents.size() > 1) {
+            builder.startArray(DOCUMENTS_FIELD.getPreferredName());
+            for (BytesReference document : documents) {
+                writeDocument(builder, document);
             }
+            builder.endArray();
         }
         if (indexedDocumentIndex != null || indexedDocumentType != null || indexedDocumentId != null) {
             if (indexedDocumentIndex != null) {
@@ -233,6 +269,14 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         builder.endObject();
     }
 
+    private static void writeDocument(XContentBuilder builder, BytesReference document) throws IOException {
+        XContentType contentType = XContentFactory.xContentType(document);
+        try (XContentParser parser = XContentFactory.xContent(contentType).createParser(document)) {
+            parser.nextToken();
+            builder.copyCurrentStructure(parser);
+        }
+    }
+
     public static Optional<PercolateQueryBuilder> fromXContent(QueryParseContext parseContext) throws IOException {
         XContentParser parser = parseContext.parser();
         float boost = AbstractQueryBuilder.DEFAULT_BOOST;
@@ -247,7 +291,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         String indexedDocumentPreference = null;
         Long indexedDocumentVersion = null;
 
-        BytesReference source = null;
+        List<BytesReference> documents = new ArrayList<>();
 
         String queryName = null;
         String currentFieldName = null;
@@ -256,13 +300,31 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
             if (token == XContentParser.Token.FIELD_NAME) {
                 currentFieldName = parser.currentName();
+            } else if (token == XContentParser.Token.START_ARRAY) {
+                if (parseContext.getParseFieldMatcher().match(currentFieldName, DOCUMENTS_FIELD)) {
+                    if (documents.isEmpty() == false) {
+                        throw new IllegalArgumentException("[" + PercolateQueryBuilder.NAME + "] Either specified [document] or " +
+                                "[documents], not both");
+                    }
+                    while ((token = parser.nextToken()) != XContentParser.Token.END_ARRAY) {
+                        if (token == XContentParser.Token.START_OBJECT) {
+                            documents.add(parseDocument(parser));
+                        } else {
+                            throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME + "] query " +
+                                    "does not support [" + token + "] in [" + DOCUMENTS_FIELD.getPreferredName() + "]");
+                        }
+                    }
+                } else {
+                    throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME +
+                            "] query does not support [" + token + "]");
+                }
             } else if (token == XContentParser.Token.START_OBJECT) {
                 if (parseContext.getParseFieldMatcher().match(currentFieldName, DOCUMENT_FIELD)) {
-                    try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
-                        builder.copyCurrentStructure(parser);
-                        builder.flush();
-                        source = builder.bytes();
+                    if (documents.isEmpty() == false) {
+                        throw new IllegalArgumentException("[" + PercolateQueryBuilder.NAME + "] Either specified [document] or " +
+                                "[documents], not both");
                     }
+                    documents.add(parseDocument(parser));
                 } else {
                     throw new ParsingException(parser.getTokenLocation(), "[" + PercolateQueryBuilder.NAME +
                             "] query does not support [" + token + "]");
@@ -304,8 +366,8 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         }
 
         PercolateQueryBuilder queryBuilder;
-        if (source != null) {
-            queryBuilder = new PercolateQueryBuilder(field, documentType, source);
+        if (documents.isEmpty() == false) {
+            queryBuilder = new PercolateQueryBuilder(field, documentType, documents);
         } else if (indexedDocumentId != null) {
             queryBuilder = new PercolateQueryBuilder(field, documentType, indexedDocumentIndex, indexedDocumentType,
                     indexedDocumentId, indexedDocumentRouting, indexedDocumentPreference, indexedDocumentVersion);
@@ -317,11 +379,19 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         return Optional.of(queryBuilder);
     }
 
+    private static BytesReference parseDocument(XContentParser parser) throws IOException {
+        try (XContentBuilder builder = XContentFactory.jsonBuilder()) {
+            builder.copyCurrentStructure(parser);
+            builder.flush();
+            return builder.bytes();
+        }
+    }
+
     @Override
     protected boolean doEquals(PercolateQueryBuilder other) {
         return Objects.equals(field, other.field)
                 && Objects.equals(documentType, other.documentType)
-                && Objects.equals(document, other.document)
+                && Objects.equals(documents, other.documents)
                 && Objects.equals(indexedDocumentIndex, other.indexedDocumentIndex)
                 && Objects.equals(indexedDocumentType, other.indexedDocumentType)
                 && Objects.equals(indexedDocumentId, other.indexedDocumentId);
@@ -329,7 +399,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     @Override
     protected int doHashCode() {
-        return Objects.hash(field, documentType, document, indexedDocumentIndex, indexedDocumentType, indexedDocumentId);
+        return Objects.hash(field, documentType, documents, indexedDocumentIndex, indexedDocumentType, indexedDocumentId);
     }
 
     @Override
@@ -339,7 +409,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
 
     @Override
     protected QueryBuilder doRewrite(QueryRewriteContext queryShardContext) throws IOException {
-        if (document != null) {
+        if (documents.isEmpty() == false) {
             return this;
         }
 
@@ -370,7 +440,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             throw new IllegalStateException("query builder must be rewritten first");
         }
 
-        if (document == null) {
+        if (documents.isEmpty()) {
             throw new IllegalStateException("no document to percolate");
         }
 
@@ -378,7 +448,10 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         DocumentMapperForType docMapperForType = mapperService.documentMapperWithAutoCreate(documentType);
         DocumentMapper docMapper = docMapperForType.getDocumentMapper();
 
-        ParsedDocument doc = docMapper.parse(source(context.index().getName(), documentType, "_temp_id", document));
+        List<ParsedDocument> docs = new ArrayList<>(documents.size());
+        for (BytesReference document : documents) {
+            docs.add(docMapper.parse(source(context.index().getName(), documentType, "_temp_id", document)));
+        }
 
         FieldNameAnalyzer fieldNameAnalyzer = (FieldNameAnalyzer) docMapper.mappers().indexAnalyzer();
         // Need to this custom impl because FieldNameAnalyzer is strict and the percolator sometimes isn't when
@@ -395,11 +468,11 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             }
         };
         final IndexSearcher docSearcher;
-        if (doc.docs().size() > 1) {
-            assert docMapper.hasNestedObjects();
-            docSearcher = createMultiDocumentSearcher(analyzer, doc);
+        if (docs.size() > 1 || docs.get(0).docs().size() > 1) {
+            assert docs.size() > 1 || docMapper.hasNestedObjects();
+            docSearcher = createMultiDocumentSearcher(analyzer, docs);
         } else {
-            MemoryIndex memoryIndex = MemoryIndex.fromDocument(doc.rootDoc(), analyzer, true, false);
+            MemoryIndex memoryIndex = MemoryIndex.fromDocument(docs.get(0).rootDoc(), analyzer, true, false);
             docSearcher = memoryIndex.createSearcher();
             docSearcher.setQueryCache(null);
         }
@@ -419,11 +492,11 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             }
             PercolatorFieldMapper.FieldType pft = (PercolatorFieldMapper.FieldType) fieldType;
             PercolateQuery.QueryStore queryStore = createStore(pft, context, mapUnmappedFieldsAsString);
-            return pft.percolateQuery(documentType, queryStore, document, docSearcher);
+            return pft.percolateQuery(documentType, queryStore, documents, docSearcher);
         } else {
             Query percolateTypeQuery = new TermQuery(new Term(TypeFieldMapper.NAME, MapperService.PERCOLATOR_LEGACY_TYPE_NAME));
             PercolateQuery.QueryStore queryStore = createLegacyStore(context, mapUnmappedFieldsAsString);
-            return new PercolateQuery(documentType, queryStore, document, percolateTypeQuery, docSearcher,
+            return new PercolateQuery(documentType, queryStore, documents, percolateTypeQuery, docSearcher,
                     new MatchNoDocsQuery("pre 5.0.0-alpha1 index, no verified matches"));
         }
     }
@@ -436,14 +509,17 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
         return documentType;
     }
 
-    public BytesReference getDocument() {
-        return document;
+    public List<BytesReference> getDocuments() {
+        return documents;
     }
 
-    static IndexSearcher createMultiDocumentSearcher(Analyzer analyzer, ParsedDocument doc) {
+    static IndexSearcher createMultiDocumentSearcher(Analyzer analyzer, List<ParsedDocument> docs) {
         RAMDirectory ramDirectory = new RAMDirectory();
         try (IndexWriter indexWriter = new IndexWriter(ramDirectory, new IndexWriterConfig(analyzer))) {
-            indexWriter.addDocuments(doc.docs());
+            // each document is added as a block, so that the root documents are in the same order as the documents
+            for (ParsedDocument doc : docs) {
+                indexWriter.addDocuments(doc.docs());
+            }
             indexWriter.commit();
             DirectoryReader directoryReader = DirectoryReader.open(ramDirectory);
             assert directoryReader.leaves().size() == 1 : "Expected single leaf, but got [" + directoryReader.leaves().size() + "]";
@@ -461,7 +537,7 @@ public class PercolateQueryBuilder extends AbstractQueryBuilder<PercolateQueryBu
             slowSearcher.setQueryCache(null);
             return slowSearcher;
         } catch (IOException e) {
-            throw new ElasticsearchException("Failed to create index for percolator with nested document ", e);
+            throw new ElasticsearchException("Failed to create index for percolator with multiple documents", e);
         }
     }
 
@@ -18,16 +18,19 @@
  */
 package org.elasticsearch.percolator;
 
+import org.apache.lucene.document.BinaryPoint;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.Fields;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
-import org.apache.lucene.queries.TermsQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
@@ -35,6 +38,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.hash.MurmurHash3;
 import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
@@ -49,6 +53,7 @@ import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.Mapper;
 import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 import org.elasticsearch.index.mapper.ParseContext;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.BoostingQueryBuilder;
@@ -61,6 +66,7 @@ import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.functionscore.FunctionScoreQueryBuilder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -84,6 +90,11 @@ public class PercolatorFieldMapper extends FieldMapper {
     public static final String EXTRACTED_TERMS_FIELD_NAME = "extracted_terms";
     public static final String EXTRACTION_RESULT_FIELD_NAME = "extraction_result";
     public static final String QUERY_BUILDER_FIELD_NAME = "query_builder_field";
+    public static final String EXTRACTED_RANGES_FIELD_NAME = "extracted_ranges";
+    public static final String MINIMUM_SHOULD_MATCH_FIELD_NAME = "minimum_should_match";
+
+    // the number of bytes each bound of an extracted range is encoded in
+    static final int RANGE_BOUND_NUM_BYTES = PointValues.MAX_NUM_BYTES;
 
     public static class Builder extends FieldMapper.Builder<Builder, PercolatorFieldMapper> {
 
@@ -104,11 +115,14 @@ public class PercolatorFieldMapper extends FieldMapper {
             fieldType.extractionResultField = extractionResultField.fieldType();
             BinaryFieldMapper queryBuilderField = createQueryBuilderFieldBuilder(context);
             fieldType.queryBuilderField = queryBuilderField.fieldType();
+            NumberFieldMapper minimumShouldMatchField = createMinimumShouldMatchFieldBuilder(context);
+            fieldType.minimumShouldMatchField = minimumShouldMatchField.fieldType();
+            fieldType.extractedRangesFieldName = context.path().pathAsText(EXTRACTED_RANGES_FIELD_NAME);
             context.path().remove();
             setupFieldType(context);
             return new PercolatorFieldMapper(name(), fieldType, defaultFieldType, context.indexSettings(),
                     multiFieldsBuilder.build(this, context), copyTo, queryShardContext, extractedTermsField,
-                    extractionResultField, queryBuilderField);
+                    extractionResultField, queryBuilderField, minimumShouldMatchField);
         }
 
         static KeywordFieldMapper createExtractQueryFieldBuilder(String name, BuilderContext context) {
@@ -128,6 +142,15 @@ public class PercolatorFieldMapper extends FieldMapper {
             return builder.build(context);
         }
 
+        static NumberFieldMapper createMinimumShouldMatchFieldBuilder(BuilderContext context) {
+            NumberFieldMapper.Builder builder = new NumberFieldMapper.Builder(MINIMUM_SHOULD_MATCH_FIELD_NAME,
+                    NumberFieldMapper.NumberType.INTEGER);
+            builder.index(false);
+            builder.store(false);
+            builder.docValues(true);
+            return builder.build(context);
+        }
+
     }
 
     public static class TypeParser implements FieldMapper.TypeParser {
@@ -143,6 +166,9 @@ public class PercolatorFieldMapper extends FieldMapper {
         MappedFieldType queryTermsField;
         MappedFieldType extractionResultField;
         MappedFieldType queryBuilderField;
+        MappedFieldType minimumShouldMatchField;
+        // extracted ranges are indexed as points, which have no mapper of their own
+        String extractedRangesFieldName;
 
         public FieldType() {
             setIndexOptions(IndexOptions.NONE);
@@ -155,6 +181,8 @@ public class PercolatorFieldMapper extends FieldMapper {
             queryTermsField = ref.queryTermsField;
             extractionResultField = ref.extractionResultField;
             queryBuilderField = ref.queryBuilderField;
+            minimumShouldMatchField = ref.minimumShouldMatchField;
+            extractedRangesFieldName = ref.extractedRangesFieldName;
         }
 
         @Override
@@ -172,30 +200,27 @@ public class PercolatorFieldMapper extends FieldMapper {
             throw new QueryShardException(context, "Percolator fields are not searchable directly, use a percolate query instead");
         }
 
-        public Query percolateQuery(String documentType, PercolateQuery.QueryStore queryStore, BytesReference documentSource,
+        public Query percolateQuery(String documentType, PercolateQuery.QueryStore queryStore, List<BytesReference> documents,
                                     IndexSearcher searcher) throws IOException {
             IndexReader indexReader = searcher.getIndexReader();
             Query candidateMatchesQuery = createCandidateQuery(indexReader);
             Query verifiedMatchesQuery;
             // We can only skip the MemoryIndex verification when percolating a single document.
-            // When the document being percolated contains a nested object field then the MemoryIndex contains multiple
-            // documents. In this case the term query that indicates whether memory index verification can be skipped
-            // can incorrectly indicate that non nested queries would match, while their nested variants would not.
+            // When multiple documents are percolated or the document being percolated contains a nested object field then
+            // the index contains multiple documents. In this case the term query that indicates whether memory index
+            // verification can be skipped can incorrectly indicate that non nested queries would match, while their nested
+            // variants would not, and the matching slots of multiple documents are only known after verification.
             if (indexReader.maxDoc() == 1) {
                 verifiedMatchesQuery = new TermQuery(new Term(extractionResultField.name(), EXTRACTION_COMPLETE));
             } else {
-                verifiedMatchesQuery = new MatchNoDocsQuery("nested docs, so no verified matches");
+                verifiedMatchesQuery = new MatchNoDocsQuery("multiple or nested docs, so no verified matches");
             }
-            return new PercolateQuery(documentType, queryStore, documentSource, candidateMatchesQuery, searcher, verifiedMatchesQuery);
+            return new PercolateQuery(documentType, queryStore, documents, candidateMatchesQuery, searcher, verifiedMatchesQuery);
         }
 
         Query createCandidateQuery(IndexReader indexReader) throws IOException {
-            List<Term> extractedTerms = new ArrayList<>();
-            // include extractionResultField:failed, because docs with this term have no extractedTermsField
-            // and otherwise we would fail to return these docs. Docs that failed query term extraction
-            // always need to be verified by MemoryIndex:
-            extractedTerms.add(new Term(extractionResultField.name(), EXTRACTION_FAILED));
-
+            List<BytesRef> extractedTerms = new ArrayList<>();
+            List<byte[][]> extractedRanges = new ArrayList<>();
             LeafReader reader = indexReader.leaves().get(0).reader();
             Fields fields = reader.fields();
             for (String field : fields) {
@@ -211,10 +236,26 @@ public class PercolatorFieldMapper extends FieldMapper {
                     builder.append(fieldBr);
                     builder.append(FIELD_VALUE_SEPARATOR);
                     builder.append(term);
-                    extractedTerms.add(new Term(queryTermsField.name(), builder.toBytesRef()));
+                    extractedTerms.add(builder.toBytesRef());
                 }
             }
-            return new TermsQuery(extractedTerms);
+            PointValues pointValues = reader.getPointValues();
+            for (FieldInfo info : reader.getFieldInfos()) {
+                if (info.getPointDimensionCount() != 1) {
+                    continue;
+                }
+                byte[] minValue = pointValues.getMinPackedValue(info.name);
+                byte[] maxValue = pointValues.getMaxPackedValue(info.name);
+                if (minValue != null && maxValue != null) {
+                    extractedRanges.add(new byte[][] {encodeRangeBound(info.name, minValue), encodeRangeBound(info.name, maxValue)});
+                }
+            }
+            // include extractionResultField:failed, because docs with this term have no extractedTermsField
+            // and otherwise we would fail to return these docs. Docs that failed query term extraction
+            // always need to be verified by MemoryIndex:
+            Term extractionFailedTerm = new Term(extractionResultField.name(), EXTRACTION_FAILED);
+            return new CandidateMatchesQuery(queryTermsField.name(), extractedTerms, extractedRangesFieldName, extractedRanges,
+                    minimumShouldMatchField.name(), extractionFailedTerm);
         }
 
     }
@@ -224,16 +265,18 @@ public class PercolatorFieldMapper extends FieldMapper {
     private KeywordFieldMapper queryTermsField;
     private KeywordFieldMapper extractionResultField;
     private BinaryFieldMapper queryBuilderField;
+    private NumberFieldMapper minimumShouldMatchField;
 
     public PercolatorFieldMapper(String simpleName, MappedFieldType fieldType, MappedFieldType defaultFieldType,
                                  Settings indexSettings, MultiFields multiFields, CopyTo copyTo, QueryShardContext queryShardContext,
                                  KeywordFieldMapper queryTermsField, KeywordFieldMapper extractionResultField,
-                                 BinaryFieldMapper queryBuilderField) {
+                                 BinaryFieldMapper queryBuilderField, NumberFieldMapper minimumShouldMatchField) {
         super(simpleName, fieldType, defaultFieldType, indexSettings, multiFields, copyTo);
         this.queryShardContext = queryShardContext;
         this.queryTermsField = queryTermsField;
         this.extractionResultField = extractionResultField;
         this.queryBuilderField = queryBuilderField;
+        this.minimumShouldMatchField = minimumShouldMatchField;
         this.mapUnmappedFieldAsString = INDEX_MAP_UNMAPPED_FIELDS_AS_STRING_SETTING.get(indexSettings);
     }
 
@@ -243,9 +286,11 @@ public class PercolatorFieldMapper extends FieldMapper {
         KeywordFieldMapper queryTermsUpdated = (KeywordFieldMapper) queryTermsField.updateFieldType(fullNameToFieldType);
         KeywordFieldMapper extractionResultUpdated = (KeywordFieldMapper) extractionResultField.updateFieldType(fullNameToFieldType);
         BinaryFieldMapper queryBuilderUpdated = (BinaryFieldMapper) queryBuilderField.updateFieldType(fullNameToFieldType);
+        NumberFieldMapper minimumShouldMatchUpdated =
+                (NumberFieldMapper) minimumShouldMatchField.updateFieldType(fullNameToFieldType);
 
         if (updated == this && queryTermsUpdated == queryTermsField && extractionResultUpdated == extractionResultField
-                && queryBuilderUpdated == queryBuilderField) {
+                && queryBuilderUpdated == queryBuilderField && minimumShouldMatchUpdated == minimumShouldMatchField) {
             return this;
         }
         if (updated == this) {
@@ -254,6 +299,7 @@ public class PercolatorFieldMapper extends FieldMapper {
         updated.queryTermsField = queryTermsUpdated;
         updated.extractionResultField = extractionResultUpdated;
         updated.queryBuilderField = queryBuilderUpdated;
+        updated.minimumShouldMatchField = minimumShouldMatchUpdated;
         return updated;
     }
 
@@ -302,7 +348,14 @@ public class PercolatorFieldMapper extends FieldMapper {
             builder.append(term.bytes());
             doc.add(new Field(queryTermsField.name(), builder.toBytesRef(), queryTermsField.fieldType()));
         }
-        if (result.verified) {
+        for (QueryAnalyzer.Range range : result.ranges) {
+            byte[] lowerBound = encodeRangeBound(range.fieldName, range.lowerPoint);
+            byte[] upperBound = encodeRangeBound(range.fieldName, range.upperPoint);
+            doc.add(new BinaryPoint(pft.extractedRangesFieldName, lowerBound, upperBound));
+        }
+        doc.add(new SortedNumericDocValuesField(minimumShouldMatchField.name(), result.minimumShouldMatch));
+        // matching extractions are only counted up to a limit, beyond that candidate matches need to be verified
+        if (result.verified && result.minimumShouldMatch <= CandidateMatchesQuery.MAX_MINIMUM_SHOULD_MATCH) {
             doc.add(new Field(extractionResultField.name(), EXTRACTION_COMPLETE, extractionResultField.fieldType()));
         } else {
             doc.add(new Field(extractionResultField.name(), EXTRACTION_PARTIAL, extractionResultField.fieldType()));
@@ -342,7 +395,26 @@ public class PercolatorFieldMapper extends FieldMapper {
 
     @Override
     public Iterator<Mapper> iterator() {
-        return Arrays.<Mapper>asList(queryTermsField, extractionResultField, queryBuilderField).iterator();
+        return Arrays.<Mapper>asList(queryTermsField, extractionResultField, queryBuilderField, minimumShouldMatchField).iterator();
+    }
+
+    /**
+     * Encodes a bound of a range on the specified point field, so that ranges on all fields can be indexed in the same
+     * point field. The value is prefixed with a hash of the field name, so that bounds of the same field sort together
+     * and compare as the values of the field itself. Values that take up all the bytes get no prefix, which means that
+     * ranges of such fields may be selected for values of other fields and only causes additional candidate matches.
+     */
+    static byte[] encodeRangeBound(String field, byte[] value) {
+        byte[] encoded = new byte[RANGE_BOUND_NUM_BYTES];
+        byte[] fieldBytes = field.getBytes(StandardCharsets.UTF_8);
+        MurmurHash3.Hash128 hash = MurmurHash3.hash128(fieldBytes, 0, fieldBytes.length, 0, new MurmurHash3.Hash128());
+        int prefixLength = RANGE_BOUND_NUM_BYTES - value.length;
+        for (int i = 0; i < prefixLength; i++) {
+            long h = i < Long.BYTES ? hash.h1 : hash.h2;
+            encoded[i] = (byte) (h >>> (8 * (i % Long.BYTES)));
+        }
+        System.arraycopy(value, 0, encoded, prefixLength, value.length);
+        return encoded;
     }
 
     @Override
@@ -34,6 +34,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightPhase;
 import org.elasticsearch.search.fetch.subphase.highlight.Highlighter;
 import org.elasticsearch.search.fetch.subphase.highlight.SearchContextHighlight;
@@ -48,7 +49,8 @@ import java.util.Map;
 
 /**
  * Highlighting in the case of the percolate query is a bit different, because the PercolateQuery itself doesn't get highlighted,
- * but the source of the PercolateQuery gets highlighted by each hit containing a query.
+ * but the source of the PercolateQuery gets highlighted by each hit containing a query. When multiple documents are percolated,
+ * each document a hit matched with gets highlighted and the names of its highlight fields are prefixed with its slot.
  */
 public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
 
@@ -78,27 +80,51 @@ public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
 
         LeafReaderContext percolatorLeafReaderContext = percolatorIndexSearcher.getIndexReader().leaves().get(0);
         FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
-        SubSearchContext subSearchContext =
-                createSubSearchContext(context, percolatorLeafReaderContext, percolateQuery.getDocumentSource());
+        List<BytesReference> documents = percolateQuery.getDocuments();
+        final int[] rootDocs;
+        try {
+            rootDocs = documents.size() > 1 ? PercolatorMatchedSlotSubFetchPhase.rootDocs(percolatorIndexSearcher) : new int[] {0};
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
 
         for (InternalSearchHit hit : hits) {
             final Query query;
+            final int[] slots;
             try {
                 LeafReaderContext ctx = ctxs.get(ReaderUtil.subIndex(hit.docId(), ctxs));
                 int segmentDocId = hit.docId() - ctx.docBase;
                 query = queryStore.getQueries(ctx).getQuery(segmentDocId);
+                if (query == null) {
+                    continue;
+                }
+                if (documents.size() > 1) {
+                    slots = PercolatorMatchedSlotSubFetchPhase.matchingSlots(percolatorIndexSearcher, rootDocs, query);
+                } else {
+                    slots = new int[] {0};
+                }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            if (query != null) {
+            for (int slot : slots) {
+                int rootDocId = rootDocs[slot];
+                SubSearchContext subSearchContext =
+                        createSubSearchContext(context, percolatorLeafReaderContext, rootDocId, documents.get(slot));
                 subSearchContext.parsedQuery(new ParsedQuery(query));
                 hitContext.reset(
-                        new InternalSearchHit(0, "unknown", new Text(percolateQuery.getDocumentType()), Collections.emptyMap()),
-                        percolatorLeafReaderContext, 0, percolatorIndexSearcher
+                        new InternalSearchHit(rootDocId, "unknown", new Text(percolateQuery.getDocumentType()), Collections.emptyMap()),
+                        percolatorLeafReaderContext, rootDocId, percolatorIndexSearcher
                 );
                 hitContext.cache().clear();
                 super.hitExecute(subSearchContext, hitContext);
-                hit.highlightFields().putAll(hitContext.hit().getHighlightFields());
+                if (documents.size() > 1) {
+                    for (HighlightField field : hitContext.hit().getHighlightFields().values()) {
+                        String name = slot + "_" + field.name();
+                        hit.highlightFields().put(name, new HighlightField(name, field.fragments()));
+                    }
+                } else {
+                    hit.highlightFields().putAll(hitContext.hit().getHighlightFields());
+                }
             }
         }
     }
@@ -131,12 +157,13 @@ public final class PercolatorHighlightSubFetchPhase extends HighlightPhase {
         return null;
     }
 
-    private SubSearchContext createSubSearchContext(SearchContext context, LeafReaderContext leafReaderContext, BytesReference source) {
+    private SubSearchContext createSubSearchContext(SearchContext context, LeafReaderContext leafReaderContext, int docId,
+                                                    BytesReference source) {
         SubSearchContext subSearchContext = new SubSearchContext(context);
         subSearchContext.highlight(new SearchContextHighlight(context.highlight().fields()));
         // Enforce highlighting by source, because MemoryIndex doesn't support stored fields.
         subSearchContext.highlight().globalForceSource(true);
-        subSearchContext.lookup().source().setSegmentAndDocument(leafReaderContext, 0);
+        subSearchContext.lookup().source().setSegmentAndDocument(leafReaderContext, docId);
         subSearchContext.lookup().source().setSource(source);
         return subSearchContext;
     }
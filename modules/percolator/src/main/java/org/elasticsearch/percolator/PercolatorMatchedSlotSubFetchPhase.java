@@ -0,0 +1,129 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.percolator;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.search.internal.InternalSearchHitField;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.percolator.PercolatorHighlightSubFetchPhase.locatePercolatorQuery;
+
+/**
+ * When multiple documents are percolated at once, adds the slots of the documents that matched with a percolator query
+ * to each hit, so that it is known which of the documents a hit matched with.
+ */
+final class PercolatorMatchedSlotSubFetchPhase implements FetchSubPhase {
+
+    static final String FIELD_NAME = "_percolator_document_slot";
+
+    @Override
+    public void hitsExecute(SearchContext context, InternalSearchHit[] hits) {
+        PercolateQuery percolateQuery = locatePercolatorQuery(context.query());
+        if (percolateQuery == null || percolateQuery.getDocuments().size() <= 1) {
+            return;
+        }
+
+        List<LeafReaderContext> ctxs = context.searcher().getIndexReader().leaves();
+        IndexSearcher percolatorIndexSearcher = percolateQuery.getPercolatorIndexSearcher();
+        PercolateQuery.QueryStore queryStore = percolateQuery.getQueryStore();
+        try {
+            int[] rootDocs = rootDocs(percolatorIndexSearcher);
+            for (InternalSearchHit hit : hits) {
+                LeafReaderContext ctx = ctxs.get(ReaderUtil.subIndex(hit.docId(), ctxs));
+                int segmentDocId = hit.docId() - ctx.docBase;
+                Query query = queryStore.getQueries(ctx).getQuery(segmentDocId);
+                if (query == null) {
+                    continue;
+                }
+
+                List<Object> slots = new ArrayList<>();
+                for (int slot : matchingSlots(percolatorIndexSearcher, rootDocs, query)) {
+                    slots.add(slot);
+                }
+                Map<String, SearchHitField> fields = hit.fieldsOrNull();
+                if (fields == null) {
+                    fields = new HashMap<>();
+                    hit.fields(fields);
+                }
+                fields.put(FIELD_NAME, new InternalSearchHitField(FIELD_NAME, slots));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the doc ids of the root documents in the percolator index searcher, the position of a doc id is the slot of
+     *         the document it was created from
+     */
+    static int[] rootDocs(IndexSearcher percolatorIndexSearcher) throws IOException {
+        // the percolator index searcher excludes nested documents from every query it executes
+        return matchingDocs(percolatorIndexSearcher, new MatchAllDocsQuery());
+    }
+
+    /**
+     * @return the slots of the documents being percolated that match with the specified query
+     */
+    static int[] matchingSlots(IndexSearcher percolatorIndexSearcher, int[] rootDocs, Query query) throws IOException {
+        int[] matchingDocs = matchingDocs(percolatorIndexSearcher, query);
+        int[] slots = new int[matchingDocs.length];
+        for (int i = 0; i < matchingDocs.length; i++) {
+            slots[i] = Arrays.binarySearch(rootDocs, matchingDocs[i]);
+            assert slots[i] >= 0 : "doc [" + matchingDocs[i] + "] isn't a root doc";
+        }
+        return slots;
+    }
+
+    private static int[] matchingDocs(IndexSearcher percolatorIndexSearcher, Query query) throws IOException {
+        // the percolator index searcher always has a single segment
+        LeafReaderContext leaf = percolatorIndexSearcher.getIndexReader().leaves().get(0);
+        Weight weight = percolatorIndexSearcher.createNormalizedWeight(query, false);
+        Scorer scorer = weight.scorer(leaf);
+        if (scorer == null) {
+            return new int[0];
+        }
+        int[] docs = new int[8];
+        int size = 0;
+        DocIdSetIterator iterator = scorer.iterator();
+        for (int docId = iterator.nextDoc(); docId != DocIdSetIterator.NO_MORE_DOCS; docId = iterator.nextDoc()) {
+            docs = ArrayUtil.grow(docs, size + 1);
+            docs[size++] = docId;
+        }
+        return Arrays.copyOf(docs, size);
+    }
+}
@@ -64,7 +64,10 @@ public class PercolatorPlugin extends Plugin implements MapperPlugin, ActionPlug
 
     @Override
     public List<FetchSubPhase> getFetchSubPhases(FetchPhaseConstructionContext context) {
-        return singletonList(new PercolatorHighlightSubFetchPhase(settings, context.getHighlighters()));
+        return Arrays.asList(
+            new PercolatorMatchedSlotSubFetchPhase(),
+            new PercolatorHighlightSubFetchPhase(settings, context.getHighlighters())
+        );
     }
 
     @Override
@@ -29,6 +29,7 @@ import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PointRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
@@ -44,6 +45,7 @@ import org.elasticsearch.common.lucene.search.MatchNoDocsQuery;
 import org.elasticsearch.common.lucene.search.function.FunctionScoreQuery;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -75,6 +77,7 @@ public final class QueryAnalyzer {
         map.put(DisjunctionMaxQuery.class, disjunctionMaxQuery());
         map.put(SynonymQuery.class, synonymQuery());
         map.put(FunctionScoreQuery.class, functionScoreQuery());
+        map.put(PointRangeQuery.class, pointRangeQuery());
         queryProcessors = Collections.unmodifiableMap(map);
     }
 
@@ -82,12 +85,17 @@ public final class QueryAnalyzer {
     }
 
     /**
-     * Extracts terms from the provided query. These terms are stored with the percolator query and
+     * Extracts terms and ranges from the provided query. These are stored with the percolator query and
      * used by the percolate query's candidate query as fields to be query by. The candidate query
-     * holds the terms from the document to be percolated and allows to the percolate query to ignore
+     * holds the terms and the values of the document to be percolated and allows to the percolate query to ignore
      * percolator queries that we know would otherwise never match.
      *
      * <p>
+     * Along with the extractions, the minimum number of them that a document has to contain in order to possibly
+     * match is computed. For example a conjunction of two term queries can only match documents that contain both
+     * terms, so a percolator query is only a candidate match if enough of its extractions match.
+     *
+     * <p>
      * When extracting the terms for the specified query, we can also determine if the percolator query is
      * always going to match. For example if a percolator query just contains a term query or a disjunction
      * query then when the candidate query matches with that, we know the entire percolator query always
@@ -96,9 +104,9 @@ public final class QueryAnalyzer {
      * conjunction query).
      *
      * <p>
-     * The query analyzer doesn't always extract all terms from the specified query. For example from a
-     * boolean query with no should clauses or phrase queries only the longest term are selected,
-     * since that those terms are likely to be the rarest. Boolean query's must_not clauses are always ignored.
+     * The query analyzer doesn't always extract all terms from the specified query. For example from
+     * phrase queries only the longest term is selected, since that term is likely to be the rarest.
+     * Boolean query's must_not clauses are always ignored.
      *
      * <p>
      * Sometimes the query analyzer can't always extract terms from a sub query, if that happens then
@@ -261,7 +269,7 @@ public final class QueryAnalyzer {
                 }
             }
             if (numRequiredClauses > 0) {
-                Set<Term> bestClause = null;
+                List<Result> conjunctions = new ArrayList<>(numRequiredClauses);
                 UnsupportedQueryException uqe = null;
                 for (BooleanClause clause : clauses) {
                     if (clause.isRequired() == false) {
@@ -278,19 +286,24 @@ public final class QueryAnalyzer {
                         uqe = e;
                         continue;
                     }
-                    bestClause = selectTermListWithTheLongestShortestTerm(temp.terms, bestClause);
-                }
-                if (bestClause != null) {
-                    return new Result(false, bestClause);
-                } else {
-                    if (uqe != null) {
-                        // we're unable to select the best clause and an exception occurred, so we bail
-                        throw uqe;
-                    } else {
-                        // We didn't find a clause and no exception occurred, so this bq only contained MatchNoDocsQueries,
-                        return new Result(true, Collections.emptySet());
+                    if (temp.numExtractions() == 0) {
+                        if (temp.verified) {
+                            // The clause never matches (for example a MatchNoDocsQuery), so this bq never matches either
+                            return new Result(true, Collections.emptySet());
+                        }
+                        continue;
                     }
+                    conjunctions.add(temp);
+                }
+                if (conjunctions.isEmpty()) {
+                    // we're unable to extract anything from the required clauses, so we bail
+                    throw uqe != null ? uqe : new UnsupportedQueryException(query);
                 }
+                // The bq is only verified if all required clauses are, optional clauses may be required by the minimum
+                // should match and prohibited clauses are never extracted.
+                boolean verified = uqe == null && conjunctions.size() == numRequiredClauses && numProhibitedClauses == 0
+                        && (numOptionalClauses == 0 || minimumShouldMatch == 0);
+                return handleConjunction(conjunctions, verified);
             } else {
                 List<Query> disjunctions = new ArrayList<>(numOptionalClauses);
                 for (BooleanClause clause : clauses) {
@@ -318,22 +331,91 @@ public final class QueryAnalyzer {
             // so in that case we set verified to false.
             // (if it matches with the percolator document matches with the extracted terms.
             // Min score filters out docs, which is different than the functions, which just influences the score.)
-            boolean verified = functionScoreQuery.getMinScore() == null;
-            return new Result(verified, result.terms);
+            boolean verified = result.verified && functionScoreQuery.getMinScore() == null;
+            return new Result(verified, result.terms, result.ranges, result.minimumShouldMatch);
+        };
+    }
+
+    static Function<Query, Result> pointRangeQuery() {
+        return query -> {
+            PointRangeQuery pointRangeQuery = (PointRangeQuery) query;
+            if (pointRangeQuery.getNumDims() != 1) {
+                // only ranges on single dimension fields, like numbers, dates and ips, are extracted
+                throw new UnsupportedQueryException(query);
+            }
+            Range range = new Range(pointRangeQuery.getField(), pointRangeQuery.getLowerPoint(), pointRangeQuery.getUpperPoint());
+            return new Result(false, Collections.emptySet(), Collections.singleton(range), 1);
         };
     }
 
+    static Result handleConjunction(List<Result> conjunctions, boolean verified) {
+        Set<Term> terms = new HashSet<>();
+        Set<Range> ranges = new HashSet<>();
+        int minimumShouldMatch = 0;
+        for (Result result : conjunctions) {
+            // A matching document matches all clauses, so it contains at least the minimum number of extractions of
+            // each clause. Extractions that are shared with a previous clause may only have been counted once, so
+            // the minimum number of extractions of a clause is lowered by the number of extractions it shares.
+            int resultMinimumShouldMatch = result.minimumShouldMatch;
+            for (Term term : result.terms) {
+                if (terms.contains(term)) {
+                    resultMinimumShouldMatch--;
+                }
+            }
+            for (Range range : result.ranges) {
+                if (ranges.contains(range)) {
+                    resultMinimumShouldMatch--;
+                }
+            }
+            minimumShouldMatch += Math.max(0, resultMinimumShouldMatch);
+            // if all extractions of all clauses have to match then a candidate match always matches
+            if (result.verified == false || result.minimumShouldMatch != result.numExtractions()) {
+                verified = false;
+            }
+            terms.addAll(result.terms);
+            ranges.addAll(result.ranges);
+        }
+        return new Result(verified, terms, ranges, minimumShouldMatch);
+    }
+
     static Result handleDisjunction(List<Query> disjunctions, int minimumShouldMatch, boolean otherClauses) {
         boolean verified = minimumShouldMatch <= 1 && otherClauses == false;
+        boolean disjoint = true;
         Set<Term> terms = new HashSet<>();
+        Set<Range> ranges = new HashSet<>();
+        List<Integer> clauseMinimumShouldMatches = new ArrayList<>(disjunctions.size());
         for (Query disjunct : disjunctions) {
             Result subResult = analyze(disjunct);
-            if (subResult.verified == false) {
+            if (subResult.numExtractions() == 0 && subResult.verified == false) {
+                // nothing is known about what this clause matches, so neither is for the disjunction
+                throw new UnsupportedQueryException(disjunct);
+            }
+            // a candidate match is only verified if any single extraction of any clause matching is enough
+            if (subResult.verified == false || subResult.minimumShouldMatch > 1) {
                 verified = false;
             }
-            terms.addAll(subResult.terms);
+            for (Term term : subResult.terms) {
+                disjoint &= terms.add(term);
+            }
+            for (Range range : subResult.ranges) {
+                disjoint &= ranges.add(range);
+            }
+            if (subResult.numExtractions() > 0) {
+                clauseMinimumShouldMatches.add(subResult.minimumShouldMatch);
+            }
+        }
+        int resultMinimumShouldMatch = 1;
+        if (clauseMinimumShouldMatches.isEmpty() == false) {
+            Collections.sort(clauseMinimumShouldMatches);
+            // A matching document matches at least one clause, or the number of clauses required by the minimum should
+            // match. The extractions of these clauses can only be counted separately if no clauses share extractions.
+            int numMatchingClauses = disjoint ? Math.min(Math.max(1, minimumShouldMatch), clauseMinimumShouldMatches.size()) : 1;
+            resultMinimumShouldMatch = 0;
+            for (int i = 0; i < numMatchingClauses; i++) {
+                resultMinimumShouldMatch += clauseMinimumShouldMatches.get(i);
+            }
         }
-        return new Result(verified, terms);
+        return new Result(verified, terms, ranges, resultMinimumShouldMatch);
     }
 
     static Set<Term> selectTermListWithTheLongestShortestTerm(Set<Term> terms1, Set<Term> terms2) {
@@ -364,11 +446,66 @@ public final class QueryAnalyzer {
     static class Result {
 
         final Set<Term> terms;
+        final Set<Range> ranges;
         final boolean verified;
+        /**
+         * The minimum number of extracted terms and ranges that a document has to match in order to match the query.
+         */
+        final int minimumShouldMatch;
 
         Result(boolean verified, Set<Term> terms) {
+            this(verified, terms, Collections.emptySet(), 1);
+        }
+
+        Result(boolean verified, Set<Term> terms, Set<Range> ranges, int minimumShouldMatch) {
             this.terms = terms;
+            this.ranges = ranges;
             this.verified = verified;
+            this.minimumShouldMatch = minimumShouldMatch;
+        }
+
+        int numExtractions() {
+            return terms.size() + ranges.size();
+        }
+
+    }
+
+    /**
+     * A range extracted from a range query on a single dimension point field. The bounds are inclusive and encoded
+     * the way the field indexes its points.
+     */
+    static class Range {
+
+        final String fieldName;
+        final byte[] lowerPoint;
+        final byte[] upperPoint;
+
+        Range(String fieldName, byte[] lowerPoint, byte[] upperPoint) {
+            this.fieldName = fieldName;
+            this.lowerPoint = lowerPoint;
+            this.upperPoint = upperPoint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Range range = (Range) o;
+            return fieldName.equals(range.fieldName) && Arrays.equals(lowerPoint, range.lowerPoint)
+                    && Arrays.equals(upperPoint, range.upperPoint);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = fieldName.hashCode();
+            result = 31 * result + Arrays.hashCode(lowerPoint);
+            result = 31 * result + Arrays.hashCode(upperPoint);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Range{field=" + fieldName + ", lower=" + new BytesRef(lowerPoint) + ", upper=" + new BytesRef(upperPoint) + "}";
         }
 
     }
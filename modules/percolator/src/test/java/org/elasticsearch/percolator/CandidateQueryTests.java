@@ -21,7 +21,9 @@ package org.elasticsearch.percolator;
 
 import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoublePoint;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
@@ -69,6 +71,7 @@ import org.elasticsearch.index.mapper.DocumentMapper;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.ParseContext;
 import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.search.profile.query.ProfileCounters;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.junit.After;
 import org.junit.Before;
@@ -78,9 +81,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class CandidateQueryTests extends ESSingleNodeTestCase {
 
@@ -287,10 +292,124 @@ public class CandidateQueryTests extends ESSingleNodeTestCase {
         duelRun(queryStore, memoryIndex, shardSearcher);
     }
 
+    public void testDuelRangeQueries() throws Exception {
+        List<Function<Integer, Query>> queryFunctions = new ArrayList<>();
+        queryFunctions.add((i) -> IntPoint.newRangeQuery("int_field", i, i + randomIntBetween(0, 8)));
+        queryFunctions.add((i) -> LongPoint.newRangeQuery("long_field", i - randomIntBetween(0, 8), i));
+        queryFunctions.add((i) -> DoublePoint.newRangeQuery("double_field", i - 0.5d, i + 0.5d));
+        queryFunctions.add((i) -> {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.MUST);
+            builder.add(LongPoint.newRangeQuery("long_field", i, i + randomIntBetween(0, 8)), BooleanClause.Occur.FILTER);
+            return builder.build();
+        });
+        queryFunctions.add((i) -> {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.add(IntPoint.newRangeQuery("int_field", i - randomIntBetween(0, 8), i), BooleanClause.Occur.MUST);
+            builder.add(LongPoint.newRangeQuery("long_field", i, i + randomIntBetween(0, 8)), BooleanClause.Occur.MUST);
+            return builder.build();
+        });
+        queryFunctions.add((i) -> {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.MUST);
+            builder.add(new TermQuery(new Term("field", Integer.toString(i + 1))), BooleanClause.Occur.MUST);
+            return builder.build();
+        });
+        queryFunctions.add((i) -> {
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.setMinimumNumberShouldMatch(randomIntBetween(1, 3));
+            builder.add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.SHOULD);
+            builder.add(new TermQuery(new Term("field", Integer.toString(i + 1))), BooleanClause.Occur.SHOULD);
+            builder.add(IntPoint.newRangeQuery("int_field", i, i), BooleanClause.Occur.SHOULD);
+            return builder.build();
+        });
+        queryFunctions.add((i) -> {
+            BooleanQuery.Builder subBuilder = new BooleanQuery.Builder();
+            subBuilder.add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.SHOULD);
+            subBuilder.add(new TermQuery(new Term("field", Integer.toString(i + 1))), BooleanClause.Occur.SHOULD);
+            BooleanQuery.Builder builder = new BooleanQuery.Builder();
+            builder.add(subBuilder.build(), BooleanClause.Occur.MUST);
+            builder.add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.MUST);
+            return builder.build();
+        });
+
+        int numDocs = randomIntBetween(queryFunctions.size(), queryFunctions.size() * 3);
+        List<ParseContext.Document> documents = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            Query query = queryFunctions.get(i % queryFunctions.size()).apply(i);
+            addQuery(query, documents);
+        }
+
+        indexWriter.addDocuments(documents);
+        indexWriter.close();
+        directoryReader = DirectoryReader.open(directory);
+        IndexSearcher shardSearcher = newSearcher(directoryReader);
+        // Disable query cache, because ControlQuery cannot be cached...
+        shardSearcher.setQueryCache(null);
+
+        for (int i = 0; i < numDocs; i++) {
+            Document document = new Document();
+            document.add(new StringField("field", Integer.toString(i), Field.Store.NO));
+            if (randomBoolean()) {
+                document.add(new StringField("field", Integer.toString(i + 1), Field.Store.NO));
+            }
+            document.add(new IntPoint("int_field", i));
+            document.add(new LongPoint("long_field", i + randomIntBetween(-4, 4)));
+            document.add(new DoublePoint("double_field", i));
+            MemoryIndex memoryIndex = MemoryIndex.fromDocument(document, new WhitespaceAnalyzer());
+            duelRun(queryStore, memoryIndex, shardSearcher);
+        }
+    }
+
+    public void testProfileCounts() throws Exception {
+        List<ParseContext.Document> documents = new ArrayList<>();
+        addQuery(new TermQuery(new Term("field", "value1")), documents);
+        addQuery(new PrefixQuery(new Term("field", "value")), documents);
+        addQuery(new PrefixQuery(new Term("field", "other")), documents);
+        addQuery(LongPoint.newRangeQuery("long_field", 0L, 10L), documents);
+        addQuery(LongPoint.newRangeQuery("long_field", 20L, 30L), documents);
+
+        indexWriter.addDocuments(documents);
+        indexWriter.close();
+        directoryReader = DirectoryReader.open(directory);
+        // not newSearcher(), the asserting searcher it may return wraps the weight so the counters couldn't be read
+        IndexSearcher shardSearcher = new IndexSearcher(directoryReader);
+        shardSearcher.setQueryCache(null);
+
+        Document document = new Document();
+        document.add(new StringField("field", "value1", Field.Store.NO));
+        document.add(new LongPoint("long_field", 5L));
+        MemoryIndex memoryIndex = MemoryIndex.fromDocument(document, new WhitespaceAnalyzer());
+        Query percolateQuery = fieldType.percolateQuery("type", queryStore, Collections.singletonList(new BytesArray("{}")),
+                memoryIndex.createSearcher());
+        Weight weight = shardSearcher.createNormalizedWeight(percolateQuery, false);
+        assertThat(weight, instanceOf(ProfileCounters.class));
+        int numMatches = 0;
+        for (LeafReaderContext leaf : directoryReader.leaves()) {
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer != null) {
+                DocIdSetIterator iterator = scorer.iterator();
+                while (iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+                    numMatches++;
+                }
+            }
+        }
+        assertThat(numMatches, equalTo(3));
+
+        Map<String, Long> counts = ((ProfileCounters) weight).getProfileCounts();
+        // the range that doesn't contain the value of the document isn't a candidate, but nothing could be extracted from
+        // the prefix queries so both are candidates even though only one of them matches
+        assertThat(counts.get(PercolateQuery.CANDIDATES_COUNT), equalTo(4L));
+        assertThat(counts.get(PercolateQuery.MATCHES_COUNT), equalTo(3L));
+        // the term query is verified at index time, the prefix and range queries need to be verified by MemoryIndex
+        assertThat(counts.get(PercolateQuery.VERIFICATIONS_COUNT), equalTo(3L));
+    }
+
     private void duelRun(PercolateQuery.QueryStore queryStore, MemoryIndex memoryIndex, IndexSearcher shardSearcher) throws IOException {
         boolean requireScore = randomBoolean();
         IndexSearcher percolateSearcher = memoryIndex.createSearcher();
-        Query percolateQuery = fieldType.percolateQuery("type", queryStore, new BytesArray("{}"), percolateSearcher);
+        Query percolateQuery = fieldType.percolateQuery("type", queryStore, Collections.singletonList(new BytesArray("{}")),
+                percolateSearcher);
         Query query = requireScore ? percolateQuery : new ConstantScoreQuery(percolateQuery);
         TopDocs topDocs = shardSearcher.search(query, 10);
 
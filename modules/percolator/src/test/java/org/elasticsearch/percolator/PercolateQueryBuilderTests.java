@@ -146,7 +146,7 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         assertThat(query, Matchers.instanceOf(PercolateQuery.class));
         PercolateQuery percolateQuery = (PercolateQuery) query;
         assertThat(percolateQuery.getDocumentType(), Matchers.equalTo(queryBuilder.getDocumentType()));
-        assertThat(percolateQuery.getDocumentSource(), Matchers.equalTo(documentSource));
+        assertThat(percolateQuery.getDocuments(), Matchers.equalTo(Collections.singletonList(documentSource)));
     }
 
     @Override
@@ -183,9 +183,14 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         e = expectThrows(IllegalArgumentException.class, () -> new PercolateQueryBuilder("_field", null, new BytesArray("{}")));
         assertThat(e.getMessage(), equalTo("[document_type] is a required argument"));
 
-        e = expectThrows(IllegalArgumentException.class, () -> new PercolateQueryBuilder("_field", "_document_type", null));
+        e = expectThrows(IllegalArgumentException.class,
+                () -> new PercolateQueryBuilder("_field", "_document_type", (BytesReference) null));
         assertThat(e.getMessage(), equalTo("[document] is a required argument"));
 
+        e = expectThrows(IllegalArgumentException.class,
+                () -> new PercolateQueryBuilder("_field", "_document_type", Collections.emptyList()));
+        assertThat(e.getMessage(), equalTo("[documents] is a required argument"));
+
         e = expectThrows(IllegalArgumentException.class, () -> {
             new PercolateQueryBuilder(null, null, "_index", "_type", "_id", null, null, null);
         });
@@ -227,7 +232,8 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
 
         Analyzer analyzer = new WhitespaceAnalyzer();
         ParsedDocument parsedDocument = new ParsedDocument(null, "_id", "_type", null, -1L, -1L, docs, null, null);
-        IndexSearcher indexSearcher = PercolateQueryBuilder.createMultiDocumentSearcher(analyzer, parsedDocument);
+        IndexSearcher indexSearcher =
+                PercolateQueryBuilder.createMultiDocumentSearcher(analyzer, Collections.singletonList(parsedDocument));
         assertThat(indexSearcher.getIndexReader().numDocs(), equalTo(numDocs));
 
         // ensure that any query get modified so that the nested docs are never included as hits:
@@ -239,6 +245,32 @@ public class PercolateQueryBuilderTests extends AbstractQueryTestCase<PercolateQ
         assertThat(result.clauses().get(1).getOccur(), equalTo(BooleanClause.Occur.MUST_NOT));
     }
 
+    public void testMultipleDocuments() throws IOException {
+        int numDocs = randomIntBetween(2, 8);
+        List<BytesReference> documents = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            documents.add(randomSource());
+        }
+        PercolateQueryBuilder pqb = new PercolateQueryBuilder(queryField, docType, documents);
+        assertEquals(pqb, assertSerialization(pqb));
+        assertEquals(pqb, parseQuery(pqb.toString()));
+
+        Query query = pqb.toQuery(createShardContext());
+        assertThat(query, Matchers.instanceOf(PercolateQuery.class));
+        PercolateQuery percolateQuery = (PercolateQuery) query;
+        assertThat(percolateQuery.getDocuments(), equalTo(documents));
+        // every document is a root document in the percolator index searcher, in the order the documents were specified
+        IndexSearcher percolatorIndexSearcher = percolateQuery.getPercolatorIndexSearcher();
+        assertThat(PercolatorMatchedSlotSubFetchPhase.rootDocs(percolatorIndexSearcher).length, equalTo(numDocs));
+    }
+
+    public void testFromJsonDocumentAndDocuments() throws IOException {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> parseQuery("{\"percolate\" : { \"document_type\": \"" + docType + "\", \"document\": {}, " +
+                        "\"documents\": [{}, {}]}}"));
+        assertThat(e.getMessage(), equalTo("[percolate] Either specified [document] or [documents], not both"));
+    }
+
     private static BytesReference randomSource() {
         try {
             XContentBuilder xContent = XContentFactory.jsonBuilder();
@@ -23,16 +23,15 @@ import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
-import org.apache.lucene.index.PrefixCodedTerms;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.memory.MemoryIndex;
-import org.apache.lucene.queries.TermsQuery;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
 import org.elasticsearch.common.compress.CompressedXContent;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -77,9 +76,14 @@ import static org.elasticsearch.index.query.QueryBuilders.wildcardQuery;
 import static org.elasticsearch.percolator.PercolatorFieldMapper.EXTRACTION_COMPLETE;
 import static org.elasticsearch.percolator.PercolatorFieldMapper.EXTRACTION_FAILED;
 import static org.elasticsearch.percolator.PercolatorFieldMapper.EXTRACTION_PARTIAL;
+import static org.elasticsearch.percolator.PercolatorFieldMapper.RANGE_BOUND_NUM_BYTES;
+import static org.elasticsearch.percolator.PercolatorFieldMapper.encodeRangeBound;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 
 public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
 
@@ -145,6 +149,52 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
         assertThat(fields.size(), equalTo(2));
         assertThat(fields.get(0).binaryValue().utf8ToString(), equalTo("field\u0000term1"));
         assertThat(fields.get(1).binaryValue().utf8ToString(), equalTo("field\u0000term2"));
+        assertThat(document.getField(fieldType.minimumShouldMatchField.name()).numericValue().intValue(), equalTo(1));
+    }
+
+    public void testExtractTermsAndRanges() throws Exception {
+        addQueryMapping();
+        BooleanQuery.Builder bq = new BooleanQuery.Builder();
+        bq.add(new TermQuery(new Term("field", "term")), BooleanClause.Occur.MUST);
+        bq.add(LongPoint.newRangeQuery("number_field", 10L, 20L), BooleanClause.Occur.FILTER);
+
+        DocumentMapper documentMapper = mapperService.documentMapper(typeName);
+        PercolatorFieldMapper fieldMapper = (PercolatorFieldMapper) documentMapper.mappers().getMapper(fieldName);
+        ParseContext.InternalParseContext parseContext = new ParseContext.InternalParseContext(Settings.EMPTY,
+                mapperService.documentMapperParser(), documentMapper, null, null);
+        fieldMapper.processQuery(bq.build(), parseContext);
+        ParseContext.Document document = parseContext.doc();
+
+        PercolatorFieldMapper.FieldType fieldType = (PercolatorFieldMapper.FieldType) fieldMapper.fieldType();
+        assertThat(document.getField(fieldType.extractionResultField.name()).stringValue(), equalTo(EXTRACTION_PARTIAL));
+        assertThat(document.getFields(fieldType.queryTermsField.name()).length, equalTo(1));
+        assertThat(document.getField(fieldType.queryTermsField.name()).binaryValue().utf8ToString(), equalTo("field\u0000term"));
+        IndexableField[] ranges = document.getFields(fieldType.extractedRangesFieldName);
+        assertThat(ranges.length, equalTo(1));
+        BytesRef range = ranges[0].binaryValue();
+        assertThat(range.length, equalTo(2 * RANGE_BOUND_NUM_BYTES));
+        assertThat(Arrays.copyOfRange(range.bytes, range.offset, range.offset + RANGE_BOUND_NUM_BYTES),
+                equalTo(encodeRangeBound("number_field", encodeLong(10L))));
+        assertThat(Arrays.copyOfRange(range.bytes, range.offset + RANGE_BOUND_NUM_BYTES, range.offset + 2 * RANGE_BOUND_NUM_BYTES),
+                equalTo(encodeRangeBound("number_field", encodeLong(20L))));
+        assertThat(document.getField(fieldType.minimumShouldMatchField.name()).numericValue().intValue(), equalTo(2));
+    }
+
+    public void testEncodeRangeBound() {
+        byte[] lower = encodeRangeBound("field", encodeLong(-10L));
+        byte[] upper = encodeRangeBound("field", encodeLong(10L));
+        assertThat(lower.length, equalTo(RANGE_BOUND_NUM_BYTES));
+        assertThat(StringHelper.compare(RANGE_BOUND_NUM_BYTES, lower, 0, upper, 0), lessThan(0));
+
+        // values of the same field share the same prefix, values of other fields don't
+        byte[] otherField = encodeRangeBound("other_field", encodeLong(-10L));
+        assertThat(Arrays.copyOf(lower, 8), equalTo(Arrays.copyOf(upper, 8)));
+        assertThat(Arrays.equals(Arrays.copyOf(lower, 8), Arrays.copyOf(otherField, 8)), is(false));
+
+        // values that take up all bytes are not prefixed
+        byte[] value = new byte[RANGE_BOUND_NUM_BYTES];
+        random().nextBytes(value);
+        assertThat(encodeRangeBound("field", value), equalTo(value));
     }
 
     public void testExtractTermsAndRanges_failed() throws Exception {
@@ -173,8 +223,9 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
         ParseContext.Document document = parseContext.doc();
 
         PercolatorFieldMapper.FieldType fieldType = (PercolatorFieldMapper.FieldType) fieldMapper.fieldType();
-        assertThat(document.getFields().size(), equalTo(2));
+        assertThat(document.getFields().size(), equalTo(3));
         assertThat(document.getFields().get(0).binaryValue().utf8ToString(), equalTo("field\u0000term"));
+        assertThat(document.getField(fieldType.minimumShouldMatchField.name()).numericValue().intValue(), equalTo(1));
         assertThat(document.getField(fieldType.extractionResultField.name()).stringValue(), equalTo(EXTRACTION_PARTIAL));
     }
 
@@ -190,31 +241,21 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
 
         IndexReader indexReader = memoryIndex.createSearcher().getIndexReader();
 
-        TermsQuery termsQuery = (TermsQuery) fieldType.createCandidateQuery(indexReader);
-
-        PrefixCodedTerms terms = termsQuery.getTermData();
-        assertThat(terms.size(), equalTo(15L));
-        PrefixCodedTerms.TermIterator termIterator = terms.iterator();
-        assertTermIterator(termIterator, "_field3\u0000me", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "_field3\u0000unhide", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000brown", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000dog", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000fox", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000jumps", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000lazy", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000over", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000quick", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field1\u0000the", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field2\u0000more", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field2\u0000some", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field2\u0000text", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, "field4\u0000123", fieldType.queryTermsField.name());
-        assertTermIterator(termIterator, EXTRACTION_FAILED, fieldType.extractionResultField.name());
-    }
+        CandidateMatchesQuery candidateQuery = (CandidateMatchesQuery) fieldType.createCandidateQuery(indexReader);
 
-    private void assertTermIterator(PrefixCodedTerms.TermIterator termIterator, String expectedValue, String expectedField) {
-        assertThat(termIterator.next().utf8ToString(), equalTo(expectedValue));
-        assertThat(termIterator.field(), equalTo(expectedField));
+        List<String> terms = new ArrayList<>();
+        for (BytesRef term : candidateQuery.getTerms()) {
+            terms.add(term.utf8ToString());
+        }
+        Collections.sort(terms);
+        assertThat(terms, contains("_field3\u0000me", "_field3\u0000unhide", "field1\u0000brown", "field1\u0000dog",
+                "field1\u0000fox", "field1\u0000jumps", "field1\u0000lazy", "field1\u0000over", "field1\u0000quick",
+                "field1\u0000the", "field2\u0000more", "field2\u0000some", "field2\u0000text", "field4\u0000123"));
+
+        assertThat(candidateQuery.getRanges().size(), equalTo(1));
+        byte[][] range = candidateQuery.getRanges().get(0);
+        assertThat(range[0], equalTo(encodeRangeBound("number_field", encodeLong(10L))));
+        assertThat(range[1], equalTo(encodeRangeBound("number_field", encodeLong(10L))));
     }
 
     public void testPercolatorFieldMapper() throws Exception {
@@ -341,7 +382,7 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
                         .field("query_field2", queryBuilder)
                         .endObject().bytes()
         );
-        assertThat(doc.rootDoc().getFields().size(), equalTo(11)); // also includes _uid (1), type (2), source (1)
+        assertThat(doc.rootDoc().getFields().size(), equalTo(13)); // also includes _uid (1), type (2), source (1)
         BytesRef queryBuilderAsBytes = doc.rootDoc().getField("query_field1.query_builder_field").binaryValue();
         assertQueryBuilder(queryBuilderAsBytes, queryBuilder);
 
@@ -371,7 +412,7 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
                             .field("query_field", queryBuilder)
                         .endObject().endObject().bytes()
         );
-        assertThat(doc.rootDoc().getFields().size(), equalTo(8)); // also includes _uid (1), type (2), source (1)
+        assertThat(doc.rootDoc().getFields().size(), equalTo(9)); // also includes _uid (1), type (2), source (1)
         BytesRef queryBuilderAsBytes = doc.rootDoc().getField("object_field.query_field.query_builder_field").binaryValue();
         assertQueryBuilder(queryBuilderAsBytes, queryBuilder);
 
@@ -382,7 +423,7 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
                             .endArray()
                         .endObject().bytes()
         );
-        assertThat(doc.rootDoc().getFields().size(), equalTo(8)); // also includes _uid (1), type (2), source (1)
+        assertThat(doc.rootDoc().getFields().size(), equalTo(9)); // also includes _uid (1), type (2), source (1)
         queryBuilderAsBytes = doc.rootDoc().getField("object_field.query_field.query_builder_field").binaryValue();
         assertQueryBuilder(queryBuilderAsBytes, queryBuilder);
 
@@ -454,4 +495,10 @@ public class PercolatorFieldMapperTests extends ESSingleNodeTestCase {
         QueryParseContext qsc = indexService.newQueryShardContext().newParseContext(sourceParser);
         assertThat(qsc.parseInnerQueryBuilder().get(), equalTo(expected));
     }
+
+    private static byte[] encodeLong(long value) {
+        byte[] encoded = new byte[Long.BYTES];
+        LongPoint.encodeDimension(value, encoded, 0);
+        return encoded;
+    }
 }
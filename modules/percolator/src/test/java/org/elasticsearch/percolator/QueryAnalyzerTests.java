@@ -18,6 +18,8 @@
  */
 package org.elasticsearch.percolator;
 
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.BlendedTermQuery;
 import org.apache.lucene.queries.CommonTermsQuery;
@@ -29,6 +31,7 @@ import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.SynonymQuery;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermRangeQuery;
@@ -124,13 +127,16 @@ public class QueryAnalyzerTests extends ESTestCase {
         assertThat("Should clause with phrase query isn't verified, so entire query can't be verified", result.verified, is(false));
         List<Term> terms = new ArrayList<>(result.terms);
         Collections.sort(terms);
-        assertThat(terms.size(), equalTo(3));
+        assertThat(terms.size(), equalTo(4));
         assertThat(terms.get(0).field(), equalTo(termQuery1.getTerm().field()));
         assertThat(terms.get(0).bytes(), equalTo(termQuery1.getTerm().bytes()));
         assertThat(terms.get(1).field(), equalTo(phraseQuery.getTerms()[0].field()));
         assertThat(terms.get(1).bytes(), equalTo(phraseQuery.getTerms()[0].bytes()));
-        assertThat(terms.get(2).field(), equalTo(termQuery3.getTerm().field()));
-        assertThat(terms.get(2).bytes(), equalTo(termQuery3.getTerm().bytes()));
+        assertThat(terms.get(2).field(), equalTo(termQuery2.getTerm().field()));
+        assertThat(terms.get(2).bytes(), equalTo(termQuery2.getTerm().bytes()));
+        assertThat(terms.get(3).field(), equalTo(termQuery3.getTerm().field()));
+        assertThat(terms.get(3).bytes(), equalTo(termQuery3.getTerm().bytes()));
+        assertThat(result.minimumShouldMatch, equalTo(1));
     }
 
     public void testExtractQueryMetadata_booleanQuery_onlyShould() {
@@ -218,13 +224,31 @@ public class QueryAnalyzerTests extends ESTestCase {
         builder = new BooleanQuery.Builder();
         builder.add(termQuery1, randomBoolean() ? BooleanClause.Occur.MUST : BooleanClause.Occur.FILTER);
         result = analyze(builder.build());
-        assertThat("Single required clause, so candidate matches are verified", result.verified, is(false));
+        assertThat("Single required clause, so candidate matches are verified", result.verified, is(true));
 
         builder = new BooleanQuery.Builder();
         builder.add(termQuery1, randomBoolean() ? BooleanClause.Occur.MUST : BooleanClause.Occur.FILTER);
         builder.add(termQuery2, randomBoolean() ? BooleanClause.Occur.MUST : BooleanClause.Occur.FILTER);
         result = analyze(builder.build());
-        assertThat("Two or more required clauses, so candidate matches are not verified", result.verified, is(false));
+        assertThat("All required clauses are exact and have to match, so candidate matches are verified", result.verified, is(true));
+
+        builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, randomBoolean() ? BooleanClause.Occur.MUST : BooleanClause.Occur.FILTER);
+        builder.add(termQuery2, BooleanClause.Occur.SHOULD);
+        builder.setMinimumNumberShouldMatch(1);
+        result = analyze(builder.build());
+        assertThat("Optional clause is required by minimum should match, so candidate matches are not verified",
+                result.verified, is(false));
+
+        BooleanQuery.Builder subBuilder = new BooleanQuery.Builder();
+        subBuilder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        subBuilder.add(termQuery2, BooleanClause.Occur.SHOULD);
+        builder = new BooleanQuery.Builder();
+        builder.add(subBuilder.build(), BooleanClause.Occur.MUST);
+        builder.add(new TermQuery(new Term("_field", "_term3")), BooleanClause.Occur.MUST);
+        result = analyze(builder.build());
+        assertThat("Not all extractions of a required clause have to match, so candidate matches are not verified",
+                result.verified, is(false));
 
         builder = new BooleanQuery.Builder();
         builder.add(termQuery1, randomBoolean() ? BooleanClause.Occur.MUST : BooleanClause.Occur.FILTER);
@@ -348,7 +372,7 @@ public class QueryAnalyzerTests extends ESTestCase {
         bq.add(new TermQuery(new Term("field", "value")), BooleanClause.Occur.MUST);
         bq.add(new MatchNoDocsQuery("sometimes there is no reason at all"), BooleanClause.Occur.MUST);
         result = analyze(bq.build());
-        assertThat(result.verified, is(false));
+        assertThat("A required clause never matches, so the query never matches", result.verified, is(true));
         assertEquals(0, result.terms.size());
 
         bq = new BooleanQuery.Builder();
@@ -448,7 +472,8 @@ public class QueryAnalyzerTests extends ESTestCase {
         bq1 = builder.build();
         result = analyze(bq1);
         assertThat(result.verified, is(false));
-        assertTermsEqual(result.terms, termQuery2.getTerm());
+        assertTermsEqual(result.terms, termQuery1.getTerm(), termQuery2.getTerm());
+        assertThat(result.minimumShouldMatch, equalTo(2));
 
         builder = new BooleanQuery.Builder();
         builder.add(unsupportedQuery, BooleanClause.Occur.MUST);
@@ -525,6 +550,110 @@ public class QueryAnalyzerTests extends ESTestCase {
         assertTermsEqual(result.terms, new Term("_field", "_value"));
     }
 
+    public void testPointRangeQuery() {
+        Query query = LongPoint.newRangeQuery("_field", 10L, 20L);
+        Result result = analyze(query);
+        assertThat(result.verified, is(false));
+        assertThat(result.terms.isEmpty(), is(true));
+        assertThat(result.ranges.size(), equalTo(1));
+        QueryAnalyzer.Range range = result.ranges.iterator().next();
+        assertThat(range.fieldName, equalTo("_field"));
+        assertThat(range.lowerPoint, equalTo(encodeLong(10L)));
+        assertThat(range.upperPoint, equalTo(encodeLong(20L)));
+        assertThat(result.minimumShouldMatch, equalTo(1));
+
+        Query multiDimensionalQuery = IntPoint.newRangeQuery("_field", new int[]{0, 0}, new int[]{10, 10});
+        UnsupportedQueryException e = expectThrows(UnsupportedQueryException.class, () -> analyze(multiDimensionalQuery));
+        assertThat(e.getUnsupportedQuery(), sameInstance(multiDimensionalQuery));
+    }
+
+    public void testMinimumShouldMatch_conjunction() {
+        TermQuery termQuery1 = new TermQuery(new Term("_field", "_term1"));
+        TermQuery termQuery2 = new TermQuery(new Term("_field", "_term2"));
+        TermQuery termQuery3 = new TermQuery(new Term("_field", "_term3"));
+        Query rangeQuery = LongPoint.newRangeQuery("_field2", 10L, 20L);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, BooleanClause.Occur.MUST);
+        builder.add(termQuery2, BooleanClause.Occur.FILTER);
+        builder.add(rangeQuery, BooleanClause.Occur.MUST);
+        Result result = analyze(builder.build());
+        assertThat(result.verified, is(false));
+        assertTermsEqual(result.terms, termQuery1.getTerm(), termQuery2.getTerm());
+        assertThat(result.ranges.size(), equalTo(1));
+        assertThat(result.minimumShouldMatch, equalTo(3));
+
+        // both required clauses may match on the same term, so only one extraction is required to match
+        BooleanQuery.Builder subBuilder1 = new BooleanQuery.Builder();
+        subBuilder1.add(termQuery1, BooleanClause.Occur.SHOULD);
+        subBuilder1.add(termQuery2, BooleanClause.Occur.SHOULD);
+        BooleanQuery.Builder subBuilder2 = new BooleanQuery.Builder();
+        subBuilder2.add(termQuery1, BooleanClause.Occur.SHOULD);
+        subBuilder2.add(termQuery3, BooleanClause.Occur.SHOULD);
+        builder = new BooleanQuery.Builder();
+        builder.add(subBuilder1.build(), BooleanClause.Occur.MUST);
+        builder.add(subBuilder2.build(), BooleanClause.Occur.MUST);
+        result = analyze(builder.build());
+        assertThat(result.verified, is(false));
+        assertTermsEqual(result.terms, termQuery1.getTerm(), termQuery2.getTerm(), termQuery3.getTerm());
+        assertThat(result.minimumShouldMatch, equalTo(1));
+
+        builder = new BooleanQuery.Builder();
+        builder.add(subBuilder1.build(), BooleanClause.Occur.MUST);
+        builder.add(termQuery3, BooleanClause.Occur.MUST);
+        result = analyze(builder.build());
+        assertThat(result.minimumShouldMatch, equalTo(2));
+    }
+
+    public void testMinimumShouldMatch_disjunction() {
+        TermQuery termQuery1 = new TermQuery(new Term("_field", "_term1"));
+        TermQuery termQuery2 = new TermQuery(new Term("_field", "_term2"));
+        TermQuery termQuery3 = new TermQuery(new Term("_field", "_term3"));
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(termQuery2, BooleanClause.Occur.SHOULD);
+        builder.add(termQuery3, BooleanClause.Occur.SHOULD);
+        builder.setMinimumNumberShouldMatch(2);
+        Result result = analyze(builder.build());
+        assertThat(result.verified, is(false));
+        assertTermsEqual(result.terms, termQuery1.getTerm(), termQuery2.getTerm(), termQuery3.getTerm());
+        assertThat(result.minimumShouldMatch, equalTo(2));
+
+        // the two cheapest clauses to match require one and two extractions
+        BooleanQuery.Builder subBuilder = new BooleanQuery.Builder();
+        subBuilder.add(new TermQuery(new Term("_field", "_term4")), BooleanClause.Occur.MUST);
+        subBuilder.add(new TermQuery(new Term("_field", "_term5")), BooleanClause.Occur.MUST);
+        subBuilder.add(new TermQuery(new Term("_field", "_term6")), BooleanClause.Occur.MUST);
+        BooleanQuery.Builder subBuilder2 = new BooleanQuery.Builder();
+        subBuilder2.add(new TermQuery(new Term("_field", "_term7")), BooleanClause.Occur.MUST);
+        subBuilder2.add(new TermQuery(new Term("_field", "_term8")), BooleanClause.Occur.MUST);
+        builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(subBuilder.build(), BooleanClause.Occur.SHOULD);
+        builder.add(subBuilder2.build(), BooleanClause.Occur.SHOULD);
+        builder.setMinimumNumberShouldMatch(2);
+        result = analyze(builder.build());
+        assertThat(result.minimumShouldMatch, equalTo(3));
+
+        // clauses sharing extractions may match on the same extraction, so only one is required to match
+        builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(termQuery2, BooleanClause.Occur.SHOULD);
+        builder.setMinimumNumberShouldMatch(2);
+        result = analyze(builder.build());
+        assertThat(result.minimumShouldMatch, equalTo(1));
+
+        builder = new BooleanQuery.Builder();
+        builder.add(termQuery1, BooleanClause.Occur.SHOULD);
+        builder.add(subBuilder2.build(), BooleanClause.Occur.SHOULD);
+        result = analyze(builder.build());
+        assertThat("A single extraction of a clause isn't enough to match, so candidate matches are not verified",
+                result.verified, is(false));
+        assertThat(result.minimumShouldMatch, equalTo(1));
+    }
+
     public void testSelectTermsListWithHighestSumOfTermLength() {
         Set<Term> terms1 = new HashSet<>();
         int shortestTerms1Length = Integer.MAX_VALUE;
@@ -555,4 +684,9 @@ public class QueryAnalyzerTests extends ESTestCase {
         assertEquals(new HashSet<>(Arrays.asList(expected)), actual);
     }
 
+    private static byte[] encodeLong(long value) {
+        byte[] encoded = new byte[Long.BYTES];
+        LongPoint.encodeDimension(value, encoded, 0);
+        return encoded;
+    }
 }
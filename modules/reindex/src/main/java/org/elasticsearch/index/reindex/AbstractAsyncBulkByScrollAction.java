@@ -220,9 +220,24 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             logger.debug("sending [{}] entry, [{}] bulk request", request.requests().size(),
                     new ByteSizeValue(request.estimatedSizeInBytes()));
         }
+        if (mainRequest.getSize() == SIZE_ALL_MATCHES || task.getSuccessfullyProcessed() + hits.size() < mainRequest.getSize()) {
+            prefetchNextScroll(thisBatchStartTime, request.requests().size());
+        }
         sendBulkRequest(thisBatchStartTime, request);
     }
 
+    /**
+     * Start fetching the next batch while this batch is being written so the search and the bulk request overlap. The batch is picked up by
+     * {@link #startNextScroll(TimeValue, int)} once the bulk request is done and throttling is still applied when it comes back, just like
+     * if it had been fetched after the bulk request.
+     *
+     * @param thisBatchStartTime the time when this batch started
+     * @param thisBatchSize the number of requests in this batch. The scroll is kept alive for as long as throttling might delay this batch.
+     */
+    void prefetchNextScroll(TimeValue thisBatchStartTime, int thisBatchSize) {
+        scrollSource.prefetchNextScroll(task.throttleWaitTime(thisBatchStartTime, thisBatchSize));
+    }
+
     /**
      * Send a bulk request, handling retries.
      */
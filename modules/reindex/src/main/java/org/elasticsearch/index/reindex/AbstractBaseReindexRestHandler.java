@@ -117,6 +117,7 @@ public abstract class AbstractBaseReindexRestHandler<
         if (requestsPerSecond != null) {
             request.setRequestsPerSecond(requestsPerSecond);
         }
+        request.setSlices(parseSlices(restRequest, request.getSlices()));
         return request;
     }
 
@@ -129,6 +130,30 @@ public abstract class AbstractBaseReindexRestHandler<
         }
     }
 
+    /**
+     * @return slices from the request as an int if it was on the request, {@code defaultSlices} otherwise. "auto" is parsed into
+     *         {@link AbstractBulkByScrollRequest#AUTO_SLICES}.
+     */
+    static int parseSlices(RestRequest request, int defaultSlices) {
+        String slicesString = request.param("slices");
+        if (slicesString == null) {
+            return defaultSlices;
+        }
+        if ("auto".equals(slicesString)) {
+            return AbstractBulkByScrollRequest.AUTO_SLICES;
+        }
+        int slices;
+        try {
+            slices = Integer.parseInt(slicesString);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("[slices] must be a positive integer or [auto] but was [" + slicesString + "]", e);
+        }
+        if (slices < 1) {
+            throw new IllegalArgumentException("[slices] must be a positive integer or [auto] but was [" + slicesString + "]");
+        }
+        return slices;
+    }
+
     /**
      * @return requests_per_second from the request as a float if it was on the request, null otherwise
      */
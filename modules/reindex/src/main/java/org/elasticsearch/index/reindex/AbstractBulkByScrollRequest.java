@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.search.SearchRequest;
@@ -28,6 +29,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.tasks.TaskId;
 
@@ -41,6 +43,10 @@ import static org.elasticsearch.common.unit.TimeValue.timeValueMinutes;
 public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScrollRequest<Self>>
         extends ActionRequest<Self> {
     public static final int SIZE_ALL_MATCHES = -1;
+    /**
+     * Value of {@link #setSlices(int)} that picks the number of slices from the number of shards of the source indices.
+     */
+    public static final int AUTO_SLICES = 0;
     private static final TimeValue DEFAULT_SCROLL_TIMEOUT = timeValueMinutes(5);
     private static final int DEFAULT_SCROLL_SIZE = 1000;
 
@@ -98,16 +104,34 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
      */
     private boolean shouldPersistResult;
 
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     */
+    private int slices = 1;
+
     public AbstractBulkByScrollRequest() {
     }
 
     public AbstractBulkByScrollRequest(SearchRequest source) {
-        this.searchRequest = source;
+        this(source, true);
+    }
+
+    /**
+     * Constructor for actual use.
+     *
+     * @param searchRequest the search request to execute to get the documents to process
+     * @param setDefaults should this request set the defaults on the search request? Usually set to true but leave it false to support
+     *        request slicing
+     */
+    protected AbstractBulkByScrollRequest(SearchRequest searchRequest, boolean setDefaults) {
+        this.searchRequest = searchRequest;
 
-        // Set the defaults which differ from SearchRequest's defaults.
-        source.scroll(DEFAULT_SCROLL_TIMEOUT);
-        source.source(new SearchSourceBuilder());
-        source.source().size(DEFAULT_SCROLL_SIZE);
+        if (setDefaults) {
+            // Set the defaults which differ from SearchRequest's defaults.
+            searchRequest.scroll(DEFAULT_SCROLL_TIMEOUT);
+            searchRequest.source(new SearchSourceBuilder());
+            searchRequest.source().size(DEFAULT_SCROLL_SIZE);
+        }
     }
 
     /**
@@ -134,6 +158,14 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
                             + size + "]",
                     e);
         }
+        if (slices != 1) {
+            if (size != SIZE_ALL_MATCHES) {
+                e = addValidationError("can't limit the number of processed documents with [size] when the request is sliced", e);
+            }
+            if (searchRequest.source().slice() != null) {
+                e = addValidationError("can't specify both [slice] and [slices]", e);
+            }
+        }
         return e;
     }
 
@@ -313,9 +345,58 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         return shouldPersistResult;
     }
 
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     * {@link #AUTO_SLICES} means one slice per shard of the source index with the fewest shards.
+     */
+    public int getSlices() {
+        return slices;
+    }
+
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks. Use
+     * {@link #AUTO_SLICES} to use one slice per shard of the source index with the fewest shards.
+     */
+    public Self setSlices(int slices) {
+        if (slices < 0) {
+            throw new IllegalArgumentException("[slices] must be at least 1 or [auto] but was [" + slices + "]");
+        }
+        this.slices = slices;
+        return self();
+    }
+
+    /**
+     * Build a new request that processes a single slice of this request.
+     *
+     * @param slicingTask the task of this request, the task of the new request will be its child
+     * @param slice the search request for the documents of the slice
+     */
+    abstract Self forSlice(TaskId slicingTask, SearchRequest slice);
+
+    /**
+     * Setup a request for a slice of this request, copying everything but the search request and the throttle from this request. The
+     * throttle is set by the slicing task because it is divided between the slices.
+     */
+    protected Self doForSlice(Self request, TaskId slicingTask) {
+        request.setAbortOnVersionConflict(abortOnVersionConflict).setRefresh(refresh).setTimeout(timeout)
+                .setWaitForActiveShards(activeShardCount).setRetryBackoffInitialTime(retryBackoffInitialTime).setMaxRetries(maxRetries)
+                // The slicing task persists the result of the whole request
+                .setShouldPersistResult(false)
+                // Slices aren't sliced again
+                .setSlices(1);
+        // Make the slice a child of the slicing task so cancelling the slicing task cancels the slice
+        request.setParentTask(slicingTask);
+        return request;
+    }
+
     @Override
     public Task createTask(long id, String type, String action, TaskId parentTaskId) {
-        return new BulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond);
+        if (slices != 1) {
+            return new ParentBulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond);
+        }
+        SliceBuilder slice = searchRequest.source() == null ? null : searchRequest.source().slice();
+        return new BulkByScrollTask(id, type, action, getDescription(), parentTaskId, requestsPerSecond,
+                slice == null ? null : slice.getId());
     }
 
     @Override
@@ -331,6 +412,11 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         retryBackoffInitialTime = new TimeValue(in);
         maxRetries = in.readVInt();
         requestsPerSecond = in.readFloat();
+        if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            slices = in.readVInt();
+        } else {
+            slices = 1;
+        }
     }
 
     @Override
@@ -345,6 +431,12 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         retryBackoffInitialTime.writeTo(out);
         out.writeVInt(maxRetries);
         out.writeFloat(requestsPerSecond);
+        if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+            out.writeVInt(slices);
+        } else if (slices != 1) {
+            throw new IllegalArgumentException("Attempting to send sliced reindex-style request to a node that doesn't support it. "
+                    + "Version is [" + out.getVersion() + "] but must be [" + Version.V_5_0_0_alpha6 + "]");
+        }
     }
 
     /**
@@ -134,6 +134,15 @@ public abstract class AbstractBulkByScrollRequestBuilder<
         return self();
     }
 
+    /**
+     * The number of slices this task should be divided into. Defaults to 1 meaning the task isn't sliced into subtasks.
+     * {@link AbstractBulkByScrollRequest#AUTO_SLICES} means one slice per shard of the source index with the fewest shards.
+     */
+    public Self setSlices(int slices) {
+        request.setSlices(slices);
+        return self();
+    }
+
     /**
      * Should this task persist its result after it has finished?
      */
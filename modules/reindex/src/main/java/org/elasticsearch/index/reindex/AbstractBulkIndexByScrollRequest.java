@@ -24,6 +24,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.script.Script;
+import org.elasticsearch.tasks.TaskId;
 
 import java.io.IOException;
 
@@ -38,7 +39,18 @@ public abstract class AbstractBulkIndexByScrollRequest<Self extends AbstractBulk
     }
 
     public AbstractBulkIndexByScrollRequest(SearchRequest source) {
-        super(source);
+        this(source, true);
+    }
+
+    /**
+     * Constructor for actual use.
+     *
+     * @param searchRequest the search request to execute to get the documents to process
+     * @param setDefaults should this request set the defaults on the search request? Usually set to true but leave it false to support
+     *        request slicing
+     */
+    protected AbstractBulkIndexByScrollRequest(SearchRequest searchRequest, boolean setDefaults) {
+        super(searchRequest, setDefaults);
     }
 
     /**
@@ -56,6 +68,12 @@ public abstract class AbstractBulkIndexByScrollRequest<Self extends AbstractBulk
         return self();
     }
 
+    @Override
+    protected Self doForSlice(Self request, TaskId slicingTask) {
+        request.setScript(script);
+        return super.doForSlice(request, slicingTask);
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
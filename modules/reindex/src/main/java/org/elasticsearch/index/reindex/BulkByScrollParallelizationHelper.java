@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.GenericAction;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.mapper.UidFieldMapper;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.tasks.TaskManager;
+
+import static java.lang.Math.min;
+
+/**
+ * Helps parallelize reindex requests by splitting them into slices that are processed by sub-requests at the same time.
+ */
+final class BulkByScrollParallelizationHelper {
+    private BulkByScrollParallelizationHelper() {}
+
+    /**
+     * Split the request into slices and start a sub-request for each of them on the local node. The task of each sub-request is a child
+     * of the slicing task and the listener is notified once all of the sub-requests have finished.
+     */
+    static <Request extends AbstractBulkByScrollRequest<Request>> void startSlices(NodeClient client, TaskManager taskManager,
+            GenericAction<Request, BulkIndexByScrollResponse> action, ClusterState state, IndexNameExpressionResolver resolver,
+            ParentBulkByScrollTask task, Request request, ActionListener<BulkIndexByScrollResponse> listener) {
+        String localNodeId = state.nodes().getLocalNodeId();
+        TaskId slicingTaskId = new TaskId(localNodeId, task.getId());
+        int slices = slices(request, state, resolver);
+        SearchRequest[] sliceRequests = sliceIntoSubRequests(request.getSearchRequest(), UidFieldMapper.NAME, slices);
+        task.setSlices(slices);
+        // The sub-requests are children of the slicing task on this node so cancelling the slicing task cancels them as well
+        taskManager.registerChildTask(task, localNodeId);
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            final int id = sliceId;
+            Request requestForSlice = request.forSlice(slicingTaskId, sliceRequests[sliceId]);
+            // The throttle is divided evenly between the slices
+            requestForSlice.setRequestsPerSecond(task.getRequestsPerSecond() / slices);
+            ActionListener<BulkIndexByScrollResponse> sliceListener = ActionListener.wrap(
+                    r -> task.onSliceResponse(listener, id, r),
+                    e -> task.onSliceFailure(listener, id, e));
+            Task sliceTask;
+            try {
+                sliceTask = client.executeLocally(action, requestForSlice, sliceListener);
+            } catch (Exception e) {
+                // The slicing task was cancelled before the slice could start
+                task.onSliceFailure(listener, id, e);
+                continue;
+            }
+            task.setSliceTask(sliceId, (BulkByScrollTask) sliceTask);
+        }
+    }
+
+    /**
+     * The number of slices to split the request into, resolving {@link AbstractBulkByScrollRequest#AUTO_SLICES} to the number of shards
+     * of the source index with the fewest shards.
+     */
+    static int slices(AbstractBulkByScrollRequest<?> request, ClusterState state, IndexNameExpressionResolver resolver) {
+        if (request.getSlices() != AbstractBulkByScrollRequest.AUTO_SLICES) {
+            return request.getSlices();
+        }
+        Index[] indices = resolver.concreteIndices(state, request.getSearchRequest());
+        if (indices.length == 0) {
+            return 1;
+        }
+        int slices = Integer.MAX_VALUE;
+        for (Index index : indices) {
+            slices = min(slices, state.metaData().getIndexSafe(index).getNumberOfShards());
+        }
+        return slices;
+    }
+
+    /**
+     * Slice a search request into {@code times} search requests that each return a distinct part of the documents. A single slice
+     * returns all of the documents so it isn't sliced at all.
+     */
+    static SearchRequest[] sliceIntoSubRequests(SearchRequest request, String field, int times) {
+        SearchRequest[] slices = new SearchRequest[times];
+        for (int slice = 0; slice < times; slice++) {
+            SliceBuilder sliceBuilder = times == 1 ? null : new SliceBuilder(field, slice, times);
+            slices[slice] = new SearchRequest()
+                    .source(request.source().copyWithNewSlice(sliceBuilder))
+                    .searchType(request.searchType())
+                    .indices(request.indices())
+                    .types(request.types())
+                    .routing(request.routing())
+                    .preference(request.preference())
+                    .requestCache(request.requestCache())
+                    .scroll(request.scroll())
+                    .batchedReduceSize(request.batchedReduceSize())
+                    .indicesOptions(request.indicesOptions());
+        }
+        return slices;
+    }
+}
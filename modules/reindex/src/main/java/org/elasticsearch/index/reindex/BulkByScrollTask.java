@@ -19,6 +19,7 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -34,6 +35,8 @@ import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,7 +45,10 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.round;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
 import static org.elasticsearch.common.unit.TimeValue.timeValueNanos;
 
 /**
@@ -74,10 +80,21 @@ public class BulkByScrollTask extends CancellableTask {
      * Reference to any the last delayed prepareBulkRequest call. Used during rethrottling and canceling to reschedule the request.
      */
     private final AtomicReference<DelayedPrepareBulkRequest> delayedPrepareBulkRequestReference = new AtomicReference<>();
+    /**
+     * The id of the slice of the documents that this task processes or null if the request isn't sliced.
+     */
+    @Nullable
+    private final Integer sliceId;
 
     public BulkByScrollTask(long id, String type, String action, String description, TaskId parentTask, float requestsPerSecond) {
+        this(id, type, action, description, parentTask, requestsPerSecond, null);
+    }
+
+    public BulkByScrollTask(long id, String type, String action, String description, TaskId parentTask, float requestsPerSecond,
+            @Nullable Integer sliceId) {
         super(id, type, action, description, parentTask);
         setRequestsPerSecond(requestsPerSecond);
+        this.sliceId = sliceId;
     }
 
     @Override
@@ -88,9 +105,24 @@ public class BulkByScrollTask extends CancellableTask {
 
     @Override
     public Status getStatus() {
-        return new Status(total.get(), updated.get(), created.get(), deleted.get(), batch.get(), versionConflicts.get(), noops.get(),
-                bulkRetries.get(), searchRetries.get(), timeValueNanos(throttledNanos.get()), getRequestsPerSecond(), getReasonCancelled(),
-                throttledUntil());
+        return new Status(sliceId, total.get(), updated.get(), created.get(), deleted.get(), batch.get(), versionConflicts.get(),
+                noops.get(), bulkRetries.get(), searchRetries.get(), timeValueNanos(throttledNanos.get()), getRequestsPerSecond(),
+                getReasonCancelled(), throttledUntil());
+    }
+
+    /**
+     * The id of the slice of the documents that this task processes or null if the request isn't sliced.
+     */
+    @Nullable
+    public Integer getSliceId() {
+        return sliceId;
+    }
+
+    /**
+     * Is this task processing one of the slices of a request that was sliced by a {@link ParentBulkByScrollTask}?
+     */
+    boolean isSliceOfParent() {
+        return sliceId != null && getParentTaskId().isSet();
     }
 
     private TimeValue throttledUntil() {
@@ -126,6 +158,7 @@ public class BulkByScrollTask extends CancellableTask {
          */
         public static final String INCLUDE_UPDATED = "include_updated";
 
+        private final Integer sliceId;
         private final long total;
         private final long updated;
         private final long created;
@@ -139,10 +172,19 @@ public class BulkByScrollTask extends CancellableTask {
         private final float requestsPerSecond;
         private final String reasonCancelled;
         private final TimeValue throttledUntil;
+        private final List<Status> sliceStatuses;
 
         public Status(long total, long updated, long created, long deleted, int batches, long versionConflicts, long noops,
                 long bulkRetries, long searchRetries, TimeValue throttled, float requestsPerSecond, @Nullable String reasonCancelled,
                 TimeValue throttledUntil) {
+            this(null, total, updated, created, deleted, batches, versionConflicts, noops, bulkRetries, searchRetries, throttled,
+                    requestsPerSecond, reasonCancelled, throttledUntil);
+        }
+
+        public Status(@Nullable Integer sliceId, long total, long updated, long created, long deleted, int batches, long versionConflicts,
+                long noops, long bulkRetries, long searchRetries, TimeValue throttled, float requestsPerSecond,
+                @Nullable String reasonCancelled, TimeValue throttledUntil) {
+            this.sliceId = sliceId == null ? null : checkPositive(sliceId, "sliceId");
             this.total = checkPositive(total, "total");
             this.updated = checkPositive(updated, "updated");
             this.created = checkPositive(created, "created");
@@ -156,9 +198,68 @@ public class BulkByScrollTask extends CancellableTask {
             this.requestsPerSecond = requestsPerSecond;
             this.reasonCancelled = reasonCancelled;
             this.throttledUntil = throttledUntil;
+            this.sliceStatuses = emptyList();
+        }
+
+        /**
+         * Combine the statuses of the slices of a sliced request into the status of the whole request.
+         *
+         * @param sliceStatuses the status of each slice, null for slices that haven't started yet
+         * @param reasonCancelled the reason the whole request was cancelled or null if it hasn't been
+         */
+        public Status(List<Status> sliceStatuses, @Nullable String reasonCancelled) {
+            sliceId = null;
+            this.reasonCancelled = reasonCancelled;
+            long total = 0;
+            long updated = 0;
+            long created = 0;
+            long deleted = 0;
+            int batches = 0;
+            long versionConflicts = 0;
+            long noops = 0;
+            long bulkRetries = 0;
+            long searchRetries = 0;
+            long throttled = 0;
+            float requestsPerSecond = 0;
+            long throttledUntil = Long.MAX_VALUE;
+            for (Status slice : sliceStatuses) {
+                if (slice == null) {
+                    continue;
+                }
+                total += slice.getTotal();
+                updated += slice.getUpdated();
+                created += slice.getCreated();
+                deleted += slice.getDeleted();
+                batches += slice.getBatches();
+                versionConflicts += slice.getVersionConflicts();
+                noops += slice.getNoops();
+                bulkRetries += slice.getBulkRetries();
+                searchRetries += slice.getSearchRetries();
+                throttled += slice.getThrottled().nanos();
+                requestsPerSecond += slice.getRequestsPerSecond();
+                throttledUntil = min(throttledUntil, slice.getThrottledUntil().nanos());
+            }
+            this.total = total;
+            this.updated = updated;
+            this.created = created;
+            this.deleted = deleted;
+            this.batches = batches;
+            this.versionConflicts = versionConflicts;
+            this.noops = noops;
+            this.bulkRetries = bulkRetries;
+            this.searchRetries = searchRetries;
+            this.throttled = timeValueNanos(throttled);
+            this.requestsPerSecond = requestsPerSecond;
+            this.throttledUntil = timeValueNanos(throttledUntil == Long.MAX_VALUE ? 0 : throttledUntil);
+            this.sliceStatuses = unmodifiableList(new ArrayList<>(sliceStatuses));
         }
 
         public Status(StreamInput in) throws IOException {
+            if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+                sliceId = in.readOptionalVInt();
+            } else {
+                sliceId = null;
+            }
             total = in.readVLong();
             updated = in.readVLong();
             created = in.readVLong();
@@ -172,10 +273,18 @@ public class BulkByScrollTask extends CancellableTask {
             requestsPerSecond = in.readFloat();
             reasonCancelled = in.readOptionalString();
             throttledUntil = new TimeValue(in);
+            if (in.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+                sliceStatuses = in.readList(stream -> stream.readOptionalWriteable(Status::new));
+            } else {
+                sliceStatuses = emptyList();
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
+            if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+                out.writeOptionalVInt(sliceId);
+            }
             out.writeVLong(total);
             out.writeVLong(updated);
             out.writeVLong(created);
@@ -189,6 +298,12 @@ public class BulkByScrollTask extends CancellableTask {
             out.writeFloat(requestsPerSecond);
             out.writeOptionalString(reasonCancelled);
             throttledUntil.writeTo(out);
+            if (out.getVersion().onOrAfter(Version.V_5_0_0_alpha6)) {
+                out.writeVInt(sliceStatuses.size());
+                for (Status sliceStatus : sliceStatuses) {
+                    out.writeOptionalWriteable(sliceStatus);
+                }
+            }
         }
 
         @Override
@@ -200,6 +315,9 @@ public class BulkByScrollTask extends CancellableTask {
 
         public XContentBuilder innerXContent(XContentBuilder builder, Params params)
                 throws IOException {
+            if (sliceId != null) {
+                builder.field("slice_id", sliceId);
+            }
             builder.field("total", total);
             if (params.paramAsBoolean(INCLUDE_UPDATED, true)) {
                 builder.field("updated", updated);
@@ -222,6 +340,17 @@ public class BulkByScrollTask extends CancellableTask {
                 builder.field("canceled", reasonCancelled);
             }
             builder.timeValueField("throttled_until_millis", "throttled_until", throttledUntil);
+            if (false == sliceStatuses.isEmpty()) {
+                builder.startArray("slices");
+                for (Status slice : sliceStatuses) {
+                    if (slice == null) {
+                        builder.nullValue();
+                    } else {
+                        slice.toXContent(builder, params);
+                    }
+                }
+                builder.endArray();
+            }
             return builder;
         }
 
@@ -234,6 +363,9 @@ public class BulkByScrollTask extends CancellableTask {
         }
 
         public void innerToString(StringBuilder builder) {
+            if (sliceId != null) {
+                builder.append("sliceId=").append(sliceId).append(',');
+            }
             builder.append("updated=").append(updated);
             builder.append(",created=").append(created);
             builder.append(",deleted=").append(deleted);
@@ -245,6 +377,9 @@ public class BulkByScrollTask extends CancellableTask {
                 builder.append(",canceled=").append(reasonCancelled);
             }
             builder.append(",throttledUntil=").append(throttledUntil);
+            if (false == sliceStatuses.isEmpty()) {
+                builder.append(",slices=").append(sliceStatuses);
+            }
         }
 
         @Override
@@ -252,6 +387,22 @@ public class BulkByScrollTask extends CancellableTask {
             return NAME;
         }
 
+        /**
+         * The id of the slice that this status is reporting or null if this isn't the status of a sub-slice.
+         */
+        @Nullable
+        public Integer getSliceId() {
+            return sliceId;
+        }
+
+        /**
+         * The status of each slice if the request was sliced, null for slices that haven't started yet. Empty if the request wasn't
+         * sliced.
+         */
+        public List<Status> getSliceStatuses() {
+            return sliceStatuses;
+        }
+
         /**
          * The total number of documents this request will process. 0 means we don't yet know or, possibly, there are actually 0 documents
          * to process. Its ok that these have the same meaning because any request with 0 actual documents should be quite short lived.
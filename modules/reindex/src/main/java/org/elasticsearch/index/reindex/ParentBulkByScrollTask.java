@@ -0,0 +1,155 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.tasks.TaskId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task for a request that has been split into slices, each of which is processed by a sub-request with its own {@link BulkByScrollTask}.
+ * The status of this task is the combined status of all of its slices and rethrottling it spreads the throttle over the slices that are
+ * still running.
+ */
+public class ParentBulkByScrollTask extends BulkByScrollTask {
+    /**
+     * The slices of the request. Null until the request has been sliced.
+     */
+    private volatile Slices slices;
+
+    public ParentBulkByScrollTask(long id, String type, String action, String description, TaskId parentTaskId,
+            float requestsPerSecond) {
+        super(id, type, action, description, parentTaskId, requestsPerSecond);
+    }
+
+    /**
+     * Set the number of slices the request was split into. Must be called before any of the slices are started.
+     */
+    void setSlices(int count) {
+        if (slices != null) {
+            throw new IllegalStateException("slices already set");
+        }
+        slices = new Slices(count);
+    }
+
+    /**
+     * Record the task processing a slice so it can be rethrottled and its status can be reported.
+     */
+    void setSliceTask(int sliceId, BulkByScrollTask task) {
+        slices.tasks.set(sliceId, task);
+    }
+
+    @Override
+    public Status getStatus() {
+        Slices slices = this.slices;
+        if (slices == null) {
+            return super.getStatus();
+        }
+        List<Status> sliceStatuses = new ArrayList<>(slices.tasks.length());
+        for (int sliceId = 0; sliceId < slices.tasks.length(); sliceId++) {
+            BulkIndexByScrollResponse response = slices.responses.get(sliceId);
+            if (response != null) {
+                sliceStatuses.add(response.getStatus());
+                continue;
+            }
+            BulkByScrollTask task = slices.tasks.get(sliceId);
+            sliceStatuses.add(task == null ? null : task.getStatus());
+        }
+        return new Status(sliceStatuses, getReasonCancelled());
+    }
+
+    @Override
+    void rethrottle(float newRequestsPerSecond) {
+        // Record the new throttle so slices that haven't started yet are started with their share of it.
+        super.rethrottle(newRequestsPerSecond);
+        Slices slices = this.slices;
+        if (slices == null) {
+            return;
+        }
+        List<BulkByScrollTask> running = new ArrayList<>(slices.tasks.length());
+        for (int sliceId = 0; sliceId < slices.tasks.length(); sliceId++) {
+            BulkByScrollTask task = slices.tasks.get(sliceId);
+            if (task != null && slices.responses.get(sliceId) == null && slices.failures.get(sliceId) == null) {
+                running.add(task);
+            }
+        }
+        for (BulkByScrollTask task : running) {
+            task.rethrottle(newRequestsPerSecond / running.size());
+        }
+    }
+
+    /**
+     * Record the response of a slice, responding to the listener if this was the last slice to finish.
+     */
+    void onSliceResponse(ActionListener<BulkIndexByScrollResponse> listener, int sliceId, BulkIndexByScrollResponse response) {
+        slices.responses.setOnce(sliceId, response);
+        recordSliceCompletionAndRespondIfAllDone(listener);
+    }
+
+    /**
+     * Record the failure of a slice, responding to the listener if this was the last slice to finish.
+     */
+    void onSliceFailure(ActionListener<BulkIndexByScrollResponse> listener, int sliceId, Exception e) {
+        slices.failures.setOnce(sliceId, e);
+        recordSliceCompletionAndRespondIfAllDone(listener);
+    }
+
+    private void recordSliceCompletionAndRespondIfAllDone(ActionListener<BulkIndexByScrollResponse> listener) {
+        Slices slices = this.slices;
+        if (slices.runningSlices.decrementAndGet() != 0) {
+            return;
+        }
+        List<BulkIndexByScrollResponse> responses = new ArrayList<>(slices.tasks.length());
+        Exception exception = null;
+        for (int sliceId = 0; sliceId < slices.tasks.length(); sliceId++) {
+            Exception failure = slices.failures.get(sliceId);
+            if (failure == null) {
+                responses.add(slices.responses.get(sliceId));
+            } else if (exception == null) {
+                exception = failure;
+            } else {
+                exception.addSuppressed(failure);
+            }
+        }
+        if (exception == null) {
+            listener.onResponse(new BulkIndexByScrollResponse(responses, getReasonCancelled()));
+        } else {
+            listener.onFailure(exception);
+        }
+    }
+
+    private static class Slices {
+        private final AtomicArray<BulkByScrollTask> tasks;
+        private final AtomicArray<BulkIndexByScrollResponse> responses;
+        private final AtomicArray<Exception> failures;
+        private final AtomicInteger runningSlices;
+
+        Slices(int count) {
+            tasks = new AtomicArray<>(count);
+            responses = new AtomicArray<>(count);
+            failures = new AtomicArray<>(count);
+            runningSlices = new AtomicInteger(count);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.support.tasks.BaseTasksRequest;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.tasks.Task;
 
 import java.io.IOException;
 
@@ -80,6 +81,18 @@ public class RethrottleRequest extends BaseTasksRequest<RethrottleRequest> {
         return validationException;
     }
 
+    @Override
+    public boolean match(Task task) {
+        if (super.match(task) == false) {
+            return false;
+        }
+        /*
+         * Slices are rethrottled through the task that sliced the request so it can spread the throttle over them. Rethrottling them
+         * directly would double up the throttle so they are only matched when they are explicitly targeted.
+         */
+        return getTaskId().isSet() || false == (task instanceof BulkByScrollTask && ((BulkByScrollTask) task).isSliceOfParent());
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
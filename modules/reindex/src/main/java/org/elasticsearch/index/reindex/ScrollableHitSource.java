@@ -49,11 +49,21 @@ import static java.util.Objects.requireNonNull;
  */
 public abstract class ScrollableHitSource implements Closeable {
     private final AtomicReference<String> scrollId = new AtomicReference<>();
+    /**
+     * The next batch if it was requested with {@link #prefetchNextScroll(TimeValue)} but hasn't been handed out by
+     * {@link #startNextScroll(TimeValue, Consumer)} yet.
+     */
+    private final AtomicReference<PrefetchedScroll> prefetched = new AtomicReference<>();
+    private final Consumer<Exception> onFailure;
+    private volatile boolean closed = false;
 
     protected final ESLogger logger;
     protected final BackoffPolicy backoffPolicy;
     protected final ThreadPool threadPool;
     protected final Runnable countSearchRetry;
+    /**
+     * Fails the request. Failures of a prefetched batch are held back until the batch is asked for.
+     */
     protected final Consumer<Exception> fail;
 
     public ScrollableHitSource(ESLogger logger, BackoffPolicy backoffPolicy, ThreadPool threadPool, Runnable countSearchRetry,
@@ -62,7 +72,8 @@ public abstract class ScrollableHitSource implements Closeable {
         this.backoffPolicy = backoffPolicy;
         this.threadPool = threadPool;
         this.countSearchRetry = countSearchRetry;
-        this.fail = fail;
+        this.onFailure = fail;
+        this.fail = this::onSearchFailure;
     }
 
     public final void start(Consumer<Response> onResponse) {
@@ -74,16 +85,50 @@ public abstract class ScrollableHitSource implements Closeable {
     }
     protected abstract void doStart(Consumer<? super Response> onResponse);
 
+    /**
+     * Fetch the next batch. If the batch was already requested with {@link #prefetchNextScroll(TimeValue)} then this hands it out as
+     * soon as it is available instead of sending another request and {@code extraKeepAlive} is ignored.
+     */
     public final void startNextScroll(TimeValue extraKeepAlive, Consumer<Response> onResponse) {
+        PrefetchedScroll prefetched = this.prefetched.getAndSet(null);
+        if (prefetched != null) {
+            prefetched.consume(onResponse);
+            return;
+        }
         doStartNextScroll(scrollId.get(), extraKeepAlive, response -> {
             setScroll(response.getScrollId());
             onResponse.accept(response);
         });
     }
+
+    /**
+     * Start fetching the next batch without waiting for the caller to ask for it so the search for the next batch can overlap with
+     * processing the current one. The batch is handed out by the next call to {@link #startNextScroll(TimeValue, Consumer)}. Only one
+     * batch is ever fetched ahead.
+     *
+     * @param extraKeepAlive extra time to keep the scroll alive on top of the request's keep alive, usually the time the caller might
+     *        wait for throttling before asking for the batch
+     */
+    public final void prefetchNextScroll(TimeValue extraKeepAlive) {
+        PrefetchedScroll prefetched = new PrefetchedScroll();
+        if (false == this.prefetched.compareAndSet(null, prefetched)) {
+            throw new IllegalStateException("already fetching the next batch");
+        }
+        doStartNextScroll(scrollId.get(), extraKeepAlive, response -> {
+            setScroll(response.getScrollId());
+            if (closed && Strings.hasLength(response.getScrollId())) {
+                // We were closed while fetching the batch so nobody is going to clear the scroll it returned
+                clearScroll(response.getScrollId());
+                return;
+            }
+            prefetched.onResponse(response);
+        });
+    }
     protected abstract void doStartNextScroll(String scrollId, TimeValue extraKeepAlive, Consumer<? super Response> onResponse);
-    
+
     @Override
     public void close() {
+        closed = true;
         String scrollId = this.scrollId.get();
         if (Strings.hasLength(scrollId)) {
             clearScroll(scrollId);
@@ -98,6 +143,64 @@ public abstract class ScrollableHitSource implements Closeable {
         this.scrollId.set(scrollId);
     }
 
+    private void onSearchFailure(Exception e) {
+        PrefetchedScroll prefetched = this.prefetched.get();
+        if (prefetched == null) {
+            onFailure.accept(e);
+        } else {
+            prefetched.onFailure(e);
+        }
+    }
+
+    /**
+     * A batch fetched ahead of time. Holds on to the response, or the failure, until someone asks for it.
+     */
+    private class PrefetchedScroll {
+        private Response response;
+        private Exception failure;
+        private Consumer<Response> onResponse;
+
+        void onResponse(Response response) {
+            Consumer<Response> onResponse;
+            synchronized (this) {
+                onResponse = this.onResponse;
+                if (onResponse == null) {
+                    this.response = response;
+                    return;
+                }
+            }
+            onResponse.accept(response);
+        }
+
+        void onFailure(Exception e) {
+            synchronized (this) {
+                if (onResponse == null) {
+                    failure = e;
+                    return;
+                }
+            }
+            onFailure.accept(e);
+        }
+
+        void consume(Consumer<Response> onResponse) {
+            Response response;
+            Exception failure;
+            synchronized (this) {
+                response = this.response;
+                failure = this.failure;
+                if (response == null && failure == null) {
+                    this.onResponse = onResponse;
+                    return;
+                }
+            }
+            if (failure != null) {
+                onFailure.accept(failure);
+            } else {
+                onResponse.accept(response);
+            }
+        }
+    }
+
     /**
      * Response from each scroll batch.
      */
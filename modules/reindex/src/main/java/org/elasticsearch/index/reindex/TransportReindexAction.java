@@ -36,9 +36,9 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
 import org.elasticsearch.action.support.HandledTransportAction;
-import org.elasticsearch.client.Client;
 import org.elasticsearch.client.ParentTaskAssigningClient;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -86,14 +86,14 @@ public class TransportReindexAction extends HandledTransportAction<ReindexReques
     private final ClusterService clusterService;
     private final ScriptService scriptService;
     private final AutoCreateIndex autoCreateIndex;
-    private final Client client;
+    private final NodeClient client;
     private final Set<String> remoteWhitelist;
     private final HttpServer httpServer;
 
     @Inject
     public TransportReindexAction(Settings settings, ThreadPool threadPool, ActionFilters actionFilters,
             IndexNameExpressionResolver indexNameExpressionResolver, ClusterService clusterService, ScriptService scriptService,
-            AutoCreateIndex autoCreateIndex, Client client, TransportService transportService, @Nullable HttpServer httpServer) {
+            AutoCreateIndex autoCreateIndex, NodeClient client, TransportService transportService, @Nullable HttpServer httpServer) {
         super(settings, ReindexAction.NAME, threadPool, transportService, actionFilters, indexNameExpressionResolver,
                 ReindexRequest::new);
         this.clusterService = clusterService;
@@ -110,6 +110,11 @@ public class TransportReindexAction extends HandledTransportAction<ReindexReques
         ClusterState state = clusterService.state();
         validateAgainstAliases(request.getSearchRequest(), request.getDestination(), request.getRemoteInfo(), indexNameExpressionResolver,
                 autoCreateIndex, state);
+        if (task instanceof ParentBulkByScrollTask) {
+            BulkByScrollParallelizationHelper.startSlices(client, taskManager, ReindexAction.INSTANCE, state,
+                    indexNameExpressionResolver, (ParentBulkByScrollTask) task, request, listener);
+            return;
+        }
         ParentTaskAssigningClient client = new ParentTaskAssigningClient(this.client, clusterService.localNode(), task);
         new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, client, threadPool, request, listener, scriptService, state).start();
     }
@@ -23,8 +23,8 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.HandledTransportAction;
-import org.elasticsearch.client.Client;
 import org.elasticsearch.client.ParentTaskAssigningClient;
+import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -49,13 +49,13 @@ import java.util.Map;
 import java.util.function.BiFunction;
 
 public class TransportUpdateByQueryAction extends HandledTransportAction<UpdateByQueryRequest, BulkIndexByScrollResponse> {
-    private final Client client;
+    private final NodeClient client;
     private final ScriptService scriptService;
     private final ClusterService clusterService;
 
     @Inject
     public TransportUpdateByQueryAction(Settings settings, ThreadPool threadPool, ActionFilters actionFilters,
-            IndexNameExpressionResolver indexNameExpressionResolver, Client client, TransportService transportService,
+            IndexNameExpressionResolver indexNameExpressionResolver, NodeClient client, TransportService transportService,
             ScriptService scriptService, ClusterService clusterService) {
         super(settings, UpdateByQueryAction.NAME, threadPool, transportService, actionFilters,
                 indexNameExpressionResolver, UpdateByQueryRequest::new);
@@ -67,6 +67,11 @@ public class TransportUpdateByQueryAction extends HandledTransportAction<UpdateB
     @Override
     protected void doExecute(Task task, UpdateByQueryRequest request, ActionListener<BulkIndexByScrollResponse> listener) {
         ClusterState state = clusterService.state();
+        if (task instanceof ParentBulkByScrollTask) {
+            BulkByScrollParallelizationHelper.startSlices(client, taskManager, UpdateByQueryAction.INSTANCE, state,
+                    indexNameExpressionResolver, (ParentBulkByScrollTask) task, request, listener);
+            return;
+        }
         ParentTaskAssigningClient client = new ParentTaskAssigningClient(this.client, clusterService.localNode(), task);
         new AsyncIndexBySearchAction((BulkByScrollTask) task, logger, client, threadPool, request, listener, scriptService, state).start();
     }
@@ -88,6 +88,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -460,6 +461,43 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         assertEquals(capturedDelay.get(), testTask.getStatus().getThrottled());
     }
 
+    public void testNextScrollIsFetchedWhileBulkIsRunning() throws Exception {
+        AtomicBoolean scrollStartedBeforeBulk = new AtomicBoolean();
+        DummyAbstractAsyncBulkByScrollAction action = new IndexingDummyAction() {
+            @Override
+            void sendBulkRequest(TimeValue thisBatchStartTime, BulkRequest request) {
+                scrollStartedBeforeBulk.set(client.lastScroll.get() != null);
+                super.sendBulkRequest(thisBatchStartTime, request);
+            }
+        };
+        Hit hit = new ScrollableHitSource.BasicHit("index", "type", "id", 0);
+        ScrollableHitSource.Response response = new ScrollableHitSource.Response(false, emptyList(), 2, singletonList(hit), null);
+        simulateScrollResponse(action, timeValueNanos(System.nanoTime()), 0, response);
+
+        // The bulk request finishes right away and picks up the scroll that was started before it was sent rather than starting another
+        assertBusy(() -> assertEquals(1, testTask.getStatus().getCreated()));
+        assertTrue("the next scroll should have been started before the bulk request was sent", scrollStartedBeforeBulk.get());
+        assertEquals(1, client.scrollAttempts.get());
+
+        // An empty batch finishes the request without fetching any more batches
+        InternalSearchHits hits = new InternalSearchHits(new InternalSearchHit[0], 0, 0);
+        InternalSearchResponse internalResponse = new InternalSearchResponse(hits, null, null, null, false, false);
+        client.lastScroll.get().listener.onResponse(new SearchResponse(internalResponse, scrollId(), 5, 5, randomLong(), null));
+        assertEquals(1, listener.get().getCreated());
+        assertEquals(1, client.scrollAttempts.get());
+    }
+
+    public void testNextScrollIsNotFetchedIfTheBatchReachesTheSize() throws Exception {
+        testRequest.setSize(1);
+        DummyAbstractAsyncBulkByScrollAction action = new IndexingDummyAction();
+        Hit hit = new ScrollableHitSource.BasicHit("index", "type", "id", 0);
+        ScrollableHitSource.Response response = new ScrollableHitSource.Response(false, emptyList(), 2, singletonList(hit), null);
+        simulateScrollResponse(action, timeValueNanos(System.nanoTime()), 0, response);
+
+        assertEquals(1, listener.get().getCreated());
+        assertEquals(0, client.scrollAttempts.get());
+    }
+
     /**
      * Execute a bulk retry test case. The total number of failures is random and the number of retries attempted is set to
      * testRequest.getMaxRetries and controled by the failWithRejection parameter.
@@ -670,6 +708,20 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         }
     }
 
+    /**
+     * An extension to {@linkplain DummyAbstractAsyncBulkByScrollAction} that indexes every hit it gets.
+     */
+    private class IndexingDummyAction extends DummyAbstractAsyncBulkByScrollAction {
+        @Override
+        protected BulkRequest buildBulk(Iterable<? extends ScrollableHitSource.Hit> docs) {
+            BulkRequest bulk = new BulkRequest();
+            for (ScrollableHitSource.Hit doc : docs) {
+                bulk.add(new IndexRequest("dest", doc.getType(), doc.getId()));
+            }
+            return bulk;
+        }
+    }
+
     /**
      * An extension to {@linkplain DummyAbstractAsyncBulkByScrollAction} that uses a 0 delaying backoff policy.
      */
@@ -686,6 +738,11 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
             super(searchRequest);
         }
 
+        @Override
+        DummyAbstractBulkByScrollRequest forSlice(TaskId slicingTask, SearchRequest slice) {
+            return doForSlice(new DummyAbstractBulkByScrollRequest(slice), slicingTask);
+        }
+
         @Override
         protected DummyAbstractBulkByScrollRequest self() {
             return this;
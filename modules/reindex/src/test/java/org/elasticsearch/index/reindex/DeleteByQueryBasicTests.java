@@ -208,4 +208,29 @@ public class DeleteByQueryBasicTests extends ReindexTestCase {
 
         assertHitCount(client().prepareSearch("test").setSize(0).get(), docs);
     }
+
+    public void testSlices() throws Exception {
+        indexRandom(true,
+                client().prepareIndex("test", "test", "1").setSource("foo", "a"),
+                client().prepareIndex("test", "test", "2").setSource("foo", "a"),
+                client().prepareIndex("test", "test", "3").setSource("foo", "b"),
+                client().prepareIndex("test", "test", "4").setSource("foo", "c"),
+                client().prepareIndex("test", "test", "5").setSource("foo", "d"),
+                client().prepareIndex("test", "test", "6").setSource("foo", "e"),
+                client().prepareIndex("test", "test", "7").setSource("foo", "f")
+        );
+        assertHitCount(client().prepareSearch("test").setTypes("test").setSize(0).get(), 7);
+
+        // Slice the request either explicitly or by the number of shards of the index
+        int slices = randomBoolean() ? between(2, 10) : AbstractBulkByScrollRequest.AUTO_SLICES;
+
+        // Deletes the two docs that matches "foo:a"
+        assertThat(deleteByQuery().source("test").filter(termQuery("foo", "a")).refresh(true).setSlices(slices).get(),
+                matcher().deleted(2));
+        assertHitCount(client().prepareSearch("test").setTypes("test").setSize(0).get(), 5);
+
+        // Delete remaining docs
+        assertThat(deleteByQuery().source("test").refresh(true).setSlices(slices).get(), matcher().deleted(5));
+        assertHitCount(client().prepareSearch("test").setTypes("test").setSize(0).get(), 0);
+    }
 }
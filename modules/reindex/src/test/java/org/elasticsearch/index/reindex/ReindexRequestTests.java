@@ -24,10 +24,14 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.index.reindex.remote.RemoteInfo;
+import org.elasticsearch.search.slice.SliceBuilder;
+import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
 
 import static java.util.Collections.emptyMap;
+import static org.elasticsearch.common.unit.TimeValue.parseTimeValue;
 import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.hamcrest.Matchers.containsString;
 
 /**
  * Tests some of the validation of {@linkplain ReindexRequest}. See reindex's rest tests for much more.
@@ -52,6 +56,48 @@ public class ReindexRequestTests extends ESTestCase {
                 e.getMessage());
     }
 
+    public void testReindexFromRemoteDoesNotSupportSlices() {
+        ReindexRequest reindex = request();
+        reindex.setRemoteInfo(new RemoteInfo(randomAsciiOfLength(5), randomAsciiOfLength(5), between(1, Integer.MAX_VALUE),
+                new BytesArray("real_query"), null, null, emptyMap()));
+        reindex.setSlices(between(2, Integer.MAX_VALUE));
+        ActionRequestValidationException e = reindex.validate();
+        assertEquals("Validation Failed: 1: reindex from remote sources doesn't support slices;", e.getMessage());
+    }
+
+    public void testSlicesDoesNotSupportSizeOrSlice() {
+        ReindexRequest reindex = request();
+        reindex.setSlices(between(2, Integer.MAX_VALUE));
+        reindex.setSize(between(1, Integer.MAX_VALUE));
+        reindex.getSearchRequest().source().slice(new SliceBuilder(0, 2));
+        ActionRequestValidationException e = reindex.validate();
+        assertThat(e.getMessage(), containsString("can't specify both [slice] and [slices]"));
+        assertThat(e.getMessage(), containsString("[size]"));
+    }
+
+    public void testForSlice() {
+        ReindexRequest reindex = request();
+        reindex.setAbortOnVersionConflict(randomBoolean());
+        reindex.setRefresh(randomBoolean());
+        reindex.setTimeout(parseTimeValue(randomTimeValue(), null, "test"));
+        reindex.setMaxRetries(between(0, 10));
+        reindex.setSlices(between(2, 10));
+        reindex.getDestination().setPipeline(randomAsciiOfLength(5));
+        TaskId slicingTask = new TaskId(randomAsciiOfLength(5), between(0, Integer.MAX_VALUE));
+        SearchRequest slice = new SearchRequest().indices("source");
+
+        ReindexRequest forSlice = reindex.forSlice(slicingTask, slice);
+        assertSame(slice, forSlice.getSearchRequest());
+        assertSame(reindex.getDestination(), forSlice.getDestination());
+        assertEquals(reindex.isAbortOnVersionConflict(), forSlice.isAbortOnVersionConflict());
+        assertEquals(reindex.isRefresh(), forSlice.isRefresh());
+        assertEquals(reindex.getTimeout(), forSlice.getTimeout());
+        assertEquals(reindex.getMaxRetries(), forSlice.getMaxRetries());
+        assertEquals(1, forSlice.getSlices());
+        assertFalse(forSlice.getShouldPersistResult());
+        assertEquals(slicingTask, forSlice.getParentTask());
+    }
+
     private ReindexRequest request() {
         ReindexRequest reindex = new ReindexRequest(new SearchRequest(), new IndexRequest());
         reindex.getSearchRequest().indices("source");
@@ -37,6 +37,7 @@ import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +107,7 @@ public class RoundTripTests extends ESTestCase {
         request.setWaitForActiveShards(randomIntBetween(0, 10));
         request.setScript(random().nextBoolean() ? null : randomScript());
         request.setRequestsPerSecond(between(0, Integer.MAX_VALUE));
+        request.setSlices(between(0, Integer.MAX_VALUE));
     }
 
     private void assertRequestEquals(AbstractBulkIndexByScrollRequest<?> request,
@@ -120,6 +122,7 @@ public class RoundTripTests extends ESTestCase {
         assertEquals(request.getRetryBackoffInitialTime(), tripped.getRetryBackoffInitialTime());
         assertEquals(request.getMaxRetries(), tripped.getMaxRetries());
         assertEquals(request.getRequestsPerSecond(), tripped.getRequestsPerSecond(), 0d);
+        assertEquals(request.getSlices(), tripped.getSlices());
     }
 
     public void testBulkByTaskStatus() throws IOException {
@@ -130,6 +133,21 @@ public class RoundTripTests extends ESTestCase {
         assertTaskStatusEquals(status, tripped);
     }
 
+    public void testBulkByTaskStatusWithSlices() throws IOException {
+        int slices = between(2, 10);
+        List<BulkByScrollTask.Status> sliceStatuses = new ArrayList<>(slices);
+        for (int i = 0; i < slices; i++) {
+            // Slices that haven't started yet don't have a status
+            sliceStatuses.add(rarely() ? null : randomSliceStatus(i));
+        }
+        BulkByScrollTask.Status status = new BulkByScrollTask.Status(sliceStatuses,
+                randomBoolean() ? null : randomSimpleString(random()));
+        BytesStreamOutput out = new BytesStreamOutput();
+        status.writeTo(out);
+        BulkByScrollTask.Status tripped = new BulkByScrollTask.Status(out.bytes().streamInput());
+        assertTaskStatusEquals(status, tripped);
+    }
+
     public void testReindexResponse() throws IOException {
         BulkIndexByScrollResponse response = new BulkIndexByScrollResponse(timeValueMillis(randomPositiveLong()), randomStatus(),
                 randomIndexingFailures(), randomSearchFailures(), randomBoolean());
@@ -162,12 +180,23 @@ public class RoundTripTests extends ESTestCase {
     }
 
     private BulkByScrollTask.Status randomStatus() {
-        return new BulkByScrollTask.Status(randomPositiveLong(), randomPositiveLong(), randomPositiveLong(), randomPositiveLong(),
-                randomInt(Integer.MAX_VALUE), randomPositiveLong(), randomPositiveLong(), randomPositiveLong(), randomPositiveLong(),
+        return new BulkByScrollTask.Status(randomBoolean() ? null : between(0, 10), randomPositiveLong(), randomPositiveLong(),
+                randomPositiveLong(), randomPositiveLong(), randomInt(Integer.MAX_VALUE), randomPositiveLong(), randomPositiveLong(),
+                randomPositiveLong(), randomPositiveLong(),
                 parseTimeValue(randomPositiveTimeValue(), "test"), abs(random().nextFloat()),
                 random().nextBoolean() ? null : randomSimpleString(random()), parseTimeValue(randomPositiveTimeValue(), "test"));
     }
 
+    /**
+     * Status of a slice with counts small enough that the counts of all slices can be summed up.
+     */
+    private BulkByScrollTask.Status randomSliceStatus(int sliceId) {
+        return new BulkByScrollTask.Status(sliceId, between(0, 10000), between(0, 10000), between(0, 10000), between(0, 10000),
+                between(0, 10000), between(0, 10000), between(0, 10000), between(0, 10000), between(0, 10000),
+                timeValueMillis(between(0, 10000)), abs(random().nextFloat()),
+                random().nextBoolean() ? null : randomSimpleString(random()), timeValueMillis(between(0, 10000)));
+    }
+
     private List<Failure> randomIndexingFailures() {
         return usually() ? emptyList()
                 : singletonList(new Failure(randomSimpleString(random()), randomSimpleString(random()),
@@ -249,5 +278,15 @@ public class RoundTripTests extends ESTestCase {
         assertEquals(expected.getRequestsPerSecond(), actual.getRequestsPerSecond(), 0f);
         assertEquals(expected.getReasonCancelled(), actual.getReasonCancelled());
         assertEquals(expected.getThrottledUntil(), actual.getThrottledUntil());
+        assertEquals(expected.getSliceId(), actual.getSliceId());
+        assertEquals(expected.getSliceStatuses().size(), actual.getSliceStatuses().size());
+        for (int i = 0; i < expected.getSliceStatuses().size(); i++) {
+            BulkByScrollTask.Status expectedSlice = expected.getSliceStatuses().get(i);
+            if (expectedSlice == null) {
+                assertNull(actual.getSliceStatuses().get(i));
+            } else {
+                assertTaskStatusEquals(expectedSlice, actual.getSliceStatuses().get(i));
+            }
+        }
     }
 }
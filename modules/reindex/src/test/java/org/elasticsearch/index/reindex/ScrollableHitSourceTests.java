@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.reindex.ScrollableHitSource.Response;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.util.Collections.emptyList;
+import static org.elasticsearch.common.unit.TimeValue.timeValueMillis;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Tests fetching batches ahead of time with {@link ScrollableHitSource#prefetchNextScroll(TimeValue)}.
+ */
+public class ScrollableHitSourceTests extends ESTestCase {
+    private final List<Exception> failures = new ArrayList<>();
+    private final TestHitSource source = new TestHitSource();
+
+    public void testPrefetchedResponseIsHandedOutByStartNextScroll() {
+        startWithScroll("first");
+        source.prefetchNextScroll(timeValueMillis(0));
+        assertThat(source.scrollRequests, contains("first"));
+
+        Response response = response("second");
+        boolean respondFirst = randomBoolean();
+        if (respondFirst) {
+            source.respond(response);
+        }
+        AtomicReference<Response> handedOut = new AtomicReference<>();
+        source.startNextScroll(timeValueMillis(0), handedOut::set);
+        if (false == respondFirst) {
+            assertNull(handedOut.get());
+            source.respond(response);
+        }
+        assertThat(handedOut.get(), sameInstance(response));
+        // the batch was already requested so asking for it doesn't send another request
+        assertThat(source.scrollRequests, hasSize(1));
+        assertThat(failures, empty());
+
+        // the next batch is fetched normally with the scroll id the prefetched batch returned
+        source.startNextScroll(timeValueMillis(0), handedOut::set);
+        assertThat(source.scrollRequests, contains("first", "second"));
+    }
+
+    public void testPrefetchFailureIsHeldBackUntilStartNextScroll() {
+        startWithScroll("first");
+        source.prefetchNextScroll(timeValueMillis(0));
+        Exception e = new Exception();
+        source.fail.accept(e);
+        // nobody has asked for the batch yet so the failure waits for them
+        assertThat(failures, empty());
+
+        source.startNextScroll(timeValueMillis(0), r -> fail("expected the failure"));
+        assertThat(failures, contains(e));
+    }
+
+    public void testFailureAfterPrefetchedBatchIsConsumedGoesStraightToOnFailure() {
+        startWithScroll("first");
+        source.prefetchNextScroll(timeValueMillis(0));
+        source.startNextScroll(timeValueMillis(0), r -> fail("expected the failure"));
+        assertThat(failures, empty());
+
+        // the batch has been asked for before it failed so the failure is reported as soon as it arrives
+        Exception e = new Exception();
+        source.fail.accept(e);
+        assertThat(failures, contains(e));
+
+        // once the prefetched batch has been handed out failures aren't held back anymore
+        Exception other = new Exception();
+        source.fail.accept(other);
+        assertThat(failures, contains(e, other));
+    }
+
+    public void testCloseWhilePrefetchingClearsReturnedScroll() {
+        startWithScroll("first");
+        source.prefetchNextScroll(timeValueMillis(0));
+        source.close();
+        assertThat(source.clearedScrolls, contains("first"));
+
+        // the prefetched batch comes back after the source was closed so its scroll has to be cleared as well
+        source.respond(response("second"));
+        assertThat(source.clearedScrolls, contains("first", "second"));
+        assertThat(failures, empty());
+    }
+
+    public void testPrefetchTwiceFails() {
+        startWithScroll("first");
+        source.prefetchNextScroll(timeValueMillis(0));
+        IllegalStateException e = expectThrows(IllegalStateException.class, () -> source.prefetchNextScroll(timeValueMillis(0)));
+        assertEquals("already fetching the next batch", e.getMessage());
+        assertThat(source.scrollRequests, hasSize(1));
+    }
+
+    private void startWithScroll(String scrollId) {
+        AtomicReference<Response> started = new AtomicReference<>();
+        source.start(started::set);
+        Response response = response(scrollId);
+        source.respond(response);
+        assertThat(started.get(), sameInstance(response));
+    }
+
+    private static Response response(String scrollId) {
+        return new Response(false, emptyList(), 0, emptyList(), scrollId);
+    }
+
+    private class TestHitSource extends ScrollableHitSource {
+        private final List<String> scrollRequests = new ArrayList<>();
+        private final List<String> clearedScrolls = new ArrayList<>();
+        private Consumer<? super Response> pendingResponse;
+
+        TestHitSource() {
+            super(ScrollableHitSourceTests.this.logger, BackoffPolicy.noBackoff(), null, () -> {},
+                    ScrollableHitSourceTests.this.failures::add);
+        }
+
+        void respond(Response response) {
+            Consumer<? super Response> pendingResponse = this.pendingResponse;
+            assertNotNull("no request is waiting for a response", pendingResponse);
+            this.pendingResponse = null;
+            pendingResponse.accept(response);
+        }
+
+        @Override
+        protected void doStart(Consumer<? super Response> onResponse) {
+            pendingResponse = onResponse;
+        }
+
+        @Override
+        protected void doStartNextScroll(String scrollId, TimeValue extraKeepAlive, Consumer<? super Response> onResponse) {
+            scrollRequests.add(scrollId);
+            pendingResponse = onResponse;
+        }
+
+        @Override
+        protected void clearScroll(String scrollId) {
+            clearedScrolls.add(scrollId);
+        }
+    }
+}
@@ -61,4 +61,27 @@ public class UpdateByQueryBasicTests extends ReindexTestCase {
         assertEquals(3, client().prepareGet("test", "test", "3").get().getVersion());
         assertEquals(2, client().prepareGet("test", "test", "4").get().getVersion());
     }
+
+    public void testSlices() throws Exception {
+        indexRandom(true, client().prepareIndex("test", "test", "1").setSource("foo", "a"),
+                client().prepareIndex("test", "test", "2").setSource("foo", "a"),
+                client().prepareIndex("test", "test", "3").setSource("foo", "b"),
+                client().prepareIndex("test", "test", "4").setSource("foo", "c"));
+        assertHitCount(client().prepareSearch("test").setTypes("test").setSize(0).get(), 4);
+
+        // Reindex all the docs, slicing the request either explicitly or by the number of shards of the index
+        int slices = randomBoolean() ? between(2, 10) : AbstractBulkByScrollRequest.AUTO_SLICES;
+        assertThat(updateByQuery().source("test").refresh(true).setSlices(slices).get(), matcher().updated(4));
+        for (int id = 1; id <= 4; id++) {
+            assertEquals(2, client().prepareGet("test", "test", Integer.toString(id)).get().getVersion());
+        }
+
+        // Now half of them
+        assertThat(updateByQuery().source("test").filter(termQuery("foo", "a")).refresh(true).setSlices(slices).get(),
+                matcher().updated(2));
+        assertEquals(3, client().prepareGet("test", "test", "1").get().getVersion());
+        assertEquals(3, client().prepareGet("test", "test", "2").get().getVersion());
+        assertEquals(2, client().prepareGet("test", "test", "3").get().getVersion());
+        assertEquals(2, client().prepareGet("test", "test", "4").get().getVersion());
+    }
 }
@@ -320,6 +320,38 @@ public class RemoteScrollableHitSourceTests extends ESTestCase {
         assertEquals(retriesAllowed, retries);
     }
 
+    public void testPrefetchNextScroll() throws Exception {
+        // only two responses are mocked so asking for the prefetched batch must not send another request
+        RemoteScrollableHitSource source = sourceWithMockedRemoteCall("start_ok.json", "scroll_ok.json");
+        AtomicBoolean called = new AtomicBoolean();
+        source.start(r -> {
+            assertEquals("AVToMiC250DjIiBO3yJ_", r.getHits().get(0).getId());
+            called.set(true);
+        });
+        assertTrue(called.get());
+        called.set(false);
+        source.prefetchNextScroll(timeValueMillis(0));
+        assertFalse(called.get());
+        source.startNextScroll(timeValueMillis(0), r -> {
+            assertEquals(FAKE_SCROLL_ID, r.getScrollId());
+            assertEquals("AVToMiDL50DjIiBO3yKA", r.getHits().get(0).getId());
+            called.set(true);
+        });
+        assertTrue(called.get());
+    }
+
+    public void testPrefetchNextScrollFailure() throws Exception {
+        RemoteScrollableHitSource source = sourceWithMockedRemoteCall("start_ok.json", "fail:rejection.json");
+        source.start(r -> {});
+        // the rejection isn't retried and the failure is held back until the batch is asked for
+        source.prefetchNextScroll(timeValueMillis(0));
+        AtomicBoolean called = new AtomicBoolean();
+        RuntimeException e = expectThrows(RuntimeException.class,
+                () -> source.startNextScroll(timeValueMillis(0), r -> called.set(true)));
+        assertEquals("failed", e.getMessage());
+        assertFalse(called.get());
+    }
+
     public void testThreadContextRestored() throws Exception {
         String header = randomAsciiOfLength(5);
         threadPool.getThreadContext().putHeader("test", header);
@@ -22,6 +22,8 @@ package org.elasticsearch.cloud.aws.blobstore;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
@@ -44,10 +46,18 @@ import java.nio.file.NoSuchFileException;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class S3BlobContainer extends AbstractBlobContainer {
 
+    /**
+     * The maximum number of keys a single multi-object delete request accepts.
+     */
+    private static final int MAX_BULK_DELETES = 1000;
+
     protected final S3BlobStore blobStore;
 
     protected final String keyPath;
@@ -122,6 +132,35 @@ public class S3BlobContainer extends AbstractBlobContainer {
         }
     }
 
+    @Override
+    public void deleteBlobsIgnoringIfNotExists(Collection<String> blobNames) throws IOException {
+        if (blobNames.isEmpty()) {
+            return;
+        }
+        // multi-object delete requests don't fail on keys that don't exist
+        final List<KeyVersion> keys = new ArrayList<>(Math.min(blobNames.size(), MAX_BULK_DELETES));
+        for (String blobName : blobNames) {
+            keys.add(new KeyVersion(buildKey(blobName)));
+            if (keys.size() == MAX_BULK_DELETES) {
+                deleteKeys(keys);
+                keys.clear();
+            }
+        }
+        if (keys.isEmpty() == false) {
+            deleteKeys(keys);
+        }
+    }
+
+    private void deleteKeys(List<KeyVersion> keys) throws IOException {
+        try {
+            DeleteObjectsRequest request = new DeleteObjectsRequest(blobStore.bucket());
+            request.setKeys(new ArrayList<>(keys));
+            blobStore.client().deleteObjects(request);
+        } catch (AmazonClientException e) {
+            throw new IOException("Exception when deleting [" + keys.size() + "] blobs", e);
+        }
+    }
+
     private OutputStream createOutput(final String blobName) throws IOException {
         // UploadS3OutputStream does buffering & retry logic internally
         return new DefaultS3OutputStream(blobStore, blobStore.bucket(), buildKey(blobName),
@@ -26,6 +26,8 @@ import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
 import com.amazonaws.services.s3.model.CopyObjectResult;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
@@ -176,6 +178,20 @@ class MockAmazonS3 extends AbstractAmazonS3 {
         blobs.remove(blobName);
     }
 
+    @Override
+    public DeleteObjectsResult deleteObjects(DeleteObjectsRequest deleteObjectsRequest)
+            throws AmazonClientException, AmazonServiceException {
+        List<DeleteObjectsResult.DeletedObject> deletedObjects = new ArrayList<>();
+        for (DeleteObjectsRequest.KeyVersion key : deleteObjectsRequest.getKeys()) {
+            // like S3, keys that don't exist are reported as deleted
+            blobs.remove(key.getKey());
+            DeleteObjectsResult.DeletedObject deletedObject = new DeleteObjectsResult.DeletedObject();
+            deletedObject.setKey(key.getKey());
+            deletedObjects.add(deletedObject);
+        }
+        return new DeleteObjectsResult(deletedObjects);
+    }
+
     private int getSize(InputStream stream) throws IOException {
         int size = stream.read(byteCounter);
         stream.reset(); // in case we ever need the size again
@@ -29,8 +29,10 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.elasticsearch.repositories.ESBlobStoreTestCase.writeRandomBlob;
@@ -128,6 +130,29 @@ public abstract class ESBlobStoreContainerTestCase extends ESTestCase {
         }
     }
 
+    public void testDeleteBlobsIgnoringIfNotExists() throws IOException {
+        try (final BlobStore store = newBlobStore()) {
+            final BlobContainer container = store.blobContainer(new BlobPath());
+            final List<String> blobNames = new ArrayList<>();
+            int numberOfBlobs = randomIntBetween(1, 10);
+            for (int i = 0; i < numberOfBlobs; i++) {
+                String name = "foo-" + i;
+                writeRandomBlob(container, name, randomIntBetween(10, 100));
+                blobNames.add(name);
+            }
+            writeRandomBlob(container, "bar", randomIntBetween(10, 100));
+            // blobs that don't exist are ignored
+            blobNames.add("baz");
+            container.deleteBlobsIgnoringIfNotExists(blobNames);
+            assertThat(container.listBlobsByPrefix("foo-").size(), equalTo(0));
+            assertThat(container.listBlobs().size(), equalTo(1));
+            assertTrue(container.blobExists("bar"));
+
+            // deleting the same blobs again does not raise
+            container.deleteBlobsIgnoringIfNotExists(blobNames);
+        }
+    }
+
     public void testVerifyOverwriteFails() throws IOException {
         try (final BlobStore store = newBlobStore()) {
             final String blobName = "foobar";
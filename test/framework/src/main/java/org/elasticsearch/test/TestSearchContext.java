@@ -18,6 +18,7 @@
  */
 package org.elasticsearch.test;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -224,7 +225,7 @@ public class TestSearchContext extends SearchContext {
 
     @Override
     public List<RescoreSearchContext> rescore() {
-        return null;
+        return Collections.emptyList();
     }
 
     @Override
@@ -131,6 +131,7 @@ public abstract class AbstractSimpleTransportTestCase extends ESTestCase {
                 .put(Node.NODE_NAME_SETTING.getKey(), name)
                 .put(TransportService.TRACE_LOG_INCLUDE_SETTING.getKey(), "")
                 .put(TransportService.TRACE_LOG_EXCLUDE_SETTING.getKey(), "NOTHING")
+                .put(Transport.TRANSPORT_COMPRESSION_SCHEME.getKey(), randomFrom("deflate", "lz4"))
                 .build(),
             version);
         service.acceptIncomingRequests();